@@ -0,0 +1,91 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * La classe {@code BenchmarkCorpus} fournit les corpus des benchmarks : les fichiers
+ * {@code sample-corpus*.txt} fournis avec le projet, mis bout à bout et répétés jusqu'à la taille voulue.
+ *
+ * Les petits corpus sont construits en mémoire ({@link #text(int)}) ; les gros corpus (jusqu'au
+ * gigaoctet) sont écrits une fois dans le dossier temporaire ({@link #file(int)}) et relus en flux.
+ */
+public final class BenchmarkCorpus {
+
+    private static final String[] SAMPLES = {
+            "input/sample-corpus1.txt", "input/sample-corpus2.txt",
+            "input/sample-corpus3.txt", "input/sample-corpus4.txt"
+    };
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * @return le contenu des corpus fournis, mis bout à bout
+     * @throws RuntimeException si un corpus est introuvable ou illisible
+     */
+    public static String sample() {
+        StringBuilder sb = new StringBuilder();
+        for (String resource : SAMPLES) {
+            try (InputStream input = BenchmarkCorpus.class.getClassLoader().getResourceAsStream(resource)) {
+                if (input == null) {
+                    throw new RuntimeException("Corpus introuvable : " + resource);
+                }
+                sb.append(new String(input.readAllBytes(), StandardCharsets.UTF_8)).append('\n');
+            } catch (IOException e) {
+                throw new RuntimeException("Erreur lors de la lecture du corpus : " + resource, e);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Construit en mémoire un corpus d'environ {@code sizeMb} millions de caractères.
+     *
+     * @param sizeMb la taille voulue, en Mio de caractères
+     * @return le corpus
+     */
+    public static String text(int sizeMb) {
+        String sample = sample();
+        long size = (long) sizeMb << 20;
+        StringBuilder sb = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, size + sample.length()));
+        while (sb.length() < size) {
+            sb.append(sample);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Retourne un fichier UTF-8 d'au moins {@code sizeMb} Mio, écrit dans le dossier temporaire
+     * au premier appel puis réutilisé.
+     *
+     * @param sizeMb la taille voulue, en Mio
+     * @return le chemin du fichier
+     * @throws RuntimeException si le fichier ne peut pas être écrit
+     */
+    public static Path file(int sizeMb) {
+        long size = (long) sizeMb << 20;
+        Path path = Path.of(System.getProperty("java.io.tmpdir"), "analyzer-bench-" + sizeMb + "mb.txt");
+        try {
+            if (Files.exists(path) && Files.size(path) >= size) {
+                return path;
+            }
+            byte[] sample = sample().getBytes(StandardCharsets.UTF_8);
+            Path temp = Files.createTempFile(path.getParent(), "analyzer-bench-", ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                for (long written = 0; written < size; written += sample.length) {
+                    out.write(sample);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            return path;
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du corpus : " + path, e);
+        }
+    }
+}
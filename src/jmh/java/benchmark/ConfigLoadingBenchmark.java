@@ -0,0 +1,80 @@
+package benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import logiciel2.CompiledKeymap;
+import logiciel2.ExtendedKeyboardLayoutFactory;
+import logiciel2.JsonLoader;
+import logiciel2.KeyboardsJson;
+import logiciel2.KeymapJson;
+import logiciel2.KeymapJsonLoader;
+import logiciel2.WeightProfilesJson;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks du chargement des configurations JSON ({@link JsonLoader}, {@link KeymapJsonLoader}),
+ * face à un {@code ObjectMapper} créé à chaque chargement, et de la compilation d'une disposition.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ConfigLoadingBenchmark {
+
+    /**
+     * Disposition compilée.
+     */
+    @Param({"FR", "EN"})
+    public String layout;
+
+    private KeyboardsJson keyboards;
+    private KeymapJson keymap;
+
+    @Setup
+    public void setup() {
+        keyboards = JsonLoader.loadKeyboards("config/keyboards.json");
+        keymap = KeymapJsonLoader.loadKeymap("config/keymap.json");
+    }
+
+    @Benchmark
+    public KeyboardsJson loadKeyboards() {
+        return JsonLoader.loadKeyboards("config/keyboards.json");
+    }
+
+    @Benchmark
+    public KeymapJson loadKeymap() {
+        return KeymapJsonLoader.loadKeymap("config/keymap.json");
+    }
+
+    @Benchmark
+    public WeightProfilesJson loadWeightProfiles() {
+        return JsonLoader.loadWeightProfiles("config/weights.json");
+    }
+
+    @Benchmark
+    public KeyboardsJson loadKeyboardsNewMapper() throws IOException {
+        try (InputStream input = ConfigLoadingBenchmark.class.getClassLoader().getResourceAsStream("config/keyboards.json")) {
+            return new ObjectMapper().readValue(input, KeyboardsJson.class);
+        }
+    }
+
+    @Benchmark
+    public CompiledKeymap compileLayout() {
+        CompiledKeymap compiled = ExtendedKeyboardLayoutFactory.compile(
+                ExtendedKeyboardLayoutFactory.buildLayout(keyboards, layout), keymap);
+        compiled.movements();
+        return compiled;
+    }
+}
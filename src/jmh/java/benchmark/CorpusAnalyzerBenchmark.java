@@ -0,0 +1,65 @@
+package benchmark;
+
+import logiciel1.CorpusAnalyzer;
+import logiciel1.NGramCounts;
+import logiciel1.NGramFrequency;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks du comptage de n-grammes sur un texte en mémoire ({@link CorpusAnalyzer}),
+ * par taille de corpus et ordre de n-gramme.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CorpusAnalyzerBenchmark {
+
+    /**
+     * Taille du corpus, en Mio de caractères.
+     */
+    @Param({"1", "64"})
+    public int sizeMb;
+
+    /**
+     * Ordre des n-grammes comptés.
+     */
+    @Param({"1", "2", "3"})
+    public int order;
+
+    private final CorpusAnalyzer analyzer = new CorpusAnalyzer();
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = BenchmarkCorpus.text(sizeMb);
+    }
+
+    @Benchmark
+    public Map<String, Integer> countNGram() {
+        return analyzer.countNGram(text, order);
+    }
+
+    @Benchmark
+    public List<NGramFrequency> nGramList() {
+        return analyzer.nGramList(text, order);
+    }
+
+    @Benchmark
+    public NGramCounts countNGrams() {
+        return analyzer.countNGrams(text, order);
+    }
+}
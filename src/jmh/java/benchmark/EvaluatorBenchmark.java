@@ -0,0 +1,101 @@
+package benchmark;
+
+import logiciel1.CorpusAnalyzer;
+import logiciel1.NGramCounts;
+import logiciel1.NGramFrequency;
+import logiciel2.CompiledKeymap;
+import logiciel2.EvaluationReport;
+import logiciel2.ExtendedKeyboardLayout;
+import logiciel2.ExtendedKeyboardLayoutFactory;
+import logiciel2.ExtendedLayoutEvaluator;
+import logiciel2.JsonLoader;
+import logiciel2.KeyboardsJson;
+import logiciel2.KeymapJson;
+import logiciel2.KeymapJsonLoader;
+import logiciel2.PackedNGrams;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks de l'évaluation d'une disposition ({@link ExtendedLayoutEvaluator}) à partir des n-grammes
+ * d'un corpus déjà comptés : listes de {@code NGramFrequency}, tables, n-grammes convertis en touches,
+ * noyau vectoriel et rapport détaillé ({@link ExtendedLayoutEvaluator#evaluateDetailed}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class EvaluatorBenchmark {
+
+    /**
+     * Taille du corpus, en Mio de caractères.
+     */
+    @Param({"1", "64"})
+    public int sizeMb;
+
+    /**
+     * Disposition évaluée.
+     */
+    @Param({"FR", "EN"})
+    public String layout;
+
+    private ExtendedLayoutEvaluator evaluator;
+    private NGramCounts counts;
+    private List<NGramFrequency> unigrams;
+    private List<NGramFrequency> bigrams;
+    private List<NGramFrequency> trigrams;
+    private ExtendedKeyboardLayout extLayout;
+    private KeymapJson keymap;
+    private CompiledKeymap compiled;
+    private PackedNGrams packed;
+
+    @Setup
+    public void setup() {
+        counts = new CorpusAnalyzer().countNGrams(BenchmarkCorpus.text(sizeMb), 1, 2, 3);
+        unigrams = counts.unigrams();
+        bigrams = counts.bigrams();
+        trigrams = counts.trigrams();
+        evaluator = JsonLoader.loadWeightProfiles("config/weights.json").profiles.get("DEFAUT").toEvaluator();
+        KeyboardsJson keyboards = JsonLoader.loadKeyboards("config/keyboards.json");
+        keymap = KeymapJsonLoader.loadKeymap("config/keymap.json");
+        extLayout = ExtendedKeyboardLayoutFactory.buildLayout(keyboards, layout);
+        compiled = ExtendedKeyboardLayoutFactory.compile(extLayout, keymap);
+        packed = PackedNGrams.of(counts, compiled);
+    }
+
+    @Benchmark
+    public double evaluateLists() {
+        return evaluator.evaluate(unigrams, bigrams, trigrams, extLayout, keymap);
+    }
+
+    @Benchmark
+    public double evaluateCounts() {
+        return evaluator.evaluate(counts, compiled);
+    }
+
+    @Benchmark
+    public double evaluatePacked() {
+        return evaluator.evaluate(packed);
+    }
+
+    @Benchmark
+    public double evaluateVectorized() {
+        return evaluator.evaluateVectorized(packed);
+    }
+
+    @Benchmark
+    public EvaluationReport evaluateDetailed() {
+        return evaluator.evaluateDetailed(counts, compiled);
+    }
+}
@@ -0,0 +1,70 @@
+package benchmark;
+
+import logiciel1.CorpusAnalyzer;
+import logiciel1.FileExport;
+import logiciel1.NGramCounts;
+import logiciel1.NGramFrequency;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks de l'export CSV des n-grammes d'un corpus ({@link FileExport}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ExportBenchmark {
+
+    /**
+     * Taille du corpus, en Mio de caractères.
+     */
+    @Param({"1", "64"})
+    public int sizeMb;
+
+    private final FileExport exporter = new FileExport();
+    private NGramCounts counts;
+    private List<NGramFrequency> unigrams;
+    private List<NGramFrequency> bigrams;
+    private List<NGramFrequency> trigrams;
+    private Path output;
+
+    @Setup
+    public void setup() throws IOException {
+        counts = new CorpusAnalyzer().countNGrams(BenchmarkCorpus.text(sizeMb), 1, 2, 3);
+        unigrams = counts.unigrams();
+        bigrams = counts.bigrams();
+        trigrams = counts.trigrams();
+        output = Files.createTempFile("analyzer-bench-", ".csv");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public void exportToCsv() {
+        exporter.exportToCsv(output.toString(), unigrams, bigrams, trigrams);
+    }
+
+    @Benchmark
+    public void exportCounts() {
+        exporter.export(output.toString(), counts);
+    }
+}
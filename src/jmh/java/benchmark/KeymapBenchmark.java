@@ -0,0 +1,68 @@
+package benchmark;
+
+import logiciel2.CompiledKeymap;
+import logiciel2.ExtendedKeyboardLayout;
+import logiciel2.ExtendedKeyboardLayoutFactory;
+import logiciel2.JsonLoader;
+import logiciel2.KeyboardsJson;
+import logiciel2.KeymapJson;
+import logiciel2.KeymapJsonLoader;
+import logiciel2.KeymapService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks de la conversion caractère -> touches physiques, sur les caractères des corpus fournis :
+ * {@link KeymapService#getPhysicalKeysForChar} face à la table compilée ({@link CompiledKeymap}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class KeymapBenchmark {
+
+    /**
+     * Disposition évaluée.
+     */
+    @Param({"FR", "EN"})
+    public String layout;
+
+    private char[] chars;
+    private ExtendedKeyboardLayout extLayout;
+    private KeymapJson keymap;
+    private CompiledKeymap compiled;
+
+    @Setup
+    public void setup() {
+        chars = BenchmarkCorpus.sample().toCharArray();
+        KeyboardsJson keyboards = JsonLoader.loadKeyboards("config/keyboards.json");
+        keymap = KeymapJsonLoader.loadKeymap("config/keymap.json");
+        extLayout = ExtendedKeyboardLayoutFactory.buildLayout(keyboards, layout);
+        compiled = ExtendedKeyboardLayoutFactory.compile(extLayout, keymap);
+    }
+
+    @Benchmark
+    public void getPhysicalKeysForChar(Blackhole bh) {
+        for (char c : chars) {
+            bh.consume(KeymapService.getPhysicalKeysForChar(c, extLayout, keymap));
+        }
+    }
+
+    @Benchmark
+    public void compiledKeysFor(Blackhole bh) {
+        for (char c : chars) {
+            bh.consume(compiled.keysFor(c));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package benchmark;
+
+import logiciel1.CorpusAnalyzer;
+import logiciel1.FileReader;
+import logiciel1.NGramCounts;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks du comptage en flux des unigrams, bigrams et trigrams d'un fichier,
+ * jusqu'à un corpus d'un gigaoctet (le fichier est généré au premier lancement).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class StreamingCorpusBenchmark {
+
+    /**
+     * Taille du fichier, en Mio.
+     */
+    @Param({"64", "1024"})
+    public int sizeMb;
+
+    private final CorpusAnalyzer analyzer = new CorpusAnalyzer();
+    private Path file;
+
+    @Setup
+    public void setup() {
+        file = BenchmarkCorpus.file(sizeMb);
+    }
+
+    @Benchmark
+    public NGramCounts countNGramsFromFile() throws IOException {
+        try (Reader reader = new FileReader().openReader(file.toString())) {
+            return analyzer.countNGrams(reader, 1, 2, 3);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package logiciel2;
+
+import benchmark.BenchmarkCorpus;
+import logiciel1.CorpusAnalyzer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks du noyau de score ({@link ScoringKernel}) : boucle scalaire face à la version vectorielle
+ * ({@link VectorScoringKernel}), sur les mêmes tableaux de types de mouvements et d'occurrences.
+ *
+ * Les deux versions sont appelées directement : la version scalaire est donc mesurée même si
+ * les benchmarks sont lancés avec {@code --add-modules jdk.incubator.vector}. Ce benchmark est dans
+ * le paquet {@code logiciel2} pour accéder aux deux implémentations, qui n'en sont pas publiques.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ScoringKernelBenchmark {
+
+    /**
+     * Nombre de copies bout à bout des entrées du corpus (bigrams et trigrams convertis en touches).
+     */
+    @Param({"1", "16", "256"})
+    public int copies;
+
+    /**
+     * Disposition évaluée.
+     */
+    @Param({"FR", "EN"})
+    public String layout;
+
+    private int[] movementIds;
+    private long[] counts;
+    private double[] weights;
+
+    @Setup
+    public void setup() {
+        KeyboardsJson keyboards = JsonLoader.loadKeyboards("config/keyboards.json");
+        KeymapJson keymap = KeymapJsonLoader.loadKeymap("config/keymap.json");
+        CompiledKeymap compiled = ExtendedKeyboardLayoutFactory.compile(
+                ExtendedKeyboardLayoutFactory.buildLayout(keyboards, layout), keymap);
+        PackedNGrams packed = PackedNGrams.of(new CorpusAnalyzer().countNGrams(BenchmarkCorpus.sample(), 1, 2, 3), compiled);
+        weights = JsonLoader.loadWeightProfiles("config/weights.json").profiles.get("DEFAUT").toEvaluator().movementWeights();
+
+        int size = packed.size();
+        movementIds = new int[size * copies];
+        counts = new long[size * copies];
+        for (int c = 0; c < copies; c++) {
+            System.arraycopy(packed.movementIds(), 0, movementIds, c * size, size);
+            System.arraycopy(packed.counts(), 0, counts, c * size, size);
+        }
+    }
+
+    @Benchmark
+    public double scalarWeightedSum() {
+        return ScoringKernel.scalarWeightedSum(movementIds, counts, weights);
+    }
+
+    @Benchmark
+    public double vectorWeightedSum() {
+        return VectorScoringKernel.weightedSum(movementIds, counts, weights);
+    }
+
+    @Benchmark
+    public double weightedSum() {
+        return ScoringKernel.weightedSum(movementIds, counts, weights);
+    }
+}
@@ -1,3 +1,4 @@
+import java.util.Arrays;
 import logiciel1.*;
 import logiciel2.*;
 
@@ -17,8 +18,10 @@ public class Main {
      *
      * @param args les arguments de la ligne de commande :
      *             <ul>
-     *               <li>1 : Lancer l'analyseur de texte.</li>
-     *               <li>2 : Lancer l'évaluateur de disposition clavier.</li>
+     *               <li>1 : Lancer l'analyseur de texte (suivi éventuellement d'un dossier ou d'un motif glob
+     *               pour analyser un lot de fichiers).</li>
+     *               <li>2 : Lancer l'évaluateur de disposition clavier (suivi éventuellement d'un fichier
+     *               binaire de n-grammes à évaluer à la place d'un corpus).</li>
      *             </ul>
      */
     public static void main(String[] args) {
@@ -26,14 +29,26 @@ public class Main {
             System.out.println("Usage : build/libs/les-biens-lothsavan-projet-cpoo5-24-25-all.jar");
             System.out.println("Options :");
             System.out.println("  1 -> Analyseur de texte");
+            System.out.println("  1 --cache -> Analyseur de texte, n-grammes conservés dans le cache sur disque");
+            System.out.println("  1 <dossier|glob> [--par-fichier] -> Analyse d'un lot de fichiers");
+            System.out.println("  1 --incremental <fichier> <fichier-etat> -> Analyse incrémentale d'un fichier qui grandit");
+            System.out.println("  1 --approx <fichier> <n> [k] -> n-grammes les plus fréquents, en mémoire bornée");
             System.out.println("  2 -> Évaluateur de disposition clavier");
+            System.out.println("  2 --cache -> Évaluateur de disposition clavier, n-grammes conservés dans le cache sur disque");
+            System.out.println("  2 <fichier.ngb> -> Évaluation depuis un fichier binaire de n-grammes");
+            System.out.println("  2 --optimiser <FR|EN> <corpus> [--graine N] [--iterations N] [--bloquer a,b] -> Optimisation d'une disposition");
+            System.out.println("  2 --matrice <sortie.csv|sortie.json> <corpus>... -> Matrice dispositions × corpus × profils de poids");
+            System.out.println("  2 --flux <FR|EN> <fichier> -> Évaluation sur la suite des touches frappées, en une passe");
+            System.out.println("  2 --pipeline <dossier-sortie> <dossier|glob>... -> Analyse, export et évaluation d'un lot en pipeline");
+            System.out.println("  2 --serveur [port] [dossier-config] -> Service HTTP local de notation (POST /score), configuration rechargée à chaud");
+            System.out.println("  2 --charge <url> <corpus> [clients] [requêtes] -> Latences du service sous charge (p50, p99)");
             return;
         }
 
         String choix = args[0];
         switch (choix) {
-            case "1" -> Main1.main(new String[0]);
-            case "2" -> Main2.main(new String[0]);
+            case "1" -> Main1.main(Arrays.copyOfRange(args, 1, args.length));
+            case "2" -> Main2.main(Arrays.copyOfRange(args, 1, args.length));
             default -> System.out.println("Option invalide. Utilisez 1 ou 2.");
         }
     }
@@ -0,0 +1,328 @@
+package logiciel1;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * La classe {@code ApproximateCorpusAnalyzer} est une implémentation de {@code CorpusProcessor}
+ * qui estime les n-grammes les plus fréquents avec une mémoire fixe, quelle que soit la taille
+ * du corpus et quel que soit l'ordre des n-grammes (y compris au-delà de {@link NGramTable#MAX_ORDER}).
+ *
+ * Chaque ordre combine un résumé Space-Saving (les n-grammes les plus fréquents et leur erreur
+ * maximale garantie) et un sketch Count-Min (qui resserre les comptes). Le résultat
+ * ({@link HeavyHitters}) donne les bornes d'erreur obtenues. Le texte est filtré comme par
+ * {@link CorpusAnalyzer#countNGram(String, int)} : sur un corpus dont le nombre de n-grammes distincts
+ * ne dépasse pas la capacité, les comptes sont exacts.
+ *
+ * Au-delà de {@link NGramTable#MAX_ORDER} caractères, un n-gramme est identifié par une empreinte
+ * de 64 bits calculée par hachage glissant, et sa chaîne n'est construite que lorsqu'il entre
+ * dans le résumé.
+ *
+ * Exemple :
+ * <pre>
+ * ApproximateCorpusAnalyzer analyzer = new ApproximateCorpusAnalyzer(4L &lt;&lt; 20);
+ * HeavyHitters top = analyzer.summarize(reader, 5).get(5);
+ * System.out.println(top.summary());
+ * </pre>
+ */
+public class ApproximateCorpusAnalyzer implements CorpusProcessor {
+
+    /**
+     * Mémoire allouée par défaut à chaque ordre de n-gramme (en octets).
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 16L << 20;
+
+    /**
+     * Nombre de lignes du sketch Count-Min (probabilité d'échec {@code e^-4}, soit environ 2 %).
+     */
+    public static final int DEFAULT_SKETCH_DEPTH = 4;
+
+    /**
+     * Mémoire occupée par un compteur du résumé (tableaux du tas et de la table d'index),
+     * hors chaînes des n-grammes de plus de {@link NGramTable#MAX_ORDER} caractères.
+     */
+    static final int BYTES_PER_COUNTER = 64;
+
+    private static final long HASH_BASE = 0x100000001B3L;
+
+    private final int capacity;
+    private final int sketchWidth;
+    private final int sketchDepth;
+
+    /**
+     * Construit un analyseur avec un budget de {@link #DEFAULT_MEMORY_BUDGET} octets par ordre.
+     */
+    public ApproximateCorpusAnalyzer() {
+        this(DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Construit un analyseur dont chaque ordre de n-gramme occupe au plus {@code memoryBudget} octets :
+     * trois quarts pour le résumé, un quart pour le sketch.
+     *
+     * @param memoryBudget la mémoire allouée à chaque ordre (en octets)
+     * @throws IllegalArgumentException si le budget est trop petit
+     */
+    public ApproximateCorpusAnalyzer(long memoryBudget) {
+        this((int) Math.min(1 << 28, memoryBudget * 3 / 4 / BYTES_PER_COUNTER),
+                (int) Math.min(1 << 30, Long.highestOneBit(Math.max(1, memoryBudget / 4 / (8L * DEFAULT_SKETCH_DEPTH)))),
+                DEFAULT_SKETCH_DEPTH);
+    }
+
+    /**
+     * Construit un analyseur aux dimensions explicites.
+     *
+     * @param capacity le nombre de n-grammes suivis par ordre (erreur garantie ≤ {@code N / capacity})
+     * @param sketchWidth le nombre de compteurs par ligne du sketch (erreur du sketch ≤ {@code e × N / sketchWidth})
+     * @param sketchDepth le nombre de lignes du sketch (probabilité d'échec ≤ {@code e^-sketchDepth})
+     * @throws IllegalArgumentException si une dimension est invalide
+     */
+    public ApproximateCorpusAnalyzer(int capacity, int sketchWidth, int sketchDepth) {
+        if (capacity < 1 || sketchWidth < 1 || sketchDepth < 1) {
+            throw new IllegalArgumentException("Dimensions invalides : " + capacity + ", " + sketchWidth + ", " + sketchDepth);
+        }
+        this.capacity = capacity;
+        this.sketchWidth = sketchWidth;
+        this.sketchDepth = sketchDepth;
+    }
+
+    /**
+     * Estime les n-grammes les plus fréquents d'une chaîne.
+     *
+     * @param contenu la chaîne de caractères à analyser
+     * @param n la taille des n-grammes à extraire (au moins 1)
+     * @return les n-grammes les plus fréquents et leurs bornes d'erreur
+     * @throws IllegalArgumentException si {@code n} est inférieur à 1
+     */
+    public HeavyHitters summarize(String contenu, int n) {
+        Summarizer summarizer = new Summarizer(n);
+        for (int i = 0; i < contenu.length(); i++) {
+            summarizer.accept(contenu.charAt(i));
+        }
+        return summarizer.result().get(n);
+    }
+
+    /**
+     * Estime en une seule passe les n-grammes les plus fréquents de plusieurs ordres, en lisant
+     * un flux par blocs de {@link CorpusAnalyzer#CHUNK_SIZE} caractères.
+     * Le flux n'est pas fermé par cette méthode.
+     *
+     * @param reader le flux de caractères à analyser
+     * @param orders les tailles des n-grammes à extraire (au moins 1)
+     * @return les n-grammes les plus fréquents de chaque ordre, indexés par ordre
+     * @throws IllegalArgumentException si aucun ordre n'est donné ou si un ordre est inférieur à 1
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de la lecture
+     */
+    public Map<Integer, HeavyHitters> summarize(Reader reader, int... orders) {
+        Summarizer summarizer = new Summarizer(orders);
+        char[] chunk = new char[CorpusAnalyzer.CHUNK_SIZE];
+        try {
+            int read;
+            while ((read = reader.read(chunk, 0, chunk.length)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    summarizer.accept(chunk[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du corpus", e);
+        }
+        return summarizer.result();
+    }
+
+    /**
+     * Estime les occurrences des n-grammes les plus fréquents d'une chaîne.
+     * Seuls les n-grammes retenus par le résumé figurent dans la map.
+     *
+     * @param contenu la chaîne de caractères à analyser
+     * @param n la taille des n-grammes à extraire (au moins 1)
+     * @return une map associant chaque n-gramme retenu à son nombre estimé d'occurrences
+     */
+    @Override
+    public Map<String, Integer> countNGram(String contenu, int n) {
+        HeavyHitters top = summarize(contenu, n);
+        Map<String, Integer> map = new HashMap<>(top.size() * 2);
+        for (NGramFrequency freq : top.list()) {
+            map.put(freq.nGram(), freq.frequency());
+        }
+        return map;
+    }
+
+    /**
+     * Estime les occurrences des n-grammes les plus fréquents d'une chaîne, dans une table primitive.
+     *
+     * Le total de la table est la somme des estimations retenues, et non le nombre de n-grammes
+     * du texte ({@link HeavyHitters#total()}).
+     *
+     * @param contenu la chaîne de caractères à analyser
+     * @param n la taille des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return une table des n-grammes retenus et de leurs nombres estimés d'occurrences
+     * @throws IllegalArgumentException si {@code n} n'est pas compris entre 1 et {@link NGramTable#MAX_ORDER}
+     */
+    @Override
+    public NGramTable countNGramTable(String contenu, int n) {
+        NGramTable.checkOrder(n);
+        return summarize(contenu, n).table();
+    }
+
+    /**
+     * Estime en une seule passe les n-grammes les plus fréquents de plusieurs ordres d'une chaîne.
+     * Comme pour {@link #countNGramTable(String, int)}, le total de chaque table est la somme des
+     * estimations retenues : dès que le résumé est plein, il ne correspond plus au nombre de n-grammes
+     * du texte, et une évaluation normalisée par ces totaux n'est qu'approchée. Pour connaître
+     * le nombre réel de n-grammes lus, utiliser {@link #summarize(Reader, int...)}.
+     *
+     * @param contenu la chaîne de caractères à analyser
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return les tables des n-grammes retenus de chaque ordre demandé
+     * @throws IllegalArgumentException si aucun ordre n'est donné ou si un ordre n'est pas supporté
+     */
+    @Override
+    public NGramCounts countNGrams(String contenu, int... orders) {
+        for (int n : orders) {
+            NGramTable.checkOrder(n);
+        }
+        Summarizer summarizer = new Summarizer(orders);
+        for (int i = 0; i < contenu.length(); i++) {
+            summarizer.accept(contenu.charAt(i));
+        }
+        NGramTable[] tables = new NGramTable[NGramTable.MAX_ORDER + 1];
+        summarizer.result().forEach((n, top) -> tables[n] = top.table());
+        return new NGramCounts(tables);
+    }
+
+    /**
+     * Estime les n-grammes les plus fréquents d'une chaîne et les convertit en liste
+     * d'objets {@code NGramFrequency}, par fréquence décroissante.
+     *
+     * @param contenu la chaîne de caractères à analyser
+     * @param n la taille des n-grammes à extraire (au moins 1)
+     * @return une liste des n-grammes retenus et de leurs fréquences estimées
+     */
+    public List<NGramFrequency> nGramList(String contenu, int n) {
+        return summarize(contenu, n).list();
+    }
+
+    /**
+     * @return le nombre de n-grammes suivis par ordre
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Parcourt le texte filtré (comme par {@link NGramCounter}) et alimente un résumé et un sketch par ordre.
+     */
+    private final class Summarizer implements SpaceSaving.LabelSource {
+        private final int[] orders;
+        private final SpaceSaving[] summaries;
+        private final CountMinSketch[] sketches;
+        private final long[] totals;
+        private final long[] hashes; // Hachage glissant, pour les ordres au-delà de MAX_ORDER
+        private final long[] basePowers;
+        private final char[] ring; // Les derniers caractères retenus
+        private int ringPosition;
+        private long window; // Les MAX_ORDER derniers caractères, 16 bits chacun
+        private long filled;
+        private boolean started;
+        private char[] pending = new char[8];
+        private int pendingLength;
+        private int labelOrder;
+
+        Summarizer(int... orders) {
+            if (orders.length == 0) {
+                throw new IllegalArgumentException("Au moins un ordre de n-gramme est requis");
+            }
+            this.orders = Arrays.stream(orders).distinct().sorted().toArray();
+            if (this.orders[0] < 1) {
+                throw new IllegalArgumentException("Ordre de n-gramme non supporté : " + this.orders[0]);
+            }
+            int maxOrder = this.orders[this.orders.length - 1];
+            summaries = new SpaceSaving[this.orders.length];
+            sketches = new CountMinSketch[this.orders.length];
+            totals = new long[this.orders.length];
+            hashes = new long[this.orders.length];
+            basePowers = new long[this.orders.length];
+            for (int i = 0; i < this.orders.length; i++) {
+                summaries[i] = new SpaceSaving(capacity);
+                sketches[i] = new CountMinSketch(sketchWidth, sketchDepth);
+                long power = 1;
+                for (int k = 1; k < this.orders[i]; k++) {
+                    power *= HASH_BASE;
+                }
+                basePowers[i] = power;
+            }
+            ring = new char[maxOrder];
+        }
+
+        void accept(char c) {
+            if (c > ' ') {
+                started = true;
+                for (int i = 0; i < pendingLength; i++) {
+                    push(pending[i]);
+                }
+                pendingLength = 0;
+                push(c);
+            } else if (!CorpusAnalyzer.isWhitespace(c) && started) {
+                // Caractère de contrôle : compté seulement si un caractère visible le suit (cf. trim())
+                if (pendingLength == pending.length) {
+                    pending = Arrays.copyOf(pending, pendingLength * 2);
+                }
+                pending[pendingLength++] = c;
+            }
+        }
+
+        Map<Integer, HeavyHitters> result() {
+            Map<Integer, HeavyHitters> result = new TreeMap<>();
+            for (int i = 0; i < orders.length; i++) {
+                result.put(orders[i], new HeavyHitters(orders[i], totals[i], summaries[i], sketches[i]));
+            }
+            return result;
+        }
+
+        @Override
+        public String label() {
+            char[] chars = new char[labelOrder];
+            for (int i = 0; i < labelOrder; i++) {
+                chars[i] = ring[Math.floorMod(ringPosition - labelOrder + i, ring.length)];
+            }
+            return new String(chars);
+        }
+
+        private void push(char c) {
+            filled++;
+            window = (window << 16) | c;
+            for (int i = 0; i < orders.length; i++) {
+                int n = orders[i];
+                if (n > NGramTable.MAX_ORDER) {
+                    // Hachage glissant : retire le caractère sorti de la fenêtre, puis ajoute le nouveau
+                    char out = filled > n ? ring[Math.floorMod(ringPosition - n, ring.length)] : 0;
+                    hashes[i] = (hashes[i] - out * basePowers[i]) * HASH_BASE + c;
+                }
+            }
+            ring[ringPosition] = c;
+            ringPosition = (ringPosition + 1) % ring.length;
+
+            for (int i = 0; i < orders.length; i++) {
+                int n = orders[i];
+                if (filled < n) break;
+                totals[i]++;
+                if (n <= NGramTable.MAX_ORDER) {
+                    long marker = 1L << (16 * n);
+                    long key = (window & (marker - 1)) | marker;
+                    sketches[i].add(key);
+                    summaries[i].offer(key, null);
+                } else {
+                    long key = hashes[i] == 0 ? 1 : hashes[i];
+                    sketches[i].add(key);
+                    labelOrder = n;
+                    summaries[i].offer(key, this);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package logiciel1;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * La classe {@code BatchAnalyzer} analyse un lot de fichiers texte (UTF-8) désignés par un dossier
+ * ou un motif glob (par exemple {@code "corpus/**.txt"}).
+ *
+ * Les lectures se font sur des threads virtuels, un par fichier : chaque fichier est projeté en mémoire
+ * ({@link MappedCorpus}) et ses pages sont chargées depuis le disque. Le comptage des n-grammes se fait
+ * ensuite sur un pool borné de threads de calcul, directement depuis la projection : aucun fichier
+ * n'est copié dans le tas, et leur taille n'est pas limitée à 2 Go. Les tables de chaque fichier
+ * sont fusionnées dans un résultat global ; elles peuvent aussi être conservées individuellement.
+ * Les n-grammes ne franchissent pas la limite entre deux fichiers.
+ *
+ * Exemple :
+ * <pre>
+ * try (BatchAnalyzer batch = new BatchAnalyzer()) {
+ *     BatchResult result = batch.analyze("src/main/resources/input", 1, 2, 3);
+ *     System.out.println(result.summary());
+ * }
+ * </pre>
+ */
+public class BatchAnalyzer implements AutoCloseable {
+
+    private final ExecutorService cpu;
+    private final int maxInFlight;
+    private final boolean keepPerFile;
+
+    /**
+     * Construit un analyseur utilisant tous les processeurs disponibles
+     * et ne conservant que le résultat global.
+     */
+    public BatchAnalyzer() {
+        this(Runtime.getRuntime().availableProcessors(), false);
+    }
+
+    /**
+     * Construit un analyseur de lots.
+     *
+     * @param cpuThreads le nombre de threads de comptage
+     * @param keepPerFile {@code true} pour conserver aussi les n-grammes de chaque fichier
+     * @throws IllegalArgumentException si le nombre de threads n'est pas strictement positif
+     */
+    public BatchAnalyzer(int cpuThreads, boolean keepPerFile) {
+        if (cpuThreads <= 0) {
+            throw new IllegalArgumentException("Le nombre de threads doit être positif : " + cpuThreads);
+        }
+        this.cpu = Executors.newFixedThreadPool(cpuThreads);
+        this.maxInFlight = cpuThreads * 4; // Borne le nombre de fichiers projetés et chargés en même temps
+        this.keepPerFile = keepPerFile;
+    }
+
+    /**
+     * Analyse tous les fichiers désignés par un dossier (parcouru récursivement) ou un motif glob.
+     *
+     * @param directoryOrGlob un dossier, ou un motif glob relatif au dossier courant
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return les n-grammes du lot et les mesures de débit
+     * @throws IllegalArgumentException si aucun ordre n'est donné ou si un ordre n'est pas supporté
+     * @throws RuntimeException si un fichier est illisible ou n'est pas un texte UTF-8 valide
+     */
+    public BatchResult analyze(String directoryOrGlob, int... orders) {
+        NGramCounts total = new NGramCounter(orders).counts(); // Valide aussi les ordres
+        List<Path> files = listFiles(directoryOrGlob);
+        Map<Path, NGramCounts> perFile = new ConcurrentHashMap<>();
+        AtomicLong bytes = new AtomicLong();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+
+        try (ExecutorService io = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(io.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        MappedCorpus corpus = MappedCorpus.map(file).load();
+                        bytes.addAndGet(corpus.size());
+                        NGramCounts counts = cpu.submit(() -> corpus.countNGrams(orders)).get();
+                        synchronized (total) {
+                            for (int n : total.orders()) {
+                                total.table(n).merge(counts.table(n));
+                            }
+                        }
+                        if (keepPerFile) {
+                            perFile.put(file, counts);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                await(futures.get(i), files.get(i));
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        return new BatchResult(total, new TreeMap<>(perFile), files.size(), bytes.get(), elapsed);
+    }
+
+    /**
+     * Arrête le pool de threads de comptage.
+     */
+    @Override
+    public void close() {
+        cpu.shutdown();
+    }
+
+    /**
+     * Liste les fichiers réguliers d'un dossier (récursivement) ou correspondant à un motif glob.
+     *
+     * @param directoryOrGlob un dossier, ou un motif glob relatif au dossier courant
+     * @return les fichiers trouvés, triés par chemin
+     * @throws RuntimeException si le dossier ne peut pas être parcouru
+     */
+    public static List<Path> listFiles(String directoryOrGlob) {
+        Path directory = Path.of(directoryOrGlob);
+        PathMatcher matcher = null;
+        if (!Files.isDirectory(directory)) {
+            // Le dossier de départ est la partie du motif qui précède le premier caractère spécial
+            int special = indexOfGlobChar(directoryOrGlob);
+            String prefix = directoryOrGlob.substring(0, special);
+            int slash = Math.max(prefix.lastIndexOf('/'), prefix.lastIndexOf(java.io.File.separatorChar));
+            directory = Path.of(slash < 0 ? "." : (slash == 0 ? "/" : prefix.substring(0, slash)));
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + (slash < 0 ? "./" : "") + directoryOrGlob);
+        }
+        PathMatcher filter = matcher;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(p -> filter == null || filter.matches(p))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors du parcours de : " + directoryOrGlob, e);
+        }
+    }
+
+    /**
+     * Attend la fin de l'analyse d'un fichier et propage son éventuelle erreur.
+     */
+    private static void await(Future<?> future, Path file) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Analyse interrompue : " + file, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof ExecutionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException("Erreur lors de l'analyse du fichier : " + file, cause);
+        }
+    }
+
+    /**
+     * Retourne l'indice du premier caractère spécial d'un motif glob, ou la longueur du motif.
+     */
+    private static int indexOfGlobChar(String glob) {
+        for (int i = 0; i < glob.length(); i++) {
+            if ("*?[{".indexOf(glob.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return glob.length();
+    }
+}
@@ -0,0 +1,41 @@
+package logiciel1;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Le record {@code BatchResult} représente le résultat de l'analyse d'un lot de fichiers
+ * (voir {@link BatchAnalyzer}) : les n-grammes de tout le corpus, éventuellement ceux
+ * de chaque fichier, et les mesures de débit.
+ *
+ * @param total les n-grammes de tous les fichiers réunis
+ * @param perFile les n-grammes de chaque fichier, ou une map vide s'ils n'ont pas été conservés
+ * @param fileCount le nombre de fichiers analysés
+ * @param byteCount le nombre total d'octets lus
+ * @param elapsedNanos la durée de l'analyse, en nanosecondes
+ */
+public record BatchResult(NGramCounts total, Map<Path, NGramCounts> perFile,
+                          int fileCount, long byteCount, long elapsedNanos) {
+
+    /**
+     * @return le nombre de fichiers analysés par seconde
+     */
+    public double filesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : fileCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return le nombre d'octets analysés par seconde
+     */
+    public double bytesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : byteCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return un résumé lisible du débit de l'analyse
+     */
+    public String summary() {
+        return String.format("%d fichiers, %d octets en %.3f s : %.1f fichiers/s, %.2f Mo/s",
+                fileCount, byteCount, elapsedNanos / 1e9, filesPerSecond(), bytesPerSecond() / 1e6);
+    }
+}
@@ -0,0 +1,237 @@
+package logiciel1;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * La classe {@code BinaryFileExport} implémente l'interface {@code FileManagement}
+ * et exporte des fréquences de n-grammes dans un format binaire compact
+ * (clés triées, occurrences en varint, sections par ordre et somme de contrôle).
+ * Le format est décrit dans {@link NGramBinaryFile}, qui permet de le relire par projection
+ * en mémoire, sans repasser par le corpus.
+ */
+public class BinaryFileExport implements FileManagement {
+
+    /**
+     * Exporte toutes les fréquences disponibles (ordres 1 à {@link NGramTable#MAX_ORDER})
+     * d'une source de n-grammes dans un fichier binaire.
+     *
+     * @param filePath le chemin complet du fichier binaire à créer
+     * @param source la source des fréquences (par exemple un {@link NGramCounts})
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de l'écriture du fichier
+     */
+    public void export(String filePath, NGramSource source) {
+        int sectionCount = 0;
+        for (int n = 1; n <= NGramTable.MAX_ORDER; n++) {
+            if (source.contains(n)) sectionCount++;
+        }
+
+        long[][] keys = new long[NGramTable.MAX_ORDER + 1][];
+        long[][] counts = new long[NGramTable.MAX_ORDER + 1][];
+        long[] countsLength = new long[NGramTable.MAX_ORDER + 1];
+        for (int n = 1; n <= NGramTable.MAX_ORDER; n++) {
+            if (!source.contains(n)) continue;
+            NGramTable table = tableOf(source, n);
+            keys[n] = table.sortedKeys();
+            counts[n] = new long[keys[n].length];
+            for (int i = 0; i < keys[n].length; i++) {
+                counts[n][i] = table.get(keys[n][i]);
+                countsLength[n] += varintLength(counts[n][i]);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(Path.of(filePath),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Sink out = new Sink(channel);
+            out.putInt(NGramBinaryFile.MAGIC);
+            out.putInt(NGramBinaryFile.VERSION);
+            out.putInt(0); // Somme de contrôle, écrite à la fin
+            out.putInt(sectionCount);
+
+            // Descripteurs de sections
+            long position = NGramBinaryFile.HEADER_SIZE + (long) sectionCount * NGramBinaryFile.SECTION_SIZE;
+            for (int n = 1; n <= NGramTable.MAX_ORDER; n++) {
+                if (keys[n] == null) continue;
+                int size = keys[n].length;
+                long keysOffset = position;
+                long countsOffset = keysOffset + 8L * size;
+                long indexOffset = countsOffset + countsLength[n];
+                position = indexOffset + 4L * indexLength(size);
+                out.putInt(n);
+                out.putInt(size);
+                out.putLong(source.total(n));
+                out.putLong(keysOffset);
+                out.putLong(countsOffset);
+                out.putLong(countsLength[n]);
+                out.putLong(indexOffset);
+            }
+
+            // Données : clés, occurrences, index
+            for (int n = 1; n <= NGramTable.MAX_ORDER; n++) {
+                if (keys[n] == null) continue;
+                for (long key : keys[n]) {
+                    out.putLong(key);
+                }
+                for (long count : counts[n]) {
+                    out.putVarint(count);
+                }
+                int relative = 0;
+                for (int i = 0; i < counts[n].length; i++) {
+                    if (i % NGramBinaryFile.INDEX_STEP == 0) {
+                        out.putInt(relative);
+                    }
+                    relative += varintLength(counts[n][i]);
+                }
+            }
+            out.flush();
+            channel.write(ByteBuffer.allocate(4).putInt(0, out.checksum()), 8);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du fichier binaire : " + filePath, e);
+        }
+    }
+
+    /**
+     * Exporte les unigrams, bigrams et trigrams dans un fichier binaire
+     * (et non CSV, malgré le nom imposé par l'interface).
+     *
+     * @param filePath le chemin complet du fichier binaire à créer
+     * @param unigrams la liste des unigrams et leurs fréquences
+     * @param bigrams la liste des bigrams et leurs fréquences
+     * @param trigrams la liste des trigrams et leurs fréquences
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de l'écriture du fichier
+     */
+    @Override
+    public void exportToCsv(String filePath, List<NGramFrequency> unigrams, List<NGramFrequency> bigrams, List<NGramFrequency> trigrams) {
+        NGramTable[] tables = new NGramTable[NGramTable.MAX_ORDER + 1];
+        tables[1] = toTable(unigrams, 1);
+        tables[2] = toTable(bigrams, 2);
+        tables[3] = toTable(trigrams, 3);
+        export(filePath, new NGramCounts(tables));
+    }
+
+    /**
+     * Méthode non supportée pour la lecture de fichiers.
+     * Pour relire un fichier binaire, utiliser {@link NGramBinaryFile#open(Path)}.
+     *
+     * @param filePath le chemin du fichier à lire
+     * @throws UnsupportedOperationException toujours levée, car cette opération n'est pas supportée
+     */
+    @Override
+    public String readFile(String filePath) {
+        throw new UnsupportedOperationException("Lecture de fichier non supportée dans BinaryFileExport");
+    }
+
+    /**
+     * Méthode non supportée pour la lecture de fichiers.
+     * Pour relire un fichier binaire, utiliser {@link NGramBinaryFile#open(Path)}.
+     *
+     * @param filePath le chemin du fichier à lire
+     * @throws UnsupportedOperationException toujours levée, car cette opération n'est pas supportée
+     */
+    @Override
+    public Reader openReader(String filePath) {
+        throw new UnsupportedOperationException("Lecture de fichier non supportée dans BinaryFileExport");
+    }
+
+    /**
+     * Retourne la table d'un ordre, en la recopiant si la source n'est pas déjà en mémoire.
+     */
+    private static NGramTable tableOf(NGramSource source, int n) {
+        if (source instanceof NGramCounts counts) {
+            return counts.table(n);
+        }
+        NGramTable table = new NGramTable(n);
+        source.forEach(n, table::add);
+        return table;
+    }
+
+    /**
+     * Construit une table à partir d'une liste de fréquences (les n-grammes d'une autre taille sont ignorés).
+     */
+    private static NGramTable toTable(List<NGramFrequency> frequencies, int n) {
+        NGramTable table = new NGramTable(n, frequencies.size());
+        for (NGramFrequency freq : frequencies) {
+            if (freq.nGram().length() == n) {
+                table.add(NGramTable.pack(freq.nGram(), 0, n), freq.frequency());
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Nombre de points de l'index pour une section de {@code size} entrées.
+     */
+    private static int indexLength(int size) {
+        return (size + NGramBinaryFile.INDEX_STEP - 1) / NGramBinaryFile.INDEX_STEP;
+    }
+
+    /**
+     * Nombre d'octets d'un entier non signé encodé en varint.
+     */
+    private static int varintLength(long value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) length++;
+        return length;
+    }
+
+    /**
+     * Tampon d'écriture qui calcule au passage le CRC32C de tout ce qui suit le champ de la somme de contrôle.
+     */
+    private static final class Sink {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private final CRC32C crc = new CRC32C();
+        private long written;
+
+        Sink(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putVarint(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            // Les 12 premiers octets (magic, version, somme de contrôle) ne sont pas couverts
+            int skip = (int) Math.max(0, Math.min(buffer.remaining(), 12 - written));
+            crc.update(buffer.duplicate().position(buffer.position() + skip));
+            written += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        int checksum() {
+            return (int) crc.getValue();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
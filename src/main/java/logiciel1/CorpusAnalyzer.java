@@ -1,5 +1,7 @@
 package logiciel1;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,9 +13,16 @@ import java.util.stream.Collectors;
  */
 public class CorpusAnalyzer implements CorpusProcessor {
 
+    /**
+     * Taille (en caractères) des blocs lus lors d'une analyse en flux.
+     */
+    public static final int CHUNK_SIZE = 64 * 1024;
+
     /**
      * Compte les occurrences des n-grammes dans une chaîne donnée.
      * Un n-gramme est une sous-chaîne de longueur {@code n}.
+     * Pour {@code n} compris entre 1 et {@link NGramTable#MAX_ORDER}, le comptage passe par
+     * {@link #countNGramTable(String, int)} et la map n'est construite qu'à la fin.
      *
      * @param contenu la chaîne de caractères à analyser
      * @param n la taille des n-grammes à extraire
@@ -21,6 +30,10 @@ public class CorpusAnalyzer implements CorpusProcessor {
      */
     @Override
     public Map<String, Integer> countNGram(String contenu, int n) {
+        if (n >= 1 && n <= NGramTable.MAX_ORDER) {
+            return countNGramTable(contenu, n).toMap();
+        }
+
         contenu = contenu.replaceAll("\\s+", "").trim(); // Supprime les espaces et nettoie la chaîne
 
         Map<String, Integer> freq = new HashMap<>();
@@ -33,6 +46,66 @@ public class CorpusAnalyzer implements CorpusProcessor {
         return freq;
     }
 
+    /**
+     * Compte les occurrences des n-grammes dans une chaîne donnée, sans copie de la chaîne
+     * ni objet par position. Le résultat est identique à celui de {@link #countNGram(String, int)} :
+     * les espaces ({@code \s}) sont ignorés et les caractères de contrôle en début et fin
+     * de texte sont retirés comme par {@link String#trim()}.
+     *
+     * @param contenu la chaîne de caractères à analyser
+     * @param n la taille des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return une table associant chaque n-gramme encodé à son nombre d'occurrences
+     * @throws IllegalArgumentException si {@code n} n'est pas compris entre 1 et {@link NGramTable#MAX_ORDER}
+     */
+    @Override
+    public NGramTable countNGramTable(String contenu, int n) {
+        return countNGrams(contenu, n).table(n);
+    }
+
+    /**
+     * Compte en une seule passe les n-grammes de plusieurs ordres dans une chaîne donnée.
+     * Les espaces ne sont retirés qu'une fois et le texte n'est parcouru qu'une fois,
+     * quel que soit le nombre d'ordres demandés.
+     *
+     * @param contenu la chaîne de caractères à analyser
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return les tables de comptage de chaque ordre demandé
+     * @throws IllegalArgumentException si aucun ordre n'est donné ou si un ordre n'est pas supporté
+     */
+    @Override
+    public NGramCounts countNGrams(String contenu, int... orders) {
+        NGramCounter counter = new NGramCounter(orders);
+        counter.accept(contenu);
+        return counter.counts();
+    }
+
+    /**
+     * Compte en une seule passe les n-grammes de plusieurs ordres en lisant un flux par blocs
+     * de {@link #CHUNK_SIZE} caractères. La mémoire utilisée ne dépend pas de la taille du corpus
+     * (seulement du nombre de n-grammes distincts) : la fenêtre glissante conserve les n-1 derniers
+     * caractères d'un bloc à l'autre, si bien que le résultat est identique à celui de
+     * {@link #countNGrams(String, int...)} sur le texte complet.
+     * Le flux n'est pas fermé par cette méthode.
+     *
+     * @param reader le flux de caractères à analyser
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return les tables de comptage de chaque ordre demandé
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de la lecture
+     */
+    public NGramCounts countNGrams(Reader reader, int... orders) {
+        NGramCounter counter = new NGramCounter(orders);
+        char[] chunk = new char[CHUNK_SIZE];
+        try {
+            int read;
+            while ((read = reader.read(chunk, 0, chunk.length)) != -1) {
+                counter.accept(chunk, 0, read);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du corpus", e);
+        }
+        return counter.counts();
+    }
+
     /**
      * Convertit la map contenant les n-grammes et leurs fréquences
      * en une liste d'objets {@code NGramFrequency} pour garantir l'immuabilité.
@@ -42,6 +115,10 @@ public class CorpusAnalyzer implements CorpusProcessor {
      * @return une liste d'objets {@code NGramFrequency} représentant les n-grammes et leurs fréquences
      */
     public List<NGramFrequency> nGramList(String contenu, int n) {
+        if (n >= 1 && n <= NGramTable.MAX_ORDER) {
+            return countNGramTable(contenu, n).toList();
+        }
+
         Map<String, Integer> corpusProcessed = countNGram(contenu, n); // Génère la map des fréquences
         return corpusProcessed
                 .entrySet() // Obtient les paires clé-valeur de la map
@@ -49,4 +126,16 @@ public class CorpusAnalyzer implements CorpusProcessor {
                 .map(entry -> new NGramFrequency(entry.getKey(), entry.getValue())) // Convertit chaque paire en objet NGramFrequency
                 .collect(Collectors.toList()); // Collecte les objets sous forme de liste
     }
+
+    /**
+     * Indique si un caractère est un espace au sens de l'expression régulière {@code \s}
+     * (espace, tabulation, retour à la ligne, tabulation verticale, saut de page, retour chariot).
+     * Ces caractères sont ignorés lors du comptage des n-grammes.
+     *
+     * @param c le caractère à tester
+     * @return {@code true} si le caractère est ignoré, {@code false} sinon
+     */
+    public static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
 }
@@ -5,6 +5,13 @@ import java.util.Map;
 /**
  * L'interface {@code CorpusProcessor} définit un contrat pour les classes
  * qui souhaitent analyser un texte et générer des statistiques sur les n-grammes.
+ *
+ * Les implémentations exactes ({@link CorpusAnalyzer}, {@link ParallelCorpusAnalyzer}) retournent
+ * tous les n-grammes du texte. {@link ApproximateCorpusAnalyzer} ne retourne que les n-grammes
+ * les plus fréquents, avec des comptes majorés : le total d'une de ses tables est la somme de ces
+ * estimations, qui n'est ni le nombre de n-grammes du texte ni une borne de celui-ci. Un évaluateur
+ * qui normalise par ce total (par exemple {@code ExtendedLayoutEvaluator}) donne alors un score
+ * approché ; le nombre réel de n-grammes lus est donné par {@link HeavyHitters#total()}.
  */
 public interface CorpusProcessor {
 
@@ -17,4 +24,26 @@ public interface CorpusProcessor {
      * @return une map associant chaque n-gramme à son nombre d'occurrences
      */
     public Map<String, Integer> countNGram(String c, int i);
+
+    /**
+     * Compte les occurrences des n-grammes dans une chaîne donnée, dans une table
+     * primitive ({@link NGramTable}) : aucun objet n'est créé par position du texte.
+     *
+     * @param c la chaîne de caractères à analyser
+     * @param n la taille des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return une table associant chaque n-gramme encodé à son nombre d'occurrences
+     *         (estimé, pour une implémentation approchée : voir la description de l'interface)
+     */
+    public NGramTable countNGramTable(String c, int n);
+
+    /**
+     * Compte en une seule passe les n-grammes de plusieurs ordres dans une chaîne donnée
+     * (par exemple unigrams, bigrams et trigrams).
+     *
+     * @param c la chaîne de caractères à analyser
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return les tables de comptage de chaque ordre demandé ; pour une implémentation approchée,
+     *         leurs totaux ne sont pas le nombre de n-grammes du texte (voir la description de l'interface)
+     */
+    public NGramCounts countNGrams(String c, int... orders);
 }
@@ -0,0 +1,90 @@
+package logiciel1;
+
+/**
+ * La classe {@code CountMinSketch} estime le nombre d'occurrences de clés {@code long}
+ * avec une mémoire fixe de {@code width × depth} compteurs.
+ *
+ * Une estimation n'est jamais inférieure au nombre réel d'occurrences et ne le dépasse
+ * de plus de {@code (e / width) × N} (N étant le nombre total d'ajouts) qu'avec une probabilité
+ * d'au plus {@code e^-depth}.
+ */
+final class CountMinSketch {
+
+    private final long[] counters;
+    private final int width;
+    private final int depth;
+    private final int mask;
+
+    /**
+     * Construit un sketch vide.
+     *
+     * @param width le nombre de compteurs par ligne (arrondi à la puissance de deux supérieure)
+     * @param depth le nombre de lignes (fonctions de hachage indépendantes)
+     * @throws IllegalArgumentException si une dimension est invalide
+     */
+    CountMinSketch(int width, int depth) {
+        if (width < 1 || width > 1 << 30 || depth < 1) {
+            throw new IllegalArgumentException("Dimensions du sketch invalides : " + width + " × " + depth);
+        }
+        int w = 1;
+        while (w < width) {
+            w <<= 1;
+        }
+        this.width = w;
+        this.depth = depth;
+        this.mask = this.width - 1;
+        this.counters = new long[this.width * depth];
+    }
+
+    /**
+     * Ajoute une occurrence d'une clé et retourne sa nouvelle estimation.
+     *
+     * @param key la clé
+     * @return l'estimation du nombre d'occurrences de la clé, cette occurrence comprise
+     */
+    long add(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + index(key, row);
+            estimate = Math.min(estimate, ++counters[index]);
+        }
+        return estimate;
+    }
+
+    /**
+     * @param key la clé
+     * @return l'estimation du nombre d'occurrences de la clé (jamais inférieure au nombre réel)
+     */
+    long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + index(key, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * @return le nombre de compteurs par ligne
+     */
+    int width() {
+        return width;
+    }
+
+    /**
+     * @return le nombre de lignes
+     */
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * Calcule la colonne d'une clé dans une ligne (mélange de type SplitMix64, graine par ligne).
+     */
+    private int index(long key, int row) {
+        long h = key + (row + 1) * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return (int) h & mask;
+    }
+}
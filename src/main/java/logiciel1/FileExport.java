@@ -1,15 +1,33 @@
 package logiciel1;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * La classe {@code FileExport} implémente l'interface {@code FileManagement}
  * et fournit des fonctionnalités pour exporter des données sous forme de fichier CSV.
+ *
+ * Les lignes sont encodées directement en UTF-8 dans un grand tampon d'octets,
+ * sans construire de {@code String} par ligne. L'export depuis une {@link NGramSource}
+ * lit les tables de comptage sans passer par des listes de {@link NGramFrequency},
+ * peut trier les lignes, ne garder que les plus fréquentes et compresser le fichier en gzip.
+ *
+ * Exemple :
+ * <pre>
+ * new FileExport().export("ngrams.csv.gz", counts, NGramSortOrder.FREQUENCY, 1000, true);
+ * </pre>
  */
 public class FileExport implements FileManagement {
 
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String[] SECTION_HEADERS = {"", "# Unigrams\n", "\n# Bigrams\n", "\n# Trigrams\n"};
+
     /**
      * Exporte les unigrams, bigrams et trigrams dans un fichier CSV spécifié.
      *
@@ -21,27 +39,69 @@ public class FileExport implements FileManagement {
      */
     @Override
     public void exportToCsv(String filePath, List<NGramFrequency> unigrams, List<NGramFrequency> bigrams, List<NGramFrequency> trigrams) {
-        try (FileWriter writer = new FileWriter(filePath)) {
-            writer.write("NGram, Frequency\n");
-    
-            // Écrit les unigrams
-            writer.write("# Unigrams\n");
-            for (NGramFrequency freq : unigrams) {
-                writer.write(freq.nGram() + "," + freq.frequency() + "\n");
-            }
-    
-            // Écrit les bigrams
-            writer.write("\n# Bigrams\n");
-            for (NGramFrequency freq : bigrams) {
-                writer.write(freq.nGram() + "," + freq.frequency() + "\n");
-            }
-    
-            // Écrit les trigrams
-            writer.write("\n# Trigrams\n");
-            for (NGramFrequency freq : trigrams) {
-                writer.write(freq.nGram() + "," + freq.frequency() + "\n");
-            }
-    
+        List<List<NGramFrequency>> sections = List.of(List.of(), unigrams, bigrams, trigrams);
+        try (CsvWriter writer = new CsvWriter(Files.newOutputStream(Path.of(filePath)))) {
+            writer.ascii("NGram, Frequency\n");
+            for (int n = 1; n <= NGramTable.MAX_ORDER; n++) {
+                writer.ascii(SECTION_HEADERS[n]);
+                for (NGramFrequency freq : sections.get(n)) {
+                    writer.row(freq.nGram(), freq.frequency());
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du fichier CSV : " + filePath, e);
+        }
+    }
+
+    /**
+     * Exporte les unigrams, bigrams et trigrams d'une source dans un fichier CSV,
+     * dans l'ordre de la table de comptage. Le fichier est compressé en gzip
+     * si son nom se termine par {@code .gz}.
+     *
+     * @param filePath le chemin complet du fichier CSV à créer
+     * @param source la source des fréquences (par exemple un {@link NGramCounts})
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de l'écriture du fichier
+     */
+    public void export(String filePath, NGramSource source) {
+        export(filePath, source, NGramSortOrder.NONE, Integer.MAX_VALUE, filePath.endsWith(".gz"));
+    }
+
+    /**
+     * Exporte les unigrams, bigrams et trigrams d'une source dans un fichier CSV, au même format
+     * que {@link #exportToCsv}. Les ordres absents de la source donnent une section vide.
+     *
+     * @param filePath le chemin complet du fichier CSV à créer
+     * @param source la source des fréquences (par exemple un {@link NGramCounts})
+     * @param order l'ordre des lignes dans chaque section
+     * @param topK le nombre maximal de lignes par section : seuls les n-grammes les plus fréquents
+     *             sont gardés ({@link Integer#MAX_VALUE} pour tout exporter)
+     * @param gzip {@code true} pour compresser le fichier en gzip
+     * @throws IllegalArgumentException si {@code topK} est négatif
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de l'écriture du fichier
+     */
+    public void export(String filePath, NGramSource source, NGramSortOrder order, int topK, boolean gzip) {
+        if (topK < 0) {
+            throw new IllegalArgumentException("Nombre de lignes invalide : " + topK);
+        }
+        try (CsvWriter writer = new CsvWriter(gzip
+                ? new GZIPOutputStream(Files.newOutputStream(Path.of(filePath)), BUFFER_SIZE)
+                : Files.newOutputStream(Path.of(filePath)))) {
+            writer.ascii("NGram, Frequency\n");
+            for (int n = 1; n <= NGramTable.MAX_ORDER; n++) {
+                writer.ascii(SECTION_HEADERS[n]);
+                if (!source.contains(n)) continue;
+                if (order == NGramSortOrder.NONE && topK == Integer.MAX_VALUE) {
+                    source.forEach(n, writer::row);
+                    continue;
+                }
+                SortedSection section = new SortedSection(source, n);
+                section.sortByFrequency();
+                section.truncate(topK);
+                if (order == NGramSortOrder.LEXICOGRAPHIC) {
+                    section.sortByKey();
+                }
+                section.forEach(writer::row);
+            }
         } catch (IOException e) {
             throw new RuntimeException("Erreur lors de l'écriture du fichier CSV : " + filePath, e);
         }
@@ -58,4 +118,234 @@ public class FileExport implements FileManagement {
     public String readFile(String filePath) {
         throw new UnsupportedOperationException("Lecture de fichier non supportée dans FileExport");
     }
+
+    /**
+     * Méthode non supportée pour la lecture de fichiers.
+     * Cette classe est dédiée à l'exportation de fichiers uniquement.
+     *
+     * @param filePath le chemin du fichier à lire
+     * @throws UnsupportedOperationException toujours levée, car cette opération n'est pas supportée
+     */
+    @Override
+    public Reader openReader(String filePath) {
+        throw new UnsupportedOperationException("Lecture de fichier non supportée dans FileExport");
+    }
+
+    /**
+     * Entrées d'un ordre recopiées dans deux tableaux parallèles, triables sans objets intermédiaires.
+     */
+    private static final class SortedSection {
+        private long[] keys;
+        private long[] counts;
+        private int size;
+
+        SortedSection(NGramSource source, int n) {
+            keys = new long[64];
+            counts = new long[64];
+            source.forEach(n, (key, count) -> {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    counts = Arrays.copyOf(counts, size * 2);
+                }
+                keys[size] = key;
+                counts[size] = count;
+                size++;
+            });
+        }
+
+        void truncate(int topK) {
+            size = Math.min(size, topK);
+        }
+
+        void sortByFrequency() {
+            quickSort(0, size - 1, true);
+        }
+
+        void sortByKey() {
+            quickSort(0, size - 1, false);
+        }
+
+        void forEach(NGramTable.Visitor visitor) {
+            for (int i = 0; i < size; i++) {
+                visitor.visit(keys[i], counts[i]);
+            }
+        }
+
+        /**
+         * Indique si l'entrée {@code i} doit être placée avant le pivot.
+         */
+        private boolean before(int i, long key, long count, boolean byFrequency) {
+            if (byFrequency && counts[i] != count) {
+                return counts[i] > count;
+            }
+            return keys[i] < key;
+        }
+
+        /**
+         * Tri rapide en place des deux tableaux (les clés sont distinctes, l'ordre est donc total).
+         */
+        private void quickSort(int low, int high, boolean byFrequency) {
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                long pivotKey = keys[middle];
+                long pivotCount = counts[middle];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (before(i, pivotKey, pivotCount, byFrequency)) i++;
+                    while (after(j, pivotKey, pivotCount, byFrequency)) j--;
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                // Récursion sur la plus petite partie pour borner la profondeur de pile
+                if (j - low < high - i) {
+                    quickSort(low, j, byFrequency);
+                    low = i;
+                } else {
+                    quickSort(i, high, byFrequency);
+                    high = j;
+                }
+            }
+        }
+
+        /**
+         * Indique si l'entrée {@code i} doit être placée après le pivot.
+         */
+        private boolean after(int i, long key, long count, boolean byFrequency) {
+            if (byFrequency && counts[i] != count) {
+                return counts[i] < count;
+            }
+            return keys[i] > key;
+        }
+
+        private void swap(int i, int j) {
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            long count = counts[i];
+            counts[i] = counts[j];
+            counts[j] = count;
+        }
+    }
+
+    /**
+     * Écrit les lignes CSV en UTF-8 dans un tampon d'octets, vidé dans le flux lorsqu'il est plein.
+     */
+    private static final class CsvWriter implements AutoCloseable {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private IOException failure;
+
+        CsvWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void ascii(String s) throws IOException {
+            for (int i = 0; i < s.length(); i++) {
+                ensure(1);
+                buffer[position++] = (byte) s.charAt(i);
+            }
+        }
+
+        /**
+         * Écrit une ligne à partir d'une clé encodée (voir {@link NGramTable}). Appelée depuis
+         * un {@link NGramTable.Visitor}, elle ne peut pas lever d'{@code IOException} : l'erreur
+         * est retenue et relevée à la fermeture.
+         */
+        void row(long key, long count) {
+            if (failure != null) return;
+            try {
+                ensure(4 * NGramTable.MAX_ORDER + 22);
+                int n = NGramTable.orderOf(key);
+                for (int i = 0; i < n; i++) {
+                    char c = (char) (key >>> (16 * (n - 1 - i)));
+                    if (Character.isHighSurrogate(c) && i + 1 < n
+                            && Character.isLowSurrogate((char) (key >>> (16 * (n - 2 - i))))) {
+                        codePoint(Character.toCodePoint(c, (char) (key >>> (16 * (n - 2 - i)))));
+                        i++;
+                    } else {
+                        codePoint(c);
+                    }
+                }
+                number(count);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        void row(String nGram, long count) throws IOException {
+            for (int i = 0; i < nGram.length(); i++) {
+                ensure(4);
+                int cp = nGram.codePointAt(i);
+                codePoint(cp);
+                if (cp >= 0x10000) i++;
+            }
+            ensure(22);
+            number(count);
+        }
+
+        /**
+         * Encode un point de code en UTF-8 (un surrogate isolé est remplacé par '?', comme le fait l'encodeur du JDK).
+         */
+        private void codePoint(int cp) {
+            if (cp < 0x80) {
+                buffer[position++] = (byte) cp;
+            } else if (cp < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (cp >> 6));
+                buffer[position++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate((char) cp) && cp < 0x10000) {
+                buffer[position++] = '?';
+            } else if (cp < 0x10000) {
+                buffer[position++] = (byte) (0xE0 | (cp >> 12));
+                buffer[position++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                buffer[position++] = (byte) (0xF0 | (cp >> 18));
+                buffer[position++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (cp & 0x3F));
+            }
+        }
+
+        /**
+         * Écrit ",<count>\n" en décimal, sans passer par {@link Long#toString}.
+         */
+        private void number(long count) {
+            buffer[position++] = ',';
+            if (count < 0) {
+                buffer[position++] = '-';
+                count = -count;
+            }
+            int start = position;
+            do {
+                buffer[position++] = (byte) ('0' + count % 10);
+                count /= 10;
+            } while (count != 0);
+            for (int i = start, j = position - 1; i < j; i++, j--) {
+                byte b = buffer[i];
+                buffer[i] = buffer[j];
+                buffer[j] = b;
+            }
+            buffer[position++] = '\n';
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (position + bytes > buffer.length) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (out) {
+                if (failure != null) {
+                    throw failure;
+                }
+                out.write(buffer, 0, position);
+            }
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package logiciel1;
 
+import java.io.Reader;
 import java.util.List;
 
 /**
@@ -16,6 +17,16 @@ public interface FileManagement {
      */
     public String readFile(String filePath);
 
+    /**
+     * Ouvre un flux de lecture bufferisé sur un fichier, pour analyser son contenu
+     * par blocs sans le charger entièrement en mémoire.
+     * L'appelant est responsable de la fermeture du flux.
+     *
+     * @param filePath le chemin du fichier à lire
+     * @return un flux de caractères sur le contenu du fichier
+     */
+    public Reader openReader(String filePath);
+
     /**
      * Exporte les unigrams, bigrams et trigrams dans un fichier CSV.
      *
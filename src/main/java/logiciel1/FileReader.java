@@ -1,6 +1,8 @@
 package logiciel1;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -28,6 +30,23 @@ public class FileReader implements FileManagement {
         }
     }
 
+    /**
+     * Ouvre un flux de lecture bufferisé (UTF-8) sur un fichier.
+     * Contrairement à {@link #readFile(String)}, le contenu n'est jamais chargé entièrement en mémoire.
+     *
+     * @param filePath le chemin du fichier à lire
+     * @return un flux de caractères sur le contenu du fichier
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de l'ouverture
+     */
+    @Override
+    public Reader openReader(String filePath) {
+        try {
+            return Files.newBufferedReader(Path.of(filePath), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'ouverture du fichier : " + filePath, e);
+        }
+    }
+
     /**
      * Méthode non supportée pour l'exportation de fichiers CSV.
      * Cette classe est exclusivement dédiée à la lecture de fichiers.
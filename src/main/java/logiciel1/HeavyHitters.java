@@ -0,0 +1,202 @@
+package logiciel1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * La classe {@code HeavyHitters} contient les n-grammes les plus fréquents d'un ordre donné,
+ * estimés avec une mémoire bornée par {@link ApproximateCorpusAnalyzer}, ainsi que les bornes
+ * d'erreur garanties de ces estimations.
+ *
+ * Pour chaque n-gramme retenu :
+ * <ul>
+ *   <li>{@link #count(int)} n'est jamais inférieur au nombre réel d'occurrences ;</li>
+ *   <li>{@link #lowerBound(int)} ne lui est jamais supérieur ;</li>
+ *   <li>l'écart entre les deux est d'au plus {@link #maxOverestimate()}, lui-même au plus
+ *       {@code total / capacité}.</li>
+ * </ul>
+ * Tout n-gramme apparu plus de {@link #maxOverestimate()} fois est présent dans le résultat.
+ */
+public class HeavyHitters {
+
+    private final int order;
+    private final long total;
+    private final int capacity;
+    private final long maxOverestimate;
+    private final double sketchErrorBound;
+    private final double sketchFailureProbability;
+    private final String[] nGrams;
+    private final long[] counts;
+    private final long[] lowerBounds;
+
+    /**
+     * Fige l'état d'un résumé Space-Saving, en resserrant chaque compte avec le sketch Count-Min.
+     *
+     * @param order la taille des n-grammes
+     * @param total le nombre de n-grammes lus
+     * @param summary le résumé des éléments les plus fréquents
+     * @param sketch le sketch des occurrences de tous les n-grammes lus
+     */
+    HeavyHitters(int order, long total, SpaceSaving summary, CountMinSketch sketch) {
+        this.order = order;
+        this.total = total;
+        this.capacity = summary.capacity();
+        this.maxOverestimate = summary.minCount();
+        this.sketchErrorBound = Math.E / sketch.width() * total;
+        this.sketchFailureProbability = Math.exp(-sketch.depth());
+
+        int size = summary.size();
+        String[] labels = new String[size];
+        long[] upper = new long[size];
+        long[] lower = new long[size];
+        for (int i = 0; i < size; i++) {
+            long key = summary.key(i);
+            labels[i] = summary.label(i) != null ? summary.label(i) : NGramTable.decode(key);
+            upper[i] = Math.min(summary.count(i), sketch.estimate(key));
+            lower[i] = summary.count(i) - summary.error(i);
+        }
+
+        Integer[] indexes = new Integer[size];
+        Arrays.setAll(indexes, i -> i);
+        Arrays.sort(indexes, Comparator.<Integer>comparingLong(i -> -upper[i]).thenComparing(i -> labels[i]));
+        this.nGrams = new String[size];
+        this.counts = new long[size];
+        this.lowerBounds = new long[size];
+        for (int i = 0; i < size; i++) {
+            nGrams[i] = labels[indexes[i]];
+            counts[i] = upper[indexes[i]];
+            lowerBounds[i] = lower[indexes[i]];
+        }
+    }
+
+    /**
+     * @return la taille des n-grammes
+     */
+    public int order() {
+        return order;
+    }
+
+    /**
+     * @return le nombre de n-grammes lus (occurrences comprises)
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * @return le nombre maximal de n-grammes suivis
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return le nombre de n-grammes retenus
+     */
+    public int size() {
+        return nGrams.length;
+    }
+
+    /**
+     * @param i le rang du n-gramme (0 pour le plus fréquent)
+     * @return le n-gramme à ce rang
+     */
+    public String nGram(int i) {
+        return nGrams[i];
+    }
+
+    /**
+     * @param i le rang du n-gramme (0 pour le plus fréquent)
+     * @return le nombre estimé d'occurrences, jamais inférieur au nombre réel
+     */
+    public long count(int i) {
+        return counts[i];
+    }
+
+    /**
+     * @param i le rang du n-gramme (0 pour le plus fréquent)
+     * @return un minorant garanti du nombre réel d'occurrences
+     */
+    public long lowerBound(int i) {
+        return lowerBounds[i];
+    }
+
+    /**
+     * Retourne l'erreur maximale garantie (déterministe) d'un compte. Elle vaut 0 tant que le nombre
+     * de n-grammes distincts n'a pas dépassé la capacité : les comptes sont alors exacts.
+     *
+     * @return l'écart maximal entre un compte et le nombre réel d'occurrences
+     */
+    public long maxOverestimate() {
+        return maxOverestimate;
+    }
+
+    /**
+     * Retourne la borne d'erreur du sketch Count-Min : un compte ne dépasse le nombre réel
+     * de plus de cette valeur qu'avec une probabilité d'au plus {@link #sketchFailureProbability()}.
+     *
+     * @return la borne d'erreur probabiliste du sketch
+     */
+    public double sketchErrorBound() {
+        return sketchErrorBound;
+    }
+
+    /**
+     * @return la probabilité que la borne {@link #sketchErrorBound()} soit dépassée
+     */
+    public double sketchFailureProbability() {
+        return sketchFailureProbability;
+    }
+
+    /**
+     * Convertit les n-grammes retenus en liste d'objets {@code NGramFrequency},
+     * par fréquence décroissante, utilisable telle quelle par les évaluateurs.
+     *
+     * @return la liste des n-grammes retenus et de leurs fréquences estimées
+     * @throws ArithmeticException si un compte dépasse {@link Integer#MAX_VALUE}
+     */
+    public List<NGramFrequency> list() {
+        return list(nGrams.length);
+    }
+
+    /**
+     * Convertit les {@code k} n-grammes les plus fréquents en liste d'objets {@code NGramFrequency}.
+     *
+     * @param k le nombre maximal de n-grammes
+     * @return la liste des n-grammes retenus et de leurs fréquences estimées, par fréquence décroissante
+     * @throws ArithmeticException si un compte dépasse {@link Integer#MAX_VALUE}
+     */
+    public List<NGramFrequency> list(int k) {
+        int size = Math.min(k, nGrams.length);
+        List<NGramFrequency> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(new NGramFrequency(nGrams[i], Math.toIntExact(counts[i])));
+        }
+        return list;
+    }
+
+    /**
+     * Convertit les n-grammes retenus en table de comptage (ordres 1 à {@link NGramTable#MAX_ORDER}).
+     *
+     * @return une table des n-grammes retenus et de leurs fréquences estimées
+     * @throws IllegalArgumentException si l'ordre dépasse {@link NGramTable#MAX_ORDER}
+     */
+    public NGramTable table() {
+        NGramTable table = new NGramTable(order, nGrams.length);
+        for (int i = 0; i < nGrams.length; i++) {
+            table.add(NGramTable.pack(nGrams[i], 0, order), counts[i]);
+        }
+        return table;
+    }
+
+    /**
+     * @return un résumé lisible des bornes d'erreur
+     */
+    public String summary() {
+        return String.format("%d-grammes : %d lus, %d retenus (capacité %d), erreur garantie ≤ %d, "
+                        + "erreur du sketch ≤ %.1f (probabilité d'échec %.2g)",
+                order, total, nGrams.length, capacity, maxOverestimate, sketchErrorBound, sketchFailureProbability);
+    }
+}
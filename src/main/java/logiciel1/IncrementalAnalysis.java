@@ -0,0 +1,243 @@
+package logiciel1;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * La classe {@code IncrementalAnalysis} conserve l'état d'une analyse de n-grammes sur un corpus
+ * qui grandit par ajouts successifs (journaux de discussion, journaux de frappe...).
+ *
+ * L'état retient le nombre d'octets déjà traités, les derniers caractères de la fenêtre glissante
+ * et les tables de comptage. À chaque mise à jour, seuls les octets ajoutés depuis la dernière fois
+ * sont lus et comptés : le coût est proportionnel à l'ajout, pas à la taille du corpus.
+ * Si le fichier a rétréci ou si ses derniers octets traités ont changé, l'analyse repart de zéro.
+ *
+ * Exemple :
+ * <pre>
+ * IncrementalAnalysis analysis = IncrementalAnalysis.loadOrCreate(stateFile, 1, 2, 3);
+ * analysis.update(Path.of("chat.log"));
+ * analysis.save(stateFile);
+ * </pre>
+ */
+public class IncrementalAnalysis {
+
+    private static final int MAGIC = 0x4E47494E; // "NGIN"
+    private static final int VERSION = 1;
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int CHECK_BYTES = 16; // Derniers octets traités, pour détecter une réécriture
+
+    private final int[] orders;
+    private String corpusPath;
+    private long offset;
+    private byte[] lastBytes;
+    private NGramCounter counter;
+
+    /**
+     * Construit un état vide pour les ordres donnés.
+     *
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @throws IllegalArgumentException si aucun ordre n'est donné ou si un ordre n'est pas supporté
+     */
+    public IncrementalAnalysis(int... orders) {
+        this.counter = new NGramCounter(orders);
+        this.orders = counter.counts().orders();
+        this.corpusPath = "";
+        this.lastBytes = new byte[0];
+    }
+
+    /**
+     * Charge un état enregistré par {@link #save(Path)}, ou crée un état vide si le fichier
+     * n'existe pas ou s'il a été enregistré pour d'autres ordres de n-grammes.
+     *
+     * @param stateFile le fichier d'état
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return l'état chargé ou un nouvel état vide
+     * @throws RuntimeException si le fichier d'état existe mais est illisible
+     */
+    public static IncrementalAnalysis loadOrCreate(Path stateFile, int... orders) {
+        IncrementalAnalysis empty = new IncrementalAnalysis(orders);
+        if (!Files.exists(stateFile)) {
+            return empty;
+        }
+        IncrementalAnalysis loaded = load(stateFile);
+        return Arrays.equals(loaded.orders, empty.orders) ? loaded : empty;
+    }
+
+    /**
+     * Charge un état enregistré par {@link #save(Path)}.
+     *
+     * @param stateFile le fichier d'état
+     * @return l'état chargé
+     * @throws RuntimeException si le fichier d'état est illisible ou n'a pas le bon format
+     */
+    public static IncrementalAnalysis load(Path stateFile) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new RuntimeException("Format de fichier d'état inconnu : " + stateFile);
+            }
+            String corpusPath = in.readUTF();
+            long offset = in.readLong();
+            int lastLength = in.readInt();
+            if (offset < 0 || lastLength < 0 || lastLength > CHECK_BYTES || lastLength > offset) {
+                throw new RuntimeException("Fichier d'état invalide : " + stateFile);
+            }
+            byte[] lastBytes = new byte[lastLength];
+            in.readFully(lastBytes);
+            NGramCounter counter = NGramCounter.readFrom(in);
+
+            IncrementalAnalysis analysis = new IncrementalAnalysis(counter.counts().orders());
+            analysis.corpusPath = corpusPath;
+            analysis.offset = offset;
+            analysis.lastBytes = lastBytes;
+            analysis.counter = counter;
+            return analysis;
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du fichier d'état : " + stateFile, e);
+        }
+    }
+
+    /**
+     * Enregistre l'état dans un fichier. Le fichier est d'abord écrit à côté puis renommé,
+     * pour ne jamais laisser un état à moitié écrit.
+     *
+     * @param stateFile le fichier d'état
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de l'écriture
+     */
+    public void save(Path stateFile) {
+        Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(corpusPath);
+            out.writeLong(offset);
+            out.writeInt(lastBytes.length);
+            out.write(lastBytes);
+            counter.writeTo(out);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du fichier d'état : " + stateFile, e);
+        }
+        try {
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du fichier d'état : " + stateFile, e);
+        }
+    }
+
+    /**
+     * Compte les octets ajoutés au corpus depuis la dernière mise à jour. Un caractère UTF-8
+     * incomplet en fin de fichier (écriture en cours) est laissé pour la mise à jour suivante.
+     *
+     * @param corpus le fichier du corpus (UTF-8)
+     * @return le nombre d'octets traités par cette mise à jour
+     * @throws RuntimeException si le fichier est illisible ou n'est pas un texte UTF-8 valide
+     */
+    public long update(Path corpus) {
+        try (FileChannel channel = FileChannel.open(corpus, StandardOpenOption.READ)) {
+            String path = corpus.toAbsolutePath().normalize().toString();
+            if (!path.equals(corpusPath) || channel.size() < offset || !sameLastBytes(channel)) {
+                reset(path);
+            }
+
+            long start = offset;
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+            while (offset < size) {
+                int read = channel.read(buffer, offset + buffer.position());
+                if (read <= 0) break;
+                buffer.flip();
+                int end = completeLimit(buffer);
+                int malformed = MappedCorpus.decodeUtf8(buffer, 0, end, counter);
+                if (malformed >= 0) {
+                    throw new RuntimeException("Fichier UTF-8 invalide : " + corpus + " (octet " + (offset + malformed) + ")");
+                }
+                rememberLastBytes(buffer, end);
+                offset += end;
+                buffer.position(end);
+                buffer.compact(); // Conserve le caractère incomplet éventuel pour la lecture suivante
+                if (offset + buffer.position() >= size) break;
+            }
+            return offset - start;
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du fichier : " + corpus, e);
+        }
+    }
+
+    /**
+     * @return le nombre d'octets du corpus déjà traités
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * Retourne les n-grammes comptés jusqu'ici, comme si le texte s'arrêtait après les octets traités.
+     *
+     * @return les tables de comptage de chaque ordre
+     */
+    public NGramCounts counts() {
+        return counter.counts();
+    }
+
+    /**
+     * Repart de zéro pour un nouveau corpus (ou un corpus réécrit).
+     */
+    private void reset(String path) {
+        corpusPath = path;
+        offset = 0;
+        lastBytes = new byte[0];
+        counter = new NGramCounter(orders);
+    }
+
+    /**
+     * Vérifie que les derniers octets traités sont toujours présents à la même position.
+     */
+    private boolean sameLastBytes(FileChannel channel) throws IOException {
+        ByteBuffer check = ByteBuffer.allocate(lastBytes.length);
+        long position = offset - lastBytes.length;
+        while (check.hasRemaining()) {
+            if (channel.read(check, position + check.position()) < 0) {
+                return false;
+            }
+        }
+        return Arrays.equals(check.array(), lastBytes);
+    }
+
+    /**
+     * Retient les derniers octets traités, en les complétant au besoin avec les précédents.
+     */
+    private void rememberLastBytes(ByteBuffer buffer, int end) {
+        int fromBuffer = Math.min(end, CHECK_BYTES);
+        int fromPrevious = Math.min(lastBytes.length, CHECK_BYTES - fromBuffer);
+        byte[] bytes = new byte[fromPrevious + fromBuffer];
+        System.arraycopy(lastBytes, lastBytes.length - fromPrevious, bytes, 0, fromPrevious);
+        buffer.get(end - fromBuffer, bytes, fromPrevious, fromBuffer);
+        lastBytes = bytes;
+    }
+
+    /**
+     * Retourne la limite du tampon privée d'un éventuel caractère UTF-8 incomplet en fin de tampon.
+     */
+    private static int completeLimit(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        int lead = limit - 1;
+        while (lead >= 0 && lead > limit - 4 && MappedCorpus.isContinuation(buffer.get(lead))) {
+            lead--;
+        }
+        if (lead < 0) {
+            return limit;
+        }
+        int b0 = buffer.get(lead);
+        int length = (b0 & 0xE0) == 0xC0 ? 2 : (b0 & 0xF0) == 0xE0 ? 3 : (b0 & 0xF8) == 0xF0 ? 4 : 1;
+        return lead + length > limit ? lead : limit;
+    }
+}
@@ -1,6 +1,8 @@
 package logiciel1;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 /**
@@ -14,13 +16,47 @@ public class Main1 {
      * Point d'entrée principal du programme.
      * Ce programme exécute les étapes suivantes :
      * 1. Demande à l'utilisateur de choisir un fichier texte à analyser parmi plusieurs options.
-     * 2. Lit le contenu du fichier choisi.
-     * 3. Analyse le texte pour générer les unigrams, bigrams et trigrams.
+     * 2. Lit le contenu du fichier choisi par blocs, sans le charger entièrement en mémoire.
+     * 3. Analyse le texte pour générer les unigrams, bigrams et trigrams (avec {@code --cache},
+     *    les relit depuis le cache des n-grammes, voir {@link NGramCache}, si le texte n'a pas changé).
      * 4. Exporte les résultats dans un fichier CSV.
      *
-     * @param args les arguments passés en ligne de commande (non utilisés ici)
+     * Si un dossier ou un motif glob est passé en argument, le programme analyse
+     * tous les fichiers correspondants en lot (voir {@link #runBatch(String[])}).
+     *
+     * Avec {@code --incremental <fichier> <fichier-etat>}, seule la partie du fichier ajoutée
+     * depuis la dernière exécution est analysée (voir {@link #runIncremental(String, String)}).
+     *
+     * Avec {@code --approx <fichier> <n> [k]}, seuls les n-grammes les plus fréquents sont estimés,
+     * avec une mémoire bornée (voir {@link #runApproximate(String, int, int)}).
+     *
+     * Toute autre option (argument commençant par {@code --}, ou mode appelé avec un mauvais nombre
+     * d'arguments) affiche l'usage au lieu d'être prise pour un motif glob.
+     *
+     * @param args les arguments passés en ligne de commande : aucun (ou {@code --cache}) pour le mode interactif,
+     *             {@code <dossier|glob> [--par-fichier]} pour le mode lot,
+     *             {@code --incremental <fichier> <fichier-etat>} pour le mode incrémental,
+     *             ou {@code --approx <fichier> <n> [k]} pour le mode approché
      */
     public static void main(String[] args) {
+        if (args.length == 3 && args[0].equals("--incremental")) {
+            runIncremental(args[1], args[2]);
+            return;
+        }
+        if ((args.length == 3 || args.length == 4) && args[0].equals("--approx")) {
+            runApproximate(args[1], Integer.parseInt(args[2]), args.length == 4 ? Integer.parseInt(args[3]) : 20);
+            return;
+        }
+        boolean useCache = args.length == 1 && args[0].equals("--cache");
+        if (args.length > 0 && !useCache) {
+            if (!isBatch(args)) {
+                printUsage();
+                return;
+            }
+            runBatch(args);
+            return;
+        }
+
         Scanner sc = new Scanner(System.in);
 
         // 1) Demande à l'utilisateur de choisir un texte
@@ -47,21 +83,127 @@ public class Main1 {
             }
         } while (inputFilePath == null);
 
-        // 2) Lit le fichier choisi
-        FileReader fileReader = new FileReader();
-        String corpusContent = fileReader.readFile(inputFilePath);
-
-        // 3) Analyse : on crée les unigrams, bigrams, trigrammes
-        CorpusAnalyzer analyzer = new CorpusAnalyzer();
-        List<NGramFrequency> unigrams = analyzer.nGramList(corpusContent, 1);
-        List<NGramFrequency> bigrams  = analyzer.nGramList(corpusContent, 2);
-        List<NGramFrequency> trigrams = analyzer.nGramList(corpusContent, 3);
+        // 2) et 3) Lit le fichier choisi par blocs et crée les unigrams, bigrams, trigrammes en une seule passe,
+        // ou, avec --cache, les relit depuis le cache si ce texte a déjà été analysé (voir NGramCache)
+        NGramSource counts = useCache
+                ? NGramCache.defaultCache().counts(Path.of(inputFilePath), 1, 2, 3)
+                : countNGrams(inputFilePath);
 
         // 4) Exporte en CSV
         FileExport exporter = new FileExport();
         String outputCsvPath = "src/main/resources/output/ngram-frequencies1.csv";
-        exporter.exportToCsv(outputCsvPath, unigrams, bigrams, trigrams);
+        exporter.export(outputCsvPath, counts);
 
         System.out.println("\nExport CSV terminé : " + outputCsvPath);
     }
+
+    /**
+     * Lit un fichier par blocs et compte ses unigrams, bigrams et trigrams, sans passer par le cache.
+     *
+     * @param inputFilePath le fichier du corpus
+     * @return les n-grammes du fichier
+     */
+    private static NGramCounts countNGrams(String inputFilePath) {
+        try (Reader reader = new FileReader().openReader(inputFilePath)) {
+            return new CorpusAnalyzer().countNGrams(reader, 1, 2, 3);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du fichier : " + inputFilePath, e);
+        }
+    }
+
+    /**
+     * Indique si les arguments désignent le mode lot : un dossier ou un motif glob, suivi
+     * éventuellement de {@code --par-fichier}. Une option inconnue ou incomplète n'en fait pas partie.
+     *
+     * @param args les arguments passés en ligne de commande
+     * @return {@code true} si les arguments sont ceux du mode lot
+     */
+    static boolean isBatch(String[] args) {
+        return args.length >= 1 && args.length <= 2 && !args[0].startsWith("--")
+                && (args.length == 1 || args[1].equals("--par-fichier"));
+    }
+
+    /**
+     * Affiche les modes de l'analyseur et leurs arguments.
+     */
+    private static void printUsage() {
+        System.out.println("Usage :");
+        System.out.println("  (aucun argument) -> Analyse interactive d'un texte d'exemple");
+        System.out.println("  --cache -> Analyse interactive, n-grammes conservés dans le cache sur disque");
+        System.out.println("  <dossier|glob> [--par-fichier] -> Analyse d'un lot de fichiers");
+        System.out.println("  --incremental <fichier> <fichier-etat> -> Analyse incrémentale d'un fichier qui grandit");
+        System.out.println("  --approx <fichier> <n> [k] -> n-grammes les plus fréquents, en mémoire bornée");
+    }
+
+    /**
+     * Analyse en lot tous les fichiers d'un dossier ou correspondant à un motif glob,
+     * exporte les n-grammes de l'ensemble dans un fichier CSV et affiche le débit obtenu.
+     *
+     * @param args {@code <dossier|glob>}, suivi éventuellement de {@code --par-fichier}
+     *             pour afficher aussi le nombre de n-grammes de chaque fichier
+     */
+    public static void runBatch(String[] args) {
+        boolean perFile = args.length > 1 && args[1].equals("--par-fichier");
+
+        BatchResult result;
+        try (BatchAnalyzer batch = new BatchAnalyzer(Runtime.getRuntime().availableProcessors(), perFile)) {
+            result = batch.analyze(args[0], 1, 2, 3);
+        }
+
+        result.perFile().forEach((file, counts) -> System.out.println(file + " : "
+                + counts.total(1) + " caractères, " + counts.table(3).size() + " trigrams distincts"));
+
+        FileExport exporter = new FileExport();
+        String outputCsvPath = "src/main/resources/output/ngram-frequencies1.csv";
+        NGramCounts counts = result.total();
+        exporter.export(outputCsvPath, counts);
+
+        System.out.println("\n" + result.summary());
+        System.out.println("Export CSV terminé : " + outputCsvPath);
+    }
+
+    /**
+     * Met à jour l'analyse d'un fichier qui grandit par ajouts : seuls les octets ajoutés depuis
+     * la dernière exécution sont comptés, puis l'état et le CSV sont réécrits.
+     *
+     * @param inputFilePath le fichier du corpus
+     * @param stateFilePath le fichier où l'état de l'analyse est conservé d'une exécution à l'autre
+     */
+    public static void runIncremental(String inputFilePath, String stateFilePath) {
+        Path stateFile = Path.of(stateFilePath);
+        IncrementalAnalysis analysis = IncrementalAnalysis.loadOrCreate(stateFile, 1, 2, 3);
+        long processed = analysis.update(Path.of(inputFilePath));
+        analysis.save(stateFile);
+
+        FileExport exporter = new FileExport();
+        String outputCsvPath = "src/main/resources/output/ngram-frequencies1.csv";
+        NGramCounts counts = analysis.counts();
+        exporter.export(outputCsvPath, counts);
+
+        System.out.println("\n" + processed + " nouveaux octets analysés (" + analysis.offset() + " au total)");
+        System.out.println("Export CSV terminé : " + outputCsvPath);
+    }
+
+    /**
+     * Estime les n-grammes les plus fréquents d'un fichier avec une mémoire bornée
+     * (voir {@link ApproximateCorpusAnalyzer}) et affiche les {@code k} premiers avec leurs bornes d'erreur.
+     *
+     * @param inputFilePath le fichier du corpus
+     * @param n la taille des n-grammes (au moins 1, sans limite supérieure)
+     * @param k le nombre de n-grammes à afficher
+     */
+    public static void runApproximate(String inputFilePath, int n, int k) {
+        ApproximateCorpusAnalyzer analyzer = new ApproximateCorpusAnalyzer();
+        HeavyHitters top;
+        try (Reader reader = new FileReader().openReader(inputFilePath)) {
+            top = analyzer.summarize(reader, n).get(n);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du fichier : " + inputFilePath, e);
+        }
+
+        for (int i = 0; i < Math.min(k, top.size()); i++) {
+            System.out.println(top.nGram(i) + "," + top.count(i) + " (au moins " + top.lowerBound(i) + ")");
+        }
+        System.out.println("\n" + top.summary());
+    }
 }
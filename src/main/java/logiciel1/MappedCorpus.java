@@ -0,0 +1,334 @@
+package logiciel1;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La classe {@code MappedCorpus} représente un fichier texte UTF-8 projeté en mémoire
+ * avec {@link FileChannel#map}. Le contenu est décodé directement dans un {@link NGramCounter},
+ * sans jamais construire de {@code String} du texte.
+ *
+ * Le fichier est découpé en fenêtres de {@link #WINDOW_SIZE} octets au plus, ce qui permet
+ * de traiter des fichiers de plus de 2 Go. Chaque fenêtre commence sur le premier octet
+ * d'un caractère UTF-8, si bien qu'aucun caractère n'est coupé entre deux fenêtres.
+ * Une même projection peut être partagée par plusieurs analyses, y compris en parallèle.
+ *
+ * Exemple :
+ * <pre>
+ * MappedCorpus corpus = MappedCorpus.map(Path.of("corpus.txt"));
+ * NGramCounts counts = corpus.countNGrams(1, 2, 3);
+ * </pre>
+ */
+public class MappedCorpus {
+
+    /**
+     * Taille maximale (en octets) d'une fenêtre projetée.
+     */
+    public static final long WINDOW_SIZE = 1L << 30;
+
+    private final Path path;
+    private final long size;
+    private final ByteBuffer[] windows;
+
+    private MappedCorpus(Path path, long size, ByteBuffer[] windows) {
+        this.path = path;
+        this.size = size;
+        this.windows = windows;
+    }
+
+    /**
+     * Projette un fichier en mémoire par fenêtres de {@link #WINDOW_SIZE} octets.
+     *
+     * @param path le chemin du fichier à projeter
+     * @return la projection du fichier
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de la projection
+     */
+    public static MappedCorpus map(Path path) {
+        return map(path, WINDOW_SIZE);
+    }
+
+    /**
+     * Projette un fichier en mémoire par fenêtres de {@code windowSize} octets au plus.
+     *
+     * @param path le chemin du fichier à projeter
+     * @param windowSize la taille maximale d'une fenêtre (au moins 4 octets, au plus 2 Go)
+     * @return la projection du fichier
+     * @throws IllegalArgumentException si la taille de fenêtre est invalide
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de la projection
+     */
+    public static MappedCorpus map(Path path, long windowSize) {
+        if (windowSize < 4 || windowSize > Integer.MAX_VALUE - 3) {
+            throw new IllegalArgumentException("Taille de fenêtre invalide : " + windowSize);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<ByteBuffer> windows = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                // On projette 3 octets de plus pour pouvoir reculer la limite au début d'un caractère
+                long mappedLength = Math.min(size - start, windowSize + 3);
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, mappedLength);
+                int length = (int) mappedLength;
+                if (mappedLength > windowSize) {
+                    length = (int) windowSize;
+                    int boundary = length;
+                    while (boundary > length - 3 && isContinuation(mapped.get(boundary))) {
+                        boundary--;
+                    }
+                    if (!isContinuation(mapped.get(boundary))) {
+                        length = boundary;
+                    }
+                }
+                windows.add(mapped.slice(0, length));
+                start += length;
+            }
+            return new MappedCorpus(path, size, windows.toArray(new ByteBuffer[0]));
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la projection du fichier : " + path, e);
+        }
+    }
+
+    /**
+     * @return la taille du fichier en octets
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return le nombre de fenêtres projetées
+     */
+    public int windowCount() {
+        return windows.length;
+    }
+
+    /**
+     * Charge les pages projetées en mémoire physique (voir {@link MappedByteBuffer#load()}) : le fichier
+     * est lu sur le disque maintenant plutôt qu'au fil du décodage. Les pages restent dans le cache
+     * du système, hors du tas Java.
+     *
+     * @return cette projection
+     */
+    public MappedCorpus load() {
+        for (ByteBuffer window : windows) {
+            if (window instanceof MappedByteBuffer mapped) {
+                mapped.load();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Compte en une seule passe les n-grammes de plusieurs ordres sur tout le fichier.
+     *
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return les tables de comptage de chaque ordre demandé
+     * @throws RuntimeException si le fichier n'est pas un texte UTF-8 valide
+     */
+    public NGramCounts countNGrams(int... orders) {
+        NGramCounter counter = new NGramCounter(orders);
+        decodeInto(counter);
+        return counter.counts();
+    }
+
+    /**
+     * Décode tout le fichier (UTF-8) directement dans un compteur, caractère par caractère.
+     *
+     * @param counter le compteur à alimenter
+     * @throws RuntimeException si le fichier n'est pas un texte UTF-8 valide
+     */
+    public void decodeInto(NGramCounter counter) {
+        for (ByteBuffer window : windows) {
+            decode(window, 0, window.limit(), counter);
+        }
+    }
+
+    /**
+     * Décode tout le fichier dans une chaîne de caractères. Cette méthode n'existe que pour
+     * les appelants qui ont besoin du texte complet ; elle n'est pas utilisée pour le comptage.
+     *
+     * @return le contenu du fichier
+     * @throws RuntimeException si le fichier n'est pas un texte UTF-8 valide
+     */
+    public String decodeToString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            for (ByteBuffer window : windows) {
+                sb.append(StandardCharsets.UTF_8.newDecoder().decode(window.duplicate()));
+            }
+        } catch (CharacterCodingException e) {
+            throw new RuntimeException("Fichier UTF-8 invalide : " + path, e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Ouvre un flux de caractères sur la projection, décodé fenêtre par fenêtre.
+     *
+     * @return un flux de caractères sur le contenu du fichier
+     */
+    public Reader newReader() {
+        return new Reader() {
+            private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+            private final CharBuffer spill = CharBuffer.allocate(2).flip(); // Paire de surrogates en attente
+            private int index;
+            private ByteBuffer current = windows.length > 0 ? windows[0].duplicate() : null;
+
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                if (spill.hasRemaining()) {
+                    cbuf[off] = spill.get();
+                    return 1;
+                }
+                CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+                while (out.position() == off && current != null) {
+                    CoderResult result = decoder.decode(current, out, index == windows.length - 1);
+                    if (result.isError()) {
+                        result.throwException();
+                    }
+                    if (result.isOverflow() && out.position() == off) {
+                        // Place insuffisante pour une paire de surrogates : on la décode à part
+                        spill.clear();
+                        decoder.decode(current, spill, index == windows.length - 1);
+                        spill.flip();
+                        cbuf[off] = spill.get();
+                        return 1;
+                    }
+                    if (result.isUnderflow()) {
+                        if (current.hasRemaining()) {
+                            throw new MalformedInputException(current.remaining());
+                        }
+                        current = ++index < windows.length ? windows[index].duplicate() : null;
+                    }
+                }
+                int read = out.position() - off;
+                return read == 0 ? -1 : read;
+            }
+
+            @Override
+            public void close() {
+                current = null;
+            }
+        };
+    }
+
+    /**
+     * @return les fenêtres projetées, dans l'ordre du fichier
+     */
+    ByteBuffer[] windows() {
+        return windows;
+    }
+
+    /**
+     * Décode une partie d'une fenêtre UTF-8 et transmet chaque caractère (UTF-16) au compteur.
+     * Les bornes doivent tomber au début d'un caractère. Les séquences invalides provoquent
+     * une erreur, comme avec {@link java.nio.file.Files#readString}.
+     *
+     * @param window une fenêtre de {@link #windows()}
+     * @param from l'indice du premier octet (inclus)
+     * @param limit l'indice du dernier octet (exclu)
+     * @param counter le compteur à alimenter
+     */
+    void decode(ByteBuffer window, int from, int limit, NGramCounter counter) {
+        int malformed = decodeUtf8(window, from, limit, counter);
+        if (malformed >= 0) {
+            throw malformed(window, malformed);
+        }
+    }
+
+    /**
+     * Décode des octets UTF-8 et transmet chaque caractère (UTF-16) au compteur.
+     * Le décodage s'arrête à la première séquence invalide (encodage trop long, surrogate,
+     * valeur hors Unicode ou séquence tronquée).
+     *
+     * @param buffer les octets à décoder (lus par accès absolus, la position n'est pas modifiée)
+     * @param from l'indice du premier octet (inclus)
+     * @param limit l'indice du dernier octet (exclu)
+     * @param counter le compteur à alimenter
+     * @return l'indice de la première séquence invalide, ou -1 si tous les octets ont été décodés
+     */
+    static int decodeUtf8(ByteBuffer buffer, int from, int limit, NGramCounter counter) {
+        int i = from;
+        while (i < limit) {
+            int b0 = buffer.get(i);
+            if (b0 >= 0) { // ASCII
+                counter.accept((char) b0);
+                i++;
+                continue;
+            }
+            int cp;
+            int length;
+            if ((b0 & 0xE0) == 0xC0) {
+                length = 2;
+                cp = b0 & 0x1F;
+            } else if ((b0 & 0xF0) == 0xE0) {
+                length = 3;
+                cp = b0 & 0x0F;
+            } else if ((b0 & 0xF8) == 0xF0) {
+                length = 4;
+                cp = b0 & 0x07;
+            } else {
+                return i;
+            }
+            if (i + length > limit) {
+                return i;
+            }
+            for (int k = 1; k < length; k++) {
+                int b = buffer.get(i + k);
+                if (!isContinuation((byte) b)) {
+                    return i;
+                }
+                cp = (cp << 6) | (b & 0x3F);
+            }
+            // Refuse les encodages trop longs, les surrogates et les valeurs hors Unicode
+            if ((length == 2 && cp < 0x80)
+                    || (length == 3 && (cp < 0x800 || Character.isSurrogate((char) cp)))
+                    || (length == 4 && (cp < 0x10000 || cp > Character.MAX_CODE_POINT))) {
+                return i;
+            }
+            if (length == 4) {
+                counter.accept(Character.highSurrogate(cp));
+                counter.accept(Character.lowSurrogate(cp));
+            } else {
+                counter.accept((char) cp);
+            }
+            i += length;
+        }
+        return -1;
+    }
+
+    /**
+     * Construit l'erreur levée pour une séquence UTF-8 invalide.
+     */
+    private RuntimeException malformed(ByteBuffer window, int index) {
+        long offset = index;
+        for (ByteBuffer w : windows) {
+            if (w == window) break;
+            offset += w.limit();
+        }
+        return new RuntimeException("Fichier UTF-8 invalide : " + path + " (octet " + offset + ")");
+    }
+
+    /**
+     * Indique si un octet est un octet de continuation UTF-8 (10xxxxxx).
+     */
+    static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+}
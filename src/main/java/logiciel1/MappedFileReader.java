@@ -0,0 +1,80 @@
+package logiciel1;
+
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * La classe {@code MappedFileReader} implémente l'interface {@code FileManagement}
+ * et lit les fichiers texte UTF-8 en les projetant en mémoire (voir {@link MappedCorpus}).
+ * Elle est destinée aux gros corpus locaux : le comptage des n-grammes décode le fichier
+ * directement dans le compteur, sans construire de chaîne du contenu.
+ * Cette classe ne prend pas en charge l'exportation de fichiers CSV.
+ */
+public class MappedFileReader implements FileManagement {
+
+    /**
+     * Projette un fichier en mémoire. La projection peut être réutilisée
+     * pour plusieurs analyses du même fichier.
+     *
+     * @param filePath le chemin du fichier à projeter
+     * @return la projection du fichier
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de la projection
+     */
+    public MappedCorpus map(String filePath) {
+        return MappedCorpus.map(Path.of(filePath));
+    }
+
+    /**
+     * Compte en une seule passe les n-grammes de plusieurs ordres d'un fichier projeté en mémoire.
+     *
+     * @param filePath le chemin du fichier à analyser
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return les tables de comptage de chaque ordre demandé
+     * @throws RuntimeException si le fichier est illisible ou n'est pas un texte UTF-8 valide
+     */
+    public NGramCounts countNGrams(String filePath, int... orders) {
+        return map(filePath).countNGrams(orders);
+    }
+
+    /**
+     * Lit le contenu d'un fichier spécifié par son chemin.
+     * Cette méthode construit une chaîne du contenu complet : pour l'analyse,
+     * préférer {@link #countNGrams(String, int...)}.
+     *
+     * @param filePath le chemin du fichier à lire
+     * @return une chaîne contenant le contenu du fichier
+     * @throws RuntimeException si le fichier est illisible ou n'est pas un texte UTF-8 valide
+     */
+    @Override
+    public String readFile(String filePath) {
+        return map(filePath).decodeToString();
+    }
+
+    /**
+     * Ouvre un flux de caractères sur un fichier projeté en mémoire.
+     *
+     * @param filePath le chemin du fichier à lire
+     * @return un flux de caractères sur le contenu du fichier
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de la projection
+     */
+    @Override
+    public Reader openReader(String filePath) {
+        return map(filePath).newReader();
+    }
+
+    /**
+     * Méthode non supportée pour l'exportation de fichiers CSV.
+     * Cette classe est exclusivement dédiée à la lecture de fichiers.
+     *
+     * @param filePath le chemin du fichier CSV à exporter
+     * @param unigrams la liste des unigrams et leurs fréquences
+     * @param bigrams la liste des bigrams et leurs fréquences
+     * @param trigrams la liste des trigrams et leurs fréquences
+     * @throws UnsupportedOperationException toujours levée, car cette opération n'est pas supportée
+     */
+    @Override
+    public void exportToCsv(String filePath, List<NGramFrequency> unigrams, List<NGramFrequency> bigrams, List<NGramFrequency> trigrams) {
+        throw new UnsupportedOperationException("Export non supporté dans MappedFileReader");
+    }
+}
@@ -0,0 +1,261 @@
+package logiciel1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * La classe {@code NGramBinaryFile} lit un fichier binaire de fréquences de n-grammes
+ * (écrit par {@link BinaryFileExport}) en le projetant en mémoire. Les entrées sont lues
+ * directement dans la projection, sans être désérialisées en objets.
+ *
+ * Format (gros-boutiste) :
+ * <pre>
+ * en-tête  : magic "NGRB" (int), version (int), CRC32C de tout ce qui suit (int), nombre de sections (int)
+ * section  : ordre (int), nombre d'entrées (int), total des occurrences (long),
+ *            position des clés (long), position des occurrences (long),
+ *            longueur des occurrences (long), position de l'index (long)
+ * données  : pour chaque section, les clés triées sur 8 octets (voir {@link NGramTable}),
+ *            les occurrences en varint (LEB128) dans le même ordre, puis un index donnant
+ *            la position relative (int) de l'occurrence de chaque {@value #INDEX_STEP}e entrée
+ * </pre>
+ *
+ * Exemple :
+ * <pre>
+ * NGramBinaryFile file = NGramBinaryFile.open(Path.of("ngrams.ngb"));
+ * long count = file.get(NGramTable.pack("es", 0, 2));
+ * </pre>
+ */
+public class NGramBinaryFile implements NGramSource {
+
+    static final int MAGIC = 0x4E475242; // "NGRB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int SECTION_SIZE = 48;
+
+    /**
+     * Nombre d'entrées entre deux points de l'index des occurrences.
+     */
+    public static final int INDEX_STEP = 64;
+
+    private final Path path;
+    private final ByteBuffer data;
+    private final Section[] sections;
+
+    /**
+     * Description d'une section (un ordre de n-gramme) du fichier.
+     */
+    private record Section(int size, long total, int keysOffset, int countsOffset, int indexOffset) {
+    }
+
+    private NGramBinaryFile(Path path, ByteBuffer data, Section[] sections) {
+        this.path = path;
+        this.data = data;
+        this.sections = sections;
+    }
+
+    /**
+     * Ouvre un fichier binaire de n-grammes et vérifie sa somme de contrôle.
+     *
+     * @param path le chemin du fichier
+     * @return le fichier ouvert
+     * @throws RuntimeException si le fichier est illisible, n'a pas le bon format ou est corrompu
+     */
+    public static NGramBinaryFile open(Path path) {
+        return open(path, true);
+    }
+
+    /**
+     * Ouvre un fichier binaire de n-grammes.
+     *
+     * @param path le chemin du fichier
+     * @param verify {@code true} pour vérifier la somme de contrôle (lecture de tout le fichier)
+     * @return le fichier ouvert
+     * @throws RuntimeException si le fichier est illisible, n'a pas le bon format ou est corrompu
+     */
+    public static NGramBinaryFile open(Path path, boolean verify) {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new RuntimeException("Fichier de n-grammes trop volumineux : " + path);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du fichier : " + path, e);
+        }
+
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new RuntimeException("Format de fichier de n-grammes inconnu : " + path);
+        }
+        if (verify && checksum(data) != data.getInt(8)) {
+            throw new RuntimeException("Fichier de n-grammes corrompu (somme de contrôle) : " + path);
+        }
+
+        // Sans vérification de la somme de contrôle, la structure est tout de même validée :
+        // un fichier tronqué ou abîmé est refusé ici plutôt qu'à la première lecture
+        Section[] sections = new Section[NGramTable.MAX_ORDER + 1];
+        int count = data.getInt(12);
+        if (count < 0 || count > NGramTable.MAX_ORDER || HEADER_SIZE + count * SECTION_SIZE > data.limit()) {
+            throw new RuntimeException("Fichier de n-grammes invalide (" + count + " sections) : " + path);
+        }
+        for (int i = 0; i < count; i++) {
+            int at = HEADER_SIZE + i * SECTION_SIZE;
+            int order = data.getInt(at);
+            int size = data.getInt(at + 4);
+            long keysOffset = data.getLong(at + 16);
+            long countsOffset = data.getLong(at + 24);
+            long countsLength = data.getLong(at + 32);
+            long indexOffset = data.getLong(at + 40);
+            long end = indexOffset + 4L * ((size + INDEX_STEP - 1) / INDEX_STEP);
+            if (order < 1 || order > NGramTable.MAX_ORDER || sections[order] != null || size < 0
+                    || keysOffset < HEADER_SIZE || countsOffset != keysOffset + 8L * size
+                    || countsLength < size || indexOffset != countsOffset + countsLength || end > data.limit()) {
+                throw new RuntimeException("Fichier de n-grammes invalide (section " + i + ") : " + path);
+            }
+            sections[order] = new Section(size, data.getLong(at + 8), (int) keysOffset, (int) countsOffset, (int) indexOffset);
+        }
+        return new NGramBinaryFile(path, data, sections);
+    }
+
+    /**
+     * @return les ordres de n-grammes présents dans le fichier, par ordre croissant
+     */
+    public int[] orders() {
+        int count = 0;
+        for (Section section : sections) {
+            if (section != null) count++;
+        }
+        int[] orders = new int[count];
+        int i = 0;
+        for (int n = 0; n < sections.length; n++) {
+            if (sections[n] != null) orders[i++] = n;
+        }
+        return orders;
+    }
+
+    @Override
+    public boolean contains(int n) {
+        return n >= 1 && n < sections.length && sections[n] != null;
+    }
+
+    @Override
+    public long total(int n) {
+        return contains(n) ? sections[n].total() : 0;
+    }
+
+    /**
+     * Retourne le nombre de n-grammes distincts d'un ordre.
+     *
+     * @param n la taille des n-grammes
+     * @return le nombre de n-grammes distincts, ou 0 si cet ordre est absent
+     */
+    public int size(int n) {
+        return contains(n) ? sections[n].size() : 0;
+    }
+
+    /**
+     * Retourne le nombre d'occurrences d'un n-gramme, par recherche dichotomique dans les clés
+     * puis lecture d'au plus {@value #INDEX_STEP} occurrences à partir de l'index.
+     *
+     * @param key la clé encodée du n-gramme (voir {@link NGramTable})
+     * @return le nombre d'occurrences, ou 0 si le n-gramme est absent
+     */
+    public long get(long key) {
+        int n = NGramTable.orderOf(key);
+        if (!contains(n)) {
+            return 0;
+        }
+        Section section = sections[n];
+        int low = 0;
+        int high = section.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long k = data.getLong(section.keysOffset() + middle * 8);
+            if (k < key) {
+                low = middle + 1;
+            } else if (k > key) {
+                high = middle - 1;
+            } else {
+                int block = middle / INDEX_STEP;
+                int position = section.countsOffset() + data.getInt(section.indexOffset() + block * 4);
+                for (int skip = middle - block * INDEX_STEP; skip > 0; skip--) {
+                    while (data.get(position++) < 0) { } // Saute une occurrence (varint)
+                }
+                return readVarint(position);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parcourt tous les n-grammes d'un ordre, par ordre lexicographique.
+     *
+     * @param n la taille des n-grammes
+     * @param visitor le visiteur appelé pour chaque n-gramme encodé
+     * @throws IllegalArgumentException si cet ordre est absent du fichier
+     */
+    @Override
+    public void forEach(int n, NGramTable.Visitor visitor) {
+        if (!contains(n)) {
+            throw new IllegalArgumentException("Ordre de n-gramme absent du fichier : " + n);
+        }
+        Section section = sections[n];
+        int keyPosition = section.keysOffset();
+        int position = section.countsOffset();
+        for (int i = 0; i < section.size(); i++) {
+            long count = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data.get(position++);
+                count |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            visitor.visit(data.getLong(keyPosition), count);
+            keyPosition += 8;
+        }
+    }
+
+    /**
+     * Vérifie la somme de contrôle du fichier.
+     *
+     * @return {@code true} si le contenu correspond à la somme de contrôle de l'en-tête
+     */
+    public boolean checksumValid() {
+        return checksum(data) == data.getInt(8);
+    }
+
+    /**
+     * @return le chemin du fichier
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Lit un entier non signé encodé en varint à une position donnée.
+     */
+    private long readVarint(int position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data.get(position++);
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Calcule le CRC32C de tout ce qui suit le champ de la somme de contrôle.
+     */
+    private static int checksum(ByteBuffer data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data.duplicate().position(12));
+        return (int) crc.getValue();
+    }
+}
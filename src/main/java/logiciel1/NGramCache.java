@@ -0,0 +1,402 @@
+package logiciel1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+/**
+ * La classe {@code NGramCache} conserve sur disque les n-grammes déjà comptés des corpus,
+ * pour ne pas recompter un corpus qui n'a pas changé d'une exécution à l'autre.
+ *
+ * Chaque entrée est un fichier binaire de n-grammes (voir {@link NGramBinaryFile}) nommé d'après
+ * une empreinte du contenu du corpus (CRC32C et CRC32 de tous ses octets, soit 64 bits) et les
+ * options de l'analyse (ordres des n-grammes et traitement des espaces) : deux copies d'un même
+ * corpus partagent la même entrée. Pour éviter de relire un gros corpus à chaque fois, un index
+ * associe le chemin, la taille et la date de modification de chaque corpus déjà vu à son empreinte ;
+ * tant que ces métadonnées ne changent pas, une entrée en cache est retrouvée sans lire le corpus.
+ *
+ * Limite : le contenu n'est pas relu tant que la taille et la date de modification sont les mêmes.
+ * Un corpus réécrit avec la même taille sans que sa date change (date plus grossière que l'écriture
+ * sur certains systèmes de fichiers, date restaurée par {@code touch -r}, {@code rsync -t} ou une
+ * archive) donne donc les n-grammes de son ancien contenu. La date est comparée à la nanoseconde
+ * quand le système de fichiers la fournit ; pour forcer la relecture, supprimer
+ * {@code index.properties} (les entrées restent utilisables, retrouvées par leur empreinte).
+ *
+ * Lorsque la taille totale des entrées dépasse la limite, les entrées utilisées le moins
+ * récemment sont supprimées (la date de modification d'une entrée est mise à jour à chaque
+ * utilisation), ainsi que les lignes de l'index qui y menaient.
+ *
+ * Un même cache peut être utilisé par plusieurs threads (par exemple par {@code EvaluationMatrix},
+ * qui compte les corpus en parallèle) : les mises à jour de l'index et les suppressions d'entrées
+ * sont faites une à la fois.
+ *
+ * Exemple :
+ * <pre>
+ * NGramCache cache = new NGramCache(Path.of("cache"), 1L &lt;&lt; 30);
+ * NGramSource counts = cache.counts(Path.of("corpus.txt"), 1, 2, 3);
+ * </pre>
+ */
+public class NGramCache {
+
+    /**
+     * Dossier du cache utilisé par défaut (propriété système {@code analyzer.cache.dir}).
+     */
+    public static final String DIRECTORY_PROPERTY = "analyzer.cache.dir";
+
+    /**
+     * Taille maximale du cache par défaut, en Mo (propriété système {@code analyzer.cache.max-mb}).
+     */
+    public static final String MAX_SIZE_PROPERTY = "analyzer.cache.max-mb";
+
+    /**
+     * Traitement des espaces, inclus dans la clé des entrées : les espaces ({@code \s}) sont ignorés
+     * (voir {@link CorpusAnalyzer#isWhitespace(char)}).
+     */
+    static final String WHITESPACE_MODE = "sans-espaces";
+
+    private static final String EXTENSION = ".ngb";
+    private static final String INDEX_FILE = "index.properties";
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * Une entrée du cache, avec sa date de dernière utilisation et sa taille.
+     */
+    private record Entry(Path path, FileTime used, long size) {
+    }
+
+    /**
+     * Construit un cache dans un dossier, créé au besoin.
+     *
+     * @param directory le dossier des entrées
+     * @param maxBytes la taille totale maximale des entrées, en octets
+     * @throws IllegalArgumentException si la taille maximale est négative
+     * @throws RuntimeException si le dossier ne peut pas être créé
+     */
+    public NGramCache(Path directory, long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Taille maximale du cache invalide : " + maxBytes);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Impossible de créer le dossier du cache : " + directory, e);
+        }
+    }
+
+    /**
+     * Construit le cache par défaut : dossier donné par la propriété {@value #DIRECTORY_PROPERTY}
+     * (par défaut {@code analyzer-ngram-cache} dans le dossier temporaire) et taille maximale donnée
+     * par {@value #MAX_SIZE_PROPERTY} (1024 Mo par défaut).
+     *
+     * @return le cache
+     * @throws RuntimeException si le dossier ne peut pas être créé
+     */
+    public static NGramCache defaultCache() {
+        Path directory = Path.of(System.getProperty(DIRECTORY_PROPERTY,
+                Path.of(System.getProperty("java.io.tmpdir"), "analyzer-ngram-cache").toString()));
+        long maxMb = Long.parseLong(System.getProperty(MAX_SIZE_PROPERTY, "1024"));
+        return new NGramCache(directory, maxMb << 20);
+    }
+
+    /**
+     * Retourne les n-grammes d'un corpus texte (UTF-8), depuis le cache si le même contenu a déjà
+     * été compté avec les mêmes ordres, sinon en le comptant puis en l'ajoutant au cache.
+     *
+     * @param corpus le fichier du corpus
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return les n-grammes du corpus, lus par projection depuis l'entrée du cache
+     * @throws IllegalArgumentException si aucun ordre n'est donné ou si un ordre n'est pas supporté
+     * @throws RuntimeException si le corpus ou le cache est illisible
+     */
+    public NGramBinaryFile counts(Path corpus, int... orders) {
+        String options = options(orders);
+        Path absolute = corpus.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = attributes(absolute);
+        String fingerprint = attributes.size() + ":" + attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+
+        String known = loadIndex().getProperty(absolute.toString());
+        if (known != null && known.startsWith(fingerprint + ":")) {
+            Path entry = entry(known.substring(fingerprint.length() + 1), options);
+            NGramBinaryFile cached = openEntry(entry);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        String contentHash = contentHash(absolute);
+        Path entry = entry(contentHash, options);
+        NGramBinaryFile cached = openEntry(entry);
+        if (cached == null) {
+            NGramCounts counts;
+            try (ParallelCorpusAnalyzer analyzer = new ParallelCorpusAnalyzer()) {
+                counts = analyzer.countNGrams(MappedCorpus.map(absolute), orders);
+            }
+            writeEntry(entry, counts);
+            cached = NGramBinaryFile.open(entry); // Ouvert avant l'éviction, qui peut supprimer d'autres entrées
+        }
+        synchronized (this) {
+            Properties index = loadIndex();
+            index.setProperty(absolute.toString(), fingerprint + ":" + contentHash);
+            evict(entry, index);
+            storeIndex(index);
+        }
+        return cached;
+    }
+
+    /**
+     * Écrit une entrée dans un fichier temporaire du dossier du cache, puis la renomme : une entrée
+     * n'est jamais visible à moitié écrite. Si l'écriture échoue, le fichier temporaire est supprimé.
+     */
+    private void writeEntry(Path entry, NGramCounts counts) {
+        Path temp;
+        try {
+            temp = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du cache : " + entry, e);
+        }
+        boolean moved = false;
+        try {
+            new BinaryFileExport().export(temp.toString(), counts);
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du cache : " + entry, e);
+        } finally {
+            if (!moved) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    // L'erreur d'écriture, déjà levée, est plus utile que celle de la suppression
+                }
+            }
+        }
+    }
+
+    /**
+     * Supprime les entrées utilisées le moins récemment jusqu'à repasser sous la taille maximale,
+     * et retire de l'index les corpus dont l'entrée n'existe plus.
+     *
+     * @return le nombre d'entrées supprimées
+     * @throws RuntimeException si le dossier du cache est illisible
+     */
+    public synchronized int evict() {
+        Properties index = loadIndex();
+        int removed = evict(null, index);
+        storeIndex(index);
+        return removed;
+    }
+
+    /**
+     * @return la taille totale des entrées du cache, en octets
+     * @throws RuntimeException si le dossier du cache est illisible
+     */
+    public long size() {
+        long total = 0;
+        for (Path entry : entries()) {
+            total += sizeOf(entry);
+        }
+        return total;
+    }
+
+    /**
+     * @return le dossier des entrées
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * @return la taille totale maximale des entrées, en octets
+     */
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Supprime les entrées les plus anciennes, sauf {@code keep} (l'entrée qui vient d'être écrite),
+     * puis retire de l'index les corpus dont l'empreinte n'a plus aucune entrée.
+     */
+    private int evict(Path keep, Properties index) {
+        long total = 0;
+        List<Entry> byAge = new ArrayList<>();
+        for (Path path : entries()) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                total += attributes.size();
+                byAge.add(new Entry(path, attributes.lastModifiedTime(), attributes.size()));
+            } catch (IOException e) {
+                // Entrée supprimée entre-temps (autre processus)
+            }
+        }
+        byAge.sort(Comparator.comparing(Entry::used));
+
+        int removed = 0;
+        for (Entry entry : byAge) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (entry.path().equals(keep)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(entry.path());
+                total -= entry.size();
+                removed++;
+            } catch (IOException e) {
+                throw new RuntimeException("Erreur lors de la suppression d'une entrée du cache : " + entry.path(), e);
+            }
+        }
+        prune(index);
+        return removed;
+    }
+
+    /**
+     * Retire de l'index les corpus dont l'empreinte ne correspond plus à aucune entrée du cache
+     * (entrée supprimée par l'éviction ou à la main), pour que l'index ne grandisse pas sans fin.
+     */
+    private void prune(Properties index) {
+        Set<String> hashes = new HashSet<>();
+        for (Path entry : entries()) {
+            String name = entry.getFileName().toString();
+            int dash = name.indexOf('-');
+            if (dash > 0) {
+                hashes.add(name.substring(0, dash));
+            }
+        }
+        index.entrySet().removeIf(line -> {
+            String value = line.getValue().toString();
+            return !hashes.contains(value.substring(value.lastIndexOf(':') + 1));
+        });
+    }
+
+    /**
+     * Ouvre une entrée et marque son utilisation, ou retourne {@code null} si elle est absente ou invalide.
+     */
+    private NGramBinaryFile openEntry(Path entry) {
+        if (!Files.exists(entry)) {
+            return null;
+        }
+        try {
+            NGramBinaryFile file = NGramBinaryFile.open(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return file;
+        } catch (IOException | RuntimeException e) {
+            return null; // Entrée supprimée entre-temps ou corrompue : elle sera recalculée
+        }
+    }
+
+    private Path entry(String contentHash, String options) {
+        return directory.resolve(contentHash + "-" + options + EXTENSION);
+    }
+
+    private List<Path> entries() {
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            stream.forEach(entries::add);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du cache : " + directory, e);
+        }
+        return entries;
+    }
+
+    private Properties loadIndex() {
+        Properties index = new Properties();
+        Path path = directory.resolve(INDEX_FILE);
+        try (InputStream in = Files.newInputStream(path)) {
+            index.load(in);
+        } catch (NoSuchFileException e) {
+            // Premier usage du cache
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture de l'index du cache : " + path, e);
+        }
+        return index;
+    }
+
+    /**
+     * Écrit l'index à côté puis le renomme, pour ne jamais laisser un index à moitié écrit.
+     */
+    private void storeIndex(Properties index) {
+        Path path = directory.resolve(INDEX_FILE);
+        try {
+            Path temp = Files.createTempFile(directory, INDEX_FILE, ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                index.store(out, "Corpus -> taille:date (ns):empreinte");
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture de l'index du cache : " + path, e);
+        }
+    }
+
+    /**
+     * Empreinte de 64 bits du contenu d'un fichier : CRC32C et CRC32 de tous ses octets
+     * (deux sommes accélérées par le processeur, calculées en une lecture).
+     */
+    static String contentHash(Path path) {
+        CRC32C crc32c = new CRC32C();
+        CRC32 crc32 = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer.clear()) != -1) {
+                buffer.flip();
+                crc32c.update(buffer.duplicate());
+                crc32.update(buffer);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du fichier : " + path, e);
+        }
+        return String.format("%08x%08x", crc32c.getValue(), crc32.getValue());
+    }
+
+    /**
+     * Partie de la clé décrivant les options de l'analyse, par exemple {@code o123-sans-espaces}.
+     */
+    private static String options(int[] orders) {
+        int[] sorted = new NGramCounter(orders).counts().orders(); // Vérifie les ordres
+        StringBuilder sb = new StringBuilder("o");
+        for (int order : sorted) {
+            sb.append(order);
+        }
+        return sb.append('-').append(WHITESPACE_MODE).toString();
+    }
+
+    private static BasicFileAttributes attributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du fichier : " + path, e);
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0; // Entrée supprimée entre-temps
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package logiciel1;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * La classe {@code NGramCounter} compte en une seule passe les n-grammes de plusieurs ordres
+ * (par exemple unigrams, bigrams et trigrams) à l'aide d'une fenêtre glissante.
+ *
+ * Les caractères sont fournis au fur et à mesure, ce qui permet d'alimenter le compteur
+ * depuis une chaîne, un tampon ou un flux. Le résultat est identique à celui de
+ * {@link CorpusAnalyzer#countNGram(String, int)} sur le texte complet : les espaces
+ * ({@code \s}) sont ignorés et les caractères de contrôle en début et fin de texte sont
+ * retirés comme par {@link String#trim()}.
+ *
+ * Exemple :
+ * <pre>
+ * NGramCounter counter = new NGramCounter(1, 2, 3);
+ * counter.accept("Bonjour le monde");
+ * NGramCounts counts = counter.counts();
+ * </pre>
+ */
+public class NGramCounter {
+
+    private static final long WINDOW_MASK = (1L << (16 * NGramTable.MAX_ORDER)) - 1;
+
+    private final int[] orders;
+    private final NGramTable[] tables;
+    private final boolean trim;
+
+    private long window; // Les derniers caractères retenus, 16 bits chacun
+    private int filled;
+    private boolean started;
+    private char[] pending = new char[8]; // Caractères de contrôle en attente d'un caractère visible
+    private int pendingLength;
+    private long head; // Les premiers caractères retenus (au plus MAX_ORDER - 1)
+    private int headLength;
+
+    /**
+     * Construit un compteur pour les ordres donnés.
+     *
+     * @param orders les tailles de n-grammes à compter (de 1 à {@link NGramTable#MAX_ORDER})
+     * @throws IllegalArgumentException si aucun ordre n'est donné ou si un ordre n'est pas supporté
+     */
+    public NGramCounter(int... orders) {
+        this(true, orders);
+    }
+
+    /**
+     * Construit un compteur pour les ordres donnés, en choisissant si les caractères de contrôle
+     * en début et fin de texte sont retirés. Sans ce retrait, le compteur peut analyser un
+     * morceau situé au milieu d'un texte dont les bornes ont déjà été ajustées.
+     *
+     * @param trim {@code true} pour retirer les caractères de contrôle en début et fin de texte
+     * @param orders les tailles de n-grammes à compter (de 1 à {@link NGramTable#MAX_ORDER})
+     * @throws IllegalArgumentException si aucun ordre n'est donné ou si un ordre n'est pas supporté
+     */
+    NGramCounter(boolean trim, int... orders) {
+        this.trim = trim;
+        if (orders.length == 0) {
+            throw new IllegalArgumentException("Au moins un ordre de n-gramme est requis");
+        }
+        this.orders = Arrays.stream(orders).distinct().sorted().toArray();
+        this.tables = new NGramTable[NGramTable.MAX_ORDER + 1];
+        for (int n : this.orders) {
+            tables[n] = new NGramTable(n);
+        }
+    }
+
+    /**
+     * Ajoute un caractère au texte analysé.
+     *
+     * @param c le caractère suivant du texte
+     */
+    public void accept(char c) {
+        if (c > ' ') {
+            started = true;
+            if (pendingLength > 0) {
+                flushPending();
+            }
+            push(c);
+        } else if (!CorpusAnalyzer.isWhitespace(c)) {
+            if (!trim) {
+                push(c);
+            } else if (started) {
+                // Caractère de contrôle : compté seulement si un caractère visible le suit (cf. trim())
+                if (pendingLength == pending.length) {
+                    pending = Arrays.copyOf(pending, pendingLength * 2);
+                }
+                pending[pendingLength++] = c;
+            }
+        }
+    }
+
+    /**
+     * Ajoute une séquence de caractères au texte analysé.
+     *
+     * @param s la séquence à ajouter
+     */
+    public void accept(CharSequence s) {
+        accept(s, 0, s.length());
+    }
+
+    /**
+     * Ajoute une partie d'une séquence de caractères au texte analysé.
+     *
+     * @param s la séquence contenant les caractères
+     * @param from l'indice du premier caractère (inclus)
+     * @param to l'indice du dernier caractère (exclu)
+     */
+    public void accept(CharSequence s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            accept(s.charAt(i));
+        }
+    }
+
+    /**
+     * Ajoute une partie d'un tableau de caractères au texte analysé.
+     *
+     * @param buffer le tableau contenant les caractères
+     * @param offset l'indice du premier caractère
+     * @param length le nombre de caractères à ajouter
+     */
+    public void accept(char[] buffer, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            accept(buffer[i]);
+        }
+    }
+
+    /**
+     * Retourne les tables de comptage remplies jusqu'ici. Les tables ne sont pas copiées :
+     * elles continuent d'évoluer si d'autres caractères sont ajoutés ensuite.
+     *
+     * @return les n-grammes comptés pour chaque ordre
+     */
+    public NGramCounts counts() {
+        return new NGramCounts(tables);
+    }
+
+    /**
+     * Retourne les premiers caractères comptés (au plus {@link NGramTable#MAX_ORDER} - 1).
+     *
+     * @return les premiers caractères comptés, dans l'ordre du texte
+     */
+    char[] head() {
+        return unpack(head, headLength);
+    }
+
+    /**
+     * Retourne les derniers caractères comptés (au plus {@link NGramTable#MAX_ORDER} - 1).
+     *
+     * @return les derniers caractères comptés, dans l'ordre du texte
+     */
+    char[] tail() {
+        return unpack(window, Math.min(filled, NGramTable.MAX_ORDER - 1));
+    }
+
+    /**
+     * Écrit l'état complet du compteur (fenêtre, caractères en attente et tables) dans un flux binaire,
+     * pour pouvoir reprendre l'analyse plus tard là où elle s'est arrêtée.
+     *
+     * @param out le flux de sortie
+     * @throws IOException si une erreur d'écriture survient
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(trim);
+        out.writeInt(orders.length);
+        for (int n : orders) {
+            out.writeInt(n);
+        }
+        out.writeLong(window);
+        out.writeInt(filled);
+        out.writeBoolean(started);
+        out.writeInt(pendingLength);
+        for (int i = 0; i < pendingLength; i++) {
+            out.writeChar(pending[i]);
+        }
+        out.writeLong(head);
+        out.writeInt(headLength);
+        for (int n : orders) {
+            tables[n].writeTo(out);
+        }
+    }
+
+    /**
+     * Relit un compteur écrit par {@link #writeTo(DataOutput)}.
+     *
+     * @param in le flux d'entrée
+     * @return le compteur, prêt à recevoir la suite du texte
+     * @throws IOException si une erreur de lecture survient ou si le flux ne contient pas un état valide
+     */
+    static NGramCounter readFrom(DataInput in) throws IOException {
+        boolean trim = in.readBoolean();
+        int orderCount = in.readInt();
+        if (orderCount < 1 || orderCount > NGramTable.MAX_ORDER) {
+            throw new IOException("État de compteur invalide : " + orderCount + " ordres");
+        }
+        int[] orders = new int[orderCount];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = in.readInt();
+            if (orders[i] < 1 || orders[i] > NGramTable.MAX_ORDER) {
+                throw new IOException("État de compteur invalide : ordre " + orders[i]);
+            }
+        }
+        NGramCounter counter = new NGramCounter(trim, orders);
+        counter.window = in.readLong();
+        counter.filled = in.readInt();
+        counter.started = in.readBoolean();
+        int pendingLength = in.readInt();
+        if (counter.filled < 0 || counter.filled > NGramTable.MAX_ORDER || pendingLength < 0) {
+            throw new IOException("État de compteur invalide : fenêtre de " + counter.filled
+                    + " caractères, " + pendingLength + " en attente");
+        }
+        for (int i = 0; i < pendingLength; i++) {
+            if (counter.pendingLength == counter.pending.length) {
+                counter.pending = Arrays.copyOf(counter.pending, counter.pendingLength * 2);
+            }
+            counter.pending[counter.pendingLength++] = in.readChar();
+        }
+        counter.head = in.readLong();
+        counter.headLength = in.readInt();
+        if (counter.headLength < 0 || counter.headLength > NGramTable.MAX_ORDER - 1) {
+            throw new IOException("État de compteur invalide : début de " + counter.headLength + " caractères");
+        }
+        for (int n : counter.orders) {
+            counter.tables[n] = NGramTable.readFrom(in);
+            if (counter.tables[n].order() != n) {
+                throw new IOException("État de compteur invalide : table d'ordre " + counter.tables[n].order()
+                        + " à la place de l'ordre " + n);
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Fait glisser la fenêtre d'un caractère et compte les n-grammes qui se terminent sur lui.
+     */
+    private void push(char c) {
+        window = ((window << 16) | c) & WINDOW_MASK;
+        if (filled < NGramTable.MAX_ORDER) filled++;
+        if (headLength < NGramTable.MAX_ORDER - 1) {
+            head = (head << 16) | c;
+            headLength++;
+        }
+        for (int n : orders) {
+            if (n > filled) break;
+            long marker = 1L << (16 * n);
+            tables[n].increment((window & (marker - 1)) | marker);
+        }
+    }
+
+    /**
+     * Extrait les {@code length} derniers caractères d'une fenêtre encodée.
+     */
+    private static char[] unpack(long packed, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (packed >>> (16 * (length - 1 - i)));
+        }
+        return chars;
+    }
+
+    /**
+     * Compte les caractères de contrôle en attente, désormais suivis d'un caractère visible.
+     */
+    private void flushPending() {
+        for (int i = 0; i < pendingLength; i++) {
+            push(pending[i]);
+        }
+        pendingLength = 0;
+    }
+}
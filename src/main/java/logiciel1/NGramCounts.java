@@ -0,0 +1,117 @@
+package logiciel1;
+
+import java.util.List;
+
+/**
+ * La classe {@code NGramCounts} regroupe les tables de comptage de plusieurs ordres
+ * de n-grammes produites en une seule passe sur un corpus (voir {@link NGramCounter}).
+ */
+public class NGramCounts implements NGramSource {
+
+    private final NGramTable[] tables;
+
+    /**
+     * Construit un résultat à partir de tables indexées par ordre.
+     *
+     * @param tables les tables indexées par ordre ({@code null} pour un ordre non compté)
+     */
+    NGramCounts(NGramTable[] tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * @return les ordres de n-grammes comptés, par ordre croissant
+     */
+    public int[] orders() {
+        int count = 0;
+        for (NGramTable table : tables) {
+            if (table != null) count++;
+        }
+        int[] orders = new int[count];
+        int i = 0;
+        for (int n = 0; n < tables.length; n++) {
+            if (tables[n] != null) orders[i++] = n;
+        }
+        return orders;
+    }
+
+    /**
+     * Indique si un ordre de n-gramme a été compté.
+     *
+     * @param n la taille des n-grammes
+     * @return {@code true} si une table existe pour cet ordre, {@code false} sinon
+     */
+    @Override
+    public boolean contains(int n) {
+        return n >= 1 && n < tables.length && tables[n] != null;
+    }
+
+    /**
+     * Retourne la table de comptage d'un ordre donné.
+     *
+     * @param n la taille des n-grammes
+     * @return la table des n-grammes de cet ordre
+     * @throws IllegalArgumentException si cet ordre n'a pas été compté
+     */
+    public NGramTable table(int n) {
+        if (!contains(n)) {
+            throw new IllegalArgumentException("Ordre de n-gramme non compté : " + n);
+        }
+        return tables[n];
+    }
+
+    /**
+     * Retourne la somme des occurrences d'un ordre, ou 0 s'il n'a pas été compté.
+     *
+     * @param n la taille des n-grammes
+     * @return le nombre total d'occurrences de cet ordre
+     */
+    @Override
+    public long total(int n) {
+        return contains(n) ? tables[n].total() : 0;
+    }
+
+    /**
+     * Parcourt tous les n-grammes d'un ordre donné.
+     *
+     * @param n la taille des n-grammes
+     * @param visitor le visiteur appelé pour chaque n-gramme encodé
+     * @throws IllegalArgumentException si cet ordre n'a pas été compté
+     */
+    @Override
+    public void forEach(int n, NGramTable.Visitor visitor) {
+        table(n).forEach(visitor);
+    }
+
+    /**
+     * Convertit la table d'un ordre en liste d'objets {@code NGramFrequency}.
+     *
+     * @param n la taille des n-grammes
+     * @return la liste des n-grammes de cet ordre et de leurs fréquences
+     * @throws IllegalArgumentException si cet ordre n'a pas été compté
+     */
+    public List<NGramFrequency> list(int n) {
+        return table(n).toList();
+    }
+
+    /**
+     * @return la liste des unigrams et de leurs fréquences
+     */
+    public List<NGramFrequency> unigrams() {
+        return list(1);
+    }
+
+    /**
+     * @return la liste des bigrams et de leurs fréquences
+     */
+    public List<NGramFrequency> bigrams() {
+        return list(2);
+    }
+
+    /**
+     * @return la liste des trigrams et de leurs fréquences
+     */
+    public List<NGramFrequency> trigrams() {
+        return list(3);
+    }
+}
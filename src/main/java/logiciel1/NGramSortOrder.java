@@ -0,0 +1,13 @@
+package logiciel1;
+
+/**
+ * L'énumération {@code NGramSortOrder} définit l'ordre des lignes d'un export de n-grammes.
+ */
+public enum NGramSortOrder {
+    /** Ordre de la table de comptage (non spécifié, le plus rapide). */
+    NONE,
+    /** Fréquences décroissantes, puis ordre lexicographique en cas d'égalité. */
+    FREQUENCY,
+    /** Ordre lexicographique des n-grammes ({@link String#compareTo}). */
+    LEXICOGRAPHIC
+}
@@ -0,0 +1,34 @@
+package logiciel1;
+
+/**
+ * L'interface {@code NGramSource} définit un contrat pour les objets qui fournissent
+ * des fréquences de n-grammes par ordre, sans imposer leur représentation
+ * (tables en mémoire, fichier binaire projeté...).
+ */
+public interface NGramSource {
+
+    /**
+     * Indique si un ordre de n-gramme est disponible.
+     *
+     * @param n la taille des n-grammes
+     * @return {@code true} si cet ordre est disponible, {@code false} sinon
+     */
+    public boolean contains(int n);
+
+    /**
+     * Retourne la somme des occurrences d'un ordre, ou 0 s'il n'est pas disponible.
+     *
+     * @param n la taille des n-grammes
+     * @return le nombre total d'occurrences de cet ordre
+     */
+    public long total(int n);
+
+    /**
+     * Parcourt tous les n-grammes d'un ordre donné.
+     *
+     * @param n la taille des n-grammes
+     * @param visitor le visiteur appelé pour chaque n-gramme encodé (voir {@link NGramTable})
+     * @throws IllegalArgumentException si cet ordre n'est pas disponible
+     */
+    public void forEach(int n, NGramTable.Visitor visitor);
+}
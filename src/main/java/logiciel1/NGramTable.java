@@ -0,0 +1,379 @@
+package logiciel1;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La classe {@code NGramTable} est une table de comptage primitive pour les n-grammes
+ * de 1 à 3 caractères, à adressage ouvert (sondage linéaire).
+ *
+ * Chaque n-gramme est encodé dans une clé {@code long} : les caractères occupent
+ * 16 bits chacun (le premier caractère en poids fort), et un bit marqueur est placé
+ * juste au-dessus du dernier caractère pour encoder l'ordre. Une clé n'est donc jamais
+ * nulle, ce qui permet d'utiliser {@code 0} comme case vide.
+ *
+ * Exemple :
+ * <pre>
+ * NGramTable table = new NGramTable(2);
+ * table.increment(NGramTable.pack("ab", 0, 2));
+ * long count = table.get(NGramTable.pack("ab", 0, 2)); // 1
+ * </pre>
+ *
+ * Pour un même ordre, l'ordre numérique des clés correspond à l'ordre lexicographique
+ * des chaînes ({@link String#compareTo}).
+ */
+public class NGramTable {
+
+    /**
+     * Ordre maximal d'un n-gramme représentable dans une clé {@code long}.
+     */
+    public static final int MAX_ORDER = 3;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final int order;
+    private long[] keys;
+    private long[] counts;
+    private int mask;
+    private int shift;
+    private int size;
+    private long total;
+
+    /**
+     * Visiteur appelé pour chaque n-gramme d'une table, sans allocation par entrée.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Reçoit un n-gramme encodé et son nombre d'occurrences.
+         *
+         * @param key la clé encodée du n-gramme
+         * @param count le nombre d'occurrences du n-gramme
+         */
+        void visit(long key, long count);
+    }
+
+    /**
+     * Construit une table vide pour des n-grammes d'ordre {@code order}.
+     *
+     * @param order la taille des n-grammes stockés (de 1 à {@link #MAX_ORDER})
+     * @throws IllegalArgumentException si l'ordre n'est pas compris entre 1 et {@link #MAX_ORDER}
+     */
+    public NGramTable(int order) {
+        this(order, MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Construit une table vide dimensionnée pour {@code expectedSize} n-grammes distincts.
+     *
+     * @param order la taille des n-grammes stockés (de 1 à {@link #MAX_ORDER})
+     * @param expectedSize le nombre attendu de n-grammes distincts
+     * @throws IllegalArgumentException si l'ordre n'est pas compris entre 1 et {@link #MAX_ORDER}
+     */
+    public NGramTable(int order, int expectedSize) {
+        checkOrder(order);
+        this.order = order;
+        int capacity = MIN_CAPACITY;
+        while (capacity < (long) expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Vérifie qu'un ordre de n-gramme est représentable dans une clé {@code long}.
+     *
+     * @param n l'ordre à vérifier
+     * @throws IllegalArgumentException si l'ordre n'est pas compris entre 1 et {@link #MAX_ORDER}
+     */
+    public static void checkOrder(int n) {
+        if (n < 1 || n > MAX_ORDER) {
+            throw new IllegalArgumentException("Ordre de n-gramme non supporté : " + n);
+        }
+    }
+
+    /**
+     * Encode les {@code n} caractères de {@code s} à partir de {@code from} dans une clé.
+     *
+     * @param s la séquence contenant le n-gramme
+     * @param from l'indice du premier caractère
+     * @param n la taille du n-gramme (de 1 à {@link #MAX_ORDER})
+     * @return la clé encodée
+     */
+    public static long pack(CharSequence s, int from, int n) {
+        long key = 1;
+        for (int i = 0; i < n; i++) {
+            key = (key << 16) | s.charAt(from + i);
+        }
+        return key;
+    }
+
+    /**
+     * Retourne l'ordre (nombre de caractères) d'une clé encodée.
+     *
+     * @param key la clé encodée
+     * @return l'ordre du n-gramme
+     */
+    public static int orderOf(long key) {
+        return (63 - Long.numberOfLeadingZeros(key)) >>> 4;
+    }
+
+    /**
+     * Retourne le {@code i}-ème caractère d'une clé encodée.
+     *
+     * @param key la clé encodée
+     * @param i l'indice du caractère (0 pour le premier)
+     * @return le caractère à cet indice
+     */
+    public static char charAt(long key, int i) {
+        return (char) (key >>> (16 * (orderOf(key) - 1 - i)));
+    }
+
+    /**
+     * Décode une clé en chaîne de caractères.
+     *
+     * @param key la clé encodée
+     * @return le n-gramme sous forme de chaîne
+     */
+    public static String decode(long key) {
+        int n = orderOf(key);
+        char[] chars = new char[n];
+        for (int i = 0; i < n; i++) {
+            chars[i] = (char) (key >>> (16 * (n - 1 - i)));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Incrémente de 1 le nombre d'occurrences d'un n-gramme.
+     *
+     * @param key la clé encodée du n-gramme
+     */
+    public void increment(long key) {
+        add(key, 1);
+    }
+
+    /**
+     * Ajoute {@code delta} occurrences à un n-gramme.
+     *
+     * @param key la clé encodée du n-gramme
+     * @param delta le nombre d'occurrences à ajouter
+     */
+    public void add(long key, long delta) {
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                counts[slot] += delta;
+                total += delta;
+                return;
+            }
+            if (k == 0) {
+                keys[slot] = key;
+                counts[slot] = delta;
+                total += delta;
+                if (++size * 2 > keys.length) {
+                    rehash(keys.length << 1);
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Retourne le nombre d'occurrences d'un n-gramme.
+     *
+     * @param key la clé encodée du n-gramme
+     * @return le nombre d'occurrences, ou 0 si le n-gramme est absent
+     */
+    public long get(long key) {
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                return counts[slot];
+            }
+            if (k == 0) {
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Ajoute toutes les occurrences d'une autre table à celle-ci.
+     *
+     * @param other la table à fusionner (de même ordre)
+     * @throws IllegalArgumentException si les deux tables n'ont pas le même ordre
+     */
+    public void merge(NGramTable other) {
+        if (other.order != order) {
+            throw new IllegalArgumentException("Ordres incompatibles : " + order + " et " + other.order);
+        }
+        other.forEach(this::add);
+    }
+
+    /**
+     * Parcourt toutes les entrées de la table, dans un ordre non spécifié.
+     *
+     * @param visitor le visiteur appelé pour chaque n-gramme
+     */
+    public void forEach(Visitor visitor) {
+        long[] k = keys;
+        long[] c = counts;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != 0) {
+                visitor.visit(k[i], c[i]);
+            }
+        }
+    }
+
+    /**
+     * Retourne les clés de la table triées par ordre croissant, c'est-à-dire
+     * par ordre lexicographique des n-grammes.
+     *
+     * @return un nouveau tableau contenant les clés triées
+     */
+    public long[] sortedKeys() {
+        long[] sorted = new long[size];
+        int j = 0;
+        for (long key : keys) {
+            if (key != 0) sorted[j++] = key;
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * @return l'ordre des n-grammes stockés
+     */
+    public int order() {
+        return order;
+    }
+
+    /**
+     * @return le nombre de n-grammes distincts
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return la somme des occurrences de tous les n-grammes
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Construit une map chaîne -> fréquence, pour les appelants existants.
+     *
+     * @return une map associant chaque n-gramme à son nombre d'occurrences
+     * @throws ArithmeticException si un nombre d'occurrences dépasse {@link Integer#MAX_VALUE}
+     */
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> map = new HashMap<>(size * 2);
+        forEach((key, count) -> map.put(decode(key), Math.toIntExact(count)));
+        return map;
+    }
+
+    /**
+     * Construit une liste d'objets {@code NGramFrequency}, pour les appelants existants.
+     *
+     * @return une liste des n-grammes et de leurs fréquences
+     * @throws ArithmeticException si un nombre d'occurrences dépasse {@link Integer#MAX_VALUE}
+     */
+    public List<NGramFrequency> toList() {
+        List<NGramFrequency> list = new ArrayList<>(size);
+        forEach((key, count) -> list.add(new NGramFrequency(decode(key), Math.toIntExact(count))));
+        return list;
+    }
+
+    /**
+     * Écrit la table dans un flux binaire (ordre, nombre d'entrées, puis paires clé/occurrences).
+     *
+     * @param out le flux de sortie
+     * @throws IOException si une erreur d'écriture survient
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(order);
+        out.writeInt(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                out.writeLong(keys[i]);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Relit une table écrite par {@link #writeTo(DataOutput)}.
+     *
+     * @param in le flux d'entrée
+     * @return la table relue
+     * @throws IOException si une erreur de lecture survient ou si le flux ne contient pas une table valide
+     */
+    static NGramTable readFrom(DataInput in) throws IOException {
+        int order = in.readInt();
+        int size = in.readInt();
+        if (order < 1 || order > MAX_ORDER || size < 0) {
+            throw new IOException("Table de n-grammes invalide : ordre " + order + ", " + size + " entrées");
+        }
+        // La taille annoncée ne sert qu'à dimensionner la table : bornée, elle ne peut pas
+        // provoquer une allocation démesurée si le flux est corrompu
+        NGramTable table = new NGramTable(order, Math.min(size, 1 << 20));
+        for (int i = 0; i < size; i++) {
+            long key = in.readLong();
+            if (orderOf(key) != order) {
+                throw new IOException("Clé de n-gramme invalide pour l'ordre " + order + " : " + key);
+            }
+            table.add(key, in.readLong());
+        }
+        return table;
+    }
+
+    /**
+     * Calcule la case initiale d'une clé (hachage de Fibonacci).
+     */
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    /**
+     * Alloue des tableaux vides de la capacité donnée (puissance de deux).
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new long[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /**
+     * Redimensionne la table et réinsère toutes les entrées.
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = slot(key);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package logiciel1;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * La classe {@code ParallelCorpusAnalyzer} est une implémentation parallèle de {@code CorpusProcessor}.
+ * Le corpus est découpé en morceaux comptés chacun dans ses propres tables sur un {@link ForkJoinPool} ;
+ * les n-grammes à cheval sur deux morceaux sont recomptés lors de la fusion des tables.
+ * Le résultat est identique à celui de {@link CorpusAnalyzer}.
+ *
+ * Exemple :
+ * <pre>
+ * try (ParallelCorpusAnalyzer analyzer = new ParallelCorpusAnalyzer(32, 1 &lt;&lt; 20)) {
+ *     NGramCounts counts = analyzer.countNGrams(corpus, 1, 2, 3);
+ * }
+ * </pre>
+ */
+public class ParallelCorpusAnalyzer implements CorpusProcessor, AutoCloseable {
+
+    /**
+     * Taille par défaut d'un morceau, en caractères (ou en octets pour un fichier projeté).
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Construit un analyseur utilisant tous les processeurs disponibles
+     * et des morceaux de {@link #DEFAULT_CHUNK_SIZE} caractères.
+     */
+    public ParallelCorpusAnalyzer() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Construit un analyseur avec un parallélisme et une taille de morceau donnés.
+     *
+     * @param parallelism le nombre de threads de comptage
+     * @param chunkSize la taille d'un morceau, en caractères (ou en octets pour un fichier projeté)
+     * @throws IllegalArgumentException si l'un des paramètres n'est pas strictement positif
+     */
+    public ParallelCorpusAnalyzer(int parallelism, int chunkSize) {
+        if (parallelism <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Parallélisme et taille de morceau doivent être positifs");
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Compte les occurrences des n-grammes dans une chaîne donnée.
+     * Pour {@code n} hors de 1 à {@link NGramTable#MAX_ORDER}, le comptage est séquentiel.
+     *
+     * @param contenu la chaîne de caractères à analyser
+     * @param n la taille des n-grammes à extraire
+     * @return une map associant chaque n-gramme à son nombre d'occurrences
+     */
+    @Override
+    public Map<String, Integer> countNGram(String contenu, int n) {
+        if (n >= 1 && n <= NGramTable.MAX_ORDER) {
+            return countNGramTable(contenu, n).toMap();
+        }
+        return new CorpusAnalyzer().countNGram(contenu, n);
+    }
+
+    /**
+     * Compte en parallèle les occurrences des n-grammes dans une chaîne donnée.
+     *
+     * @param contenu la chaîne de caractères à analyser
+     * @param n la taille des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return une table associant chaque n-gramme encodé à son nombre d'occurrences
+     * @throws IllegalArgumentException si {@code n} n'est pas compris entre 1 et {@link NGramTable#MAX_ORDER}
+     */
+    @Override
+    public NGramTable countNGramTable(String contenu, int n) {
+        return countNGrams(contenu, n).table(n);
+    }
+
+    /**
+     * Compte en parallèle les n-grammes de plusieurs ordres dans une chaîne donnée.
+     *
+     * @param contenu la chaîne de caractères à analyser
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return les tables de comptage de chaque ordre demandé
+     * @throws IllegalArgumentException si aucun ordre n'est donné ou si un ordre n'est pas supporté
+     */
+    @Override
+    public NGramCounts countNGrams(String contenu, int... orders) {
+        // Les bornes de trim() sont appliquées une fois pour toutes : les morceaux n'ont plus à les gérer
+        int start = 0;
+        int end = contenu.length();
+        while (start < end && contenu.charAt(start) <= ' ') start++;
+        while (end > start && contenu.charAt(end - 1) <= ' ') end--;
+
+        List<Consumer<NGramCounter>> chunks = new ArrayList<>();
+        for (int from = start; from < end; from += chunkSize) {
+            int chunkStart = from;
+            int chunkEnd = (int) Math.min(end, (long) from + chunkSize);
+            chunks.add(counter -> counter.accept(contenu, chunkStart, chunkEnd));
+        }
+        return count(chunks, orders);
+    }
+
+    /**
+     * Compte en parallèle les n-grammes de plusieurs ordres d'un fichier projeté en mémoire.
+     * Chaque fenêtre est découpée en morceaux d'environ {@code chunkSize} octets, alignés
+     * sur le début d'un caractère UTF-8.
+     *
+     * @param corpus le fichier projeté à analyser
+     * @param orders les tailles des n-grammes à extraire (de 1 à {@link NGramTable#MAX_ORDER})
+     * @return les tables de comptage de chaque ordre demandé
+     * @throws IllegalArgumentException si aucun ordre n'est donné ou si un ordre n'est pas supporté
+     * @throws RuntimeException si le fichier n'est pas un texte UTF-8 valide
+     */
+    public NGramCounts countNGrams(MappedCorpus corpus, int... orders) {
+        ByteBuffer[] windows = corpus.windows();
+
+        // Bornes de trim() en octets : les caractères <= ' ' sont toujours codés sur un seul octet
+        long start = 0;
+        long end = corpus.size();
+        while (start < end && isTrimmed(byteAt(windows, start))) start++;
+        while (end > start && isTrimmed(byteAt(windows, end - 1))) end--;
+
+        List<Consumer<NGramCounter>> chunks = new ArrayList<>();
+        long base = 0;
+        for (ByteBuffer window : windows) {
+            int from = (int) Math.max(0, Math.min(window.limit(), start - base));
+            int to = (int) Math.max(0, Math.min(window.limit(), end - base));
+            while (from < to) {
+                int limit = (int) Math.min(to, (long) from + chunkSize);
+                while (limit < to && MappedCorpus.isContinuation(window.get(limit))) limit++;
+                int chunkStart = from;
+                int chunkEnd = limit;
+                chunks.add(counter -> corpus.decode(window, chunkStart, chunkEnd, counter));
+                from = limit;
+            }
+            base += window.limit();
+        }
+        return count(chunks, orders);
+    }
+
+    /**
+     * Arrête le pool de threads de comptage.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Compte chaque morceau dans ses propres tables puis fusionne les résultats.
+     */
+    private NGramCounts count(List<Consumer<NGramCounter>> chunks, int[] orders) {
+        NGramCounter empty = new NGramCounter(false, orders); // Valide aussi les ordres
+        if (chunks.isEmpty()) {
+            return empty.counts();
+        }
+        int[] sorted = empty.counts().orders();
+        return new NGramCounts(pool.invoke(new CountTask(chunks, 0, chunks.size(), sorted)).tables);
+    }
+
+    /**
+     * Lit l'octet à une position absolue du fichier projeté.
+     */
+    private static byte byteAt(ByteBuffer[] windows, long position) {
+        for (ByteBuffer window : windows) {
+            if (position < window.limit()) {
+                return window.get((int) position);
+            }
+            position -= window.limit();
+        }
+        throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * Indique si un octet est un caractère retiré par {@link String#trim()}.
+     */
+    private static boolean isTrimmed(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * Résultat partiel d'un ou plusieurs morceaux consécutifs : les tables de comptage,
+     * ainsi que les premiers et derniers caractères comptés, nécessaires pour recompter
+     * les n-grammes à cheval sur la frontière avec les morceaux voisins.
+     */
+    private static final class Partial {
+        final NGramTable[] tables;
+        final char[] head;
+        final char[] tail;
+
+        Partial(NGramTable[] tables, char[] head, char[] tail) {
+            this.tables = tables;
+            this.head = head;
+            this.tail = tail;
+        }
+    }
+
+    /**
+     * Tâche comptant une suite de morceaux, en coupant la suite en deux tant qu'elle en contient plusieurs.
+     */
+    private static final class CountTask extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Consumer<NGramCounter>> chunks;
+        private final int from;
+        private final int to;
+        private final int[] orders;
+
+        CountTask(List<Consumer<NGramCounter>> chunks, int from, int to, int[] orders) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.orders = orders;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from == 1) {
+                NGramCounter counter = new NGramCounter(false, orders);
+                chunks.get(from).accept(counter);
+                NGramTable[] tables = new NGramTable[NGramTable.MAX_ORDER + 1];
+                for (int n : orders) {
+                    tables[n] = counter.counts().table(n);
+                }
+                return new Partial(tables, counter.head(), counter.tail());
+            }
+            int middle = (from + to) >>> 1;
+            CountTask right = new CountTask(chunks, middle, to, orders);
+            right.fork();
+            Partial left = new CountTask(chunks, from, middle, orders).compute();
+            return merge(left, right.join());
+        }
+
+        /**
+         * Fusionne deux résultats partiels consécutifs et compte les n-grammes à cheval sur leur frontière.
+         */
+        private Partial merge(Partial left, Partial right) {
+            NGramTable[] tables = new NGramTable[NGramTable.MAX_ORDER + 1];
+            for (int n : orders) {
+                // On fusionne la plus petite table dans la plus grande
+                NGramTable a = left.tables[n];
+                NGramTable b = right.tables[n];
+                NGramTable target = a.size() >= b.size() ? a : b;
+                target.merge(target == a ? b : a);
+                stitch(target, left.tail, right.head, n);
+                tables[n] = target;
+            }
+            return new Partial(tables, join(left.head, right.head, true), join(left.tail, right.tail, false));
+        }
+
+        /**
+         * Compte les n-grammes d'ordre {@code n} qui commencent dans {@code tail} et se terminent dans {@code head}.
+         */
+        private static void stitch(NGramTable table, char[] tail, char[] head, int n) {
+            String joined = new String(tail) + new String(head);
+            for (int i = 0; i < tail.length; i++) {
+                if (i + n > tail.length && i + n <= joined.length()) {
+                    table.increment(NGramTable.pack(joined, i, n));
+                }
+            }
+        }
+
+        /**
+         * Concatène deux suites de caractères et n'en garde que les premiers (ou derniers)
+         * {@link NGramTable#MAX_ORDER} - 1.
+         */
+        private static char[] join(char[] first, char[] second, boolean keepFirst) {
+            int keep = NGramTable.MAX_ORDER - 1;
+            char[] all = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, all, first.length, second.length);
+            if (all.length <= keep) {
+                return all;
+            }
+            return keepFirst ? Arrays.copyOf(all, keep) : Arrays.copyOfRange(all, all.length - keep, all.length);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package logiciel1;
+
+/**
+ * La classe {@code SpaceSaving} suit les éléments les plus fréquents d'un flux de clés {@code long}
+ * avec au plus {@code capacity} compteurs (algorithme Space-Saving de Metwally et al.).
+ *
+ * Quand un élément non suivi arrive et que tous les compteurs sont pris, il remplace l'élément
+ * le moins compté et hérite de son compteur (plus un) : ce compteur hérité est son erreur maximale.
+ * Le compte d'un élément suivi n'est donc jamais inférieur à son nombre réel d'occurrences, et
+ * le dépasse d'au plus le plus petit compteur, lui-même au plus {@code N / capacity}.
+ * Tout élément apparu plus de {@code N / capacity} fois est forcément suivi.
+ *
+ * Les compteurs forment un tas binaire (le plus petit à la racine) et sont retrouvés
+ * par une table à adressage ouvert, sans objet par élément.
+ */
+final class SpaceSaving {
+
+    /**
+     * Fournit le libellé d'une clé au moment où elle entre dans le résumé.
+     */
+    @FunctionalInterface
+    interface LabelSource {
+
+        /**
+         * @return le libellé de l'élément courant
+         */
+        String label();
+    }
+
+    private final int capacity;
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] heapSlots;
+    private final String[] labels;
+    private int size;
+
+    private final long[] slotKeys;
+    private final int[] slotPositions;
+    private final int mask;
+    private final int shift;
+
+    /**
+     * Construit un résumé vide.
+     *
+     * @param capacity le nombre maximal d'éléments suivis
+     * @throws IllegalArgumentException si la capacité est inférieure à 1
+     */
+    SpaceSaving(int capacity) {
+        if (capacity < 1 || capacity > 1 << 28) {
+            throw new IllegalArgumentException("Nombre de compteurs invalide : " + capacity);
+        }
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heapSlots = new int[capacity];
+        this.labels = new String[capacity];
+        int tableSize = 16;
+        while (tableSize < capacity * 2) {
+            tableSize <<= 1;
+        }
+        this.slotKeys = new long[tableSize];
+        this.slotPositions = new int[tableSize];
+        this.mask = tableSize - 1;
+        this.shift = 64 - Integer.numberOfTrailingZeros(tableSize);
+    }
+
+    /**
+     * Compte une occurrence d'une clé.
+     *
+     * @param key la clé (non nulle)
+     * @param labels la source du libellé, appelée seulement si la clé entre dans le résumé
+     *               ({@code null} si les clés se décodent elles-mêmes)
+     */
+    void offer(long key, LabelSource labels) {
+        int slot = slot(key);
+        while (slotKeys[slot] != 0) {
+            if (slotKeys[slot] == key) {
+                int position = slotPositions[slot];
+                counts[position]++;
+                siftDown(position);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int position;
+        if (size < capacity) {
+            position = size++;
+            counts[position] = 1;
+            errors[position] = 0;
+        } else {
+            // Remplace l'élément le moins compté, qui lègue son compteur
+            position = 0;
+            removeSlot(heapSlots[0]);
+            slot = slot(key);
+            while (slotKeys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            errors[0] = counts[0];
+            counts[0]++;
+        }
+        keys[position] = key;
+        this.labels[position] = labels == null ? null : labels.label();
+        slotKeys[slot] = key;
+        slotPositions[slot] = position;
+        heapSlots[position] = slot;
+        if (position == 0) {
+            siftDown(0);
+        } else {
+            siftUp(position);
+        }
+    }
+
+    /**
+     * @return le nombre d'éléments suivis
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return le nombre maximal d'éléments suivis
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return le plus petit compteur si le résumé est plein (erreur maximale d'un compte), 0 sinon
+     */
+    long minCount() {
+        return size < capacity ? 0 : counts[0];
+    }
+
+    long key(int i) {
+        return keys[i];
+    }
+
+    long count(int i) {
+        return counts[i];
+    }
+
+    long error(int i) {
+        return errors[i];
+    }
+
+    String label(int i) {
+        return labels[i];
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    /**
+     * Retire une case de la table en recompactant la suite de sondage (pas de marqueur de suppression).
+     */
+    private void removeSlot(int slot) {
+        int hole = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            long key = slotKeys[i];
+            if (key == 0) break;
+            int ideal = slot(key);
+            if (((i - ideal) & mask) >= ((i - hole) & mask)) {
+                slotKeys[hole] = key;
+                slotPositions[hole] = slotPositions[i];
+                heapSlots[slotPositions[hole]] = hole;
+                hole = i;
+            }
+        }
+        slotKeys[hole] = 0;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[parent] <= counts[i]) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && counts[child + 1] < counts[child]) child++;
+            if (counts[i] <= counts[child]) break;
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+        long error = errors[i];
+        errors[i] = errors[j];
+        errors[j] = error;
+        String label = labels[i];
+        labels[i] = labels[j];
+        labels[j] = label;
+        int slot = heapSlots[i];
+        heapSlots[i] = heapSlots[j];
+        heapSlots[j] = slot;
+        slotPositions[heapSlots[i]] = i;
+        slotPositions[heapSlots[j]] = j;
+    }
+}
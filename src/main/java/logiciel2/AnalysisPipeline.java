@@ -0,0 +1,327 @@
+package logiciel2;
+
+import logiciel1.FileExport;
+import logiciel1.MappedCorpus;
+import logiciel1.NGramCounts;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * La classe {@code AnalysisPipeline} analyse, exporte et évalue un lot de corpus en pipeline :
+ * <pre>
+ * lecture -&gt; comptage -&gt; export CSV
+ *                     \-&gt; évaluation
+ * </pre>
+ * Chaque étage a ses propres threads et les étages sont reliés par des files bornées : le corpus
+ * suivant est lu (projeté en mémoire par {@link MappedCorpus}, puis chargé depuis le disque) pendant
+ * que le courant est compté, et l'export et l'évaluation d'un corpus se font
+ * pendant le comptage du suivant. Quand une file est pleine, l'étage qui l'alimente attend, ce qui
+ * borne le nombre de corpus chargés en mémoire. Les corpus sont décodés fenêtre par fenêtre
+ * directement dans le compteur : ni le contenu ni le texte décodé ne sont copiés dans le tas,
+ * et la taille d'un corpus n'est pas limitée à 2 Go.
+ *
+ * Chaque étage mesure son temps de travail, son temps d'attente et la profondeur de sa file
+ * d'entrée (voir {@link PipelineResult#summary()}) : l'étage limitant est le plus occupé,
+ * et les files qui le précèdent restent pleines.
+ *
+ * Exemple :
+ * <pre>
+ * AnalysisPipeline pipeline = new AnalysisPipeline(layouts, evaluator, Path.of("output"), 2, 4);
+ * PipelineResult result = pipeline.run(BatchAnalyzer.listFiles("corpus"));
+ * System.out.println(result.summary());
+ * </pre>
+ */
+public class AnalysisPipeline {
+
+    private static final int[] ORDERS = {1, 2, 3};
+
+    private final Map<String, CompiledKeymap> layouts;
+    private final ExtendedLayoutEvaluator evaluator;
+    private final Path exportDirectory;
+    private final int countThreads;
+    private final int queueCapacity;
+
+    /**
+     * Un corpus lu, avec son rang dans la liste, en attente de comptage.
+     */
+    private record Loaded(int index, Path file, MappedCorpus corpus) {
+    }
+
+    /**
+     * Les n-grammes d'un corpus, avec son rang dans la liste, en attente d'export et d'évaluation.
+     */
+    private record Counted(int index, Path file, long bytes, NGramCounts counts) {
+    }
+
+    private static final Loaded END_OF_FILES = new Loaded(-1, null, null);
+    private static final Counted END_OF_COUNTS = new Counted(-1, null, 0, null);
+
+    /**
+     * Construit un pipeline.
+     *
+     * @param layouts les dispositions compilées à évaluer, par nom (dans l'ordre de la map)
+     * @param evaluator l'évaluateur qui note chaque disposition
+     * @param exportDirectory le dossier où écrire le CSV de chaque corpus (créé au besoin),
+     *                        ou {@code null} pour ne pas exporter
+     * @param countThreads le nombre de threads de comptage
+     * @param queueCapacity la capacité de chaque file entre deux étages
+     * @throws IllegalArgumentException si le nombre de threads ou la capacité n'est pas strictement positif
+     */
+    public AnalysisPipeline(Map<String, CompiledKeymap> layouts, ExtendedLayoutEvaluator evaluator,
+                            Path exportDirectory, int countThreads, int queueCapacity) {
+        if (countThreads <= 0) {
+            throw new IllegalArgumentException("Le nombre de threads doit être positif : " + countThreads);
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("La capacité des files doit être positive : " + queueCapacity);
+        }
+        this.layouts = new LinkedHashMap<>(layouts);
+        this.evaluator = evaluator;
+        this.exportDirectory = exportDirectory;
+        this.countThreads = countThreads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Traite une liste de corpus texte (UTF-8) : chacun est lu, compté (unigrams, bigrams, trigrams),
+     * exporté en CSV et évalué avec chaque disposition. Le CSV du corpus de rang {@code i} dans la liste
+     * est nommé d'après ce rang et le nom du fichier (voir {@link #exportName(int, Path)}) : deux corpus
+     * de même nom dans des dossiers différents ont chacun leur CSV.
+     *
+     * @param corpora les fichiers des corpus
+     * @return les scores et les mesures de chaque étage
+     * @throws RuntimeException si un corpus est illisible ou n'est pas un texte UTF-8 valide,
+     *                          si le dossier d'export ne peut pas être créé, si un export échoue
+     *                          ou si le traitement est interrompu
+     */
+    public PipelineResult run(List<Path> corpora) {
+        BlockingQueue<Loaded> toCount = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Counted> toExport = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Counted> toEvaluate = new ArrayBlockingQueue<>(queueCapacity);
+        boolean export = exportDirectory != null;
+        if (export) {
+            try {
+                Files.createDirectories(exportDirectory);
+            } catch (IOException e) {
+                throw new RuntimeException("Impossible de créer le dossier d'export : " + exportDirectory, e);
+            }
+        }
+
+        Stage read = new Stage("lecture", 1, 0);
+        Stage count = new Stage("comptage", countThreads, queueCapacity);
+        Stage write = new Stage("export", 1, queueCapacity);
+        Stage evaluate = new Stage("évaluation", 1, queueCapacity);
+        List<PipelineResult.Score> scores = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger countersLeft = new AtomicInteger(countThreads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        long start = System.nanoTime();
+        threads.add(read.thread(0, failure, threads, () -> {
+            for (int i = 0; i < corpora.size(); i++) {
+                long t = System.nanoTime();
+                MappedCorpus corpus = MappedCorpus.map(corpora.get(i)).load();
+                read.done(t, corpus.size());
+                read.put(toCount, new Loaded(i, corpora.get(i), corpus));
+            }
+            for (int i = 0; i < countThreads; i++) {
+                read.put(toCount, END_OF_FILES);
+            }
+        }));
+        for (int w = 0; w < countThreads; w++) {
+            threads.add(count.thread(w, failure, threads, () -> {
+                for (Loaded loaded = count.take(toCount); loaded != END_OF_FILES; loaded = count.take(toCount)) {
+                    long t = System.nanoTime();
+                    Counted counted = new Counted(loaded.index(), loaded.file(), loaded.corpus().size(),
+                            loaded.corpus().countNGrams(ORDERS));
+                    count.done(t, counted.bytes());
+                    if (export) {
+                        count.put(toExport, counted);
+                    }
+                    count.put(toEvaluate, counted);
+                }
+                if (countersLeft.decrementAndGet() == 0) { // Dernier thread de comptage
+                    if (export) {
+                        count.put(toExport, END_OF_COUNTS);
+                    }
+                    count.put(toEvaluate, END_OF_COUNTS);
+                }
+            }));
+        }
+        if (export) {
+            FileExport exporter = new FileExport();
+            threads.add(write.thread(0, failure, threads, () -> {
+                for (Counted counted = write.take(toExport); counted != END_OF_COUNTS; counted = write.take(toExport)) {
+                    long t = System.nanoTime();
+                    Path output = exportDirectory.resolve(exportName(counted.index(), counted.file()));
+                    exporter.export(output.toString(), counted.counts());
+                    write.done(t, counted.bytes());
+                }
+            }));
+        }
+        threads.add(evaluate.thread(0, failure, threads, () -> {
+            for (Counted counted = evaluate.take(toEvaluate); counted != END_OF_COUNTS; counted = evaluate.take(toEvaluate)) {
+                long t = System.nanoTime();
+                for (Map.Entry<String, CompiledKeymap> layout : layouts.entrySet()) {
+                    double score = evaluator.evaluate(PackedNGrams.of(counted.counts(), layout.getValue()));
+                    scores.add(new PipelineResult.Score(counted.file().toString(), layout.getKey(), score));
+                }
+                evaluate.done(t, counted.bytes());
+            }
+        }));
+
+        // Tous les threads sont créés avant d'être démarrés, pour qu'une erreur puisse les interrompre tous
+        threads.forEach(Thread::start);
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            threads.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Pipeline interrompu", e);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException re) {
+            throw re;
+        }
+        if (error != null) {
+            throw new RuntimeException("Erreur dans le pipeline", error);
+        }
+
+        Map<String, Integer> corpusOrder = new HashMap<>();
+        for (int i = corpora.size() - 1; i >= 0; i--) {
+            corpusOrder.put(corpora.get(i).toString(), i);
+        }
+        List<String> layoutOrder = new ArrayList<>(layouts.keySet());
+        List<PipelineResult.Score> ordered = new ArrayList<>(scores);
+        ordered.sort(Comparator.comparingInt((PipelineResult.Score s) -> corpusOrder.get(s.corpus()))
+                .thenComparingInt(s -> layoutOrder.indexOf(s.layout())));
+
+        List<PipelineResult.StageStats> stages = new ArrayList<>();
+        stages.add(read.stats());
+        stages.add(count.stats());
+        if (export) {
+            stages.add(write.stats());
+        }
+        stages.add(evaluate.stats());
+        return new PipelineResult(ordered, stages, corpora.size(), read.bytes.get(), elapsed);
+    }
+
+    /**
+     * Nom du CSV d'un corpus : son rang dans la liste puis son nom de fichier,
+     * par exemple {@code 3-corpus.txt.csv}.
+     *
+     * @param index le rang du corpus dans la liste traitée
+     * @param file le fichier du corpus
+     * @return le nom du fichier CSV, unique dans un même lot
+     */
+    public static String exportName(int index, Path file) {
+        return index + "-" + file.getFileName() + ".csv";
+    }
+
+    /**
+     * Les threads d'un étage et leurs mesures.
+     */
+    private static final class Stage {
+
+        private final String name;
+        private final int workers;
+        private final int capacity;
+        private final AtomicLong items = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicLong waitNanos = new AtomicLong();
+        private final AtomicLong depthSum = new AtomicLong();
+        private final AtomicLong depthSamples = new AtomicLong();
+        private final AtomicInteger maxDepth = new AtomicInteger();
+
+        Stage(String name, int workers, int capacity) {
+            this.name = name;
+            this.workers = workers;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Crée (sans le démarrer) un thread de l'étage. La première erreur d'un étage est conservée
+         * et interrompt tous les threads du pipeline.
+         */
+        Thread thread(int worker, AtomicReference<Throwable> failure, List<Thread> threads, Work work) {
+            return Thread.ofPlatform().name("pipeline-" + name + "-" + worker).unstarted(() -> {
+                try {
+                    work.run();
+                } catch (InterruptedException e) {
+                    // Arrêt demandé après l'erreur d'un autre étage
+                } catch (Throwable e) {
+                    if (failure.compareAndSet(null, e)) {
+                        for (Thread thread : threads) {
+                            thread.interrupt();
+                        }
+                    }
+                }
+            });
+        }
+
+        /**
+         * Prend l'élément suivant de la file d'entrée, en mesurant l'attente et la profondeur de la file.
+         */
+        <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+            int depth = queue.size();
+            depthSum.addAndGet(depth);
+            depthSamples.incrementAndGet();
+            maxDepth.accumulateAndGet(depth, Math::max);
+            long t = System.nanoTime();
+            T item = queue.take();
+            waitNanos.addAndGet(System.nanoTime() - t);
+            return item;
+        }
+
+        /**
+         * Passe un élément à l'étage suivant, en attendant s'il n'y a plus de place (l'attente est mesurée).
+         */
+        <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+            long t = System.nanoTime();
+            queue.put(item);
+            waitNanos.addAndGet(System.nanoTime() - t);
+        }
+
+        /**
+         * Enregistre la fin du traitement d'un élément commencé à {@code start}.
+         */
+        void done(long start, long size) {
+            busyNanos.addAndGet(System.nanoTime() - start);
+            items.incrementAndGet();
+            bytes.addAndGet(size);
+        }
+
+        PipelineResult.StageStats stats() {
+            long samples = depthSamples.get();
+            return new PipelineResult.StageStats(name, workers, items.get(), bytes.get(), busyNanos.get(),
+                    waitNanos.get(), capacity, maxDepth.get(), samples == 0 ? 0.0 : (double) depthSum.get() / samples);
+        }
+    }
+
+    /**
+     * Le travail d'un thread d'étage.
+     */
+    @FunctionalInterface
+    private interface Work {
+        void run() throws InterruptedException;
+    }
+}
@@ -0,0 +1,199 @@
+package logiciel2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La classe {@code CompiledKeymap} est la forme compilée d'une disposition étendue et d'un keymap
+ * (voir {@link ExtendedKeyboardLayoutFactory#compile(ExtendedKeyboardLayout, KeymapJson)}).
+ *
+ * Chaque touche physique reçoit un identifiant dense (de 0 à {@link #keyCount()} - 1), et chaque
+ * caractère est associé une fois pour toutes à la suite d'identifiants de ses touches. Pour les
+ * caractères inférieurs à {@link #DENSE_LIMIT}, la recherche est un simple accès à un tableau ;
+ * les autres caractères (et les points de code hors BMP) passent par une petite table
+ * à adressage ouvert. Aucune recherche n'alloue d'objet.
+ *
+ * Le résultat est identique à celui de {@link KeymapService#getPhysicalKeysForChar}.
+ *
+ * Exemple :
+ * <pre>
+ * CompiledKeymap compiled = ExtendedKeyboardLayoutFactory.compile(layout, keymap);
+ * for (int id : compiled.keysFor('A')) {
+ *     Key key = compiled.key(id); // Shift, puis a
+ * }
+ * </pre>
+ */
+public final class CompiledKeymap {
+
+    /**
+     * Les caractères inférieurs à cette limite sont résolus par un accès direct à un tableau.
+     */
+    public static final int DENSE_LIMIT = 0x800;
+
+    private static final int[] NO_KEYS = new int[0];
+
+    private final Key[] keys;
+    private final String[] labels;
+    private final int[][] dense;
+    private final int[] sparseCodePoints;
+    private final int[][] sparseSequences;
+    private final int sparseMask;
+    private volatile MovementMatrix movements;
+
+    /**
+     * Compile une disposition et un keymap.
+     *
+     * @param layout la correspondance label -> Key.
+     * @param keymap la correspondance char -> liste de labels.
+     */
+    CompiledKeymap(ExtendedKeyboardLayout layout, KeymapJson keymap) {
+        Map<Key, Integer> ids = new LinkedHashMap<>();
+        List<String> keyLabels = new ArrayList<>();
+        Map<Integer, int[]> sequences = new LinkedHashMap<>();
+
+        // Repli : un label d'un seul caractère désigne directement sa touche
+        for (String label : layout.labels()) {
+            if (label.codePointCount(0, label.length()) == 1) {
+                sequences.put(label.codePointAt(0), new int[] {idOf(layout.findKey(label), label, ids, keyLabels)});
+            }
+        }
+        // Le keymap a priorité sur le repli, y compris quand aucun de ses labels n'existe
+        if (keymap.charToKeySequence != null) {
+            for (Map.Entry<String, List<String>> entry : keymap.charToKeySequence.entrySet()) {
+                String s = entry.getKey();
+                if (s.isEmpty() || s.codePointCount(0, s.length()) != 1) continue;
+                List<Integer> sequence = new ArrayList<>();
+                for (String label : entry.getValue()) {
+                    Key found = layout.findKey(label);
+                    if (found != null) {
+                        sequence.add(idOf(found, label, ids, keyLabels));
+                    }
+                }
+                sequences.put(s.codePointAt(0), sequence.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+
+        this.keys = ids.keySet().toArray(new Key[0]);
+        this.labels = keyLabels.toArray(new String[0]);
+        this.dense = new int[DENSE_LIMIT][];
+        Arrays.fill(dense, NO_KEYS);
+        int sparseCount = 0;
+        for (int cp : sequences.keySet()) {
+            if (cp >= DENSE_LIMIT) sparseCount++;
+        }
+        int capacity = 4;
+        while (capacity < sparseCount * 2) {
+            capacity <<= 1;
+        }
+        this.sparseCodePoints = new int[capacity];
+        Arrays.fill(sparseCodePoints, -1);
+        this.sparseSequences = new int[capacity][];
+        this.sparseMask = capacity - 1;
+        sequences.forEach((cp, sequence) -> {
+            int[] shared = sequence.length == 0 ? NO_KEYS : sequence;
+            if (cp < DENSE_LIMIT) {
+                dense[cp] = shared;
+            } else {
+                int slot = slot(cp);
+                while (sparseCodePoints[slot] != -1) {
+                    slot = (slot + 1) & sparseMask;
+                }
+                sparseCodePoints[slot] = cp;
+                sparseSequences[slot] = shared;
+            }
+        });
+    }
+
+    /**
+     * Retourne les identifiants des touches à presser pour un caractère (UTF-16).
+     * Le tableau retourné est partagé et ne doit pas être modifié.
+     *
+     * @param c le caractère à convertir en séquence de touches.
+     * @return les identifiants des touches, dans l'ordre ; un tableau vide si aucune correspondance n'existe.
+     */
+    public int[] keysFor(char c) {
+        return c < DENSE_LIMIT ? dense[c] : sparse(c);
+    }
+
+    /**
+     * Retourne les identifiants des touches à presser pour un point de code, y compris hors BMP.
+     * Le tableau retourné est partagé et ne doit pas être modifié.
+     *
+     * @param codePoint le point de code à convertir en séquence de touches.
+     * @return les identifiants des touches, dans l'ordre ; un tableau vide si aucune correspondance n'existe.
+     */
+    public int[] keysForCodePoint(int codePoint) {
+        return codePoint >= 0 && codePoint < DENSE_LIMIT ? dense[codePoint] : sparse(codePoint);
+    }
+
+    /**
+     * @param id l'identifiant dense d'une touche.
+     * @return la touche physique correspondante.
+     */
+    public Key key(int id) {
+        return keys[id];
+    }
+
+    /**
+     * @param id l'identifiant dense d'une touche.
+     * @return le label de la disposition sous lequel cette touche a été trouvée.
+     */
+    public String label(int id) {
+        return labels[id];
+    }
+
+    /**
+     * @return le nombre de touches physiques distinctes utilisées par le keymap et la disposition.
+     */
+    public int keyCount() {
+        return keys.length;
+    }
+
+    /**
+     * Retourne les matrices de mouvements des touches de cette disposition,
+     * construites au premier appel puis conservées.
+     *
+     * @return les types de mouvement précalculés de tous les bigrams et trigrams de touches.
+     */
+    public MovementMatrix movements() {
+        MovementMatrix m = movements;
+        if (m == null) {
+            m = new MovementMatrix(this);
+            movements = m;
+        }
+        return m;
+    }
+
+    /**
+     * Recherche un point de code dans la table des caractères rares.
+     */
+    private int[] sparse(int codePoint) {
+        int slot = slot(codePoint);
+        while (true) {
+            int cp = sparseCodePoints[slot];
+            if (cp == codePoint) return sparseSequences[slot];
+            if (cp == -1) return NO_KEYS;
+            slot = (slot + 1) & sparseMask;
+        }
+    }
+
+    private int slot(int codePoint) {
+        return ((codePoint * 0x9E3779B9) >>> 16) & sparseMask;
+    }
+
+    /**
+     * Retourne l'identifiant dense d'une touche, en lui en attribuant un à sa première apparition.
+     */
+    private static int idOf(Key key, String label, Map<Key, Integer> ids, List<String> keyLabels) {
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = ids.size();
+            ids.put(key, id);
+            keyLabels.add(label);
+        }
+        return id;
+    }
+}
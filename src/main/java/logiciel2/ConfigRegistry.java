@@ -0,0 +1,534 @@
+package logiciel2;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * La classe {@code ConfigRegistry} charge et met en cache les fichiers de configuration
+ * ({@code keyboards.json}, {@code keymap.json} et {@code weights.json}), depuis le classpath
+ * ou depuis un répertoire.
+ *
+ * Le contenu de chaque fichier est lu une fois et identifié par son empreinte SHA-256. Tout ce qui
+ * en est tiré (dispositions, keymap, dispositions compilées, profils de poids) est mis en cache
+ * sous cette empreinte : les appels suivants ne coûtent qu'une recherche dans une table, et un
+ * rechargement dont le contenu n'a pas changé ne reparse rien. Les dispositions sont lues avec
+ * le parseur en flux de Jackson directement en {@link ExtendedKeyboardLayout}, sans passer par
+ * les objets {@link KeyboardsJson.KeyDTO}.
+ *
+ * Pour une configuration sur disque, {@link #watch()} surveille le répertoire
+ * ({@link WatchService}) et recharge les fichiers modifiés sans redémarrer le programme.
+ * Un fichier invalide (par exemple en cours d'écriture) est ignoré : la configuration précédente
+ * reste en place et l'erreur est disponible par {@link #lastError()}.
+ *
+ * Les objets retournés sont partagés : ils ne doivent pas être modifiés.
+ *
+ * Exemple :
+ * <pre>
+ * try (ConfigRegistry config = ConfigRegistry.directory(Path.of("config"))) {
+ *     config.watch();
+ *     CompiledKeymap fr = config.compiled("FR"); // Toujours à jour avec les fichiers
+ * }
+ * </pre>
+ */
+public final class ConfigRegistry implements AutoCloseable {
+
+    /**
+     * Nom du fichier des dispositions.
+     */
+    public static final String KEYBOARDS = "keyboards.json";
+
+    /**
+     * Nom du fichier du keymap.
+     */
+    public static final String KEYMAP = "keymap.json";
+
+    /**
+     * Nom du fichier des profils de poids (facultatif).
+     */
+    public static final String WEIGHTS = "weights.json";
+
+    private static final List<String> FILES = List.of(KEYBOARDS, KEYMAP, WEIGHTS);
+
+    /**
+     * Contenu d'un fichier de configuration et son empreinte.
+     */
+    private record Source(byte[] content, String hash) {
+    }
+
+    /**
+     * Clé d'une valeur du cache : sa nature, un nom éventuel et les empreintes des fichiers dont elle dépend.
+     */
+    private record CacheKey(String kind, String name, List<String> hashes) {
+    }
+
+    private final Path directory; // null pour le classpath
+    private final String resourcePrefix;
+    private final Map<CacheKey, Object> cache = new ConcurrentHashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final Object reloadLock = new Object();
+    private volatile Map<String, Source> sources;
+    private volatile Set<String> liveHashes;
+    private volatile RuntimeException lastError;
+    private WatchService watchService;
+    private Thread watcher;
+
+    private ConfigRegistry(Path directory, String resourcePrefix) {
+        this.directory = directory;
+        this.resourcePrefix = resourcePrefix;
+        Map<String, Source> loaded = readSources();
+        this.liveHashes = hashes(loaded);
+        check(loaded);
+        this.sources = loaded;
+    }
+
+    /**
+     * Charge la configuration fournie avec le programme (dossier {@code config} du classpath).
+     *
+     * @return le registre.
+     * @throws RuntimeException si {@code keyboards.json} ou {@code keymap.json} est introuvable ou invalide.
+     */
+    public static ConfigRegistry classpath() {
+        return classpath("config");
+    }
+
+    /**
+     * Charge une configuration depuis un dossier du classpath.
+     *
+     * @param resourceDirectory le dossier du classpath, par exemple "config".
+     * @return le registre.
+     * @throws RuntimeException si {@code keyboards.json} ou {@code keymap.json} est introuvable ou invalide.
+     */
+    public static ConfigRegistry classpath(String resourceDirectory) {
+        return new ConfigRegistry(null, resourceDirectory.endsWith("/") ? resourceDirectory : resourceDirectory + "/");
+    }
+
+    /**
+     * Charge une configuration depuis un répertoire, qui peut ensuite être surveillé ({@link #watch()}).
+     *
+     * @param directory le répertoire contenant les fichiers de configuration.
+     * @return le registre.
+     * @throws RuntimeException si {@code keyboards.json} ou {@code keymap.json} est introuvable ou invalide.
+     */
+    public static ConfigRegistry directory(Path directory) {
+        return new ConfigRegistry(directory.toAbsolutePath(), null);
+    }
+
+    /**
+     * @return les dispositions, au format de {@code keyboards.json} (lues une fois par contenu).
+     */
+    public KeyboardsJson keyboards() {
+        Source source = source(KEYBOARDS);
+        return cached("keyboards", "", List.of(source.hash()), key -> parse(source, JsonLoader.KEYBOARDS_READER::readValue));
+    }
+
+    /**
+     * @return les noms des dispositions, dans l'ordre du fichier.
+     */
+    public Set<String> layoutNames() {
+        return Collections.unmodifiableSet(layouts(source(KEYBOARDS)).keySet());
+    }
+
+    /**
+     * Retourne une disposition, lue en flux depuis {@code keyboards.json}.
+     *
+     * @param layoutName le nom de la disposition (par exemple "FR").
+     * @return la disposition.
+     * @throws RuntimeException si la disposition est inconnue.
+     */
+    public ExtendedKeyboardLayout layout(String layoutName) {
+        ExtendedKeyboardLayout layout = layouts(source(KEYBOARDS)).get(layoutName);
+        if (layout == null) {
+            throw new RuntimeException("Layout inconnu: " + layoutName);
+        }
+        return layout;
+    }
+
+    /**
+     * @return le keymap (lu une fois par contenu).
+     */
+    public KeymapJson keymap() {
+        return keymap(source(KEYMAP));
+    }
+
+    /**
+     * Retourne une disposition compilée avec le keymap (voir {@link CompiledKeymap}), compilée une fois
+     * par contenu de {@code keyboards.json} et de {@code keymap.json}.
+     *
+     * @param layoutName le nom de la disposition (par exemple "FR").
+     * @return la disposition compilée.
+     * @throws RuntimeException si la disposition est inconnue.
+     */
+    public CompiledKeymap compiled(String layoutName) {
+        Source keyboards = source(KEYBOARDS);
+        Source keymap = source(KEYMAP);
+        // Dépendances lues avant : le cache ne peut pas être rempli depuis son propre calcul
+        ExtendedKeyboardLayout layout = layouts(keyboards).get(layoutName);
+        if (layout == null) {
+            throw new RuntimeException("Layout inconnu: " + layoutName);
+        }
+        KeymapJson keymapJson = keymap(keymap);
+        return cached("compiled", layoutName, List.of(keyboards.hash(), keymap.hash()),
+                key -> ExtendedKeyboardLayoutFactory.compile(layout, keymapJson));
+    }
+
+    /**
+     * @return les profils de poids (lus une fois par contenu).
+     * @throws RuntimeException si {@code weights.json} est absent.
+     */
+    public WeightProfilesJson weightProfiles() {
+        Source source = source(WEIGHTS);
+        return cached("weights", "", List.of(source.hash()), key -> parse(source, JsonLoader.WEIGHTS_READER::readValue));
+    }
+
+    /**
+     * Retourne l'empreinte SHA-256 du contenu d'un fichier de configuration.
+     *
+     * @param fileName le nom du fichier, par exemple {@link #KEYBOARDS}.
+     * @return l'empreinte en hexadécimal, ou {@code null} si le fichier est absent.
+     */
+    public String hash(String fileName) {
+        Source source = sources.get(fileName);
+        return source == null ? null : source.hash();
+    }
+
+    /**
+     * Relit les fichiers de configuration. Si un contenu a changé et que les nouveaux fichiers sont
+     * valides, ils remplacent les précédents, les valeurs qui en dépendaient sont retirées du cache
+     * et les écouteurs sont prévenus. Sinon, la configuration précédente est conservée.
+     *
+     * @return {@code true} si la configuration a changé.
+     */
+    public boolean reload() {
+        synchronized (reloadLock) {
+            Map<String, Source> loaded;
+            try {
+                loaded = readSources();
+                // Les valeurs du nouveau contenu, mises en cache par check(), ne sont pas périmées
+                Set<String> pending = hashes(sources);
+                pending.addAll(hashes(loaded));
+                liveHashes = pending;
+                check(loaded);
+            } catch (RuntimeException e) {
+                // Retire ce que check() a pu mettre en cache avant l'erreur
+                Set<String> current = hashes(sources);
+                liveHashes = current;
+                cache.keySet().removeIf(key -> !current.containsAll(key.hashes()));
+                lastError = e;
+                return false;
+            }
+            lastError = null;
+            if (sameHashes(loaded, sources)) {
+                liveHashes = hashes(sources);
+                return false;
+            }
+            sources = loaded;
+            Set<String> current = hashes(loaded);
+            liveHashes = current;
+            cache.keySet().removeIf(key -> !current.containsAll(key.hashes()));
+        }
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+        return true;
+    }
+
+    /**
+     * Ajoute un écouteur appelé après chaque rechargement qui a changé la configuration.
+     *
+     * @param listener l'écouteur (appelé dans le thread qui a rechargé).
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return l'erreur du dernier rechargement, ou {@code null} s'il a réussi.
+     */
+    public RuntimeException lastError() {
+        return lastError;
+    }
+
+    /**
+     * Surveille le répertoire de configuration et recharge les fichiers dès qu'ils sont modifiés,
+     * dans un thread démon. Sans effet si la surveillance est déjà active.
+     *
+     * @throws IllegalStateException si la configuration vient du classpath.
+     * @throws RuntimeException si la surveillance ne peut pas être mise en place.
+     */
+    public synchronized void watch() {
+        if (directory == null) {
+            throw new IllegalStateException("Seule une configuration sur disque peut être surveillée");
+        }
+        if (watcher != null) {
+            return;
+        }
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new RuntimeException("Impossible de surveiller le répertoire : " + directory, e);
+        }
+        WatchService service = watchService;
+        watcher = new Thread(() -> watchLoop(service), "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Arrête la surveillance du répertoire, si elle est active.
+     */
+    @Override
+    public synchronized void close() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'arrêt de la surveillance : " + directory, e);
+        } finally {
+            watcher.interrupt();
+            watcher = null;
+            watchService = null;
+        }
+    }
+
+    /**
+     * Attend les modifications des fichiers de configuration et les recharge.
+     */
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean relevant = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path changed && FILES.contains(changed.toString())) {
+                        relevant = true;
+                    }
+                }
+                key.reset();
+                if (relevant) {
+                    Thread.sleep(50); // Laisse l'éditeur finir d'écrire avant de relire
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Surveillance arrêtée par close()
+        }
+    }
+
+    /**
+     * Lit le contenu de chaque fichier de configuration présent.
+     */
+    private Map<String, Source> readSources() {
+        Map<String, Source> loaded = new LinkedHashMap<>();
+        for (String fileName : FILES) {
+            byte[] content = read(fileName);
+            if (content != null) {
+                loaded.put(fileName, new Source(content, sha256(content)));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Lit un fichier de configuration, ou retourne {@code null} s'il est absent.
+     */
+    private byte[] read(String fileName) {
+        try {
+            if (directory != null) {
+                return Files.readAllBytes(directory.resolve(fileName));
+            }
+            try (InputStream input = ConfigRegistry.class.getClassLoader().getResourceAsStream(resourcePrefix + fileName)) {
+                return input == null ? null : input.readAllBytes();
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du fichier : " + fileName, e);
+        }
+    }
+
+    /**
+     * Vérifie qu'une configuration est complète et que ses fichiers se parsent.
+     */
+    private void check(Map<String, Source> loaded) {
+        for (String fileName : List.of(KEYBOARDS, KEYMAP)) {
+            if (!loaded.containsKey(fileName)) {
+                throw new RuntimeException("Fichier JSON non trouvé : " + location(fileName));
+            }
+        }
+        layouts(loaded.get(KEYBOARDS));
+        keymap(loaded.get(KEYMAP));
+        if (loaded.containsKey(WEIGHTS)) {
+            Source weights = loaded.get(WEIGHTS);
+            cached("weights", "", List.of(weights.hash()), key -> parse(weights, JsonLoader.WEIGHTS_READER::readValue));
+        }
+    }
+
+    private Source source(String fileName) {
+        Source source = sources.get(fileName);
+        if (source == null) {
+            throw new RuntimeException("Fichier JSON non trouvé : " + location(fileName));
+        }
+        return source;
+    }
+
+    private Map<String, ExtendedKeyboardLayout> layouts(Source source) {
+        return cached("layouts", "", List.of(source.hash()), key -> parseLayouts(source.content()));
+    }
+
+    private KeymapJson keymap(Source source) {
+        return cached("keymap", "", List.of(source.hash()), key -> parse(source, KeymapJsonLoader.KEYMAP_READER::readValue));
+    }
+
+    /**
+     * Retourne une valeur du cache, calculée si besoin. Un appel commencé avant un rechargement peut
+     * calculer une valeur de l'ancien contenu après que {@link #reload()} a vidé le cache : elle est
+     * retournée à l'appelant mais aussitôt retirée, pour ne pas rester en mémoire.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String kind, String name, List<String> hashes, Function<CacheKey, T> loader) {
+        CacheKey key = new CacheKey(kind, name, hashes);
+        Object value = cache.computeIfAbsent(key, loader);
+        if (!liveHashes.containsAll(hashes)) {
+            cache.remove(key, value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Lecture d'un contenu par un {@code ObjectReader} partagé.
+     */
+    private interface ContentReader<T> {
+        T read(byte[] content) throws IOException;
+    }
+
+    private <T> T parse(Source source, ContentReader<T> reader) {
+        try {
+            return reader.read(source.content());
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du JSON (empreinte " + source.hash() + ")", e);
+        }
+    }
+
+    /**
+     * Lit {@code keyboards.json} en flux, directement en dispositions étendues (dans l'ordre du fichier).
+     */
+    private static Map<String, ExtendedKeyboardLayout> parseLayouts(byte[] content) {
+        Map<String, ExtendedKeyboardLayout> layouts = new LinkedHashMap<>();
+        try (JsonParser parser = JsonLoader.MAPPER.getFactory().createParser(content)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (!field.equals("layouts")) {
+                    parser.skipChildren();
+                    continue;
+                }
+                expect(parser.currentToken(), JsonToken.START_OBJECT);
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String layoutName = parser.currentName();
+                    expect(parser.nextToken(), JsonToken.START_ARRAY);
+                    layouts.put(layoutName, parseLayout(parser));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RuntimeException("Erreur lors de la lecture des dispositions", e);
+        }
+        return layouts;
+    }
+
+    /**
+     * Lit le tableau de touches d'une disposition.
+     */
+    private static ExtendedKeyboardLayout parseLayout(JsonParser parser) throws IOException {
+        ExtendedKeyboardLayout layout = new ExtendedKeyboardLayout();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String character = null;
+            String finger = null;
+            String hand = null;
+            int row = 0;
+            int column = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "character" -> character = parser.getValueAsString();
+                    case "row" -> row = parser.getIntValue();
+                    case "column" -> column = parser.getIntValue();
+                    case "finger" -> finger = parser.getValueAsString();
+                    case "hand" -> hand = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+            if (character == null || finger == null || hand == null) {
+                throw new IOException("Touche incomplète à la ligne " + parser.currentLocation().getLineNr());
+            }
+            layout.addKey(character, ExtendedKeyboardLayoutFactory.toKey(character, row, column, finger, hand));
+        }
+        expect(parser.currentToken(), JsonToken.END_ARRAY);
+        return layout;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Élément JSON inattendu : " + actual + " au lieu de " + expected);
+        }
+    }
+
+    private static Set<String> hashes(Map<String, Source> sources) {
+        Set<String> hashes = new HashSet<>();
+        for (Source source : sources.values()) {
+            hashes.add(source.hash());
+        }
+        return hashes;
+    }
+
+    private static boolean sameHashes(Map<String, Source> a, Map<String, Source> b) {
+        if (!a.keySet().equals(b.keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, Source> entry : a.entrySet()) {
+            if (!entry.getValue().hash().equals(b.get(entry.getKey()).hash())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String location(String fileName) {
+        return directory != null ? directory.resolve(fileName).toString() : resourcePrefix + fileName;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
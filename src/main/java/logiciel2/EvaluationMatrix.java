@@ -0,0 +1,263 @@
+package logiciel2;
+
+import logiciel1.CorpusAnalyzer;
+import logiciel1.FileReader;
+import logiciel1.NGramBinaryFile;
+import logiciel1.NGramCache;
+import logiciel1.NGramSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * La classe {@code EvaluationMatrix} évalue toutes les dispositions de {@code keyboards.json}
+ * sur plusieurs corpus et avec plusieurs profils de poids.
+ *
+ * Chaque étape n'est faite qu'une fois : les n-grammes de chaque corpus sont comptés une fois,
+ * chaque disposition est compilée une fois, et les n-grammes d'un corpus sont convertis en touches
+ * ({@link PackedNGrams}) une fois par disposition, puis notés avec chaque profil. Les comptages,
+ * puis les couples disposition × corpus, sont répartis sur un groupe de threads.
+ *
+ * Exemple :
+ * <pre>
+ * EvaluationMatrix matrix = new EvaluationMatrix(keyboards, keymap, profiles);
+ * MatrixResult result = matrix.evaluate(List.of(Path.of("corpus1.txt"), Path.of("corpus2.ngb")), NGramCache.defaultCache());
+ * result.writeCsv(Path.of("matrice.csv"));
+ * </pre>
+ */
+public class EvaluationMatrix {
+
+    private final KeyboardsJson keyboards;
+    private final KeymapJson keymap;
+    private final Map<String, ExtendedLayoutEvaluator> profiles;
+    private final int threads;
+
+    /**
+     * Construit un moteur qui utilise un thread par cœur.
+     *
+     * @param keyboards les dispositions à évaluer.
+     * @param keymap la correspondance char -> liste de labels.
+     * @param profiles les profils de poids à appliquer.
+     */
+    public EvaluationMatrix(KeyboardsJson keyboards, KeymapJson keymap, WeightProfilesJson profiles) {
+        this(keyboards, keymap, evaluators(profiles), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construit un moteur.
+     *
+     * @param keyboards les dispositions à évaluer.
+     * @param keymap la correspondance char -> liste de labels.
+     * @param profiles les évaluateurs de chaque profil, par nom (dans l'ordre de la map).
+     * @param threads le nombre de threads.
+     * @throws IllegalArgumentException si le nombre de threads n'est pas strictement positif.
+     */
+    public EvaluationMatrix(KeyboardsJson keyboards, KeymapJson keymap,
+                            Map<String, ExtendedLayoutEvaluator> profiles, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Le nombre de threads doit être strictement positif");
+        }
+        this.keyboards = keyboards;
+        this.keymap = keymap;
+        this.profiles = new LinkedHashMap<>(profiles);
+        this.threads = threads;
+    }
+
+    /**
+     * Compte les n-grammes de corpus (texte, ou fichiers binaires {@code .ngb} déjà comptés)
+     * puis évalue toutes les combinaisons.
+     *
+     * @param corpora les fichiers des corpus, nommés dans les résultats par leur chemin (voir {@link #corpusNames}).
+     * @return les scores de toutes les combinaisons et les durées.
+     * @throws IllegalArgumentException si un même corpus est donné deux fois.
+     * @throws RuntimeException si un corpus est illisible ou si l'évaluation est interrompue.
+     */
+    public MatrixResult evaluate(List<Path> corpora) {
+        return evaluate(corpora, null);
+    }
+
+    /**
+     * Compte les n-grammes de corpus, en passant par un cache pour les fichiers texte, puis évalue
+     * toutes les combinaisons. Les corpus sont lus ou comptés en parallèle, et la durée de cette
+     * étape est incluse dans le résultat.
+     *
+     * @param corpora les fichiers des corpus, nommés dans les résultats par leur chemin (voir {@link #corpusNames}).
+     * @param cache le cache des n-grammes des corpus texte, ou {@code null} pour les compter sans cache.
+     * @return les scores de toutes les combinaisons et les durées.
+     * @throws IllegalArgumentException si un même corpus est donné deux fois.
+     * @throws RuntimeException si un corpus est illisible ou si l'évaluation est interrompue.
+     */
+    public MatrixResult evaluate(List<Path> corpora, NGramCache cache) {
+        List<String> names = corpusNames(corpora);
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<NGramSource>> counting = new ArrayList<>();
+            for (Path corpus : corpora) {
+                counting.add(() -> loadCounts(corpus, cache));
+            }
+            Map<String, NGramSource> counts = new LinkedHashMap<>();
+            List<Future<NGramSource>> futures = pool.invokeAll(counting);
+            for (int i = 0; i < corpora.size(); i++) {
+                counts.put(names.get(i), futures.get(i).get());
+            }
+            long countingNanos = System.nanoTime() - start;
+            return evaluate(pool, counts, start, countingNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Évaluation interrompue", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erreur pendant l'évaluation", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Évalue toutes les combinaisons pour des n-grammes déjà comptés.
+     *
+     * @param counts les n-grammes de chaque corpus, par nom (dans l'ordre de la map).
+     * @return les scores de toutes les combinaisons et les durées.
+     * @throws RuntimeException si l'évaluation est interrompue.
+     */
+    public MatrixResult evaluateCounts(Map<String, ? extends NGramSource> counts) {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            return evaluate(pool, counts, start, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Évaluation interrompue", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erreur pendant l'évaluation", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Nomme les corpus par leur chemin tel qu'il a été donné, et non par leur seul nom de fichier :
+     * {@code fr/corpus.txt} et {@code en/corpus.txt} restent deux corpus distincts.
+     *
+     * @param corpora les fichiers des corpus.
+     * @return le nom de chaque corpus, dans le même ordre.
+     * @throws IllegalArgumentException si un même chemin est donné deux fois.
+     */
+    public static List<String> corpusNames(List<Path> corpora) {
+        List<String> names = new ArrayList<>(corpora.size());
+        Set<String> seen = new HashSet<>();
+        for (Path corpus : corpora) {
+            String name = corpus.toString();
+            if (!seen.add(name)) {
+                throw new IllegalArgumentException("Corpus donné plusieurs fois : " + name);
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * Lit les n-grammes d'un corpus : un fichier binaire {@code .ngb} est ouvert directement,
+     * un fichier texte est compté (unigrams, bigrams et trigrams).
+     *
+     * @param corpus le fichier du corpus.
+     * @return les n-grammes du corpus.
+     * @throws RuntimeException si le fichier est illisible.
+     */
+    public static NGramSource loadCounts(Path corpus) {
+        return loadCounts(corpus, null);
+    }
+
+    /**
+     * Lit les n-grammes d'un corpus : un fichier binaire {@code .ngb} est ouvert directement,
+     * les n-grammes d'un fichier texte (unigrams, bigrams et trigrams) sont lus depuis le cache,
+     * ou comptés et ajoutés au cache.
+     *
+     * @param corpus le fichier du corpus.
+     * @param cache le cache des n-grammes, ou {@code null} pour compter le fichier texte sans cache.
+     * @return les n-grammes du corpus.
+     * @throws RuntimeException si le fichier ou le cache est illisible.
+     */
+    public static NGramSource loadCounts(Path corpus, NGramCache cache) {
+        if (corpus.getFileName().toString().endsWith(".ngb")) {
+            return NGramBinaryFile.open(corpus);
+        }
+        if (cache != null) {
+            return cache.counts(corpus, 1, 2, 3);
+        }
+        try (Reader reader = new FileReader().openReader(corpus.toString())) {
+            return new CorpusAnalyzer().countNGrams(reader, 1, 2, 3);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du fichier : " + corpus, e);
+        }
+    }
+
+    /**
+     * Compile les dispositions, puis note chaque couple disposition × corpus avec tous les profils.
+     */
+    private MatrixResult evaluate(ExecutorService pool, Map<String, ? extends NGramSource> counts,
+                                  long start, long countingNanos)
+            throws InterruptedException, ExecutionException {
+        long compileStart = System.nanoTime();
+        Map<String, CompiledKeymap> compiled = new LinkedHashMap<>();
+        for (String layout : keyboards.layouts.keySet()) {
+            ExtendedKeyboardLayout extLayout = ExtendedKeyboardLayoutFactory.buildLayout(keyboards, layout);
+            CompiledKeymap layoutKeymap = ExtendedKeyboardLayoutFactory.compile(extLayout, keymap);
+            layoutKeymap.movements(); // Matrices calculées ici plutôt que dans les threads d'évaluation
+            compiled.put(layout, layoutKeymap);
+        }
+        long compileNanos = System.nanoTime() - compileStart;
+
+        List<Callable<List<MatrixResult.Cell>>> tasks = new ArrayList<>();
+        for (Map.Entry<String, CompiledKeymap> layout : compiled.entrySet()) {
+            for (Map.Entry<String, ? extends NGramSource> corpus : counts.entrySet()) {
+                tasks.add(() -> evaluate(layout.getKey(), layout.getValue(), corpus.getKey(), corpus.getValue()));
+            }
+        }
+        List<MatrixResult.Cell> cells = new ArrayList<>();
+        for (Future<List<MatrixResult.Cell>> future : pool.invokeAll(tasks)) {
+            cells.addAll(future.get());
+        }
+        return new MatrixResult(cells, countingNanos, compileNanos, System.nanoTime() - start);
+    }
+
+    /**
+     * Convertit les n-grammes d'un corpus en touches d'une disposition, puis les note avec chaque profil.
+     */
+    private List<MatrixResult.Cell> evaluate(String layout, CompiledKeymap compiled, String corpus, NGramSource counts) {
+        long preparationStart = System.nanoTime();
+        PackedNGrams packed = PackedNGrams.of(counts, compiled);
+        long preparationNanos = System.nanoTime() - preparationStart;
+
+        List<MatrixResult.Cell> cells = new ArrayList<>(profiles.size());
+        for (Map.Entry<String, ExtendedLayoutEvaluator> profile : profiles.entrySet()) {
+            long evaluationStart = System.nanoTime();
+            double score = profile.getValue().evaluate(packed);
+            cells.add(new MatrixResult.Cell(layout, corpus, profile.getKey(), score,
+                    preparationNanos, System.nanoTime() - evaluationStart));
+        }
+        return cells;
+    }
+
+    /**
+     * Construit un évaluateur par profil de poids.
+     */
+    private static Map<String, ExtendedLayoutEvaluator> evaluators(WeightProfilesJson profiles) {
+        Map<String, ExtendedLayoutEvaluator> evaluators = new LinkedHashMap<>();
+        for (Map.Entry<String, WeightProfilesJson.WeightsDTO> profile : profiles.profiles.entrySet()) {
+            evaluators.put(profile.getKey(), profile.getValue().toEvaluator());
+        }
+        return evaluators;
+    }
+}
@@ -0,0 +1,129 @@
+package logiciel2;
+
+import java.util.Locale;
+
+/**
+ * La classe {@code EvaluationReport} détaille l'évaluation d'une disposition sur un corpus
+ * (voir {@link ExtendedLayoutEvaluator#evaluateDetailed(logiciel1.NGramSource, CompiledKeymap)}
+ * et {@link KeystrokeStreamEvaluator}) :
+ * <ul>
+ *   <li>le score global ;</li>
+ *   <li>la charge de chaque doigt, de chaque main et de chaque rangée, en nombre de frappes
+ *       (un caractère obtenu par plusieurs touches, comme "É" = Shift + E, compte une frappe par touche) ;</li>
+ *   <li>les occurrences de chaque type de mouvement ({@link MovementTotals}).</li>
+ * </ul>
+ * Les charges sont rangées dans des tableaux indexés par {@link Finger#ordinal()},
+ * {@link Hand#ordinal()} et numéro de rangée.
+ */
+public final class EvaluationReport {
+
+    private final double score;
+    private final long[] fingerLoad;
+    private final long[] handLoad;
+    private final long[] rowLoad;
+    private final MovementTotals movements;
+
+    /**
+     * Construit un rapport à partir des compteurs remplis pendant l'évaluation (non copiés).
+     *
+     * @param score le score global.
+     * @param fingerLoad les frappes de chaque doigt, par rang.
+     * @param handLoad les frappes de chaque main, par rang.
+     * @param rowLoad les frappes de chaque rangée, par numéro de rangée.
+     * @param movements les occurrences de chaque type de mouvement.
+     */
+    EvaluationReport(double score, long[] fingerLoad, long[] handLoad, long[] rowLoad, MovementTotals movements) {
+        this.score = score;
+        this.fingerLoad = fingerLoad;
+        this.handLoad = handLoad;
+        this.rowLoad = rowLoad;
+        this.movements = movements;
+    }
+
+    /**
+     * @return le score global.
+     */
+    public double score() {
+        return score;
+    }
+
+    /**
+     * @param finger un doigt.
+     * @return le nombre de frappes de ce doigt (toutes mains confondues).
+     */
+    public long fingerLoad(Finger finger) {
+        return fingerLoad[finger.ordinal()];
+    }
+
+    /**
+     * @param hand une main.
+     * @return le nombre de frappes de cette main.
+     */
+    public long handLoad(Hand hand) {
+        return handLoad[hand.ordinal()];
+    }
+
+    /**
+     * @param row un numéro de rangée.
+     * @return le nombre de frappes sur cette rangée, ou 0 si elle n'existe pas.
+     */
+    public long rowLoad(int row) {
+        return row >= 0 && row < rowLoad.length ? rowLoad[row] : 0;
+    }
+
+    /**
+     * @return le plus grand numéro de rangée plus un.
+     */
+    public int rowCount() {
+        return rowLoad.length;
+    }
+
+    /**
+     * @return le nombre total de frappes.
+     */
+    public long keystrokes() {
+        long total = 0;
+        for (long load : handLoad) total += load;
+        return total;
+    }
+
+    /**
+     * @return les occurrences de chaque type de mouvement.
+     */
+    public MovementTotals movements() {
+        return movements;
+    }
+
+    /**
+     * @return un résumé lisible des charges (en pourcentage des frappes) et des mouvements
+     */
+    public String summary() {
+        long keystrokes = keystrokes();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Mains :");
+        for (Hand hand : Hand.values()) {
+            sb.append(String.format(Locale.ROOT, " %s %.1f%%", hand, percent(handLoad(hand), keystrokes)));
+        }
+        sb.append(System.lineSeparator()).append("Doigts :");
+        for (Finger finger : Finger.values()) {
+            sb.append(String.format(Locale.ROOT, " %s %.1f%%", finger, percent(fingerLoad(finger), keystrokes)));
+        }
+        sb.append(System.lineSeparator()).append("Rangées :");
+        for (int row = 0; row < rowLoad.length; row++) {
+            if (rowLoad[row] > 0) {
+                sb.append(String.format(Locale.ROOT, " %d %.1f%%", row, percent(rowLoad[row], keystrokes)));
+            }
+        }
+        sb.append(System.lineSeparator()).append("Mouvements :");
+        for (MovementType type : MovementType.values()) {
+            if (type != MovementType.UNKNOWN) {
+                sb.append(' ').append(type).append(' ').append(movements.count(type));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static double percent(long value, long total) {
+        return total == 0 ? 0.0 : 100.0 * value / total;
+    }
+}
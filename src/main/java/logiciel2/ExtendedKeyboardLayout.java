@@ -1,7 +1,9 @@
 package logiciel2;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * La classe ExtendedKeyboardLayout permet de stocker la correspondance entre un label (ex. : "a", "Shift") 
@@ -48,4 +50,13 @@ public class ExtendedKeyboardLayout {
     public Key findKey(String label) {
         return keysByLabel.get(label);
     }
+
+    /**
+     * Retourne l'ensemble des labels de la disposition.
+     *
+     * @return une vue non modifiable des labels enregistrés.
+     */
+    public Set<String> labels() {
+        return Collections.unmodifiableSet(keysByLabel.keySet());
+    }
 }
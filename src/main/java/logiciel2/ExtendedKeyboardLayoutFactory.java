@@ -26,13 +26,40 @@ public class ExtendedKeyboardLayoutFactory {
         }
 
         for (KeyboardsJson.KeyDTO dto : dtos) {
-            Finger f = Finger.valueOf(dto.finger);
-            Hand h   = Hand.valueOf(dto.hand);
-            char c = (dto.character.length() == 1)? dto.character.charAt(0): '\0';
-            Key k = new Key(dto.row, dto.column, f, h, c);
-            layout.addKey(dto.character, k);
+            layout.addKey(dto.character, toKey(dto.character, dto.row, dto.column, dto.finger, dto.hand));
         }
 
         return layout;
     }
+
+    /**
+     * Construit la touche physique décrite par une entrée de {@code keyboards.json}.
+     *
+     * @param character le label de la touche (un caractère, ou un nom comme "Shift").
+     * @param row la rangée de la touche.
+     * @param column la colonne de la touche.
+     * @param finger le nom du doigt (voir {@link Finger}).
+     * @param hand le nom de la main (voir {@link Hand}).
+     * @return la touche ; son caractère est {@code '\0'} si le label n'est pas un caractère unique.
+     * @throws IllegalArgumentException si le doigt ou la main est inconnu.
+     */
+    static Key toKey(String character, int row, int column, String finger, String hand) {
+        Finger f = Finger.valueOf(finger);
+        Hand h   = Hand.valueOf(hand);
+        char c = (character.length() == 1)? character.charAt(0): '\0';
+        return new Key(row, column, f, h, c);
+    }
+
+    /**
+     * Compile une disposition étendue et un keymap en une table dense caractère -> touches
+     * (voir {@link CompiledKeymap}), pour que les recherches pendant l'évaluation ne coûtent
+     * qu'un accès à un tableau, sans allocation.
+     *
+     * @param layout la disposition étendue (label -> Key).
+     * @param keymap le keymap (char -> séquence de labels).
+     * @return la table compilée.
+     */
+    public static CompiledKeymap compile(ExtendedKeyboardLayout layout, KeymapJson keymap) {
+        return new CompiledKeymap(layout, keymap);
+    }
 }
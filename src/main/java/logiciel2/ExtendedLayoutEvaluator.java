@@ -1,6 +1,8 @@
 package logiciel2;
 
 import logiciel1.NGramFrequency;
+import logiciel1.NGramSource;
+import logiciel1.NGramTable;
 import java.util.List;
 
 /**
@@ -18,6 +20,7 @@ public class ExtendedLayoutEvaluator {
     private final double weightRedirection;
     private final double weightMauvaiseRedirection;
     private final double weightSkipgram;
+    private final double[] movementWeights; // Score de chaque type de mouvement, par rang
 
 
     /**
@@ -50,6 +53,12 @@ public class ExtendedLayoutEvaluator {
         this.weightRedirection = weightRedirection;
         this.weightMauvaiseRedirection = weightMauvaiseRedirection;
         this.weightSkipgram = weightSkipgram;
+
+        // Les types de bigram et de trigram sont disjoints (UNKNOWN vaut 0 dans les deux cas)
+        this.movementWeights = new double[MovementType.values().length];
+        for (MovementType mt : MovementType.values()) {
+            movementWeights[mt.ordinal()] = bigramMovementScore(mt) + trigramMovementScore(mt);
+        }
     }
 
     /**
@@ -69,6 +78,27 @@ public class ExtendedLayoutEvaluator {
             List<NGramFrequency> trigrams,
             ExtendedKeyboardLayout extLayout,
             KeymapJson keymap
+    ) {
+        return evaluate(unigrams, bigrams, trigrams, ExtendedKeyboardLayoutFactory.compile(extLayout, keymap));
+    }
+
+    /**
+     * Évalue une disposition de clavier déjà compilée avec son keymap
+     * (voir {@link ExtendedKeyboardLayoutFactory#compile(ExtendedKeyboardLayout, KeymapJson)}).
+     * Le score est le même que celui de
+     * {@link #evaluate(List, List, List, ExtendedKeyboardLayout, KeymapJson)}.
+     *
+     * @param unigrams liste des unigrams avec leurs fréquences.
+     * @param bigrams liste des bigrams avec leurs fréquences.
+     * @param trigrams liste des trigrams avec leurs fréquences.
+     * @param compiled la correspondance compilée char -> touches.
+     * @return le score global calculé pour le layout.
+     */
+    public double evaluate(
+            List<NGramFrequency> unigrams,
+            List<NGramFrequency> bigrams,
+            List<NGramFrequency> trigrams,
+            CompiledKeymap compiled
     ) {
         long totalOccurrences = 0;
         for (NGramFrequency f : unigrams) totalOccurrences += f.frequency();
@@ -80,49 +110,336 @@ public class ExtendedLayoutEvaluator {
         for (NGramFrequency freq : bigrams) {
             String bigram = freq.nGram();
             if (bigram.length() != 2) continue; // par sécurité
-
-            // On convertit ce bigram en touches
-            // ex: "î" => ["^","i"]  +  "l" => ["l"] => 3 touches
-            List<Key> seq1 = KeymapService.getPhysicalKeysForChar(bigram.charAt(0), extLayout, keymap);
-            List<Key> seq2 = KeymapService.getPhysicalKeysForChar(bigram.charAt(1), extLayout, keymap);
-            List<Key> combined = concat(seq1, seq2);
-
-            // Si on a EXACTEMENT 2 touches => bigram
-            if (combined.size() == 2) {
-                MovementType mt = MovementDetector.detectBigramMovement(combined.get(0), combined.get(1));
-                double movementScore = bigramMovementScore(mt);
-                totalScore += movementScore * freq.frequency();
-            }
-            // Si on a EXACTEMENT 3 touches => trigram
-            else if (combined.size() == 3) {
-                MovementType mt = MovementDetector.detectTrigramMovement(combined.get(0), combined.get(1), combined.get(2));
-                double movementScore = trigramMovementScore(mt);
-                totalScore += movementScore * freq.frequency();
-            }
+            totalScore += bigramScore(bigram.charAt(0), bigram.charAt(1), compiled) * freq.frequency();
         }
 
         for (NGramFrequency freq : trigrams) {
             String trigram = freq.nGram();
             if (trigram.length() != 3) continue;
+            totalScore += trigramScore(trigram.charAt(0), trigram.charAt(1), trigram.charAt(2), compiled) * freq.frequency();
+        }
+        return (totalOccurrences == 0) ? totalScore : (totalScore / totalOccurrences);
+    }
+
+    /**
+     * Évalue une disposition de clavier directement à partir d'une source de n-grammes :
+     * tables de comptage produites par {@link logiciel1.CorpusProcessor#countNGrams(String, int...)}
+     * ou fichier binaire ({@link logiciel1.NGramBinaryFile}), sans passer par des listes
+     * de {@code NGramFrequency}. Le score est le même que celui de
+     * {@link #evaluate(List, List, List, ExtendedKeyboardLayout, KeymapJson)}.
+     *
+     * @param counts la source des fréquences (les ordres absents sont ignorés).
+     * @param extLayout un ExtendedKeyboardLayout contenant la correspondance label -> Key.
+     * @param keymap un KeymapJson contenant la correspondance char -> liste de labels.
+     * @return le score global calculé pour le layout.
+     */
+    public double evaluate(NGramSource counts, ExtendedKeyboardLayout extLayout, KeymapJson keymap) {
+        return evaluate(counts, ExtendedKeyboardLayoutFactory.compile(extLayout, keymap));
+    }
+
+    /**
+     * Évalue une disposition de clavier déjà compilée avec son keymap, directement à partir
+     * d'une source de n-grammes. Aucun objet n'est alloué par n-gramme.
+     *
+     * @param counts la source des fréquences (les ordres absents sont ignorés).
+     * @param compiled la correspondance compilée char -> touches.
+     * @return le score global calculé pour le layout.
+     */
+    public double evaluate(NGramSource counts, CompiledKeymap compiled) {
+        long totalOccurrences = counts.total(1) + counts.total(2) + counts.total(3);
+
+        double[] totalScore = {0.0};
+        if (counts.contains(2)) {
+            counts.forEach(2, (key, count) -> totalScore[0] += bigramScore(
+                    NGramTable.charAt(key, 0), NGramTable.charAt(key, 1), compiled) * count);
+        }
+        if (counts.contains(3)) {
+            counts.forEach(3, (key, count) -> totalScore[0] += trigramScore(
+                    NGramTable.charAt(key, 0), NGramTable.charAt(key, 1), NGramTable.charAt(key, 2),
+                    compiled) * count);
+        }
+        return (totalOccurrences == 0) ? totalScore[0] : (totalScore[0] / totalOccurrences);
+    }
+
+    /**
+     * Évalue une disposition et détaille le résultat : charge de chaque doigt, main et rangée
+     * (à partir des unigrams) et occurrences de chaque type de mouvement. Tous les compteurs sont
+     * remplis pendant le même parcours que le score, qui reste identique à celui de
+     * {@link #evaluate(NGramSource, ExtendedKeyboardLayout, KeymapJson)}.
+     *
+     * @param counts la source des fréquences (les ordres absents sont ignorés).
+     * @param extLayout un ExtendedKeyboardLayout contenant la correspondance label -> Key.
+     * @param keymap un KeymapJson contenant la correspondance char -> liste de labels.
+     * @return le rapport détaillé de l'évaluation.
+     */
+    public EvaluationReport evaluateDetailed(NGramSource counts, ExtendedKeyboardLayout extLayout, KeymapJson keymap) {
+        return evaluateDetailed(counts, ExtendedKeyboardLayoutFactory.compile(extLayout, keymap));
+    }
 
-            List<Key> s1 = KeymapService.getPhysicalKeysForChar(trigram.charAt(0), extLayout, keymap);
-            List<Key> s2 = KeymapService.getPhysicalKeysForChar(trigram.charAt(1), extLayout, keymap);
-            List<Key> s3 = KeymapService.getPhysicalKeysForChar(trigram.charAt(2), extLayout, keymap);
-            List<Key> combined = concat(s1, s2, s3);
-
-            if (combined.size() == 3) {
-                MovementType mt = MovementDetector.detectTrigramMovement(
-                        combined.get(0),
-                        combined.get(1),
-                        combined.get(2)
-                );
-                double movementScore = trigramMovementScore(mt);
-                totalScore += movementScore * freq.frequency();
-            }
+    /**
+     * Évalue une disposition déjà compilée et détaille le résultat
+     * (voir {@link #evaluateDetailed(NGramSource, ExtendedKeyboardLayout, KeymapJson)}).
+     *
+     * @param counts la source des fréquences (les ordres absents sont ignorés).
+     * @param compiled la correspondance compilée char -> touches.
+     * @return le rapport détaillé de l'évaluation.
+     */
+    public EvaluationReport evaluateDetailed(NGramSource counts, CompiledKeymap compiled) {
+        // Doigt, main et rangée de chaque touche, par identifiant dense
+        int keyCount = compiled.keyCount();
+        int[] fingerOf = new int[keyCount];
+        int[] handOf = new int[keyCount];
+        int[] rowOf = new int[keyCount];
+        int rows = 0;
+        for (int id = 0; id < keyCount; id++) {
+            Key key = compiled.key(id);
+            fingerOf[id] = key.finger().ordinal();
+            handOf[id] = key.hand().ordinal();
+            rowOf[id] = key.row();
+            rows = Math.max(rows, key.row() + 1);
         }
+        long[] fingerLoad = new long[Finger.values().length];
+        long[] handLoad = new long[Hand.values().length];
+        long[] rowLoad = new long[rows];
+        long[] typeCounts = new long[MovementType.values().length];
+
+        if (counts.contains(1)) {
+            counts.forEach(1, (key, count) -> {
+                for (int id : compiled.keysFor(NGramTable.charAt(key, 0))) {
+                    fingerLoad[fingerOf[id]] += count;
+                    handLoad[handOf[id]] += count;
+                    rowLoad[rowOf[id]] += count;
+                }
+            });
+        }
+        double[] totalScore = {0.0};
+        if (counts.contains(2)) {
+            counts.forEach(2, (key, count) -> {
+                int mt = bigramType(NGramTable.charAt(key, 0), NGramTable.charAt(key, 1), compiled);
+                if (mt >= 0) {
+                    typeCounts[mt] += count;
+                    totalScore[0] += movementWeights[mt] * count;
+                }
+            });
+        }
+        if (counts.contains(3)) {
+            counts.forEach(3, (key, count) -> {
+                int mt = trigramType(NGramTable.charAt(key, 0), NGramTable.charAt(key, 1), NGramTable.charAt(key, 2), compiled);
+                if (mt >= 0) {
+                    typeCounts[mt] += count;
+                    totalScore[0] += movementWeights[mt] * count;
+                }
+            });
+        }
+        long totalOccurrences = counts.total(1) + counts.total(2) + counts.total(3);
+        double score = (totalOccurrences == 0) ? totalScore[0] : (totalScore[0] / totalOccurrences);
+        return new EvaluationReport(score, fingerLoad, handLoad, rowLoad, new MovementTotals(typeCounts, totalOccurrences));
+    }
+
+    /**
+     * Évalue une disposition à partir de n-grammes déjà convertis en touches (tableaux parallèles).
+     * Chaque entrée coûte une lecture dans les matrices de mouvements et une multiplication :
+     * aucun objet n'est alloué. Le score est le même que celui des autres méthodes {@code evaluate}.
+     *
+     * @param packed les n-grammes convertis en identifiants de touches, avec leurs occurrences.
+     * @return le score global calculé pour le layout.
+     */
+    public double evaluate(PackedNGrams packed) {
+        MovementMatrix movements = packed.keymap().movements();
+        int[] keyIds = packed.keyIds();
+        long[] counts = packed.counts();
+        double[] weights = movementWeights;
+
+        double totalScore = 0.0;
+        for (int i = 0, k = 0; i < counts.length; i++, k += 3) {
+            int third = keyIds[k + 2];
+            int mt = third < 0
+                    ? movements.bigramOrdinal(keyIds[k], keyIds[k + 1])
+                    : movements.trigramOrdinal(keyIds[k], keyIds[k + 1], third);
+            totalScore += weights[mt] * counts[i];
+        }
+        long totalOccurrences = packed.totalOccurrences();
         return (totalOccurrences == 0) ? totalScore : (totalScore / totalOccurrences);
     }
 
+    /**
+     * Évalue une disposition à partir de n-grammes déjà convertis en touches, avec le noyau
+     * {@link ScoringKernel} : les types de mouvements des entrées sont classés une fois
+     * (puis conservés par {@code packed}), et la somme pondérée est calculée en SIMD si le module
+     * {@code jdk.incubator.vector} est chargé, en scalaire sinon. Utile pour noter un même corpus
+     * avec de nombreux poids. Le score est celui de {@link #evaluate(PackedNGrams)} à la tolérance
+     * documentée par {@link ScoringKernel} près.
+     *
+     * @param packed les n-grammes convertis en identifiants de touches, avec leurs occurrences.
+     * @return le score global calculé pour le layout.
+     */
+    public double evaluateVectorized(PackedNGrams packed) {
+        double totalScore = ScoringKernel.weightedSum(packed.movementIds(), packed.counts(), movementWeights);
+        long totalOccurrences = packed.totalOccurrences();
+        return (totalOccurrences == 0) ? totalScore : (totalScore / totalOccurrences);
+    }
+
+    /**
+     * Compte en une passe les occurrences de chaque type de mouvement pour une disposition et un corpus.
+     * Le résultat ne dépend pas des poids : il permet ensuite de noter la disposition avec n'importe
+     * quels poids par un simple produit scalaire (voir {@link MovementTotals}).
+     *
+     * @param counts la source des fréquences (les ordres absents sont ignorés).
+     * @param extLayout un ExtendedKeyboardLayout contenant la correspondance label -> Key.
+     * @param keymap un KeymapJson contenant la correspondance char -> liste de labels.
+     * @return les occurrences de chaque type de mouvement et le total servant à normaliser le score.
+     */
+    public static MovementTotals movementTotals(NGramSource counts, ExtendedKeyboardLayout extLayout, KeymapJson keymap) {
+        return movementTotals(PackedNGrams.of(counts, ExtendedKeyboardLayoutFactory.compile(extLayout, keymap)));
+    }
+
+    /**
+     * Compte en une passe les occurrences de chaque type de mouvement pour des n-grammes déjà
+     * convertis en touches. Aucun objet n'est alloué pendant le parcours.
+     *
+     * @param packed les n-grammes convertis en identifiants de touches, avec leurs occurrences.
+     * @return les occurrences de chaque type de mouvement et le total servant à normaliser le score.
+     */
+    public static MovementTotals movementTotals(PackedNGrams packed) {
+        MovementMatrix movements = packed.keymap().movements();
+        int[] keyIds = packed.keyIds();
+        long[] counts = packed.counts();
+
+        long[] totals = new long[MovementType.values().length];
+        for (int i = 0, k = 0; i < counts.length; i++, k += 3) {
+            int third = keyIds[k + 2];
+            int mt = third < 0
+                    ? movements.bigramOrdinal(keyIds[k], keyIds[k + 1])
+                    : movements.trigramOrdinal(keyIds[k], keyIds[k + 1], third);
+            totals[mt] += counts[i];
+        }
+        return new MovementTotals(totals, packed.totalOccurrences());
+    }
+
+    /**
+     * Évalue une disposition obtenue en déplaçant les touches : la touche d'identifiant {@code id}
+     * est placée à la position {@code positionOf[id]}, et les mouvements sont lus dans les matrices
+     * des positions. Utilisée par {@link LayoutOptimizer} pour noter des milliers de candidats
+     * sans reconstruire de disposition ; aucun objet n'est alloué.
+     *
+     * @param packed les n-grammes convertis en identifiants de touches, avec leurs occurrences.
+     * @param positions les matrices de mouvements des positions physiques.
+     * @param positionOf la position de chaque touche, indexée par identifiant de touche.
+     * @return le score global calculé pour la disposition candidate.
+     */
+    double evaluate(PackedNGrams packed, MovementMatrix positions, int[] positionOf) {
+        int[] keyIds = packed.keyIds();
+        long[] counts = packed.counts();
+        double[] weights = movementWeights;
+
+        double totalScore = 0.0;
+        for (int i = 0, k = 0; i < counts.length; i++, k += 3) {
+            int third = keyIds[k + 2];
+            int mt = third < 0
+                    ? positions.bigramOrdinal(positionOf[keyIds[k]], positionOf[keyIds[k + 1]])
+                    : positions.trigramOrdinal(positionOf[keyIds[k]], positionOf[keyIds[k + 1]], positionOf[third]);
+            totalScore += weights[mt] * counts[i];
+        }
+        long totalOccurrences = packed.totalOccurrences();
+        return (totalOccurrences == 0) ? totalScore : (totalScore / totalOccurrences);
+    }
+
+    /**
+     * Retourne le score de chaque type de mouvement, indexé par rang ({@link MovementType#ordinal()}).
+     * Utilisé par {@link IncrementalScorer} pour noter les mouvements sans passer par {@code evaluate}.
+     *
+     * @return les scores par type de mouvement, partagés et à ne pas modifier.
+     */
+    double[] movementWeights() {
+        return movementWeights;
+    }
+
+    /**
+     * Calcule le score d'un bigram de caractères (sans sa fréquence).
+     * Le bigram est d'abord converti en touches :
+     * ex: "î" => ["^","i"]  +  "l" => ["l"] => 3 touches.
+     * Avec EXACTEMENT 2 touches, il est traité comme un bigram de touches ;
+     * avec EXACTEMENT 3 touches, comme un trigram de touches ; sinon il est ignoré.
+     *
+     * @param c1 le premier caractère.
+     * @param c2 le deuxième caractère.
+     * @param compiled la correspondance compilée char -> touches.
+     * @return le score du mouvement.
+     */
+    private double bigramScore(char c1, char c2, CompiledKeymap compiled) {
+        int mt = bigramType(c1, c2, compiled);
+        return mt < 0 ? 0.0 : movementWeights[mt];
+    }
+
+    /**
+     * Retourne le rang du type de mouvement d'un bigram de caractères, selon les mêmes règles que
+     * {@link #bigramScore(char, char, CompiledKeymap)}.
+     *
+     * @param c1 le premier caractère.
+     * @param c2 le deuxième caractère.
+     * @param compiled la correspondance compilée char -> touches.
+     * @return le rang du type de mouvement, ou -1 si le bigram est ignoré.
+     */
+    private static int bigramType(char c1, char c2, CompiledKeymap compiled) {
+        int[] seq1 = compiled.keysFor(c1);
+        int[] seq2 = compiled.keysFor(c2);
+        int size = seq1.length + seq2.length;
+
+        if (size == 2) {
+            return compiled.movements().bigramOrdinal(
+                    keyAt(0, seq1, seq2, seq2),
+                    keyAt(1, seq1, seq2, seq2)
+            );
+        } else if (size == 3) {
+            return compiled.movements().trigramOrdinal(
+                    keyAt(0, seq1, seq2, seq2),
+                    keyAt(1, seq1, seq2, seq2),
+                    keyAt(2, seq1, seq2, seq2)
+            );
+        }
+        return -1;
+    }
+
+    /**
+     * Calcule le score d'un trigram de caractères (sans sa fréquence).
+     * Seuls les trigrams convertis en EXACTEMENT 3 touches sont pris en compte.
+     *
+     * @param c1 le premier caractère.
+     * @param c2 le deuxième caractère.
+     * @param c3 le troisième caractère.
+     * @param compiled la correspondance compilée char -> touches.
+     * @return le score du mouvement.
+     */
+    private double trigramScore(char c1, char c2, char c3, CompiledKeymap compiled) {
+        int mt = trigramType(c1, c2, c3, compiled);
+        return mt < 0 ? 0.0 : movementWeights[mt];
+    }
+
+    /**
+     * Retourne le rang du type de mouvement d'un trigram de caractères, selon les mêmes règles que
+     * {@link #trigramScore(char, char, char, CompiledKeymap)}.
+     *
+     * @param c1 le premier caractère.
+     * @param c2 le deuxième caractère.
+     * @param c3 le troisième caractère.
+     * @param compiled la correspondance compilée char -> touches.
+     * @return le rang du type de mouvement, ou -1 si le trigram est ignoré.
+     */
+    private static int trigramType(char c1, char c2, char c3, CompiledKeymap compiled) {
+        int[] s1 = compiled.keysFor(c1);
+        int[] s2 = compiled.keysFor(c2);
+        int[] s3 = compiled.keysFor(c3);
+
+        if (s1.length + s2.length + s3.length == 3) {
+            return compiled.movements().trigramOrdinal(
+                    keyAt(0, s1, s2, s3),
+                    keyAt(1, s1, s2, s3),
+                    keyAt(2, s1, s2, s3)
+            );
+        }
+        return -1;
+    }
+
     /**
      * Calcule le score pour un bigram en fonction du type de mouvement.
      *
@@ -155,31 +472,19 @@ public class ExtendedLayoutEvaluator {
         };
     }
 
-     /**
-     * Concatène deux listes de Key.
-     *
-     * @param a première liste.
-     * @param b deuxième liste.
-     * @return une nouvelle liste contenant les éléments de a suivis de ceux de b.
-     */
-    private List<Key> concat(List<Key> a, List<Key> b) {
-        java.util.ArrayList<Key> res = new java.util.ArrayList<>(a);
-        res.addAll(b);
-        return res;
-    }
-
     /**
-     * Concatène trois listes de Key.
+     * Retourne la {@code i}-ème touche de la concaténation de trois séquences, sans la construire.
      *
-     * @param a première liste.
-     * @param b deuxième liste.
-     * @param c troisième liste.
-     * @return une nouvelle liste contenant les éléments de a suivis de ceux de b et de c.
+     * @param i l'indice de la touche dans la concaténation.
+     * @param a première séquence d'identifiants.
+     * @param b deuxième séquence d'identifiants.
+     * @param c troisième séquence d'identifiants (ignorée si {@code i} tombe dans a ou b).
+     * @return l'identifiant de la touche à cet indice.
      */
-    private List<Key> concat(List<Key> a, List<Key> b, List<Key> c) {
-        java.util.ArrayList<Key> res = new java.util.ArrayList<>(a);
-        res.addAll(b);
-        res.addAll(c);
-        return res;
+    private static int keyAt(int i, int[] a, int[] b, int[] c) {
+        if (i < a.length) return a[i];
+        i -= a.length;
+        if (i < b.length) return b[i];
+        return c[i - b.length];
     }
 }
@@ -0,0 +1,270 @@
+package logiciel2;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * La classe {@code IncrementalScorer} maintient le score d'une disposition pendant qu'on y échange
+ * des touches, sans réévaluer tout le corpus à chaque échange.
+ *
+ * Le scoreur retient, pour chaque type de mouvement ({@link MovementType}), le nombre exact
+ * d'occurrences des n-grammes qui le produisent, ainsi que, pour chaque touche, une copie contiguë
+ * des entrées de {@link PackedNGrams} où elle apparaît. Un échange ne modifie que les entrées des
+ * deux touches concernées : seules celles-ci sont reclassées, et la variation des comptes par type
+ * donne la variation exacte du score.
+ *
+ * Les touches sont placées sur des positions physiques ; échanger deux positions échange les touches
+ * qui s'y trouvent (une position peut être vide). Avec le constructeur public, les positions sont
+ * les touches de la disposition compilée elle-même.
+ *
+ * Exemple :
+ * <pre>
+ * IncrementalScorer scorer = new IncrementalScorer(evaluator, PackedNGrams.of(counts, compiled));
+ * double delta = scorer.swapDelta(a, b); // Variation du score si les touches a et b sont échangées
+ * if (delta > 0) scorer.swap(a, b);
+ * </pre>
+ *
+ * Un scoreur n'est pas thread-safe : chaque thread de recherche utilise le sien.
+ */
+public final class IncrementalScorer {
+
+    private final long totalOccurrences;
+    private final MovementMatrix positions;
+    private final double[] weights;
+    private final int[] positionOf; // Position de chaque touche
+    private final int[] keyAt; // Touche de chaque position, ou -1
+    private final int[] recordStart; // Entrées de la touche k : rangs recordStart[k] à recordStart[k + 1] (exclu)
+    private final int[] recordKeys; // 3 touches par entrée, comme dans PackedNGrams
+    private final long[] recordCounts;
+    private final long[] typeCounts; // Occurrences de chaque type de mouvement
+    private final long[] deltaCounts; // Variation des occurrences pour le dernier échange calculé
+    private int lastP = -1;
+    private int lastQ = -1;
+
+    /**
+     * Construit un scoreur pour une disposition compilée, dans sa configuration d'origine.
+     *
+     * @param evaluator l'évaluateur qui fournit les poids des mouvements.
+     * @param packed les n-grammes du corpus convertis en touches de la disposition.
+     */
+    public IncrementalScorer(ExtendedLayoutEvaluator evaluator, PackedNGrams packed) {
+        this(evaluator, packed, packed.keymap().movements(), identity(packed.keymap().keyCount()));
+    }
+
+    /**
+     * Construit un scoreur dont les touches sont placées sur des positions physiques.
+     *
+     * @param evaluator l'évaluateur qui fournit les poids des mouvements.
+     * @param packed les n-grammes du corpus convertis en touches.
+     * @param positions les matrices de mouvements des positions physiques.
+     * @param positionOf la position initiale de chaque touche (copiée).
+     * @throws IllegalArgumentException si deux touches occupent la même position.
+     */
+    IncrementalScorer(ExtendedLayoutEvaluator evaluator, PackedNGrams packed, MovementMatrix positions, int[] positionOf) {
+        this.totalOccurrences = packed.totalOccurrences();
+        this.positions = positions;
+        this.weights = evaluator.movementWeights();
+        this.positionOf = positionOf.clone();
+        this.keyAt = new int[positions.keyCount()];
+        Arrays.fill(keyAt, -1);
+        for (int key = 0; key < positionOf.length; key++) {
+            if (keyAt[positionOf[key]] >= 0) {
+                throw new IllegalArgumentException("Position occupée par deux touches : " + positionOf[key]);
+            }
+            keyAt[positionOf[key]] = key;
+        }
+
+        int[] keyIds = packed.keyIds();
+        long[] counts = packed.counts();
+        this.typeCounts = new long[weights.length];
+        this.deltaCounts = new long[weights.length];
+        for (int i = 0; i < counts.length; i++) {
+            typeCounts[typeOf(keyIds[3 * i], keyIds[3 * i + 1], keyIds[3 * i + 2])] += counts[i];
+        }
+
+        // Les entrées de mêmes touches (par exemple "É" et "È" via Shift) sont regroupées
+        Map<Long, Integer> distinct = new HashMap<>();
+        int[] merged = new int[keyIds.length];
+        long[] mergedCounts = new long[counts.length];
+        int size = 0;
+        for (int i = 0, k = 0; i < counts.length; i++, k += 3) {
+            long triple = ((long) keyIds[k] << 42) | ((long) keyIds[k + 1] << 21) | (keyIds[k + 2] & 0x1FFFFF);
+            Integer index = distinct.putIfAbsent(triple, size);
+            if (index == null) {
+                System.arraycopy(keyIds, k, merged, 3 * size, 3);
+                index = size++;
+            }
+            mergedCounts[index] += counts[i];
+        }
+
+        // Pour chaque touche, copie contiguë des entrées où elle apparaît (une seule fois par entrée)
+        int keyCount = positionOf.length;
+        this.recordStart = new int[keyCount + 1];
+        for (int i = 0; i < size; i++) {
+            int a = merged[3 * i], b = merged[3 * i + 1], c = merged[3 * i + 2];
+            recordStart[a + 1]++;
+            if (b != a) recordStart[b + 1]++;
+            if (c >= 0 && c != a && c != b) recordStart[c + 1]++;
+        }
+        for (int key = 0; key < keyCount; key++) {
+            recordStart[key + 1] += recordStart[key];
+        }
+        this.recordKeys = new int[3 * recordStart[keyCount]];
+        this.recordCounts = new long[recordStart[keyCount]];
+        int[] fill = Arrays.copyOf(recordStart, keyCount);
+        for (int i = 0; i < size; i++) {
+            int a = merged[3 * i], b = merged[3 * i + 1], c = merged[3 * i + 2];
+            addRecord(fill, a, merged, i, mergedCounts[i]);
+            if (b != a) addRecord(fill, b, merged, i, mergedCounts[i]);
+            if (c >= 0 && c != a && c != b) addRecord(fill, c, merged, i, mergedCounts[i]);
+        }
+    }
+
+    /**
+     * @return le score de la configuration courante (comme {@link ExtendedLayoutEvaluator#evaluate(PackedNGrams)}).
+     */
+    public double score() {
+        return scoreOf(typeCounts);
+    }
+
+    /**
+     * Calcule la variation de score qu'entraînerait l'échange des touches de deux positions,
+     * sans modifier la configuration. Seules les entrées contenant ces touches sont reclassées.
+     *
+     * @param p la première position.
+     * @param q la deuxième position.
+     * @return la variation du score (positive si l'échange améliore la disposition).
+     */
+    public double swapDelta(int p, int q) {
+        computeDelta(p, q);
+        return scoreOf(deltaCounts);
+    }
+
+    /**
+     * Échange les touches de deux positions et met le score à jour.
+     *
+     * @param p la première position.
+     * @param q la deuxième position.
+     */
+    public void swap(int p, int q) {
+        if (p != lastP || q != lastQ) {
+            computeDelta(p, q);
+        }
+        for (int t = 0; t < typeCounts.length; t++) {
+            typeCounts[t] += deltaCounts[t];
+        }
+        int kp = keyAt[p];
+        int kq = keyAt[q];
+        keyAt[p] = kq;
+        keyAt[q] = kp;
+        if (kp >= 0) positionOf[kp] = q;
+        if (kq >= 0) positionOf[kq] = p;
+        lastP = -1;
+        lastQ = -1;
+    }
+
+    /**
+     * @param key l'identifiant d'une touche.
+     * @return la position courante de cette touche.
+     */
+    public int positionOf(int key) {
+        return positionOf[key];
+    }
+
+    /**
+     * @param position une position physique.
+     * @return la touche placée sur cette position, ou {@code -1} si elle est vide.
+     */
+    public int keyAt(int position) {
+        return keyAt[position];
+    }
+
+    /**
+     * Calcule dans {@code deltaCounts} la variation des occurrences par type de mouvement
+     * pour l'échange des positions {@code p} et {@code q}.
+     */
+    private void computeDelta(int p, int q) {
+        Arrays.fill(deltaCounts, 0);
+        lastP = p;
+        lastQ = q;
+        int kp = keyAt[p];
+        int kq = keyAt[q];
+        if (p == q || kp == kq) return;
+
+        if (kp >= 0) {
+            for (int j = recordStart[kp]; j < recordStart[kp + 1]; j++) {
+                accumulate(3 * j, recordCounts[j], kp, kq, p, q);
+            }
+        }
+        if (kq >= 0) {
+            for (int j = recordStart[kq]; j < recordStart[kq + 1]; j++) {
+                int k = 3 * j;
+                if (kp >= 0 && (recordKeys[k] == kp || recordKeys[k + 1] == kp || recordKeys[k + 2] == kp)) continue; // Déjà compté
+                accumulate(k, recordCounts[j], kp, kq, p, q);
+            }
+        }
+    }
+
+    /**
+     * Retire une entrée de son type de mouvement actuel et l'ajoute à son type après l'échange
+     * de la touche {@code kp} (en position {@code p}) et de la touche {@code kq} (en position {@code q}).
+     */
+    private void accumulate(int k, long count, int kp, int kq, int p, int q) {
+        int a = recordKeys[k];
+        int b = recordKeys[k + 1];
+        int c = recordKeys[k + 2];
+        int before = typeOf(a, b, c);
+        int pa = swapped(a, kp, kq, p, q);
+        int pb = swapped(b, kp, kq, p, q);
+        int after = c < 0
+                ? positions.bigramOrdinal(pa, pb)
+                : positions.trigramOrdinal(pa, pb, swapped(c, kp, kq, p, q));
+        deltaCounts[before] -= count;
+        deltaCounts[after] += count;
+    }
+
+    /**
+     * Retourne la position d'une touche après l'échange des positions {@code p} et {@code q}.
+     */
+    private int swapped(int key, int kp, int kq, int p, int q) {
+        if (key == kp) return q;
+        if (key == kq) return p;
+        return positionOf[key];
+    }
+
+    /**
+     * Retourne le rang du type de mouvement d'une entrée dans la configuration courante.
+     */
+    private int typeOf(int a, int b, int c) {
+        return c < 0
+                ? positions.bigramOrdinal(positionOf[a], positionOf[b])
+                : positions.trigramOrdinal(positionOf[a], positionOf[b], positionOf[c]);
+    }
+
+    /**
+     * Convertit des occurrences par type de mouvement en score normalisé.
+     */
+    private double scoreOf(long[] countsByType) {
+        double total = 0.0;
+        for (int t = 0; t < countsByType.length; t++) {
+            total += weights[t] * countsByType[t];
+        }
+        return (totalOccurrences == 0) ? total : (total / totalOccurrences);
+    }
+
+    /**
+     * Copie l'entrée {@code i} des tableaux regroupés parmi les entrées de la touche {@code key}.
+     */
+    private void addRecord(int[] fill, int key, int[] merged, int i, long count) {
+        int j = fill[key]++;
+        System.arraycopy(merged, 3 * i, recordKeys, 3 * j, 3);
+        recordCounts[j] = count;
+    }
+
+    private static int[] identity(int size) {
+        int[] identity = new int[size];
+        for (int i = 0; i < size; i++) identity[i] = i;
+        return identity;
+    }
+}
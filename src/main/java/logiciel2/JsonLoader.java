@@ -1,14 +1,34 @@
 package logiciel2;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import java.io.InputStream;
 
 /**
  * La classe {@code JsonLoader} fournit une méthode utilitaire pour charger
  * et parser des fichiers JSON en objets Java en utilisant la bibliothèque Jackson.
+ *
+ * Les lecteurs Jackson sont construits une seule fois et partagés (ils sont sans état et
+ * utilisables par plusieurs threads) ; voir aussi {@link ConfigRegistry}, qui met en cache
+ * les configurations chargées.
  */
 public class JsonLoader {
 
+    /**
+     * ObjectMapper partagé par tous les chargements de configuration.
+     */
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Lecteur de {@code keyboards.json}.
+     */
+    static final ObjectReader KEYBOARDS_READER = MAPPER.readerFor(KeyboardsJson.class);
+
+    /**
+     * Lecteur de {@code weights.json}.
+     */
+    static final ObjectReader WEIGHTS_READER = MAPPER.readerFor(WeightProfilesJson.class);
+
    /**
      * Charge un fichier JSON depuis le classpath et le convertit en un objet de type {@code KeyboardsJson}.
      * @param resourcePath le chemin relatif du fichier JSON dans le classpath.
@@ -18,18 +38,34 @@ public class JsonLoader {
      * lors de la lecture ou du parsing.
      */
     public static KeyboardsJson loadKeyboards(String resourcePath) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            
-            InputStream input = JsonLoader.class.getClassLoader().getResourceAsStream(resourcePath);
-            if (input == null) {
-                throw new RuntimeException("Fichier JSON non trouvé : " + resourcePath);
-            }
-    
-            return mapper.readValue(input, KeyboardsJson.class);
+        InputStream input = JsonLoader.class.getClassLoader().getResourceAsStream(resourcePath);
+        if (input == null) {
+            throw new RuntimeException("Fichier JSON non trouvé : " + resourcePath);
+        }
+        try (input) {
+            return KEYBOARDS_READER.readValue(input);
+        } catch (Exception e) {
+            throw new RuntimeException("Erreur lors de la lecture du JSON : " + resourcePath, e);
+        }
+    }
+
+    /**
+     * Charge un fichier JSON de profils de poids depuis le classpath.
+     * @param resourcePath le chemin relatif du fichier JSON dans le classpath.
+     * Par exemple, "config/weights.json".
+     * @return un objet {@code WeightProfilesJson} représentant le contenu du fichier JSON.
+     * @throws RuntimeException si le fichier JSON est introuvable ou si une erreur se produit
+     * lors de la lecture ou du parsing.
+     */
+    public static WeightProfilesJson loadWeightProfiles(String resourcePath) {
+        InputStream input = JsonLoader.class.getClassLoader().getResourceAsStream(resourcePath);
+        if (input == null) {
+            throw new RuntimeException("Fichier JSON non trouvé : " + resourcePath);
+        }
+        try (input) {
+            return WEIGHTS_READER.readValue(input);
         } catch (Exception e) {
             throw new RuntimeException("Erreur lors de la lecture du JSON : " + resourcePath, e);
         }
     }
-    
 }
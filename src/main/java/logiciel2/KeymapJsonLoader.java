@@ -1,6 +1,6 @@
 package logiciel2;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import java.io.InputStream;
 
 /**
@@ -9,6 +9,11 @@ import java.io.InputStream;
  */
 public class KeymapJsonLoader {
 
+    /**
+     * Lecteur de {@code keymap.json}, construit une seule fois sur l'ObjectMapper partagé.
+     */
+    static final ObjectReader KEYMAP_READER = JsonLoader.MAPPER.readerFor(KeymapJson.class);
+
     /**
      * Charge un fichier JSON représentant un keymap depuis le classpath
      * et le convertit en un objet de type {@code KeymapJson}.
@@ -20,17 +25,16 @@ public class KeymapJsonLoader {
      *                          lors de sa lecture ou de sa désérialisation.
      */
     public static KeymapJson loadKeymap(String resourcePath) {
-        try {
-            InputStream input = KeymapJsonLoader.class
-                .getClassLoader()
-                .getResourceAsStream(resourcePath);
+        InputStream input = KeymapJsonLoader.class
+            .getClassLoader()
+            .getResourceAsStream(resourcePath);
 
-            if (input == null) {
-                throw new RuntimeException("Fichier keymap.json introuvable: " + resourcePath);
-            }
+        if (input == null) {
+            throw new RuntimeException("Fichier keymap.json introuvable: " + resourcePath);
+        }
 
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(input, KeymapJson.class);
+        try (input) {
+            return KEYMAP_READER.readValue(input);
         } catch (Exception e) {
             throw new RuntimeException("Erreur lors du chargement keymap.json: " + resourcePath, e);
         }
@@ -7,6 +7,8 @@ import java.util.List;
  * La classe {@code KeymapService} fournit des services utilitaires
  * pour transformer un caractère en une séquence de touches physiques
  * en utilisant une combinaison d'un keymap et d'une disposition étendue de clavier.
+ * Pour des recherches répétées (évaluation d'un corpus), préférer la table compilée
+ * par {@link ExtendedKeyboardLayoutFactory#compile(ExtendedKeyboardLayout, KeymapJson)}.
  */
 public class KeymapService {
 
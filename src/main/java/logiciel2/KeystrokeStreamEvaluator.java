@@ -0,0 +1,182 @@
+package logiciel2;
+
+import logiciel1.CorpusAnalyzer;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * La classe {@code KeystrokeStreamEvaluator} évalue une disposition directement sur un texte,
+ * en une seule passe et sans table de n-grammes.
+ *
+ * Chaque caractère est converti en touches physiques par la disposition compilée
+ * ({@link CompiledKeymap}) : "ê" donne par exemple la touche morte "^" puis "e", et "É" donne
+ * Shift puis "E". Les mouvements sont classés sur la suite des touches frappées, au fil de l'eau :
+ * chaque touche forme un bigram avec la précédente et un trigram avec les deux précédentes,
+ * y compris à l'intérieur d'un caractère à plusieurs touches et entre deux tels caractères.
+ * {@link ExtendedLayoutEvaluator}, qui part des n-grammes de caractères, ne retient au contraire
+ * que les n-grammes donnant exactement 2 ou 3 touches.
+ *
+ * Comme pour le comptage des n-grammes, les espaces ({@code \s}) sont ignorés. Un caractère
+ * absent du keymap interrompt la suite de touches : aucun mouvement ne le traverse.
+ * Le score est normalisé par le nombre de touches, de bigrams et de trigrams de touches frappés,
+ * et utilise les poids de l'évaluateur donné.
+ *
+ * Exemple :
+ * <pre>
+ * KeystrokeStreamEvaluator stream = new KeystrokeStreamEvaluator(evaluator, compiled);
+ * stream.accept("Bonjour le monde");
+ * EvaluationReport report = stream.report();
+ * </pre>
+ */
+public class KeystrokeStreamEvaluator {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final CompiledKeymap compiled;
+    private final MovementMatrix movements;
+    private final double[] weights;
+    private final int[] fingerOf;
+    private final int[] handOf;
+    private final int[] rowOf;
+
+    private final long[] fingerLoad = new long[Finger.values().length];
+    private final long[] handLoad = new long[Hand.values().length];
+    private final long[] rowLoad;
+    private final long[] typeCounts = new long[MovementType.values().length];
+    private double totalScore;
+    private long keystrokes;
+    private long bigrams;
+    private long trigrams;
+    private int previous = -1; // Dernière touche frappée, ou -1
+    private int beforePrevious = -1; // Avant-dernière touche frappée, ou -1
+
+    /**
+     * Construit un évaluateur de flux vide.
+     *
+     * @param evaluator l'évaluateur qui fournit les poids des mouvements.
+     * @param compiled la disposition compilée avec son keymap.
+     */
+    public KeystrokeStreamEvaluator(ExtendedLayoutEvaluator evaluator, CompiledKeymap compiled) {
+        this.compiled = compiled;
+        this.movements = compiled.movements();
+        this.weights = evaluator.movementWeights();
+
+        int keyCount = compiled.keyCount();
+        this.fingerOf = new int[keyCount];
+        this.handOf = new int[keyCount];
+        this.rowOf = new int[keyCount];
+        int rows = 0;
+        for (int id = 0; id < keyCount; id++) {
+            Key key = compiled.key(id);
+            fingerOf[id] = key.finger().ordinal();
+            handOf[id] = key.hand().ordinal();
+            rowOf[id] = key.row();
+            rows = Math.max(rows, key.row() + 1);
+        }
+        this.rowLoad = new long[rows];
+    }
+
+    /**
+     * Évalue une disposition sur tout le contenu d'un flux de caractères.
+     *
+     * @param reader le flux du corpus (il n'est pas fermé).
+     * @param evaluator l'évaluateur qui fournit les poids des mouvements.
+     * @param compiled la disposition compilée avec son keymap.
+     * @return le rapport de l'évaluation.
+     * @throws RuntimeException si une erreur de lecture survient.
+     */
+    public static EvaluationReport evaluate(Reader reader, ExtendedLayoutEvaluator evaluator, CompiledKeymap compiled) {
+        KeystrokeStreamEvaluator stream = new KeystrokeStreamEvaluator(evaluator, compiled);
+        char[] chunk = new char[CHUNK_SIZE];
+        try {
+            int read;
+            while ((read = reader.read(chunk, 0, chunk.length)) != -1) {
+                stream.accept(chunk, 0, read);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du corpus", e);
+        }
+        return stream.report();
+    }
+
+    /**
+     * Ajoute un caractère au texte évalué.
+     *
+     * @param c le caractère suivant du texte
+     */
+    public void accept(char c) {
+        if (CorpusAnalyzer.isWhitespace(c)) {
+            return;
+        }
+        int[] keys = compiled.keysFor(c);
+        if (keys.length == 0) {
+            previous = -1; // Touche inconnue : la suite de touches est interrompue
+            beforePrevious = -1;
+            return;
+        }
+        for (int key : keys) {
+            press(key);
+        }
+    }
+
+    /**
+     * Ajoute une séquence de caractères au texte évalué.
+     *
+     * @param s la séquence à ajouter
+     */
+    public void accept(CharSequence s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            accept(s.charAt(i));
+        }
+    }
+
+    /**
+     * Ajoute une partie d'un tableau de caractères au texte évalué.
+     *
+     * @param buffer le tableau contenant les caractères
+     * @param offset l'indice du premier caractère
+     * @param length le nombre de caractères à ajouter
+     */
+    public void accept(char[] buffer, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            accept(buffer[i]);
+        }
+    }
+
+    /**
+     * Retourne le rapport du texte évalué jusqu'ici. Le score est normalisé par le nombre total
+     * de touches, de bigrams et de trigrams de touches.
+     *
+     * @return le rapport de l'évaluation (les compteurs sont copiés)
+     */
+    public EvaluationReport report() {
+        long totalOccurrences = keystrokes + bigrams + trigrams;
+        double score = (totalOccurrences == 0) ? totalScore : (totalScore / totalOccurrences);
+        return new EvaluationReport(score, fingerLoad.clone(), handLoad.clone(), rowLoad.clone(),
+                new MovementTotals(typeCounts, totalOccurrences));
+    }
+
+    /**
+     * Frappe une touche : met à jour les charges et classe les mouvements qui se terminent sur elle.
+     */
+    private void press(int key) {
+        keystrokes++;
+        fingerLoad[fingerOf[key]]++;
+        handLoad[handOf[key]]++;
+        rowLoad[rowOf[key]]++;
+        if (previous >= 0) {
+            int mt = movements.bigramOrdinal(previous, key);
+            typeCounts[mt]++;
+            totalScore += weights[mt];
+            bigrams++;
+            if (beforePrevious >= 0) {
+                mt = movements.trigramOrdinal(beforePrevious, previous, key);
+                typeCounts[mt]++;
+                totalScore += weights[mt];
+                trigrams++;
+            }
+        }
+        beforePrevious = previous;
+        previous = key;
+    }
+}
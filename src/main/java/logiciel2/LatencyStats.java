@@ -0,0 +1,67 @@
+package logiciel2;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Le record {@code LatencyStats} résume une série de latences mesurées (voir {@link ScoringServer}
+ * et {@link ScoringLoad}) : percentiles, maximum et débit.
+ *
+ * @param count le nombre de mesures
+ * @param p50Nanos la latence médiane, en nanosecondes
+ * @param p90Nanos le 90e percentile, en nanosecondes
+ * @param p99Nanos le 99e percentile, en nanosecondes
+ * @param p999Nanos le 99,9e percentile, en nanosecondes
+ * @param maxNanos la latence maximale, en nanosecondes
+ * @param meanNanos la latence moyenne, en nanosecondes
+ * @param elapsedNanos la durée pendant laquelle les mesures ont été prises, en nanosecondes (0 si inconnue)
+ */
+public record LatencyStats(int count, long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos,
+                           long maxNanos, double meanNanos, long elapsedNanos) {
+
+    /**
+     * Calcule les statistiques d'une série de latences.
+     *
+     * @param latencies les latences, en nanosecondes (le tableau est trié sur place)
+     * @param elapsedNanos la durée de la mesure, en nanosecondes (0 si inconnue)
+     * @return les statistiques de la série
+     */
+    public static LatencyStats of(long[] latencies, long elapsedNanos) {
+        Arrays.sort(latencies);
+        double sum = 0;
+        for (long latency : latencies) {
+            sum += latency;
+        }
+        int n = latencies.length;
+        return new LatencyStats(n, percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), percentile(latencies, 0.999), n == 0 ? 0 : latencies[n - 1],
+                n == 0 ? 0.0 : sum / n, elapsedNanos);
+    }
+
+    /**
+     * @return le nombre de mesures par seconde, ou 0 si la durée est inconnue
+     */
+    public double perSecond() {
+        return elapsedNanos == 0 ? 0.0 : count * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return un résumé lisible des percentiles, en millisecondes
+     */
+    public String summary() {
+        return String.format(Locale.ROOT,
+                "%d requêtes (%.0f/s) : p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+                count, perSecond(), p50Nanos / 1e6, p90Nanos / 1e6, p99Nanos / 1e6, p999Nanos / 1e6, maxNanos / 1e6);
+    }
+
+    /**
+     * Percentile d'une série triée (méthode du rang le plus proche).
+     */
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,315 @@
+package logiciel2;
+
+import logiciel1.NGramSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * La classe {@code LayoutOptimizer} cherche une meilleure disposition de clavier par recuit simulé,
+ * en échangeant les positions des touches d'une disposition de {@code keyboards.json}.
+ *
+ * Chaque candidat est noté par {@link ExtendedLayoutEvaluator} sur les n-grammes d'un corpus,
+ * convertis une fois pour toutes en touches ({@link PackedNGrams}) : déplacer une touche ne change
+ * que sa position, et les mouvements sont lus dans les matrices des positions ({@link MovementMatrix}).
+ * Un échange n'est noté que sur les n-grammes des deux touches concernées ({@link IncrementalScorer}).
+ *
+ * Plusieurs chaînes tournent en parallèle, chacune avec son propre générateur. Elles avancent par
+ * tranches de {@link OptimizerOptions#syncInterval()} itérations ; entre deux tranches, la meilleure
+ * disposition de toutes les chaînes est relevée. Pendant un recuit, chaque chaîne reste sur sa propre
+ * trajectoire (la reprise de la meilleure disposition à chaque tranche fait perdre la diversité des
+ * chaînes et donne de moins bons résultats) ; ce n'est qu'au redémarrage suivant que toutes les chaînes
+ * repartent de la meilleure disposition relevée, légèrement perturbée. Le relevé se faisant à des points
+ * fixes, le résultat ne dépend que de la graine et du nombre de chaînes, pas du nombre de threads
+ * ni de leur ordonnancement.
+ *
+ * Exemple :
+ * <pre>
+ * LayoutOptimizer optimizer = new LayoutOptimizer(keyboards, "FR", keymap, evaluator, counts);
+ * OptimizationResult result = optimizer.optimize(OptimizerOptions.defaults(42).withLockedLabels(Set.of("Shift")));
+ * result.writeJson(Path.of("keyboards-optimise.json"));
+ * </pre>
+ */
+public class LayoutOptimizer {
+
+    private final String layoutName;
+    private final List<KeyboardsJson.KeyDTO> dtos;
+    private final ExtendedLayoutEvaluator evaluator;
+    private final PackedNGrams packed;
+    private final MovementMatrix positions;
+    private final int[] slotOfKey; // Indice (dans dtos) du label de chaque touche compilée
+
+    /**
+     * Prépare l'optimisation d'une disposition pour un corpus donné.
+     *
+     * @param keyboards les dispositions chargées depuis {@code keyboards.json}.
+     * @param layoutName le nom de la disposition de départ (par exemple "FR").
+     * @param keymap la correspondance char -> liste de labels.
+     * @param evaluator l'évaluateur qui note chaque candidat.
+     * @param counts les fréquences de n-grammes du corpus.
+     * @throws RuntimeException si la disposition est inconnue.
+     */
+    public LayoutOptimizer(KeyboardsJson keyboards, String layoutName, KeymapJson keymap,
+                           ExtendedLayoutEvaluator evaluator, NGramSource counts) {
+        this.layoutName = layoutName;
+        this.dtos = keyboards.layouts.get(layoutName);
+        if (dtos == null) {
+            throw new RuntimeException("Layout inconnu: " + layoutName);
+        }
+        this.evaluator = evaluator;
+
+        ExtendedKeyboardLayout layout = ExtendedKeyboardLayoutFactory.buildLayout(keyboards, layoutName);
+        CompiledKeymap compiled = ExtendedKeyboardLayoutFactory.compile(layout, keymap);
+        this.packed = PackedNGrams.of(counts, compiled);
+
+        // Une position par touche de la disposition, dans l'ordre du fichier
+        Key[] slots = new Key[dtos.size()];
+        Map<String, Integer> slotOfLabel = new HashMap<>();
+        for (int i = 0; i < slots.length; i++) {
+            KeyboardsJson.KeyDTO dto = dtos.get(i);
+            slots[i] = new Key(dto.row, dto.column, Finger.valueOf(dto.finger), Hand.valueOf(dto.hand), '\0');
+            slotOfLabel.put(dto.character, i);
+        }
+        this.positions = new MovementMatrix(slots);
+        this.slotOfKey = new int[compiled.keyCount()];
+        for (int id = 0; id < slotOfKey.length; id++) {
+            slotOfKey[id] = slotOfLabel.get(compiled.label(id));
+        }
+    }
+
+    /**
+     * Lance la recherche.
+     *
+     * @param options les paramètres de la recherche.
+     * @return la meilleure disposition trouvée et les statistiques de la recherche.
+     * @throws RuntimeException si une chaîne échoue ou si la recherche est interrompue.
+     */
+    public OptimizationResult optimize(OptimizerOptions options) {
+        long start = System.nanoTime();
+        int[] movable = movableSlots(options);
+        int[] identity = new int[dtos.size()];
+        for (int i = 0; i < identity.length; i++) identity[i] = i;
+        double initialScore = score(identity);
+
+        SplittableRandom root = new SplittableRandom(options.seed());
+        List<Chain> chains = new ArrayList<>();
+        for (int c = 0; c < options.chains(); c++) {
+            Chain chain = new Chain(root.split(), movable, identity);
+            if (c > 0) {
+                chain.shuffle(); // La première chaîne part de la disposition d'origine, les autres d'un tirage
+            }
+            chains.add(chain);
+        }
+        double startTemperature = options.startTemperature() > 0
+                ? options.startTemperature()
+                : chains.get(0).estimateTemperature();
+        double endTemperature = startTemperature * options.endTemperature();
+
+        int[] best = identity.clone();
+        double bestScore = initialScore;
+        ExecutorService pool = Executors.newFixedThreadPool(options.threads());
+        try {
+            for (int restart = 0; restart < options.restarts(); restart++) {
+                if (restart > 0) {
+                    for (Chain chain : chains) {
+                        chain.restartFrom(best);
+                    }
+                }
+                for (long done = 0; done < options.iterations(); done += options.syncInterval()) {
+                    long from = done;
+                    long to = Math.min(options.iterations(), done + options.syncInterval());
+                    List<Callable<Void>> tasks = new ArrayList<>();
+                    for (Chain chain : chains) {
+                        tasks.add(() -> {
+                            chain.run(from, to, options.iterations(), startTemperature, endTemperature);
+                            return null;
+                        });
+                    }
+                    for (Future<Void> future : pool.invokeAll(tasks)) {
+                        future.get();
+                    }
+                    // Partage de la meilleure disposition, dans l'ordre des chaînes (déterministe)
+                    for (Chain chain : chains) {
+                        if (chain.bestScore > bestScore) {
+                            bestScore = chain.bestScore;
+                            best = chain.best.clone();
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Optimisation interrompue", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erreur pendant l'optimisation", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long evaluations = 0;
+        for (Chain chain : chains) evaluations += chain.evaluations;
+        return new OptimizationResult(layoutName + "-OPT", toDtos(best), score(best), initialScore,
+                evaluations, System.nanoTime() - start);
+    }
+
+    /**
+     * Note une affectation label -> position.
+     *
+     * @param slotPositions la position de chaque label, indexée comme les touches de {@code keyboards.json}.
+     * @return le score de la disposition correspondante.
+     */
+    double score(int[] slotPositions) {
+        int[] positionOf = new int[slotOfKey.length];
+        for (int id = 0; id < positionOf.length; id++) {
+            positionOf[id] = slotPositions[slotOfKey[id]];
+        }
+        return evaluator.evaluate(packed, positions, positionOf);
+    }
+
+    /**
+     * Retourne les indices des touches qui peuvent bouger.
+     */
+    private int[] movableSlots(OptimizerOptions options) {
+        List<Integer> movable = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            if (!options.lockedLabels().contains(dtos.get(i).character)) {
+                movable.add(i);
+            }
+        }
+        return movable.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Construit les touches d'une disposition : chaque label prend la position qui lui est affectée.
+     */
+    private List<KeyboardsJson.KeyDTO> toDtos(int[] slotPositions) {
+        List<KeyboardsJson.KeyDTO> result = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            KeyboardsJson.KeyDTO position = dtos.get(slotPositions[i]);
+            KeyboardsJson.KeyDTO dto = new KeyboardsJson.KeyDTO();
+            dto.character = dtos.get(i).character;
+            dto.row = position.row;
+            dto.column = position.column;
+            dto.finger = position.finger;
+            dto.hand = position.hand;
+            result.add(dto);
+        }
+        return result;
+    }
+
+    /**
+     * Une chaîne de recuit simulé : une affectation courante, sa meilleure affectation et son générateur.
+     * Chaque échange est noté par un {@link IncrementalScorer}, qui ne reclasse que les n-grammes
+     * des deux touches échangées.
+     */
+    private final class Chain {
+        private final SplittableRandom random;
+        private final int[] movable;
+        private final int[] current; // Position de chaque label (indices de dtos)
+        private IncrementalScorer scorer;
+        private double score;
+        private int[] best;
+        private double bestScore;
+        private long evaluations;
+
+        Chain(SplittableRandom random, int[] movable, int[] start) {
+            this.random = random;
+            this.movable = movable;
+            this.current = start.clone();
+            reset();
+        }
+
+        /**
+         * Mélange les positions des touches mobiles.
+         */
+        void shuffle() {
+            for (int i = movable.length - 1; i > 0; i--) {
+                swap(movable[i], movable[random.nextInt(i + 1)]);
+            }
+            reset();
+        }
+
+        /**
+         * Repart d'une affectation partagée, perturbée par quelques échanges aléatoires.
+         */
+        void restartFrom(int[] shared) {
+            System.arraycopy(shared, 0, current, 0, current.length);
+            for (int k = 0; k < movable.length / 4; k++) {
+                swap(movable[random.nextInt(movable.length)], movable[random.nextInt(movable.length)]);
+            }
+            reset();
+        }
+
+        /**
+         * Estime une température initiale : l'écart moyen de score d'un échange aléatoire.
+         */
+        double estimateTemperature() {
+            double sum = 0;
+            int samples = 200;
+            for (int k = 0; k < samples; k++) {
+                int a = movable[random.nextInt(movable.length)];
+                int b = movable[random.nextInt(movable.length)];
+                evaluations++;
+                sum += Math.abs(scorer.swapDelta(current[a], current[b]));
+            }
+            double mean = sum / samples;
+            return mean > 0 ? mean : 1e-6;
+        }
+
+        /**
+         * Exécute les itérations {@code from} (inclus) à {@code to} (exclu) d'un recuit de {@code total} itérations.
+         */
+        void run(long from, long to, long total, double startTemperature, double endTemperature) {
+            if (movable.length < 2) return;
+            double ratio = endTemperature / startTemperature;
+            for (long t = from; t < to; t++) {
+                double temperature = startTemperature * Math.pow(ratio, (double) t / total);
+                int a = movable[random.nextInt(movable.length)];
+                int b = movable[random.nextInt(movable.length - 1)];
+                if (b == a) b = movable[movable.length - 1];
+                evaluations++;
+                double delta = scorer.swapDelta(current[a], current[b]);
+                if (delta >= 0 || random.nextDouble() < Math.exp(delta / temperature)) {
+                    scorer.swap(current[a], current[b]);
+                    swap(a, b);
+                    score = scorer.score();
+                    if (score > bestScore) {
+                        bestScore = score;
+                        System.arraycopy(current, 0, best, 0, current.length);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Échange les positions de deux labels.
+         */
+        private void swap(int a, int b) {
+            int position = current[a];
+            current[a] = current[b];
+            current[b] = position;
+        }
+
+        /**
+         * Reconstruit le scoreur pour l'affectation courante.
+         */
+        private void reset() {
+            int[] positionOf = new int[slotOfKey.length];
+            for (int id = 0; id < positionOf.length; id++) {
+                positionOf[id] = current[slotOfKey[id]];
+            }
+            scorer = new IncrementalScorer(evaluator, packed, positions, positionOf);
+            evaluations++;
+            score = scorer.score();
+            best = current.clone();
+            bestScore = score;
+        }
+    }
+}
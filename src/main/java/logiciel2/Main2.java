@@ -1,12 +1,26 @@
 package logiciel2;
 
+import logiciel1.BatchAnalyzer;
+import logiciel1.BinaryFileExport;
 import logiciel1.CorpusAnalyzer;
 import logiciel1.FileExport;
 import logiciel1.FileReader;
-import logiciel1.FileManagement;
-import logiciel1.NGramFrequency;
+import logiciel1.NGramBinaryFile;
+import logiciel1.NGramCache;
+import logiciel1.NGramSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
 
 /**
  * La classe {@code Main2} est le point d'entrée du programme.
@@ -15,18 +29,58 @@ import java.util.Scanner;
  *   <li>Charger des configurations de claviers et de keymaps depuis des fichiers JSON.</li>
  *   <li>Lire un fichier texte et analyser son contenu pour générer des unigrams, bigrams et trigrams.</li>
  *   <li>Évaluer une disposition de clavier en fonction des fréquences de n-grammes.</li>
- *   <li>Exporter les n-grammes générés dans un fichier CSV.</li>
+ *   <li>Exporter les n-grammes générés dans un fichier CSV et dans un fichier binaire.</li>
+ *   <li>Évaluer une disposition directement depuis un fichier binaire de n-grammes, sans relire le corpus.</li>
+ *   <li>Chercher une meilleure disposition par recuit simulé ({@code --optimiser}).</li>
+ *   <li>Évaluer toutes les dispositions sur plusieurs corpus et profils de poids ({@code --matrice}).</li>
+ *   <li>Évaluer une disposition sur la suite des touches frappées d'un texte, en une passe ({@code --flux}).</li>
+ *   <li>Analyser, exporter et évaluer un lot de corpus en pipeline ({@code --pipeline}).</li>
+ *   <li>Lancer un service HTTP local de notation ({@code --serveur}) et mesurer ses latences sous charge ({@code --charge}).</li>
  * </ul>
  */
 public class Main2 {
     /**
      * Point d'entrée principal du programme.
      * 
-     * @param args les arguments passés en ligne de commande (non utilisés ici).
+     * @param args les arguments passés en ligne de commande : éventuellement le chemin d'un fichier
+     *             binaire de n-grammes ({@code .ngb}) à évaluer à la place d'un corpus,
+     *             {@code --cache} pour conserver les n-grammes du corpus choisi dans le cache sur disque
+     *             ({@link NGramCache}),
+     *             {@code --optimiser <FR|EN> <corpus> [--graine N] [--iterations N] [--bloquer a,b]},
+     *             {@code --matrice <sortie.csv|sortie.json> <corpus>...},
+     *             {@code --flux <FR|EN> <fichier>},
+     *             {@code --pipeline <dossier-sortie> <dossier|glob>...},
+     *             {@code --serveur [port] [dossier-config]}, ou
+     *             {@code --charge <url> <corpus> [clients] [requêtes]}.
      */
     public static void main(String[] args) {
-        //Charger keyboards.json
-        KeyboardsJson kbJson = JsonLoader.loadKeyboards("config/keyboards.json");
+        if (args.length > 0 && args[0].equals("--optimiser")) {
+            runOptimizer(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--matrice")) {
+            runMatrix(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--flux")) {
+            runStream(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--pipeline")) {
+            runPipeline(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serveur")) {
+            runServer(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--charge")) {
+            runLoad(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        //Charger la configuration (keyboards.json, keymap.json)
+        ConfigRegistry config = ConfigRegistry.classpath();
 
         //Choisir FR ou EN
         Scanner sc = new Scanner(System.in);
@@ -34,52 +88,249 @@ public class Main2 {
         do {
             System.out.println("Choisissez un clavier (FR/EN): \n");
             layoutChoice = sc.nextLine().trim().toUpperCase();
-        } while (!kbJson.layouts.containsKey(layoutChoice));
+        } while (!config.layoutNames().contains(layoutChoice));
 
-        //Construire ExtendedKeyboardLayout
-        ExtendedKeyboardLayout extLayout = ExtendedKeyboardLayoutFactory.buildLayout(kbJson, layoutChoice);
+        //Récupérer la disposition et le keymap
+        ExtendedKeyboardLayout extLayout = config.layout(layoutChoice);
+        KeymapJson keymap = config.keymap();
 
-        //Charger keymap.json
-        KeymapJson keymap = KeymapJsonLoader.loadKeymap("config/keymap.json");
+        boolean useCache = args.length == 1 && args[0].equals("--cache");
+        NGramSource counts;
+        if (args.length > 0 && !useCache) {
+            //Lecture directe d'un fichier binaire de n-grammes
+            counts = NGramBinaryFile.open(Path.of(args[0]));
+            System.out.println("\nN-grammes lus depuis : " + args[0] + "\n");
+        } else {
+            //Lecture d'un fichier
+            System.out.println("\nChoisissez un fichier texte :\n\n1) PoèmeFR1\n2) PoèmeFR2\n3) PoèmeENG1\n4) PoèmeENG2");
+            String textChoice;
+            String inputFilePath = null;
+            do {
+                System.out.print("\nVotre choix de 1 à 4 : ");
+                textChoice = sc.nextLine().trim();
+                switch (textChoice) {
+                    case "1" -> inputFilePath = "src/main/resources/input/sample-corpus1.txt";
+                    case "2" -> inputFilePath = "src/main/resources/input/sample-corpus2.txt";
+                    case "3" -> inputFilePath = "src/main/resources/input/sample-corpus3.txt";
+                    case "4" -> inputFilePath = "src/main/resources/input/sample-corpus4.txt";
+                    default -> {
+                        System.out.println("\nChoix invalide!");
+                        inputFilePath = null;
+                    }
+                }
+            } while (inputFilePath == null);
 
-        //Lecture d'un fichier
-        System.out.println("\nChoisissez un fichier texte :\n\n1) PoèmeFR1\n2) PoèmeFR2\n3) PoèmeENG1\n4) PoèmeENG2");
-        String textChoice;
-        String inputFilePath = null;
-        do {
-            System.out.print("\nVotre choix de 1 à 4 : ");
-            textChoice = sc.nextLine().trim();
-            switch (textChoice) {
-                case "1" -> inputFilePath = "src/main/resources/input/sample-corpus1.txt";
-                case "2" -> inputFilePath = "src/main/resources/input/sample-corpus2.txt";
-                case "3" -> inputFilePath = "src/main/resources/input/sample-corpus3.txt";
-                case "4" -> inputFilePath = "src/main/resources/input/sample-corpus4.txt";
-                default -> {
-                    System.out.println("\nChoix invalide!");
-                    inputFilePath = null;
+            // Générer unigrams, bigrams, trigrams (caractères) en une seule passe, ou, avec --cache,
+            // les relire depuis le cache si ce texte a déjà été analysé
+            NGramSource corpusCounts;
+            if (useCache) {
+                corpusCounts = NGramCache.defaultCache().counts(Path.of(inputFilePath), 1, 2, 3);
+            } else {
+                try (Reader reader = new FileReader().openReader(inputFilePath)) {
+                    corpusCounts = new CorpusAnalyzer().countNGrams(reader, 1, 2, 3);
+                } catch (IOException e) {
+                    throw new RuntimeException("Erreur lors de la lecture du fichier : " + inputFilePath, e);
                 }
             }
-        } while (inputFilePath == null);
+            System.out.println("\nTexte lu depuis : " + inputFilePath+"\n");
 
-        // Lire le fichier
-        FileManagement fm = new FileReader();
-        String corpus = fm.readFile(inputFilePath);
-        System.out.println("\nTexte lu depuis : " + inputFilePath+"\n");
+            //Éventuellement, exporter en CSV
+            String outputFilePath = "src/main/resources/output/ngram-frequencies2.csv";
+            FileExport exporter = new FileExport();
+            exporter.export(outputFilePath, corpusCounts);
+            System.out.println("N-grammes exportés dans " + outputFilePath);
 
-        //Générer unigrams, bigrams, trigrams (caractères)
-        CorpusAnalyzer analyzer = new CorpusAnalyzer();
-        List<NGramFrequency> unigrams = analyzer.nGramList(corpus, 1);
-        List<NGramFrequency> bigrams  = analyzer.nGramList(corpus, 2);
-        List<NGramFrequency> trigrams = analyzer.nGramList(corpus, 3);
-
-        //Éventuellement, exporter en CSV
-        String outputFilePath = "src/main/resources/output/ngram-frequencies2.csv";
-        FileExport exporter = new FileExport();
-        exporter.exportToCsv(outputFilePath + "\n", bigrams, unigrams, trigrams);
-        System.out.println("N-grammes exportés dans output-keymap-ngram.csv");
+            //Exporter aussi au format binaire, pour réévaluer sans relire le corpus
+            String binaryFilePath = "src/main/resources/output/ngram-frequencies2.ngb";
+            new BinaryFileExport().export(binaryFilePath, corpusCounts);
+            System.out.println("N-grammes exportés dans " + binaryFilePath);
+            counts = corpusCounts;
+        }
 
         //Évaluation via ExtendedLayoutEvaluator
-        ExtendedLayoutEvaluator evaluator = new ExtendedLayoutEvaluator(
+        ExtendedLayoutEvaluator evaluator = createEvaluator();
+        EvaluationReport report = evaluator.evaluateDetailed(counts, extLayout, keymap);
+        System.out.println("\nScore global avec le clavier " + layoutChoice + " = " + report.score() + "\n");
+        System.out.println(report.summary() + "\n");
+    }
+
+    /**
+     * Cherche une meilleure disposition par recuit simulé et l'écrit au format de {@code keyboards.json}.
+     *
+     * @param args la disposition de départ, le corpus (texte ou {@code .ngb}) et les options
+     *             {@code --graine}, {@code --iterations} et {@code --bloquer} (labels séparés par des virgules).
+     * @throws IllegalArgumentException si les arguments sont invalides
+     */
+    private static void runOptimizer(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage : --optimiser <FR|EN> <corpus> [--graine N] [--iterations N] [--bloquer a,b]");
+        }
+        long seed = 0;
+        long iterations = 0;
+        Set<String> locked = new HashSet<>();
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--graine" -> seed = Long.parseLong(args[i + 1]);
+                case "--iterations" -> iterations = Long.parseLong(args[i + 1]);
+                case "--bloquer" -> locked.addAll(Arrays.asList(args[i + 1].split(",")));
+                default -> throw new IllegalArgumentException("Option inconnue : " + args[i]);
+            }
+        }
+
+        ConfigRegistry config = ConfigRegistry.classpath();
+        String layoutChoice = args[0].toUpperCase();
+        NGramSource counts = EvaluationMatrix.loadCounts(Path.of(args[1]), NGramCache.defaultCache());
+
+        OptimizerOptions options = OptimizerOptions.defaults(seed).withLockedLabels(locked);
+        if (iterations > 0) {
+            options = options.withSchedule(options.restarts(), iterations);
+        }
+        LayoutOptimizer optimizer = new LayoutOptimizer(config.keyboards(), layoutChoice, config.keymap(), createEvaluator(), counts);
+        OptimizationResult result = optimizer.optimize(options);
+        System.out.println(result.summary());
+
+        Path output = Path.of("src/main/resources/output/keyboards-optimized.json");
+        result.writeJson(output);
+        System.out.println("Disposition exportée dans " + output);
+    }
+
+    /**
+     * Évalue toutes les dispositions de {@code keyboards.json} sur plusieurs corpus, avec chaque profil
+     * de {@code weights.json}, et écrit le tableau des résultats.
+     *
+     * @param args le fichier de sortie ({@code .csv} ou {@code .json}) puis les corpus (texte ou {@code .ngb}).
+     * @throws IllegalArgumentException si les arguments sont invalides
+     */
+    private static void runMatrix(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage : --matrice <sortie.csv|sortie.json> <corpus>...");
+        }
+        ConfigRegistry config = ConfigRegistry.classpath();
+
+        List<Path> corpora = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            corpora.add(Path.of(args[i]));
+        }
+        MatrixResult result = new EvaluationMatrix(config.keyboards(), config.keymap(), config.weightProfiles())
+                .evaluate(corpora, NGramCache.defaultCache());
+        System.out.println(result.summary());
+
+        Path output = Path.of(args[0]);
+        result.write(output);
+        System.out.println("Résultats exportés dans " + output);
+    }
+
+    /**
+     * Évalue une disposition directement sur la suite des touches frappées d'un texte
+     * (voir {@link KeystrokeStreamEvaluator}).
+     *
+     * @param args la disposition puis le fichier texte.
+     * @throws IllegalArgumentException si les arguments sont invalides
+     */
+    private static void runStream(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage : --flux <FR|EN> <fichier>");
+        }
+        String layoutChoice = args[0].toUpperCase();
+        CompiledKeymap compiled = ConfigRegistry.classpath().compiled(layoutChoice);
+
+        long start = System.nanoTime();
+        EvaluationReport report;
+        try (Reader reader = new FileReader().openReader(args[1])) {
+            report = KeystrokeStreamEvaluator.evaluate(reader, createEvaluator(), compiled);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du fichier : " + args[1], e);
+        }
+        System.out.println("\nScore (flux de touches) avec le clavier " + layoutChoice + " = " + report.score()
+                + " (" + report.keystrokes() + " frappes en " + (System.nanoTime() - start) / 1_000_000 + " ms)\n");
+        System.out.println(report.summary());
+    }
+
+    /**
+     * Lit, compte, exporte en CSV et évalue avec toutes les dispositions un lot de corpus,
+     * en pipeline (voir {@link AnalysisPipeline}), puis affiche les scores et les mesures de chaque étage.
+     *
+     * @param args le dossier des CSV puis les corpus (dossiers ou motifs glob).
+     * @throws IllegalArgumentException si les arguments sont invalides
+     */
+    private static void runPipeline(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage : --pipeline <dossier-sortie> <dossier|glob>...");
+        }
+        ConfigRegistry config = ConfigRegistry.classpath();
+        Map<String, CompiledKeymap> layouts = new LinkedHashMap<>();
+        for (String layout : config.layoutNames()) {
+            layouts.put(layout, config.compiled(layout));
+        }
+        List<Path> corpora = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            corpora.addAll(BatchAnalyzer.listFiles(args[i]));
+        }
+
+        int countThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 2);
+        AnalysisPipeline pipeline = new AnalysisPipeline(layouts, createEvaluator(), Path.of(args[0]), countThreads, 4);
+        PipelineResult result = pipeline.run(corpora);
+        for (PipelineResult.Score score : result.scores()) {
+            System.out.println(score.corpus() + "," + score.layout() + "," + score.score());
+        }
+        System.out.println("\n" + result.summary());
+    }
+
+    /**
+     * Lance le service HTTP de notation (voir {@link ScoringServer}) ; il tourne jusqu'à l'arrêt du programme.
+     * Avec un dossier de configuration, les fichiers modifiés y sont rechargés sans redémarrer le service.
+     *
+     * @param args éventuellement le port d'écoute ({@value ScoringServer#DEFAULT_PORT} par défaut),
+     *             puis le dossier contenant {@code keyboards.json}, {@code keymap.json} et {@code weights.json}
+     *             (configuration fournie avec le programme par défaut).
+     */
+    private static void runServer(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : ScoringServer.DEFAULT_PORT;
+        ConfigRegistry config;
+        if (args.length > 1) {
+            config = ConfigRegistry.directory(Path.of(args[1]));
+            config.watch();
+        } else {
+            config = ConfigRegistry.classpath();
+        }
+        // Lue par le serveur HTTP du JDK à sa première création (voir ScoringServer)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        ScoringServer server = new ScoringServer(config, new InetSocketAddress("localhost", port));
+        System.out.println("Service de notation à l'écoute sur http://localhost:" + server.address().getPort()
+                + " (POST /score, GET /layouts, GET /stats)");
+    }
+
+    /**
+     * Envoie en parallèle des requêtes {@code /score} portant sur le texte d'un corpus
+     * (voir {@link ScoringLoad}) et affiche les percentiles des latences.
+     *
+     * @param args l'adresse de {@code /score}, le corpus, puis éventuellement le nombre de clients
+     *             (16 par défaut) et de requêtes (10000 par défaut).
+     * @throws IllegalArgumentException si les arguments sont invalides
+     */
+    private static void runLoad(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage : --charge <url> <corpus> [clients] [requêtes]");
+        }
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+        String body;
+        try {
+            body = JsonLoader.MAPPER.writeValueAsString(Map.of("text", new FileReader().readFile(args[1])));
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la préparation de la requête : " + args[1], e);
+        }
+        LatencyStats stats = ScoringLoad.run(URI.create(args[0]), body, clients, requests);
+        System.out.println(clients + " clients, " + stats.summary());
+    }
+
+    /**
+     * Construit l'évaluateur avec les poids utilisés par le programme.
+     */
+    private static ExtendedLayoutEvaluator createEvaluator() {
+        return new ExtendedLayoutEvaluator(
                 1.0, // weightSfb
                 1.0, // weightCiseau
                 0.5, // weightLsb
@@ -89,7 +340,5 @@ public class Main2 {
                 2.0, // weightMauvaiseRedirection
                 1.0  // weightSkipgram
         );
-        double score = evaluator.evaluate(unigrams, bigrams, trigrams, extLayout, keymap);
-        System.out.println("\nScore global avec le clavier " + layoutChoice + " = " + score + "\n");
     }
 }
@@ -0,0 +1,110 @@
+package logiciel2;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Le record {@code MatrixResult} contient les scores de toutes les combinaisons
+ * disposition × corpus × profil de poids calculées par {@link EvaluationMatrix}, et les durées
+ * de chaque étape.
+ *
+ * @param cells les scores, dans l'ordre disposition, corpus, puis profil
+ * @param countingNanos la durée du comptage des n-grammes de tous les corpus, en nanosecondes
+ * @param compileNanos la durée de la compilation de toutes les dispositions, en nanosecondes
+ * @param elapsedNanos la durée totale, en nanosecondes
+ */
+public record MatrixResult(List<Cell> cells, long countingNanos, long compileNanos, long elapsedNanos) {
+
+    /**
+     * Le score d'une disposition pour un corpus et un profil de poids.
+     *
+     * @param layout le nom de la disposition
+     * @param corpus le nom du corpus
+     * @param profile le nom du profil de poids
+     * @param score le score obtenu
+     * @param preparationNanos la conversion des n-grammes du corpus en touches de la disposition
+     *                         (partagée par tous les profils), en nanosecondes
+     * @param evaluationNanos la durée de l'évaluation de cette combinaison, en nanosecondes
+     */
+    public record Cell(String layout, String corpus, String profile, double score,
+                       long preparationNanos, long evaluationNanos) {
+    }
+
+    /**
+     * Écrit le tableau des résultats au format CSV (une ligne par combinaison, terminée par {@code \n}).
+     *
+     * @param path le chemin du fichier à créer
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de l'écriture
+     */
+    public void writeCsv(Path path) {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("Disposition,Corpus,Profil,Score,Preparation (ns),Evaluation (ns)\n");
+            for (Cell cell : cells) {
+                writer.write(String.format(Locale.ROOT, "%s,%s,%s,%s,%d,%d\n", csvField(cell.layout()), csvField(cell.corpus()),
+                        csvField(cell.profile()), Double.toString(cell.score()), cell.preparationNanos(), cell.evaluationNanos()));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du fichier : " + path, e);
+        }
+    }
+
+    /**
+     * Met un nom entre guillemets s'il contient une virgule, un guillemet ou un retour à la ligne
+     * (les guillemets sont alors doublés), comme le prévoit la RFC 4180.
+     */
+    static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Écrit les résultats et les durées au format JSON.
+     *
+     * @param path le chemin du fichier à créer
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de l'écriture
+     */
+    public void writeJson(Path path) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("elapsedNanos", elapsedNanos);
+        json.put("countingNanos", countingNanos);
+        json.put("compileNanos", compileNanos);
+        json.put("cells", cells);
+        try {
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), json);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du JSON : " + path, e);
+        }
+    }
+
+    /**
+     * Écrit les résultats au format JSON si le chemin se termine par {@code .json}, en CSV sinon.
+     *
+     * @param path le chemin du fichier à créer
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de l'écriture
+     */
+    public void write(Path path) {
+        if (path.getFileName().toString().endsWith(".json")) {
+            writeJson(path);
+        } else {
+            writeCsv(path);
+        }
+    }
+
+    /**
+     * @return un résumé lisible des durées
+     */
+    public String summary() {
+        return String.format("%d combinaisons en %.3f s (comptage %.3f s, compilation %.3f s)",
+                cells.size(), elapsedNanos / 1e9, countingNanos / 1e9, compileNanos / 1e9);
+    }
+}
@@ -0,0 +1,139 @@
+package logiciel2;
+
+/**
+ * La classe {@code MovementMatrix} précalcule le type de mouvement ({@link MovementType}) de tous
+ * les bigrams et trigrams de touches d'une disposition compilée (voir {@link CompiledKeymap}).
+ *
+ * Les types sont rangés dans des matrices d'octets K×K et K×K×K indexées par identifiant dense
+ * de touche : classer un n-gramme de touches ne coûte plus qu'un accès à un tableau, au lieu
+ * des comparaisons de main, doigt, rangée et colonne de {@link MovementDetector}.
+ * Les matrices ne dépendent que des touches physiques : elles sont calculées une fois et restent
+ * valables quel que soit le caractère associé à chaque touche.
+ *
+ * Au-delà de {@link #MAX_TRIGRAM_KEYS} touches, la matrice des trigrams n'est pas construite
+ * (elle dépasserait 16 Mo) et les trigrams sont classés à la demande par {@link MovementDetector}.
+ */
+public final class MovementMatrix {
+
+    /**
+     * Nombre maximal de touches pour lequel la matrice des trigrams est construite.
+     */
+    public static final int MAX_TRIGRAM_KEYS = 256;
+
+    private static final MovementType[] TYPES = MovementType.values();
+
+    private final Key[] keys;
+    private final int keyCount;
+    private final byte[] bigrams;
+    private final byte[] trigrams;
+
+    /**
+     * Construit les matrices de mouvements des touches d'une disposition compilée.
+     *
+     * @param compiled la disposition compilée (identifiants denses de touches).
+     */
+    MovementMatrix(CompiledKeymap compiled) {
+        this(keysOf(compiled));
+    }
+
+    /**
+     * Construit les matrices de mouvements d'une liste de touches (ou de positions) physiques.
+     *
+     * @param keys les touches, indexées par identifiant dense.
+     */
+    MovementMatrix(Key[] keys) {
+        this.keyCount = keys.length;
+        this.keys = keys.clone();
+
+        this.bigrams = new byte[keyCount * keyCount];
+        for (int a = 0; a < keyCount; a++) {
+            for (int b = 0; b < keyCount; b++) {
+                bigrams[a * keyCount + b] = (byte) MovementDetector.detectBigramMovement(keys[a], keys[b]).ordinal();
+            }
+        }
+
+        if (keyCount <= MAX_TRIGRAM_KEYS) {
+            this.trigrams = new byte[keyCount * keyCount * keyCount];
+            for (int a = 0; a < keyCount; a++) {
+                for (int b = 0; b < keyCount; b++) {
+                    int row = (a * keyCount + b) * keyCount;
+                    for (int c = 0; c < keyCount; c++) {
+                        trigrams[row + c] = (byte) MovementDetector.detectTrigramMovement(keys[a], keys[b], keys[c]).ordinal();
+                    }
+                }
+            }
+        } else {
+            this.trigrams = null;
+        }
+    }
+
+    /**
+     * Retourne le type de mouvement d'un bigram de touches.
+     *
+     * @param a l'identifiant de la première touche.
+     * @param b l'identifiant de la deuxième touche.
+     * @return le type de mouvement (comme {@link MovementDetector#detectBigramMovement(Key, Key)}).
+     */
+    public MovementType bigram(int a, int b) {
+        return TYPES[bigrams[a * keyCount + b]];
+    }
+
+    /**
+     * Retourne le rang ({@link MovementType#ordinal()}) du type de mouvement d'un bigram de touches.
+     *
+     * @param a l'identifiant de la première touche.
+     * @param b l'identifiant de la deuxième touche.
+     * @return le rang du type de mouvement.
+     */
+    public int bigramOrdinal(int a, int b) {
+        return bigrams[a * keyCount + b];
+    }
+
+    /**
+     * Retourne le type de mouvement d'un trigram de touches.
+     *
+     * @param a l'identifiant de la première touche.
+     * @param b l'identifiant de la deuxième touche.
+     * @param c l'identifiant de la troisième touche.
+     * @return le type de mouvement (comme {@link MovementDetector#detectTrigramMovement(Key, Key, Key)}).
+     */
+    public MovementType trigram(int a, int b, int c) {
+        if (trigrams == null) {
+            return MovementDetector.detectTrigramMovement(keys[a], keys[b], keys[c]);
+        }
+        return TYPES[trigrams[(a * keyCount + b) * keyCount + c]];
+    }
+
+    /**
+     * Retourne le rang ({@link MovementType#ordinal()}) du type de mouvement d'un trigram de touches.
+     *
+     * @param a l'identifiant de la première touche.
+     * @param b l'identifiant de la deuxième touche.
+     * @param c l'identifiant de la troisième touche.
+     * @return le rang du type de mouvement.
+     */
+    public int trigramOrdinal(int a, int b, int c) {
+        if (trigrams == null) {
+            return MovementDetector.detectTrigramMovement(keys[a], keys[b], keys[c]).ordinal();
+        }
+        return trigrams[(a * keyCount + b) * keyCount + c];
+    }
+
+    /**
+     * @return le nombre de touches couvertes par les matrices.
+     */
+    public int keyCount() {
+        return keyCount;
+    }
+
+    /**
+     * Extrait les touches d'une disposition compilée, par identifiant dense.
+     */
+    private static Key[] keysOf(CompiledKeymap compiled) {
+        Key[] keys = new Key[compiled.keyCount()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = compiled.key(i);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,139 @@
+package logiciel2;
+
+/**
+ * La classe {@code MovementTotals} contient, pour une disposition et un corpus, le nombre total
+ * d'occurrences de chaque type de mouvement ({@link MovementType}) et le total servant à normaliser
+ * le score (voir {@link ExtendedLayoutEvaluator#movementTotals(PackedNGrams)}).
+ *
+ * Le score d'{@link ExtendedLayoutEvaluator} est linéaire en ses huit poids : une fois ces totaux
+ * calculés, noter la disposition avec d'autres poids ne demande qu'un produit scalaire de 8 termes,
+ * sans reparcourir les n-grammes. Les poids sont donnés dans l'ordre du constructeur de
+ * l'évaluateur : SFB, ciseau, LSB, roulement, alternance, redirection, mauvaise redirection, skipgram.
+ *
+ * Exemple :
+ * <pre>
+ * MovementTotals totals = ExtendedLayoutEvaluator.movementTotals(packed);
+ * double score = totals.score(new double[] {1.0, 1.0, 0.5, 2.0, 1.5, 1.2, 2.0, 1.0});
+ * </pre>
+ *
+ * Le score obtenu est celui d'{@link ExtendedLayoutEvaluator#evaluate(PackedNGrams)}, à l'arrondi
+ * près : les occurrences sont sommées par type avant d'être pondérées.
+ */
+public final class MovementTotals {
+
+    /**
+     * Nombre de poids d'un vecteur de poids.
+     */
+    public static final int WEIGHT_COUNT = 8;
+
+    /**
+     * Type de mouvement associé à chaque poids, dans l'ordre des vecteurs de poids.
+     */
+    private static final MovementType[] WEIGHT_TYPES = {
+            MovementType.SFB, MovementType.CISEAU, MovementType.LSB, MovementType.ROULEMENT,
+            MovementType.ALTERNANCE, MovementType.REDIRECTION, MovementType.MAUVAISE_REDIRECTION,
+            MovementType.SKIPGRAM
+    };
+
+    /**
+     * Signe de chaque poids : les mouvements pénalisés sont comptés négativement.
+     */
+    private static final double[] WEIGHT_SIGNS = {-1, -1, -1, 1, 1, -1, -1, -1};
+
+    private final long[] counts;
+    private final long totalOccurrences;
+    private final double[] coefficients; // Contribution au score d'un poids unitaire, par poids
+
+    /**
+     * Construit des totaux à partir des occurrences de chaque type de mouvement.
+     *
+     * @param counts les occurrences de chaque type, indexées par {@link MovementType#ordinal()} (copiées).
+     * @param totalOccurrences le nombre total d'occurrences servant à normaliser le score.
+     * @throws IllegalArgumentException si le tableau n'a pas une case par type de mouvement.
+     */
+    public MovementTotals(long[] counts, long totalOccurrences) {
+        if (counts.length != MovementType.values().length) {
+            throw new IllegalArgumentException("Un total par type de mouvement est attendu : " + counts.length);
+        }
+        this.counts = counts.clone();
+        this.totalOccurrences = totalOccurrences;
+        this.coefficients = new double[WEIGHT_COUNT];
+        double norm = totalOccurrences == 0 ? 1.0 : totalOccurrences;
+        for (int i = 0; i < WEIGHT_COUNT; i++) {
+            coefficients[i] = WEIGHT_SIGNS[i] * this.counts[WEIGHT_TYPES[i].ordinal()] / norm;
+        }
+    }
+
+    /**
+     * @param type un type de mouvement.
+     * @return le nombre d'occurrences de ce type.
+     */
+    public long count(MovementType type) {
+        return counts[type.ordinal()];
+    }
+
+    /**
+     * @return le nombre total d'occurrences servant à normaliser le score.
+     */
+    public long totalOccurrences() {
+        return totalOccurrences;
+    }
+
+    /**
+     * Calcule le score avec les poids d'un évaluateur.
+     *
+     * @param evaluator l'évaluateur dont les poids sont appliqués.
+     * @return le score global.
+     */
+    public double score(ExtendedLayoutEvaluator evaluator) {
+        double[] weights = evaluator.movementWeights();
+        double total = 0.0;
+        for (int t = 0; t < counts.length; t++) {
+            total += weights[t] * counts[t];
+        }
+        return (totalOccurrences == 0) ? total : (total / totalOccurrences);
+    }
+
+    /**
+     * Calcule le score avec un vecteur de poids.
+     *
+     * @param weights les {@link #WEIGHT_COUNT} poids, dans l'ordre du constructeur de l'évaluateur.
+     * @return le score global.
+     * @throws IllegalArgumentException si le vecteur n'a pas {@link #WEIGHT_COUNT} poids.
+     */
+    public double score(double[] weights) {
+        if (weights.length != WEIGHT_COUNT) {
+            throw new IllegalArgumentException("Un vecteur de " + WEIGHT_COUNT + " poids est attendu : " + weights.length);
+        }
+        return dot(weights, 0);
+    }
+
+    /**
+     * Calcule le score de nombreux vecteurs de poids rangés bout à bout, pour une analyse de sensibilité.
+     *
+     * @param weights les vecteurs de poids, {@link #WEIGHT_COUNT} valeurs par vecteur.
+     * @return le score de chaque vecteur.
+     * @throws IllegalArgumentException si la taille du tableau n'est pas un multiple de {@link #WEIGHT_COUNT}.
+     */
+    public double[] scores(double[] weights) {
+        if (weights.length % WEIGHT_COUNT != 0) {
+            throw new IllegalArgumentException("La taille doit être un multiple de " + WEIGHT_COUNT + " : " + weights.length);
+        }
+        double[] scores = new double[weights.length / WEIGHT_COUNT];
+        for (int v = 0; v < scores.length; v++) {
+            scores[v] = dot(weights, v * WEIGHT_COUNT);
+        }
+        return scores;
+    }
+
+    /**
+     * Produit scalaire d'un vecteur de poids (à partir de {@code from}) et des coefficients.
+     */
+    private double dot(double[] weights, int from) {
+        double score = 0.0;
+        for (int i = 0; i < WEIGHT_COUNT; i++) {
+            score += weights[from + i] * coefficients[i];
+        }
+        return score;
+    }
+}
@@ -0,0 +1,61 @@
+package logiciel2;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Le record {@code OptimizationResult} contient la meilleure disposition trouvée par
+ * {@link LayoutOptimizer} et les statistiques de la recherche.
+ *
+ * @param layoutName le nom sous lequel la disposition est exportée
+ * @param keys les touches de la disposition, au format de {@code keyboards.json}
+ * @param score le score de la disposition trouvée
+ * @param initialScore le score de la disposition de départ
+ * @param evaluations le nombre de dispositions évaluées
+ * @param elapsedNanos la durée de la recherche, en nanosecondes
+ */
+public record OptimizationResult(
+        String layoutName,
+        List<KeyboardsJson.KeyDTO> keys,
+        double score,
+        double initialScore,
+        long evaluations,
+        long elapsedNanos
+) {
+
+    /**
+     * @return un objet {@code KeyboardsJson} contenant uniquement la disposition trouvée
+     */
+    public KeyboardsJson toKeyboardsJson() {
+        KeyboardsJson json = new KeyboardsJson();
+        json.layouts = new LinkedHashMap<>();
+        json.layouts.put(layoutName, keys);
+        return json;
+    }
+
+    /**
+     * Écrit la disposition trouvée dans un fichier JSON au format de {@code keyboards.json}.
+     *
+     * @param path le chemin du fichier à créer
+     * @throws RuntimeException si une erreur d'entrée/sortie survient lors de l'écriture
+     */
+    public void writeJson(Path path) {
+        try {
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), toKeyboardsJson());
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du JSON : " + path, e);
+        }
+    }
+
+    /**
+     * @return un résumé lisible de la recherche
+     */
+    public String summary() {
+        double seconds = elapsedNanos / 1e9;
+        return String.format("Score %.6f (départ %.6f), %d dispositions évaluées en %.2f s (%.0f/s)",
+                score, initialScore, evaluations, seconds, seconds > 0 ? evaluations / seconds : 0.0);
+    }
+}
@@ -0,0 +1,94 @@
+package logiciel2;
+
+import java.util.Set;
+
+/**
+ * Le record {@code OptimizerOptions} regroupe les paramètres d'une recherche de disposition
+ * par recuit simulé (voir {@link LayoutOptimizer}).
+ *
+ * @param seed la graine aléatoire : deux recherches de mêmes options donnent le même résultat,
+ *             quel que soit le nombre de threads
+ * @param chains le nombre de chaînes de recuit (le résultat en dépend)
+ * @param threads le nombre de threads qui exécutent les chaînes (le résultat n'en dépend pas)
+ * @param restarts le nombre de redémarrages de chaque chaîne (depuis la meilleure disposition partagée)
+ * @param iterations le nombre d'échanges de touches tentés par chaîne et par redémarrage
+ * @param syncInterval le nombre d'itérations entre deux relevés de la meilleure disposition de toutes les chaînes
+ * @param startTemperature la température initiale ({@code 0} pour l'estimer à partir des écarts de score)
+ * @param endTemperature la température finale, en proportion de la température initiale
+ * @param lockedLabels les labels des touches qui ne doivent pas bouger (par exemple "Shift" ou les chiffres)
+ */
+public record OptimizerOptions(
+        long seed,
+        int chains,
+        int threads,
+        int restarts,
+        long iterations,
+        int syncInterval,
+        double startTemperature,
+        double endTemperature,
+        Set<String> lockedLabels
+) {
+
+    /**
+     * Nombre de chaînes des options par défaut. Il ne dépend pas de la machine : une même graine
+     * donne la même disposition partout.
+     */
+    public static final int DEFAULT_CHAINS = 8;
+
+    /**
+     * Vérifie la cohérence des paramètres.
+     *
+     * @throws IllegalArgumentException si un paramètre est invalide
+     */
+    public OptimizerOptions {
+        if (chains < 1 || threads < 1 || restarts < 1 || iterations < 1 || syncInterval < 1) {
+            throw new IllegalArgumentException("Paramètres d'optimisation invalides");
+        }
+        if (startTemperature < 0 || endTemperature <= 0 || endTemperature > 1) {
+            throw new IllegalArgumentException("Températures invalides : " + startTemperature + ", " + endTemperature);
+        }
+        lockedLabels = Set.copyOf(lockedLabels);
+    }
+
+    /**
+     * Retourne les options par défaut : {@value #DEFAULT_CHAINS} chaînes réparties sur au plus autant
+     * de threads que de cœurs, 4 redémarrages de 200 000 itérations, un relevé de la meilleure
+     * disposition toutes les 10 000 itérations et une température estimée automatiquement.
+     *
+     * @param seed la graine aléatoire
+     * @return les options par défaut
+     */
+    public static OptimizerOptions defaults(long seed) {
+        int threads = Math.min(DEFAULT_CHAINS, Runtime.getRuntime().availableProcessors());
+        return new OptimizerOptions(seed, DEFAULT_CHAINS, threads, 4, 200_000, 10_000, 0, 1e-3, Set.of());
+    }
+
+    /**
+     * @param labels les labels des touches à bloquer
+     * @return une copie de ces options avec d'autres touches bloquées
+     */
+    public OptimizerOptions withLockedLabels(Set<String> labels) {
+        return new OptimizerOptions(seed, chains, threads, restarts, iterations, syncInterval,
+                startTemperature, endTemperature, labels);
+    }
+
+    /**
+     * @param restarts le nombre de redémarrages de chaque chaîne
+     * @param iterations le nombre d'itérations par redémarrage
+     * @return une copie de ces options avec une autre durée de recherche
+     */
+    public OptimizerOptions withSchedule(int restarts, long iterations) {
+        return new OptimizerOptions(seed, chains, threads, restarts, iterations, syncInterval,
+                startTemperature, endTemperature, lockedLabels);
+    }
+
+    /**
+     * @param chains le nombre de chaînes
+     * @param threads le nombre de threads
+     * @return une copie de ces options avec un autre parallélisme
+     */
+    public OptimizerOptions withParallelism(int chains, int threads) {
+        return new OptimizerOptions(seed, chains, threads, restarts, iterations, syncInterval,
+                startTemperature, endTemperature, lockedLabels);
+    }
+}
@@ -0,0 +1,222 @@
+package logiciel2;
+
+import logiciel1.NGramFrequency;
+import logiciel1.NGramSource;
+import logiciel1.NGramTable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * La classe {@code PackedNGrams} représente les n-grammes d'un corpus déjà convertis en touches
+ * d'une disposition compilée (voir {@link CompiledKeymap}), sous forme de tableaux parallèles :
+ * <ul>
+ *   <li>{@code keyIds} : 3 identifiants de touches par entrée ; un mouvement de bigram
+ *       (2 touches) a {@code -1} en troisième position ;</li>
+ *   <li>{@code counts} : le nombre d'occurrences de chaque entrée.</li>
+ * </ul>
+ * Les n-grammes qui ne donnent ni 2 ni 3 touches (score nul) sont écartés dès la conversion.
+ * L'évaluation ({@link ExtendedLayoutEvaluator#evaluate(PackedNGrams)}) parcourt ensuite ces
+ * tableaux sans allouer aucun objet.
+ *
+ * Règles de conversion (identiques à {@link ExtendedLayoutEvaluator}) : un bigram de caractères
+ * donnant 2 touches est un mouvement de bigram, 3 touches un mouvement de trigram ;
+ * un trigram de caractères n'est retenu que s'il donne exactement 3 touches.
+ */
+public final class PackedNGrams {
+
+    private final CompiledKeymap compiled;
+    private final int[] keyIds;
+    private final long[] counts;
+    private final int size;
+    private final long totalOccurrences;
+    private volatile int[] movementIds; // Type de mouvement de chaque entrée, calculé à la demande
+
+    /**
+     * Construit des n-grammes convertis à partir de tableaux parallèles.
+     *
+     * @param compiled la disposition compilée à laquelle se rapportent les identifiants de touches.
+     * @param keyIds 3 identifiants de touches par entrée ({@code -1} en troisième position pour un bigram).
+     * @param counts le nombre d'occurrences de chaque entrée.
+     * @param totalOccurrences le nombre total d'occurrences (unigrams, bigrams et trigrams) servant à normaliser le score.
+     * @throws IllegalArgumentException si les tableaux n'ont pas des tailles cohérentes.
+     */
+    public PackedNGrams(CompiledKeymap compiled, int[] keyIds, long[] counts, long totalOccurrences) {
+        if (keyIds.length != counts.length * 3) {
+            throw new IllegalArgumentException("Tailles incohérentes : " + keyIds.length + " touches pour " + counts.length + " entrées");
+        }
+        this.compiled = compiled;
+        this.keyIds = keyIds;
+        this.counts = counts;
+        this.size = counts.length;
+        this.totalOccurrences = totalOccurrences;
+    }
+
+    /**
+     * Convertit les bigrams et trigrams d'une source de n-grammes en touches.
+     *
+     * @param counts la source des fréquences (les ordres absents sont ignorés).
+     * @param compiled la disposition compilée.
+     * @return les n-grammes convertis.
+     */
+    public static PackedNGrams of(NGramSource counts, CompiledKeymap compiled) {
+        Builder builder = new Builder(compiled);
+        if (counts.contains(2)) {
+            counts.forEach(2, (key, count) -> builder.addBigram(NGramTable.charAt(key, 0), NGramTable.charAt(key, 1), count));
+        }
+        if (counts.contains(3)) {
+            counts.forEach(3, (key, count) -> builder.addTrigram(
+                    NGramTable.charAt(key, 0), NGramTable.charAt(key, 1), NGramTable.charAt(key, 2), count));
+        }
+        return builder.build(counts.total(1) + counts.total(2) + counts.total(3));
+    }
+
+    /**
+     * Convertit des listes de fréquences en touches.
+     *
+     * @param unigrams liste des unigrams avec leurs fréquences.
+     * @param bigrams liste des bigrams avec leurs fréquences.
+     * @param trigrams liste des trigrams avec leurs fréquences.
+     * @param compiled la disposition compilée.
+     * @return les n-grammes convertis.
+     */
+    public static PackedNGrams of(
+            List<NGramFrequency> unigrams,
+            List<NGramFrequency> bigrams,
+            List<NGramFrequency> trigrams,
+            CompiledKeymap compiled
+    ) {
+        long totalOccurrences = 0;
+        for (NGramFrequency f : unigrams) totalOccurrences += f.frequency();
+        for (NGramFrequency f : bigrams)  totalOccurrences += f.frequency();
+        for (NGramFrequency f : trigrams) totalOccurrences += f.frequency();
+
+        Builder builder = new Builder(compiled);
+        for (NGramFrequency freq : bigrams) {
+            String bigram = freq.nGram();
+            if (bigram.length() != 2) continue;
+            builder.addBigram(bigram.charAt(0), bigram.charAt(1), freq.frequency());
+        }
+        for (NGramFrequency freq : trigrams) {
+            String trigram = freq.nGram();
+            if (trigram.length() != 3) continue;
+            builder.addTrigram(trigram.charAt(0), trigram.charAt(1), trigram.charAt(2), freq.frequency());
+        }
+        return builder.build(totalOccurrences);
+    }
+
+    /**
+     * @return la disposition compilée à laquelle se rapportent les identifiants de touches.
+     */
+    public CompiledKeymap keymap() {
+        return compiled;
+    }
+
+    /**
+     * @return le nombre d'entrées (n-grammes convertis en 2 ou 3 touches).
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return le nombre total d'occurrences servant à normaliser le score.
+     */
+    public long totalOccurrences() {
+        return totalOccurrences;
+    }
+
+    /**
+     * @return les identifiants de touches (3 par entrée), partagés et à ne pas modifier.
+     */
+    int[] keyIds() {
+        return keyIds;
+    }
+
+    /**
+     * @return les nombres d'occurrences (1 par entrée), partagés et à ne pas modifier.
+     */
+    long[] counts() {
+        return counts;
+    }
+
+    /**
+     * Retourne le rang du type de mouvement de chaque entrée, lu une fois pour toutes dans les
+     * matrices de la disposition compilée (qui ne changent pas).
+     *
+     * @return les rangs des types de mouvements (1 par entrée), partagés et à ne pas modifier.
+     */
+    int[] movementIds() {
+        int[] ids = movementIds;
+        if (ids == null) {
+            MovementMatrix movements = compiled.movements();
+            ids = new int[size];
+            for (int i = 0, k = 0; i < size; i++, k += 3) {
+                int third = keyIds[k + 2];
+                ids[i] = third < 0
+                        ? movements.bigramOrdinal(keyIds[k], keyIds[k + 1])
+                        : movements.trigramOrdinal(keyIds[k], keyIds[k + 1], third);
+            }
+            movementIds = ids;
+        }
+        return ids;
+    }
+
+    /**
+     * Accumule les entrées converties dans des tableaux qui grandissent par doublement.
+     */
+    private static final class Builder {
+        private final CompiledKeymap compiled;
+        private final int[] scratch = new int[3];
+        private int[] keyIds = new int[3 * 256];
+        private long[] counts = new long[256];
+        private int size;
+
+        Builder(CompiledKeymap compiled) {
+            this.compiled = compiled;
+        }
+
+        void addBigram(char c1, char c2, long count) {
+            int[] s1 = compiled.keysFor(c1);
+            int[] s2 = compiled.keysFor(c2);
+            int length = s1.length + s2.length;
+            if (length != 2 && length != 3) return;
+            gather(s1, s2, s2, length);
+            add(length == 2 ? -1 : scratch[2], count);
+        }
+
+        void addTrigram(char c1, char c2, char c3, long count) {
+            int[] s1 = compiled.keysFor(c1);
+            int[] s2 = compiled.keysFor(c2);
+            int[] s3 = compiled.keysFor(c3);
+            int length = s1.length + s2.length + s3.length;
+            if (length != 3) return;
+            gather(s1, s2, s3, length);
+            add(scratch[2], count);
+        }
+
+        PackedNGrams build(long totalOccurrences) {
+            return new PackedNGrams(compiled, Arrays.copyOf(keyIds, size * 3), Arrays.copyOf(counts, size), totalOccurrences);
+        }
+
+        /**
+         * Copie les {@code length} premières touches de la concaténation de trois séquences dans le tampon.
+         */
+        private void gather(int[] a, int[] b, int[] c, int length) {
+            int i = 0;
+            for (int k = 0; k < a.length && i < length; k++) scratch[i++] = a[k];
+            for (int k = 0; k < b.length && i < length; k++) scratch[i++] = b[k];
+            for (int k = 0; k < c.length && i < length; k++) scratch[i++] = c[k];
+        }
+
+        private void add(int third, long count) {
+            if (size == counts.length) {
+                counts = Arrays.copyOf(counts, size * 2);
+                keyIds = Arrays.copyOf(keyIds, size * 6);
+            }
+            keyIds[3 * size] = scratch[0];
+            keyIds[3 * size + 1] = scratch[1];
+            keyIds[3 * size + 2] = third;
+            counts[size++] = count;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package logiciel2;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Le record {@code PipelineResult} contient les scores calculés par {@link AnalysisPipeline}
+ * et les mesures de chaque étage, qui permettent de repérer l'étage qui limite le débit.
+ *
+ * @param scores les scores, dans l'ordre des corpus puis des dispositions
+ * @param stages les mesures de chaque étage, dans l'ordre du pipeline
+ * @param fileCount le nombre de corpus traités
+ * @param byteCount le nombre total d'octets lus
+ * @param elapsedNanos la durée totale, en nanosecondes
+ */
+public record PipelineResult(List<Score> scores, List<StageStats> stages,
+                             int fileCount, long byteCount, long elapsedNanos) {
+
+    /**
+     * Le score d'une disposition sur un corpus.
+     *
+     * @param corpus le chemin du corpus
+     * @param layout le nom de la disposition
+     * @param score le score obtenu
+     */
+    public record Score(String corpus, String layout, double score) {
+    }
+
+    /**
+     * Les mesures d'un étage du pipeline.
+     *
+     * @param stage le nom de l'étage
+     * @param workers le nombre de threads de l'étage
+     * @param items le nombre d'éléments traités
+     * @param bytes le nombre d'octets de corpus traités
+     * @param busyNanos le temps passé à traiter, cumulé sur tous les threads, en nanosecondes
+     * @param waitNanos le temps passé à attendre un élément en entrée ou de la place en sortie,
+     *                  cumulé sur tous les threads, en nanosecondes
+     * @param queueCapacity la capacité de la file d'entrée de l'étage (0 pour le premier étage)
+     * @param maxQueueDepth le nombre maximal d'éléments observés dans la file d'entrée
+     * @param meanQueueDepth le nombre moyen d'éléments observés dans la file d'entrée
+     */
+    public record StageStats(String stage, int workers, long items, long bytes, long busyNanos, long waitNanos,
+                             int queueCapacity, int maxQueueDepth, double meanQueueDepth) {
+
+        /**
+         * @return le nombre d'éléments traités par seconde de travail effectif d'un thread
+         */
+        public double itemsPerSecond() {
+            return busyNanos == 0 ? 0.0 : items * 1e9 / busyNanos * workers;
+        }
+
+        /**
+         * @return le nombre d'octets de corpus traités par seconde de travail effectif
+         */
+        public double bytesPerSecond() {
+            return busyNanos == 0 ? 0.0 : bytes * 1e9 / busyNanos * workers;
+        }
+
+        /**
+         * @param elapsedNanos la durée totale du pipeline
+         * @return la part du temps pendant laquelle les threads de l'étage ont travaillé, entre 0 et 1
+         */
+        public double utilization(long elapsedNanos) {
+            return elapsedNanos == 0 ? 0.0 : (double) busyNanos / ((double) elapsedNanos * workers);
+        }
+    }
+
+    /**
+     * @return l'étage le plus occupé, qui limite le débit du pipeline
+     */
+    public StageStats bottleneck() {
+        return stages.stream()
+                .max(Comparator.comparingDouble(s -> s.utilization(elapsedNanos)))
+                .orElseThrow();
+    }
+
+    /**
+     * @return un résumé lisible du débit global et des mesures de chaque étage
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%d fichiers, %d octets en %.3f s : %.2f Mo/s",
+                fileCount, byteCount, elapsedNanos / 1e9, elapsedNanos == 0 ? 0.0 : byteCount * 1e3 / elapsedNanos));
+        for (StageStats s : stages) {
+            sb.append(System.lineSeparator()).append(String.format(Locale.ROOT,
+                    "  %-10s %d thread(s), %d éléments, occupation %5.1f %%, attente %.3f s, %.2f Mo/s, file %.1f/%d (max %d)",
+                    s.stage(), s.workers(), s.items(), 100 * s.utilization(elapsedNanos), s.waitNanos() / 1e9,
+                    s.bytesPerSecond() / 1e6, s.meanQueueDepth(), s.queueCapacity(), s.maxQueueDepth()));
+        }
+        sb.append(System.lineSeparator()).append("Étage limitant : ").append(bottleneck().stage());
+        return sb.toString();
+    }
+}
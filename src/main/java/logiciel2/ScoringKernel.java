@@ -0,0 +1,64 @@
+package logiciel2;
+
+/**
+ * La classe {@code ScoringKernel} calcule la somme pondérée au cœur du score :
+ * pour chaque entrée, le poids de son type de mouvement multiplié par son nombre d'occurrences.
+ *
+ * Si le module {@code jdk.incubator.vector} est chargé (option {@code --add-modules jdk.incubator.vector},
+ * ajoutée par Gradle à la compilation et à l'exécution), le calcul utilise les instructions SIMD
+ * du processeur ({@link VectorScoringKernel}) ; sinon, par exemple avec {@code java -jar} sans
+ * l'option, une boucle scalaire équivalente est utilisée.
+ *
+ * La version vectorielle accumule les voies séparément et utilise des FMA : la somme n'est pas
+ * calculée dans le même ordre qu'en scalaire. Pour {@code n} entrées, l'écart absolu entre les deux
+ * reste borné par environ {@code n × ε × Σ|weights[types[i]] × counts[i]|}, avec
+ * {@code ε = Math.ulp(1.0)} (2<sup>-52</sup>), tant que les occurrences restent inférieures à
+ * 2<sup>53</sup>. La borne porte sur la somme des valeurs absolues : avec des poids de signes
+ * opposés, les termes peuvent se compenser et l'écart relatif au résultat être bien plus grand.
+ */
+public final class ScoringKernel {
+
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private ScoringKernel() {
+    }
+
+    /**
+     * @return {@code true} si la version vectorielle (SIMD) est utilisée
+     */
+    public static boolean vectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Calcule la somme des {@code weights[types[i]] * counts[i]}.
+     *
+     * @param types le rang du type de mouvement de chaque entrée.
+     * @param counts le nombre d'occurrences de chaque entrée.
+     * @param weights le score de chaque type de mouvement, par rang.
+     * @return la somme pondérée.
+     * @throws IllegalArgumentException si {@code types} et {@code counts} n'ont pas la même taille.
+     */
+    public static double weightedSum(int[] types, long[] counts, double[] weights) {
+        if (types.length != counts.length) {
+            throw new IllegalArgumentException("Tailles incohérentes : " + types.length + " types pour " + counts.length + " entrées");
+        }
+        return VECTORIZED ? VectorScoringKernel.weightedSum(types, counts, weights) : scalarWeightedSum(types, counts, weights);
+    }
+
+    /**
+     * Version scalaire de {@link #weightedSum(int[], long[], double[])}, dans l'ordre des entrées.
+     *
+     * @param types le rang du type de mouvement de chaque entrée.
+     * @param counts le nombre d'occurrences de chaque entrée.
+     * @param weights le score de chaque type de mouvement, par rang.
+     * @return la somme pondérée.
+     */
+    static double scalarWeightedSum(int[] types, long[] counts, double[] weights) {
+        double sum = 0.0;
+        for (int i = 0; i < counts.length; i++) {
+            sum += weights[types[i]] * counts[i];
+        }
+        return sum;
+    }
+}
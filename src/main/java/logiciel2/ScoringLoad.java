@@ -0,0 +1,102 @@
+package logiciel2;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * La classe {@code ScoringLoad} mesure les latences d'un {@link ScoringServer} sous charge :
+ * plusieurs clients concurrents envoient la même requête {@code POST /score} les uns après les autres,
+ * et la latence de chaque requête est mesurée côté client. Les premières requêtes servent à chauffer
+ * le serveur et ne sont pas comptées.
+ *
+ * Chaque client est un thread virtuel avec son propre {@link HttpClient} (HTTP/1.1) : sa connexion
+ * persistante n'est pas partagée, et un client attend toujours la réponse avant d'envoyer la requête
+ * suivante. Le client du JDK ouvre ses connexions en {@code TCP_NODELAY}.
+ *
+ * Exemple :
+ * <pre>
+ * LatencyStats stats = ScoringLoad.run(URI.create("http://localhost:8080/score"), body, 16, 10_000);
+ * System.out.println(stats.summary());
+ * </pre>
+ */
+public final class ScoringLoad {
+
+    private ScoringLoad() {
+    }
+
+    /**
+     * Envoie {@code requests} requêtes réparties entre {@code clients} clients concurrents,
+     * après une chauffe d'un dixième de ce nombre.
+     *
+     * @param uri l'adresse de {@code /score} (schéma {@code http} uniquement)
+     * @param body le corps JSON de la requête (voir {@link ScoringServer.ScoreRequest})
+     * @param clients le nombre de clients concurrents
+     * @param requests le nombre total de requêtes mesurées
+     * @return les percentiles des latences mesurées et le débit obtenu
+     * @throws IllegalArgumentException si l'adresse n'est pas en {@code http} ou si le nombre de clients
+     *                                  ou de requêtes n'est pas strictement positif
+     * @throws RuntimeException si une requête échoue ou si la mesure est interrompue
+     */
+    public static LatencyStats run(URI uri, String body, int clients, int requests) {
+        if (clients <= 0 || requests <= 0) {
+            throw new IllegalArgumentException("Nombre de clients et de requêtes strictement positifs attendus");
+        }
+        if (!"http".equals(uri.getScheme()) || uri.getHost() == null) {
+            throw new IllegalArgumentException("Adresse http attendue : " + uri);
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            measure(request, threads, clients, Math.max(clients, requests / 10)); // Chauffe
+            long start = System.nanoTime();
+            long[] latencies = measure(request, threads, clients, requests);
+            return LatencyStats.of(latencies, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Envoie les requêtes et retourne la latence de chacune, en nanosecondes.
+     */
+    private static long[] measure(HttpRequest request, ExecutorService threads, int clients, int requests) {
+        long[] latencies = new long[requests];
+        List<Future<?>> futures = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            int first = c;
+            futures.add(threads.submit(() -> {
+                try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+                    for (int i = first; i < requests; i += clients) {
+                        long t = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[i] = System.nanoTime() - t;
+                        if (response.statusCode() != 200) {
+                            throw new IOException("Réponse " + response.statusCode());
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Mesure interrompue", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erreur pendant la mesure : " + request.uri(), e.getCause());
+        }
+        return latencies;
+    }
+}
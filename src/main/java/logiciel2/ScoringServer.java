@@ -0,0 +1,370 @@
+package logiciel2;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import logiciel1.CorpusAnalyzer;
+import logiciel1.NGramCounter;
+import logiciel1.NGramCounts;
+import logiciel1.NGramTable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * La classe {@code ScoringServer} est un service HTTP local qui reste lancé et note des dispositions
+ * à la demande, sans payer à chaque évaluation le démarrage de la JVM, le chargement de Jackson,
+ * la lecture de la configuration et la chauffe du JIT.
+ *
+ * Toutes les dispositions de {@code keyboards.json} sont compilées au démarrage, puis après chaque
+ * rechargement de la configuration (voir {@link ConfigRegistry#watch()}). Chaque requête est traitée
+ * sur son propre thread virtuel.
+ *
+ * Le serveur du JDK envoie l'en-tête de la réponse avant le corps : sans {@code TCP_NODELAY}, le corps
+ * attend l'acquittement retardé du client, soit environ 40 ms par requête. Il faut donc lancer la JVM
+ * avec {@code -Dsun.net.httpserver.nodelay=true}, ou définir cette propriété avant de créer le premier
+ * serveur HTTP du programme (c'est ce que fait {@code Main2 --serveur}).
+ *
+ * Points d'accès :
+ * <ul>
+ *   <li>{@code POST /score} : note un texte ou des n-grammes (voir {@link ScoreRequest}) et retourne,
+ *       pour chaque disposition demandée, le score et son détail (charges des mains, des doigts
+ *       et des rangées, occurrences de chaque type de mouvement). Un corps de plus de
+ *       {@value #MAX_BODY_BYTES} octets est refusé (413) sans être lu en entier ;</li>
+ *   <li>{@code GET /layouts} : la liste des dispositions disponibles ;</li>
+ *   <li>{@code GET /stats} : les percentiles des latences des dernières requêtes {@code /score},
+ *       mesurées dans le serveur.</li>
+ * </ul>
+ *
+ * Exemple :
+ * <pre>
+ * curl -d '{"layout": "FR", "text": "Bonjour le monde", "profile": "CONFORT"}' http://localhost:8080/score
+ * </pre>
+ */
+public class ScoringServer implements AutoCloseable {
+
+    /**
+     * Port utilisé par défaut.
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * Nombre de latences conservées pour {@code /stats} (les plus récentes).
+     */
+    static final int LATENCY_WINDOW = 1 << 16;
+
+    /**
+     * Taille maximale par défaut du corps d'une requête {@code /score}, en octets (16 Mo).
+     */
+    public static final int MAX_BODY_BYTES = 16 << 20;
+
+    private static final ObjectReader REQUEST_READER = JsonLoader.MAPPER.readerFor(ScoreRequest.class);
+    private static final ObjectWriter RESPONSE_WRITER = JsonLoader.MAPPER.writer();
+    private static final int[] ORDERS = {1, 2, 3};
+
+    /**
+     * Corps d'une requête {@code POST /score}. Il faut donner soit un texte, soit des n-grammes.
+     */
+    public static class ScoreRequest {
+
+        /**
+         * Le nom de la disposition à noter, ou {@code null} pour toutes les dispositions.
+         */
+        public String layout;
+
+        /**
+         * Le texte à analyser (les espaces sont ignorés, comme pour un corpus).
+         */
+        public String text;
+
+        /**
+         * Les n-grammes déjà comptés (1 à 3 caractères) et leurs occurrences, par exemple {@code {"es": 12}}.
+         */
+        public Map<String, Long> ngrams;
+
+        /**
+         * Les poids à appliquer ; s'ils sont absents, ceux du profil.
+         */
+        public WeightProfilesJson.WeightsDTO weights;
+
+        /**
+         * Le profil de {@code weights.json} à appliquer si aucun poids n'est donné ({@code "DEFAUT"} par défaut).
+         */
+        public String profile;
+
+        /**
+         * Constructeur vide requis pour la désérialisation avec Json.
+         */
+        public ScoreRequest() {
+        }
+    }
+
+    private final ConfigRegistry config;
+    private final int maxBodyBytes;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private final AtomicLong requestCount = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Compile toutes les dispositions et démarre le serveur.
+     *
+     * @param config la configuration (dispositions, keymap, profils de poids).
+     * @param address l'adresse d'écoute, par exemple {@code new InetSocketAddress("localhost", 8080)}.
+     * @throws RuntimeException si le serveur ne peut pas écouter sur cette adresse.
+     */
+    public ScoringServer(ConfigRegistry config, InetSocketAddress address) {
+        this(config, address, MAX_BODY_BYTES);
+    }
+
+    /**
+     * Compile toutes les dispositions et démarre le serveur, avec une taille maximale de corps donnée.
+     *
+     * @param config la configuration (dispositions, keymap, profils de poids).
+     * @param address l'adresse d'écoute, par exemple {@code new InetSocketAddress("localhost", 8080)}.
+     * @param maxBodyBytes la taille maximale du corps d'une requête {@code /score}, en octets.
+     * @throws IllegalArgumentException si la taille maximale n'est pas strictement positive.
+     * @throws RuntimeException si le serveur ne peut pas écouter sur cette adresse.
+     */
+    public ScoringServer(ConfigRegistry config, InetSocketAddress address, int maxBodyBytes) {
+        if (maxBodyBytes <= 0 || maxBodyBytes == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Taille maximale de corps invalide : " + maxBodyBytes);
+        }
+        this.config = config;
+        this.maxBodyBytes = maxBodyBytes;
+        compileAll(config);
+        config.addListener(() -> compileAll(config));
+        try {
+            this.server = HttpServer.create(address, 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Impossible de démarrer le serveur sur " + address, e);
+        }
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/score", this::handleScore);
+        server.createContext("/layouts", exchange -> handle(exchange, "GET", () -> List.copyOf(config.layoutNames())));
+        server.createContext("/stats", exchange -> handle(exchange, "GET", this::stats));
+        server.start();
+    }
+
+    /**
+     * Compile chaque disposition et ses matrices de mouvements, pour que les requêtes ne paient pas ce coût.
+     */
+    private static void compileAll(ConfigRegistry config) {
+        for (String layout : config.layoutNames()) {
+            config.compiled(layout).movements();
+        }
+    }
+
+    /**
+     * @return l'adresse d'écoute effective (utile si le port demandé était 0).
+     */
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * @return les percentiles des latences des dernières requêtes {@code /score} (au plus {@value #LATENCY_WINDOW}).
+     */
+    public LatencyStats latencies() {
+        long count = requestCount.get();
+        int n = (int) Math.min(count, LATENCY_WINDOW);
+        long[] window;
+        synchronized (latencies) {
+            window = Arrays.copyOf(latencies, n);
+        }
+        return LatencyStats.of(window, count <= LATENCY_WINDOW ? System.nanoTime() - startNanos : 0);
+    }
+
+    /**
+     * Arrête le serveur sans attendre les requêtes en cours.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    /**
+     * Note un texte ou des n-grammes avec les dispositions demandées.
+     *
+     * @param request la requête.
+     * @return la réponse, prête à être écrite en JSON.
+     * @throws IllegalArgumentException si la requête est invalide.
+     */
+    Map<String, Object> score(ScoreRequest request) {
+        if ((request.text == null) == (request.ngrams == null)) {
+            throw new IllegalArgumentException("Il faut donner soit \"text\", soit \"ngrams\"");
+        }
+        List<String> layouts;
+        if (request.layout == null) {
+            layouts = List.copyOf(config.layoutNames());
+        } else if (config.layoutNames().contains(request.layout)) {
+            layouts = List.of(request.layout);
+        } else {
+            throw new IllegalArgumentException("Layout inconnu: " + request.layout);
+        }
+        ExtendedLayoutEvaluator evaluator = evaluator(request);
+        NGramCounts counts = request.text != null
+                ? new CorpusAnalyzer().countNGrams(request.text, ORDERS)
+                : counts(request.ngrams);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String layout : layouts) {
+            EvaluationReport report = evaluator.evaluateDetailed(counts, config.compiled(layout));
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("layout", layout);
+            result.put("score", report.score());
+            result.put("keystrokes", report.keystrokes());
+            Map<String, Long> hands = new LinkedHashMap<>();
+            for (Hand hand : Hand.values()) {
+                hands.put(hand.name(), report.handLoad(hand));
+            }
+            result.put("hands", hands);
+            Map<String, Long> fingers = new LinkedHashMap<>();
+            for (Finger finger : Finger.values()) {
+                fingers.put(finger.name(), report.fingerLoad(finger));
+            }
+            result.put("fingers", fingers);
+            Map<String, Long> rows = new LinkedHashMap<>();
+            for (int row = 0; row < report.rowCount(); row++) {
+                rows.put(Integer.toString(row), report.rowLoad(row));
+            }
+            result.put("rows", rows);
+            Map<String, Long> movements = new LinkedHashMap<>();
+            for (MovementType type : MovementType.values()) {
+                if (type != MovementType.UNKNOWN) {
+                    movements.put(type.name(), report.movements().count(type));
+                }
+            }
+            result.put("movements", movements);
+            results.add(result);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("results", results);
+        return response;
+    }
+
+    private void handleScore(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        handle(exchange, "POST", () -> {
+            byte[] content;
+            try (InputStream body = exchange.getRequestBody()) {
+                content = body.readNBytes(maxBodyBytes + 1); // Un octet de plus révèle un corps trop gros
+            }
+            if (content.length > maxBodyBytes) {
+                throw new BodyTooLargeException("Corps de plus de " + maxBodyBytes + " octets");
+            }
+            return score(REQUEST_READER.readValue(content));
+        });
+        recordLatency(System.nanoTime() - start);
+    }
+
+    /**
+     * Répond à une requête : 200 et le résultat en JSON, 400 si la requête est invalide,
+     * 405 si la méthode n'est pas la bonne, 413 si le corps est trop gros, 500 en cas d'erreur interne.
+     */
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        int status;
+        Object body;
+        if (!exchange.getRequestMethod().equals(method)) {
+            status = 405;
+            body = Map.of("erreur", "Méthode attendue : " + method);
+        } else {
+            try {
+                body = handler.handle();
+                status = 200;
+            } catch (BodyTooLargeException e) {
+                status = 413;
+                body = Map.of("erreur", e.getMessage());
+            } catch (IllegalArgumentException | JacksonException e) {
+                status = 400;
+                body = Map.of("erreur", String.valueOf(e.getMessage()));
+            } catch (IOException | RuntimeException e) {
+                status = 500;
+                body = Map.of("erreur", String.valueOf(e.getMessage()));
+            }
+        }
+        byte[] json = RESPONSE_WRITER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private Map<String, Object> stats() {
+        LatencyStats stats = latencies();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("requests", requestCount.get());
+        json.put("p50Micros", stats.p50Nanos() / 1000);
+        json.put("p90Micros", stats.p90Nanos() / 1000);
+        json.put("p99Micros", stats.p99Nanos() / 1000);
+        json.put("p999Micros", stats.p999Nanos() / 1000);
+        json.put("maxMicros", stats.maxNanos() / 1000);
+        return json;
+    }
+
+    private void recordLatency(long nanos) {
+        synchronized (latencies) {
+            latencies[(int) (requestCount.getAndIncrement() % LATENCY_WINDOW)] = nanos;
+        }
+    }
+
+    private ExtendedLayoutEvaluator evaluator(ScoreRequest request) {
+        if (request.weights != null) {
+            return request.weights.toEvaluator();
+        }
+        String profile = request.profile != null ? request.profile : "DEFAUT";
+        WeightProfilesJson.WeightsDTO weights = config.weightProfiles().profiles.get(profile);
+        if (weights == null) {
+            throw new IllegalArgumentException("Profil de poids inconnu : " + profile);
+        }
+        return weights.toEvaluator();
+    }
+
+    /**
+     * Construit les tables de comptage à partir de n-grammes donnés sous forme de texte.
+     */
+    private static NGramCounts counts(Map<String, Long> ngrams) {
+        NGramCounts counts = new NGramCounter(ORDERS).counts();
+        for (Map.Entry<String, Long> entry : ngrams.entrySet()) {
+            String ngram = entry.getKey();
+            long count = entry.getValue() == null ? 0 : entry.getValue();
+            if (ngram.isEmpty() || ngram.length() > NGramTable.MAX_ORDER || count < 0) {
+                throw new IllegalArgumentException("N-gramme invalide : \"" + ngram + "\" = " + count);
+            }
+            counts.table(ngram.length()).add(NGramTable.pack(ngram, 0, ngram.length()), count);
+        }
+        return counts;
+    }
+
+    /**
+     * Levée quand le corps d'une requête dépasse la taille maximale.
+     */
+    private static class BodyTooLargeException extends RuntimeException {
+        BodyTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Le traitement d'une requête, qui retourne l'objet à écrire en JSON.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        Object handle() throws IOException;
+    }
+}
@@ -0,0 +1,49 @@
+package logiciel2;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implémentation vectorielle (SIMD) de {@link ScoringKernel}, construite sur l'API Vector
+ * ({@code jdk.incubator.vector}). Cette classe ne doit être chargée que si le module est présent :
+ * {@link ScoringKernel} s'en assure avant de l'utiliser.
+ */
+final class VectorScoringKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = VectorSpecies.of(long.class, DOUBLES.vectorShape());
+
+    private VectorScoringKernel() {
+    }
+
+    /**
+     * @return le nombre de {@code double} traités par bloc (voies d'un registre vectoriel)
+     */
+    static int lanes() {
+        return DOUBLES.length();
+    }
+
+    /**
+     * Calcule la somme des {@code weights[types[i]] * counts[i]} par blocs de la largeur des
+     * registres vectoriels : les poids sont rassemblés (gather) par type, les occurrences converties
+     * en {@code double}, puis multipliées et accumulées (FMA) dans un accumulateur par voie.
+     */
+    static double weightedSum(int[] types, long[] counts, double[] weights) {
+        int n = counts.length;
+        int upper = DOUBLES.loopBound(n);
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector w = DoubleVector.fromArray(DOUBLES, weights, 0, types, i);
+            DoubleVector c = (DoubleVector) LongVector.fromArray(LONGS, counts, i).convert(VectorOperators.L2D, 0);
+            acc = w.fma(c, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            sum += weights[types[i]] * counts[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,77 @@
+package logiciel2;
+
+import java.util.Map;
+
+/**
+ * La classe {@code WeightProfilesJson} représente les profils de poids chargés depuis un fichier JSON
+ * (généralement {@code weights.json}). Chaque profil est identifié par un nom (par exemple "DEFAUT")
+ * et donne les poids des types de mouvements utilisés par {@link ExtendedLayoutEvaluator}.
+ */
+public class WeightProfilesJson {
+
+    /**
+     * Une map représentant les profils de poids.
+     * La clé est le nom du profil, et la valeur les poids de ce profil.
+     */
+    public Map<String, WeightsDTO> profiles;
+
+    /**
+     * La classe interne {@code WeightsDTO} représente les poids d'un profil.
+     */
+    public static class WeightsDTO {
+
+        /**
+         * Poids associé au Same-Finger Bigram.
+         */
+        public double sfb;
+
+        /**
+         * Poids associé au mouvement en "ciseau".
+         */
+        public double ciseau;
+
+        /**
+         * Poids associé au Lateral Stretch Bigram.
+         */
+        public double lsb;
+
+        /**
+         * Poids associé au roulement.
+         */
+        public double roulement;
+
+        /**
+         * Poids associé à l'alternance entre mains.
+         */
+        public double alternance;
+
+        /**
+         * Poids associé à la redirection.
+         */
+        public double redirection;
+
+        /**
+         * Poids associé à la mauvaise redirection.
+         */
+        public double mauvaiseRedirection;
+
+        /**
+         * Poids associé au skipgram.
+         */
+        public double skipgram;
+
+        /**
+         * Constructeur vide requis pour la désérialisation avec Json.
+         */
+        public WeightsDTO() {
+        }
+
+        /**
+         * @return un évaluateur utilisant ces poids
+         */
+        public ExtendedLayoutEvaluator toEvaluator() {
+            return new ExtendedLayoutEvaluator(sfb, ciseau, lsb, roulement, alternance,
+                    redirection, mauvaiseRedirection, skipgram);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package logiciel1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests d'{@link ApproximateCorpusAnalyzer} et de {@link HeavyHitters} : sur des textes aléatoires
+ * dont les n-grammes distincts dépassent la capacité du résumé, chaque compte est encadré par
+ * ses bornes, et tout n-gramme plus fréquent que l'erreur garantie est retenu.
+ */
+class ApproximateCorpusAnalyzerTest {
+
+    private static final int[] ORDERS = {1, 2, 3, 4, 6};
+
+    /**
+     * Les occurrences exactes, comptées comme par {@link CorpusAnalyzer#countNGram(String, int)}.
+     */
+    private static Map<String, Long> exact(String text, int n) {
+        String filtered = text.replaceAll("\\s+", "").trim();
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i + n <= filtered.length(); i++) {
+            counts.merge(filtered.substring(i, i + n), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Un texte aléatoire dont les lettres suivent une loi très inégale (quelques n-grammes fréquents,
+     * beaucoup de rares), avec des espaces.
+     */
+    private static String skewedText(long seed, int length) {
+        String alphabet = "eeeeeeeeaaaaassttrnilouédcmpvq😀 \n";
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            int i = (int) (alphabet.length() * Math.pow(random.nextDouble(), 2));
+            if (Character.isHighSurrogate(alphabet.charAt(i))) {
+                sb.append(alphabet, i, i + 2);
+            } else if (!Character.isLowSurrogate(alphabet.charAt(i))) {
+                sb.append(alphabet.charAt(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void countsAreBoundedAndFrequentNGramsAreReported() {
+        for (long seed = 0; seed < 5; seed++) {
+            String text = skewedText(seed, 30_000);
+            ApproximateCorpusAnalyzer analyzer = new ApproximateCorpusAnalyzer(16, 512, 4);
+            Map<Integer, HeavyHitters> summaries = analyzer.summarize(new StringReader(text), ORDERS);
+            for (int n : ORDERS) {
+                Map<String, Long> exact = exact(text, n);
+                HeavyHitters top = summaries.get(n);
+                String context = "graine " + seed + ", ordre " + n;
+                assertTrue(exact.size() > top.capacity(), context + " : le résumé doit déborder");
+
+                long length = exact.values().stream().mapToLong(Long::longValue).sum();
+                assertEquals(length, top.total(), context);
+                assertTrue(top.maxOverestimate() <= length / top.capacity(), context);
+                assertTrue(top.size() <= top.capacity(), context);
+
+                Set<String> reported = new HashSet<>();
+                for (int i = 0; i < top.size(); i++) {
+                    long real = exact.getOrDefault(top.nGram(i), 0L);
+                    assertTrue(top.lowerBound(i) <= real && real <= top.count(i),
+                            context + " : " + top.nGram(i) + " " + top.lowerBound(i) + " ≤ " + real + " ≤ " + top.count(i));
+                    assertTrue(top.count(i) - top.lowerBound(i) <= top.maxOverestimate(), context);
+                    if (i > 0) {
+                        assertTrue(top.count(i - 1) >= top.count(i), context + " : ordre décroissant");
+                    }
+                    reported.add(top.nGram(i));
+                }
+                exact.forEach((ngram, count) -> {
+                    if (count > top.maxOverestimate()) {
+                        assertTrue(reported.contains(ngram), context + " : " + ngram + " (" + count + ") manquant");
+                    }
+                });
+            }
+        }
+    }
+
+    @Test
+    void countsAreExactBelowTheCapacity() {
+        String text = skewedText(9, 5_000);
+        ApproximateCorpusAnalyzer analyzer = new ApproximateCorpusAnalyzer(1 << 16, 1 << 12, 4);
+        NGramCounts approximate = analyzer.countNGrams(text, 1, 2, 3);
+        NGramCounts expected = new CorpusAnalyzer().countNGrams(text, 1, 2, 3);
+        NGramAssertions.assertSameCounts(expected, approximate, 1, 2, 3);
+        for (int n : ORDERS) {
+            HeavyHitters top = analyzer.summarize(text, n);
+            assertEquals(0, top.maxOverestimate());
+            Map<String, Long> reported = new HashMap<>();
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(top.lowerBound(i), top.count(i));
+                reported.put(top.nGram(i), top.count(i));
+            }
+            assertEquals(exact(text, n), reported, "ordre " + n);
+        }
+    }
+
+    @Test
+    void tableTotalsAreTheRetainedEstimates() {
+        String text = skewedText(3, 30_000);
+        ApproximateCorpusAnalyzer analyzer = new ApproximateCorpusAnalyzer(16, 512, 4);
+        NGramCounts counts = analyzer.countNGrams(text, 1, 2, 3);
+        for (int n = 1; n <= 3; n++) {
+            long sum = NGramAssertions.toMap(counts, n).values().stream().mapToLong(Long::longValue).sum();
+            assertEquals(sum, counts.total(n), "ordre " + n);
+        }
+        // Résumé plein : le total de la table n'est plus le nombre de trigrams du texte
+        assertNotEquals(analyzer.summarize(text, 3).total(), counts.total(3));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateCorpusAnalyzer(0, 1, 1));
+        ApproximateCorpusAnalyzer analyzer = new ApproximateCorpusAnalyzer(8, 8, 1);
+        assertThrows(IllegalArgumentException.class, () -> analyzer.summarize("abc", 0));
+        assertThrows(IllegalArgumentException.class, () -> analyzer.countNGrams("abc", NGramTable.MAX_ORDER + 1));
+        assertThrows(IllegalArgumentException.class, () -> analyzer.summarize(new StringReader("abc")));
+    }
+}
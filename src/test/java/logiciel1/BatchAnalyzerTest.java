@@ -0,0 +1,131 @@
+package logiciel1;
+
+import static logiciel1.NGramAssertions.assertSameCounts;
+import static logiciel1.NGramAssertions.toMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests de {@link BatchAnalyzer} : fichiers listés par dossier ou par motif glob, n-grammes de chaque
+ * fichier et total du lot identiques à un comptage séquentiel, fichiers invalides, et arguments
+ * du mode lot de {@link Main1}.
+ */
+class BatchAnalyzerTest {
+
+    private static final int[] ORDERS = {1, 2, 3};
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, String text) throws IOException {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Écrit un petit lot : deux textes à la racine, un dans un sous-dossier et un fichier qui n'est pas en .txt.
+     */
+    private Map<Path, String> corpus() throws IOException {
+        Map<Path, String> texts = new HashMap<>();
+        texts.put(write("a.txt", "Été comme hiver, à l'école"), "Été comme hiver, à l'école");
+        texts.put(write("b.txt", "the quick brown fox 😀"), "the quick brown fox 😀");
+        texts.put(write("sous/c.txt", "bonjour le monde"), "bonjour le monde");
+        texts.put(write("sous/d.csv", "x,y,z"), "x,y,z");
+        return texts;
+    }
+
+    @Test
+    void directoryIsWalkedAndGlobsFilter() throws IOException {
+        corpus();
+        assertEquals(List.of(dir.resolve("a.txt"), dir.resolve("b.txt"), dir.resolve("sous/c.txt"), dir.resolve("sous/d.csv")),
+                BatchAnalyzer.listFiles(dir.toString()));
+        assertEquals(List.of(dir.resolve("a.txt"), dir.resolve("b.txt"), dir.resolve("sous/c.txt")),
+                BatchAnalyzer.listFiles(dir + "/**.txt"));
+        assertEquals(List.of(dir.resolve("a.txt"), dir.resolve("b.txt")),
+                BatchAnalyzer.listFiles(dir + "/*.txt"));
+        assertEquals(List.of(dir.resolve("sous/c.txt")), BatchAnalyzer.listFiles(dir + "/sous/[c]*"));
+        assertEquals(List.of(), BatchAnalyzer.listFiles(dir + "/*.md"));
+    }
+
+    @Test
+    void perFileCountsAndTotalMatchSequentialCounting() throws IOException {
+        Map<Path, String> texts = corpus();
+        BatchResult result;
+        try (BatchAnalyzer batch = new BatchAnalyzer(2, true)) {
+            result = batch.analyze(dir.toString(), ORDERS);
+        }
+
+        assertEquals(texts.size(), result.fileCount());
+        assertEquals(texts.keySet(), result.perFile().keySet());
+        long bytes = 0;
+        Map<Integer, Map<String, Long>> expectedTotal = new HashMap<>();
+        for (Map.Entry<Path, String> file : texts.entrySet()) {
+            NGramCounts expected = new CorpusAnalyzer().countNGrams(file.getValue(), ORDERS);
+            assertSameCounts(expected, result.perFile().get(file.getKey()), ORDERS);
+            bytes += Files.size(file.getKey());
+            for (int n : ORDERS) { // Aucun n-gramme ne franchit la limite entre deux fichiers
+                toMap(expected, n).forEach((ngram, count) ->
+                        expectedTotal.computeIfAbsent(n, k -> new HashMap<>()).merge(ngram, count, Long::sum));
+            }
+        }
+        assertEquals(bytes, result.byteCount());
+        for (int n : ORDERS) {
+            assertEquals(expectedTotal.get(n), toMap(result.total(), n), "ordre " + n);
+        }
+    }
+
+    @Test
+    void totalDoesNotDependOnTheThreadCount() throws IOException {
+        corpus();
+        for (int i = 0; i < 20; i++) {
+            write("lot/texte" + i + ".txt", ("texte numéro " + i + " ").repeat(1 + i * 50));
+        }
+        BatchResult single;
+        BatchResult parallel;
+        try (BatchAnalyzer one = new BatchAnalyzer(1, false); BatchAnalyzer four = new BatchAnalyzer(4, false)) {
+            single = one.analyze(dir + "/**.txt", ORDERS);
+            parallel = four.analyze(dir + "/**.txt", ORDERS);
+        }
+        assertTrue(single.perFile().isEmpty());
+        assertEquals(23, parallel.fileCount());
+        assertSameCounts(single.total(), parallel.total(), ORDERS);
+    }
+
+    @Test
+    void invalidFilesAreReported() throws IOException {
+        write("a.txt", "valide");
+        Files.write(dir.resolve("b.txt"), new byte[] {'a', (byte) 0xC3, 'b'});
+        try (BatchAnalyzer batch = new BatchAnalyzer(2, false)) {
+            RuntimeException error = assertThrows(RuntimeException.class, () -> batch.analyze(dir.toString(), ORDERS));
+            assertTrue(error.getMessage().contains("UTF-8") && error.getMessage().contains("b.txt"), error.getMessage());
+            assertThrows(IllegalArgumentException.class, () -> batch.analyze(dir.toString()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new BatchAnalyzer(0, false));
+    }
+
+    @Test
+    void onlyGlobsAndThePerFileFlagSelectTheBatchMode() {
+        assertTrue(Main1.isBatch(new String[] {"corpus/**.txt"}));
+        assertTrue(Main1.isBatch(new String[] {"corpus", "--par-fichier"}));
+        assertFalse(Main1.isBatch(new String[] {"--approx", "corpus.txt"})); // n manquant
+        assertFalse(Main1.isBatch(new String[] {"--incremental", "corpus.txt"}));
+        assertFalse(Main1.isBatch(new String[] {"--par-fichier"}));
+        assertFalse(Main1.isBatch(new String[] {"--cache"})); // Mode interactif avec cache
+        assertFalse(Main1.isBatch(new String[] {"corpus", "--par-fichiers"}));
+        assertFalse(Main1.isBatch(new String[] {"corpus", "autre"}));
+    }
+}
@@ -0,0 +1,192 @@
+package logiciel1;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests de {@link FileExport} : encodage UTF-8 des lignes (comparé à celui du JDK), tri, top-K et gzip.
+ */
+class FileExportTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Construit des tables de comptage à partir de n-grammes donnés sous forme de texte.
+     */
+    private static NGramCounts counts(Map<String, Long> ngrams) {
+        NGramCounts counts = new NGramCounter(1, 2, 3).counts();
+        ngrams.forEach((ngram, count) -> counts.table(ngram.length()).add(NGramTable.pack(ngram, 0, ngram.length()), count));
+        return counts;
+    }
+
+    /**
+     * Le contenu attendu d'un export, construit avec des {@code String} et encodé par le JDK.
+     */
+    private static byte[] expected(Map<String, Long> ngrams, NGramSortOrder order, int topK) {
+        StringBuilder sb = new StringBuilder("NGram, Frequency\n");
+        String[] headers = {"", "# Unigrams\n", "\n# Bigrams\n", "\n# Trigrams\n"};
+        Comparator<Map.Entry<String, Long>> byFrequency = Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        for (int n = 1; n <= 3; n++) {
+            int length = n;
+            List<Map.Entry<String, Long>> rows = new ArrayList<>(ngrams.entrySet().stream()
+                    .filter(e -> e.getKey().length() == length)
+                    .sorted(byFrequency)
+                    .limit(topK)
+                    .toList());
+            if (order == NGramSortOrder.LEXICOGRAPHIC) {
+                rows.sort(Map.Entry.comparingByKey());
+            }
+            sb.append(headers[n]);
+            for (Map.Entry<String, Long> row : rows) {
+                sb.append(row.getKey()).append(',').append(row.getValue()).append('\n');
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Des n-grammes aléatoires mêlant caractères ASCII, accentués, sur 3 octets, paires de surrogates
+     * et surrogates isolés, assez nombreux pour vider plusieurs fois le tampon de 1 Mio.
+     */
+    private static Map<String, Long> randomNGrams(long seed, int size) {
+        String alphabet = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789éèê,;\"'ÀçœßΩжह€中😀􏿿𐀀";
+        Random random = new Random(seed);
+        Map<String, Long> ngrams = new HashMap<>();
+        while (ngrams.size() < size) {
+            int n = 1 + random.nextInt(3);
+            char[] chars = new char[n];
+            for (int i = 0; i < n; i++) {
+                chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            ngrams.put(new String(chars), 1 + (long) random.nextInt(1000) * random.nextInt(1000));
+        }
+        return ngrams;
+    }
+
+    @Test
+    void encodesRowsLikeTheJdk() throws IOException {
+        Map<String, Long> ngrams = Map.of(
+                "a", 3L, "é", 7L, "€", 1L, "😀", 2L, // Paire de surrogates : un seul point de code
+                "\uD83D", 5L, "\uDE00a", 4L, // Surrogates isolés : '?' comme l'encodeur du JDK
+                "a,", 9L, "中文字", Long.MAX_VALUE, "x😀", 0L);
+        Path csv = dir.resolve("small.csv");
+        new FileExport().export(csv.toString(), counts(ngrams), NGramSortOrder.FREQUENCY, Integer.MAX_VALUE, false);
+        assertEquals(new String(expected(ngrams, NGramSortOrder.FREQUENCY, Integer.MAX_VALUE), StandardCharsets.UTF_8),
+                Files.readString(csv, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sortedExportMatchesReferenceAcrossBufferFlushes() throws IOException {
+        Map<String, Long> ngrams = randomNGrams(42, 250_000);
+        NGramCounts counts = counts(ngrams);
+        for (NGramSortOrder order : new NGramSortOrder[] {NGramSortOrder.FREQUENCY, NGramSortOrder.LEXICOGRAPHIC}) {
+            Path csv = dir.resolve(order + ".csv");
+            new FileExport().export(csv.toString(), counts, order, Integer.MAX_VALUE, false);
+            byte[] actual = Files.readAllBytes(csv);
+            assertTrue(actual.length > 2 << 20, "le fichier doit dépasser deux tampons");
+            assertArrayEquals(expected(ngrams, order, Integer.MAX_VALUE), actual, order.name());
+        }
+    }
+
+    @Test
+    void topKKeepsMostFrequentRowsOfEachOrder() throws IOException {
+        Map<String, Long> ngrams = randomNGrams(7, 5_000);
+        NGramCounts counts = counts(ngrams);
+        for (int topK : new int[] {0, 1, 10, 4_999}) {
+            for (NGramSortOrder order : new NGramSortOrder[] {NGramSortOrder.FREQUENCY, NGramSortOrder.LEXICOGRAPHIC}) {
+                Path csv = dir.resolve("top" + topK + order + ".csv");
+                new FileExport().export(csv.toString(), counts, order, topK, false);
+                assertArrayEquals(expected(ngrams, order, topK), Files.readAllBytes(csv), order + " top " + topK);
+            }
+        }
+    }
+
+    @Test
+    void topKWithoutOrderIsSortedByFrequency() throws IOException {
+        Map<String, Long> ngrams = randomNGrams(3, 1_000);
+        Path csv = dir.resolve("top.csv");
+        new FileExport().export(csv.toString(), counts(ngrams), NGramSortOrder.NONE, 20, false);
+        assertArrayEquals(expected(ngrams, NGramSortOrder.FREQUENCY, 20), Files.readAllBytes(csv));
+    }
+
+    @Test
+    void unsortedExportHasTheRowsOfTheListExport() throws IOException {
+        Map<String, Long> ngrams = randomNGrams(11, 20_000);
+        NGramCounts counts = counts(ngrams);
+        Path fromTables = dir.resolve("tables.csv");
+        Path fromLists = dir.resolve("lists.csv");
+        new FileExport().export(fromTables.toString(), counts);
+        new FileExport().exportToCsv(fromLists.toString(), counts.unigrams(), counts.bigrams(), counts.trigrams());
+        assertEquals(sortedLines(fromLists), sortedLines(fromTables));
+        assertEquals(Files.readAllLines(fromLists).indexOf("# Bigrams"), Files.readAllLines(fromTables).indexOf("# Bigrams"));
+    }
+
+    @Test
+    void gzipExportDecompressesToPlainExport() throws IOException {
+        NGramCounts counts = counts(randomNGrams(5, 50_000));
+        Path plain = dir.resolve("plain.csv");
+        Path explicit = dir.resolve("explicit.bin");
+        Path byName = dir.resolve("byname.csv.gz");
+        FileExport export = new FileExport();
+        export.export(plain.toString(), counts, NGramSortOrder.NONE, Integer.MAX_VALUE, false);
+        export.export(explicit.toString(), counts, NGramSortOrder.NONE, Integer.MAX_VALUE, true);
+        export.export(byName.toString(), counts);
+        assertArrayEquals(Files.readAllBytes(plain), gunzip(explicit));
+        assertArrayEquals(Files.readAllBytes(plain), gunzip(byName));
+    }
+
+    @Test
+    void emptyAndMissingOrdersGiveEmptySections() throws IOException {
+        NGramCounts counts = new NGramCounter(2).counts();
+        counts.table(2).add(NGramTable.pack("ab", 0, 2), 1);
+        Path csv = dir.resolve("bigrams.csv");
+        new FileExport().export(csv.toString(), counts, NGramSortOrder.FREQUENCY, Integer.MAX_VALUE, false);
+        assertEquals("NGram, Frequency\n# Unigrams\n\n# Bigrams\nab,1\n\n# Trigrams\n", Files.readString(csv));
+    }
+
+    @Test
+    void rejectsNegativeTopK() {
+        NGramCounts counts = new NGramCounter(1).counts();
+        assertThrows(IllegalArgumentException.class,
+                () -> new FileExport().export(dir.resolve("x.csv").toString(), counts, NGramSortOrder.NONE, -1, false));
+    }
+
+    @Test
+    void wrapsWriteErrors() {
+        NGramCounts counts = new NGramCounter(1).counts();
+        String path = dir.resolve("missing").resolve("x.csv").toString();
+        RuntimeException e = assertThrows(RuntimeException.class, () -> new FileExport().export(path, counts));
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+    private static List<String> sortedLines(Path file) throws IOException {
+        List<String> lines = new ArrayList<>(Files.readAllLines(file));
+        lines.sort(null);
+        return lines;
+    }
+
+    private static byte[] gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package logiciel1;
+
+import static logiciel1.NGramAssertions.assertSameCounts;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests de {@link IncrementalAnalysis} : ajouts successifs, reprise depuis un fichier d'état,
+ * corpus réécrit et fichiers d'état corrompus.
+ */
+class IncrementalAnalysisTest {
+
+    private static final int[] ORDERS = {1, 2, 3};
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Un texte aléatoire mêlant espaces, caractères de contrôle et caractères UTF-8 de 1 à 4 octets.
+     */
+    private static String randomText(long seed, int length) {
+        String alphabet = "aabcdeeeéèàç€中😀 \t\n\u0001";
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            int i = random.nextInt(alphabet.length());
+            if (Character.isHighSurrogate(alphabet.charAt(i))) {
+                sb.append(alphabet, i, i + 2);
+            } else if (!Character.isLowSurrogate(alphabet.charAt(i))) {
+                sb.append(alphabet.charAt(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static NGramCounts reference(String text) {
+        return new CorpusAnalyzer().countNGrams(text, ORDERS);
+    }
+
+    private static void append(Path file, byte[] bytes, int from, int to) throws IOException {
+        Files.write(file, Arrays.copyOfRange(bytes, from, to), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void appendedPiecesCountLikeTheWholeFile() throws IOException {
+        String text = randomText(1, 1_500_000); // Plus d'un tampon de lecture de 1 Mio
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Path corpus = dir.resolve("corpus.txt");
+        IncrementalAnalysis analysis = new IncrementalAnalysis(ORDERS);
+        Random random = new Random(2);
+        int written = 0;
+        long processed = 0;
+        while (written < bytes.length) {
+            // Coupures arbitraires, y compris au milieu d'un caractère UTF-8
+            int piece = random.nextInt(10) == 0 ? 1 + random.nextInt(1_500_000) : 1 + random.nextInt(5_000);
+            int end = Math.min(bytes.length, written + piece);
+            append(corpus, bytes, written, end);
+            written = end;
+            processed += analysis.update(corpus);
+        }
+        assertEquals(bytes.length, processed);
+        assertEquals(bytes.length, analysis.offset());
+        assertSameCounts(reference(text), analysis.counts(), ORDERS);
+    }
+
+    @Test
+    void incompleteCharacterWaitsForTheNextUpdate() throws IOException {
+        byte[] bytes = "ab€c".getBytes(StandardCharsets.UTF_8); // '€' tient sur 3 octets
+        Path corpus = dir.resolve("corpus.txt");
+        IncrementalAnalysis analysis = new IncrementalAnalysis(ORDERS);
+        append(corpus, bytes, 0, 4);
+        assertEquals(2, analysis.update(corpus));
+        assertSameCounts(reference("ab"), analysis.counts(), ORDERS);
+        append(corpus, bytes, 4, bytes.length);
+        assertEquals(4, analysis.update(corpus));
+        assertSameCounts(reference("ab€c"), analysis.counts(), ORDERS);
+        assertEquals(0, analysis.update(corpus));
+    }
+
+    @Test
+    void savedStateResumesWhereItStopped() throws IOException {
+        String text = randomText(3, 50_000);
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Path corpus = dir.resolve("corpus.txt");
+        Path state = dir.resolve("state.bin");
+        int middle = bytes.length / 2 + 1;
+
+        append(corpus, bytes, 0, middle);
+        IncrementalAnalysis first = IncrementalAnalysis.loadOrCreate(state, ORDERS);
+        first.update(corpus);
+        first.save(state);
+        assertFalse(Files.exists(dir.resolve("state.bin.tmp")));
+
+        append(corpus, bytes, middle, bytes.length);
+        IncrementalAnalysis resumed = IncrementalAnalysis.loadOrCreate(state, ORDERS);
+        assertEquals(first.offset(), resumed.offset());
+        assertEquals(bytes.length - first.offset(), resumed.update(corpus));
+        assertSameCounts(reference(text), resumed.counts(), ORDERS);
+    }
+
+    @Test
+    void rewrittenShrunkOrOtherCorpusStartsOver() throws IOException {
+        Path corpus = dir.resolve("corpus.txt");
+        IncrementalAnalysis analysis = new IncrementalAnalysis(ORDERS);
+        Files.writeString(corpus, "bonjour le monde");
+        analysis.update(corpus);
+
+        Files.writeString(corpus, "bonjour la monde"); // Même taille, derniers octets modifiés
+        analysis.update(corpus);
+        assertSameCounts(reference("bonjour la monde"), analysis.counts(), ORDERS);
+
+        Files.writeString(corpus, "salut");
+        analysis.update(corpus);
+        assertSameCounts(reference("salut"), analysis.counts(), ORDERS);
+
+        Path other = dir.resolve("other.txt");
+        Files.writeString(other, "salut toi");
+        analysis.update(other);
+        assertSameCounts(reference("salut toi"), analysis.counts(), ORDERS);
+    }
+
+    @Test
+    void loadOrCreateIgnoresMissingFilesAndOtherOrders() throws IOException {
+        Path corpus = dir.resolve("corpus.txt");
+        Path state = dir.resolve("state.bin");
+        assertEquals(0, IncrementalAnalysis.loadOrCreate(state, ORDERS).offset());
+
+        Files.writeString(corpus, "abc");
+        IncrementalAnalysis analysis = new IncrementalAnalysis(1, 2);
+        analysis.update(corpus);
+        analysis.save(state);
+        assertEquals(3, IncrementalAnalysis.loadOrCreate(state, 2, 1).offset());
+        assertEquals(0, IncrementalAnalysis.loadOrCreate(state, ORDERS).offset());
+    }
+
+    @Test
+    void rejectsInvalidUtf8() throws IOException {
+        Path corpus = dir.resolve("corpus.txt");
+        Files.write(corpus, new byte[] {'a', (byte) 0xFF, 'b'});
+        assertThrows(RuntimeException.class, () -> new IncrementalAnalysis(ORDERS).update(corpus));
+    }
+
+    @Test
+    void rejectsUnknownFormat() throws IOException {
+        Path state = dir.resolve("state.bin");
+        Files.writeString(state, "pas un fichier d'état");
+        assertThrows(RuntimeException.class, () -> IncrementalAnalysis.load(state));
+        assertThrows(RuntimeException.class, () -> IncrementalAnalysis.loadOrCreate(state, ORDERS));
+    }
+
+    @Test
+    void rejectsTruncatedState() throws IOException {
+        byte[] state = savedState("Été à l'école");
+        Path truncated = dir.resolve("truncated.bin");
+        for (int length = 0; length < state.length; length++) {
+            Files.write(truncated, Arrays.copyOf(state, length));
+            assertThrows(RuntimeException.class, () -> IncrementalAnalysis.load(truncated), "longueur " + length);
+        }
+    }
+
+    @Test
+    void corruptedStateFailsCleanlyOrLoads() throws IOException {
+        byte[] state = savedState("Été à l'école");
+        Path corrupted = dir.resolve("corrupted.bin");
+        byte[] values = {0, 1, 0x7F, (byte) 0x80, (byte) 0xFF};
+        for (int i = 0; i < state.length; i++) {
+            for (byte value : values) {
+                byte[] bytes = state.clone();
+                bytes[i] = value;
+                Files.write(corrupted, bytes);
+                try {
+                    IncrementalAnalysis.load(corrupted).counts();
+                } catch (RuntimeException e) {
+                    // Erreur attendue : une exception, pas une boucle infinie ni une allocation démesurée
+                }
+            }
+        }
+    }
+
+    private byte[] savedState(String text) throws IOException {
+        Path corpus = dir.resolve("small.txt");
+        Path state = dir.resolve("small.bin");
+        Files.writeString(corpus, text);
+        IncrementalAnalysis analysis = new IncrementalAnalysis(ORDERS);
+        analysis.update(corpus);
+        analysis.save(state);
+        return Files.readAllBytes(state);
+    }
+}
@@ -0,0 +1,144 @@
+package logiciel1;
+
+import static logiciel1.NGramAssertions.assertSameCounts;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests de {@link MappedCorpus} découpé en petites fenêtres : alignement des fenêtres sur les
+ * caractères UTF-8 de 1 à 4 octets, comptage, décodage, lecture par petits tampons et séquences
+ * invalides à cheval sur deux fenêtres.
+ */
+class MappedCorpusTest {
+
+    private static final int[] ORDERS = {1, 2, 3};
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Un texte aléatoire de caractères UTF-8 de 1 à 4 octets, avec des espaces.
+     */
+    private static String randomText(long seed, int length) {
+        String[] alphabet = {"a", "b", "e", " ", "\n", "é", "ç", "€", "中", "😀", "𝄞"};
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(alphabet[random.nextInt(alphabet.length)]);
+        }
+        return sb.toString();
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, content);
+        return file;
+    }
+
+    private static String readAll(Reader reader, Random random) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buffer = new char[3];
+        int read;
+        while ((read = reader.read(buffer, 0, 1 + random.nextInt(buffer.length))) != -1) {
+            sb.append(buffer, 0, read);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void smallWindowsStartOnACharacter() throws IOException {
+        for (long seed = 0; seed < 20; seed++) {
+            String text = randomText(seed, 500);
+            Path file = write("corpus" + seed + ".txt", text.getBytes(StandardCharsets.UTF_8));
+            for (int windowSize = 4; windowSize <= 9; windowSize++) {
+                MappedCorpus corpus = MappedCorpus.map(file, windowSize);
+                assertEquals(Files.size(file), corpus.size());
+                assertTrue(corpus.windowCount() > 1);
+                long total = 0;
+                for (ByteBuffer window : corpus.windows()) {
+                    assertTrue(window.limit() > 0 && window.limit() <= windowSize, "fenêtre de " + window.limit());
+                    assertFalse(MappedCorpus.isContinuation(window.get(0)), "fenêtre au milieu d'un caractère");
+                    total += window.limit();
+                }
+                assertEquals(corpus.size(), total);
+            }
+        }
+    }
+
+    @Test
+    void smallWindowsDecodeLikeReadString() throws IOException {
+        Random random = new Random(4);
+        for (long seed = 0; seed < 20; seed++) {
+            Path file = write("corpus" + seed + ".txt", randomText(seed, 2_000).getBytes(StandardCharsets.UTF_8));
+            String expected = Files.readString(file);
+            for (int windowSize = 4; windowSize <= 9; windowSize++) {
+                MappedCorpus corpus = MappedCorpus.map(file, windowSize);
+                String context = "graine " + seed + ", fenêtres de " + windowSize;
+                assertSameCounts(new CorpusAnalyzer().countNGrams(expected, ORDERS), corpus.countNGrams(ORDERS), ORDERS);
+                assertEquals(expected, corpus.decodeToString(), context);
+                try (Reader reader = corpus.newReader()) {
+                    assertEquals(expected, readAll(reader, random), context);
+                }
+            }
+        }
+    }
+
+    @Test
+    void readerSpillsSurrogatePairsIntoOneCharBuffers() throws IOException {
+        String text = "😀a𝄞😀é😀";
+        Path file = write("paires.txt", text.getBytes(StandardCharsets.UTF_8));
+        for (long windowSize : new long[] {4, 5, 7, MappedCorpus.WINDOW_SIZE}) {
+            StringBuilder sb = new StringBuilder();
+            char[] one = new char[1];
+            try (Reader reader = MappedCorpus.map(file, windowSize).newReader()) {
+                for (int read = reader.read(one, 0, 1); read != -1; read = reader.read(one, 0, 1)) {
+                    assertEquals(1, read);
+                    sb.append(one[0]);
+                }
+            }
+            assertEquals(text, sb.toString(), "fenêtres de " + windowSize);
+        }
+    }
+
+    @Test
+    void invalidSequencesAcrossWindowsAreRejected() throws IOException {
+        byte[][] contents = {
+                {'a', 'b', 'c', (byte) 0xF0, 'd', 'e', 'f', 'g'}, // Début de caractère sans suite en fin de fenêtre
+                {'a', 'b', 'c', (byte) 0xE2, (byte) 0x82, 'd', 'e', 'f'}, // Caractère tronqué à cheval
+                {'a', (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 'b'}, // Suite d'octets de continuation
+        };
+        for (int i = 0; i < contents.length; i++) {
+            Path file = write("invalide" + i + ".txt", contents[i]);
+            MappedCorpus corpus = MappedCorpus.map(file, 4);
+            assertTrue(corpus.windowCount() > 1);
+            RuntimeException error = assertThrows(RuntimeException.class, () -> corpus.countNGrams(ORDERS));
+            assertTrue(error.getMessage().contains("UTF-8"), error.getMessage());
+            assertThrows(RuntimeException.class, corpus::decodeToString);
+            assertThrows(IOException.class, () -> {
+                try (Reader reader = corpus.newReader()) {
+                    readAll(reader, new Random(5));
+                }
+            });
+        }
+    }
+
+    @Test
+    void rejectsInvalidWindowSizes() throws IOException {
+        Path file = write("corpus.txt", "abc".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> MappedCorpus.map(file, 3));
+        assertThrows(IllegalArgumentException.class, () -> MappedCorpus.map(file, Integer.MAX_VALUE));
+        assertEquals(0, MappedCorpus.map(write("vide.txt", new byte[0]), 4).windowCount());
+    }
+}
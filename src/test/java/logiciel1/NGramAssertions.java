@@ -0,0 +1,37 @@
+package logiciel1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Comparaisons de sources de n-grammes communes aux tests.
+ */
+final class NGramAssertions {
+
+    private NGramAssertions() {
+    }
+
+    /**
+     * Retourne les n-grammes d'un ordre sous forme de texte, avec leurs occurrences.
+     */
+    static Map<String, Long> toMap(NGramSource source, int n) {
+        Map<String, Long> map = new HashMap<>();
+        source.forEach(n, (key, count) -> map.put(NGramTable.decode(key), count));
+        return map;
+    }
+
+    /**
+     * Vérifie que deux sources contiennent les mêmes n-grammes, occurrences et totaux pour les ordres donnés.
+     */
+    static void assertSameCounts(NGramSource expected, NGramSource actual, int... orders) {
+        for (int n : orders) {
+            assertEquals(expected.contains(n), actual.contains(n), "ordre " + n);
+            if (expected.contains(n)) {
+                assertEquals(toMap(expected, n), toMap(actual, n), "n-grammes d'ordre " + n);
+                assertEquals(expected.total(n), actual.total(n), "total d'ordre " + n);
+            }
+        }
+    }
+}
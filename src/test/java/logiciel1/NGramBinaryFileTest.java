@@ -0,0 +1,183 @@
+package logiciel1;
+
+import static logiciel1.NGramAssertions.assertSameCounts;
+import static logiciel1.NGramAssertions.toMap;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests du format binaire de n-grammes : écriture par {@link BinaryFileExport},
+ * relecture par {@link NGramBinaryFile} et refus des fichiers tronqués ou corrompus.
+ */
+class NGramBinaryFileTest {
+
+    private static final int[] ORDERS = {1, 2, 3};
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Des tables aléatoires, avec des occurrences aux limites des varints (1, 2 et 10 octets).
+     */
+    private static NGramCounts randomCounts(long seed, int size) {
+        long[] edges = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, Long.MAX_VALUE};
+        Random random = new Random(seed);
+        NGramCounts counts = new NGramCounter(ORDERS).counts();
+        for (int i = 0; i < size; i++) {
+            int n = 1 + random.nextInt(3);
+            char[] chars = new char[n];
+            for (int j = 0; j < n; j++) {
+                chars[j] = (char) (random.nextBoolean() ? 'a' + random.nextInt(26) : random.nextInt(Character.MAX_VALUE + 1));
+            }
+            long count = random.nextInt(4) == 0 ? edges[random.nextInt(edges.length)] : random.nextInt(100_000);
+            counts.table(n).add(NGramTable.pack(new String(chars), 0, n), count);
+        }
+        return counts;
+    }
+
+    private Path export(NGramSource source) {
+        Path file = dir.resolve("ngrams" + System.nanoTime() + ".ngb");
+        new BinaryFileExport().export(file.toString(), source);
+        return file;
+    }
+
+    @Test
+    void roundTripsCountsAndTotals() {
+        NGramCounts counts = randomCounts(1, 20_000);
+        NGramBinaryFile file = NGramBinaryFile.open(export(counts));
+        assertArrayEquals(ORDERS, file.orders());
+        assertSameCounts(counts, file, ORDERS);
+        for (int n : ORDERS) {
+            assertEquals(counts.table(n).size(), file.size(n));
+        }
+        assertTrue(file.checksumValid());
+    }
+
+    @Test
+    void getFindsEveryEntryAndNothingElse() {
+        NGramCounts counts = randomCounts(2, 5_000);
+        NGramBinaryFile file = NGramBinaryFile.open(export(counts));
+        for (int n : ORDERS) {
+            counts.forEach(n, (key, count) -> assertEquals(count, file.get(key), NGramTable.decode(key)));
+        }
+        Random random = new Random(20);
+        for (int i = 0; i < 10_000; i++) {
+            int n = 1 + random.nextInt(3);
+            char[] chars = new char[n];
+            for (int j = 0; j < n; j++) {
+                chars[j] = (char) random.nextInt(Character.MAX_VALUE + 1);
+            }
+            long key = NGramTable.pack(new String(chars), 0, n);
+            if (counts.table(n).get(key) == 0) {
+                assertEquals(0, file.get(key), NGramTable.decode(key));
+            }
+        }
+    }
+
+    @Test
+    void forEachVisitsKeysInOrder() {
+        NGramBinaryFile file = NGramBinaryFile.open(export(randomCounts(3, 3_000)));
+        for (int n : ORDERS) {
+            List<Long> keys = new ArrayList<>();
+            file.forEach(n, (key, count) -> keys.add(key));
+            List<Long> sorted = new ArrayList<>(keys);
+            sorted.sort(null);
+            assertEquals(sorted, keys);
+        }
+    }
+
+    @Test
+    void indexBlocksAtBoundaries() {
+        for (int size : new int[] {0, 1, NGramBinaryFile.INDEX_STEP - 1, NGramBinaryFile.INDEX_STEP,
+                NGramBinaryFile.INDEX_STEP + 1, 3 * NGramBinaryFile.INDEX_STEP}) {
+            NGramCounts counts = new NGramCounter(2).counts();
+            for (int i = 0; i < size; i++) {
+                counts.table(2).add(NGramTable.pack("a" + (char) ('a' + i), 0, 2), i % 2 == 0 ? 1L << (i % 63) : i);
+            }
+            NGramBinaryFile file = NGramBinaryFile.open(export(counts));
+            assertEquals(size, file.size(2));
+            counts.forEach(2, (key, count) -> assertEquals(count, file.get(key)));
+            assertEquals(toMap(counts, 2), toMap(file, 2));
+        }
+    }
+
+    @Test
+    void missingOrdersAreAbsent() {
+        NGramCounts counts = new NGramCounter(2).counts();
+        counts.table(2).add(NGramTable.pack("ab", 0, 2), 3);
+        NGramBinaryFile file = NGramBinaryFile.open(export(counts));
+        assertArrayEquals(new int[] {2}, file.orders());
+        assertFalse(file.contains(1));
+        assertFalse(file.contains(3));
+        assertEquals(0, file.total(1));
+        assertEquals(0, file.size(3));
+        assertEquals(0, file.get(NGramTable.pack("a", 0, 1)));
+        assertEquals(3, file.get(NGramTable.pack("ab", 0, 2)));
+        assertThrows(IllegalArgumentException.class, () -> file.forEach(1, (key, count) -> { }));
+    }
+
+    @Test
+    void listExportWritesTheSameFile() throws IOException {
+        // Les listes de NGramFrequency ne portent que des occurrences sur un int
+        NGramCounts counts = new CorpusAnalyzer().countNGrams("Été comme hiver, à l'école 😀 : " + "abc".repeat(300), ORDERS);
+        Path fromCounts = export(counts);
+        Path fromLists = dir.resolve("lists.ngb");
+        new BinaryFileExport().exportToCsv(fromLists.toString(), counts.unigrams(), counts.bigrams(), counts.trigrams());
+        assertArrayEquals(Files.readAllBytes(fromCounts), Files.readAllBytes(fromLists));
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        byte[] bytes = Files.readAllBytes(export(randomCounts(5, 300)));
+        Path truncated = dir.resolve("truncated.ngb");
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(truncated, Arrays.copyOf(bytes, length));
+            assertThrows(RuntimeException.class, () -> NGramBinaryFile.open(truncated), "longueur " + length);
+            RuntimeException e = assertThrows(RuntimeException.class, () -> NGramBinaryFile.open(truncated, false));
+            assertTrue(e.getMessage().contains(truncated.toString()), e.getMessage());
+        }
+    }
+
+    @Test
+    void checksumDetectsEveryCorruptedByte() throws IOException {
+        byte[] bytes = Files.readAllBytes(export(randomCounts(6, 300)));
+        Path corrupted = dir.resolve("corrupted.ngb");
+        for (int i = 0; i < bytes.length; i++) {
+            byte[] copy = bytes.clone();
+            copy[i] ^= (byte) (1 + i % 255);
+            Files.write(corrupted, copy);
+            assertThrows(RuntimeException.class, () -> NGramBinaryFile.open(corrupted), "octet " + i);
+        }
+    }
+
+    @Test
+    void corruptedDataIsReportedWithoutVerification() throws IOException {
+        byte[] bytes = Files.readAllBytes(export(randomCounts(7, 300)));
+        bytes[bytes.length - 1] ^= 0x55; // Dernier octet de l'index
+        Path corrupted = dir.resolve("corrupted.ngb");
+        Files.write(corrupted, bytes);
+        assertFalse(NGramBinaryFile.open(corrupted, false).checksumValid());
+    }
+
+    @Test
+    void rejectsOtherFormats() throws IOException {
+        Path other = dir.resolve("other.ngb");
+        Files.writeString(other, "NGram, Frequency\n# Unigrams\na,1\n");
+        RuntimeException e = assertThrows(RuntimeException.class, () -> NGramBinaryFile.open(other));
+        assertTrue(e.getMessage().startsWith("Format de fichier de n-grammes inconnu"), e.getMessage());
+        assertThrows(RuntimeException.class, () -> NGramBinaryFile.open(dir.resolve("missing.ngb")));
+    }
+}
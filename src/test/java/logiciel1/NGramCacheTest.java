@@ -0,0 +1,230 @@
+package logiciel1;
+
+import static logiciel1.NGramAssertions.assertSameCounts;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests de {@link NGramCache} : entrées retrouvées ou recalculées, corpus modifiés, éviction,
+ * nettoyage de l'index, entrées corrompues, écritures qui échouent et utilisation par plusieurs threads.
+ */
+class NGramCacheTest {
+
+    private static final int[] ORDERS = {1, 2, 3};
+
+    @TempDir
+    Path dir;
+
+    private NGramCache cache(long maxBytes) {
+        return new NGramCache(dir.resolve("cache"), maxBytes);
+    }
+
+    private Path corpus(String name, String text) throws IOException {
+        Path file = dir.resolve(name);
+        Files.writeString(file, text);
+        return file;
+    }
+
+    private static NGramCounts reference(String text) {
+        return new CorpusAnalyzer().countNGrams(text, ORDERS);
+    }
+
+    private static List<Path> entries(NGramCache cache) throws IOException {
+        try (Stream<Path> files = Files.list(cache.directory())) {
+            return files.filter(f -> f.toString().endsWith(".ngb")).toList();
+        }
+    }
+
+    private static Properties index(NGramCache cache) throws IOException {
+        Properties index = new Properties();
+        try (InputStream in = Files.newInputStream(cache.directory().resolve("index.properties"))) {
+            index.load(in);
+        }
+        return index;
+    }
+
+    @Test
+    void secondLookupReusesTheEntry() throws IOException {
+        NGramCache cache = cache(1L << 30);
+        Path corpus = corpus("corpus.txt", "Été comme hiver, à l'école");
+        assertSameCounts(reference(Files.readString(corpus)), cache.counts(corpus, ORDERS), ORDERS);
+        Path entry = entries(cache).get(0);
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(0));
+        assertSameCounts(reference(Files.readString(corpus)), cache.counts(corpus, 3, 1, 2), ORDERS);
+        assertEquals(List.of(entry), entries(cache));
+        assertTrue(Files.getLastModifiedTime(entry).compareTo(FileTime.fromMillis(0)) > 0, "utilisation marquée");
+        assertTrue(index(cache).containsKey(corpus.toAbsolutePath().normalize().toString()));
+    }
+
+    @Test
+    void copiesShareOneEntryAndOrdersDoNot() throws IOException {
+        NGramCache cache = cache(1L << 30);
+        Path first = corpus("a.txt", "bonjour le monde");
+        Path copy = corpus("b.txt", "bonjour le monde");
+        cache.counts(first, ORDERS);
+        cache.counts(copy, ORDERS);
+        assertEquals(1, entries(cache).size());
+        assertEquals(2, index(cache).size());
+
+        assertSameCounts(new CorpusAnalyzer().countNGrams("bonjour le monde", 2), cache.counts(first, 2), 2);
+        assertEquals(2, entries(cache).size());
+    }
+
+    @Test
+    void changedCorpusIsRecounted() throws IOException {
+        NGramCache cache = cache(1L << 30);
+        Path corpus = corpus("corpus.txt", "abcd");
+        cache.counts(corpus, ORDERS);
+
+        Files.writeString(corpus, "abcde"); // Autre taille
+        assertSameCounts(reference("abcde"), cache.counts(corpus, ORDERS), ORDERS);
+
+        FileTime date = Files.getLastModifiedTime(corpus);
+        Files.writeString(corpus, "vwxyz"); // Même taille, autre date
+        Files.setLastModifiedTime(corpus, FileTime.fromMillis(date.toMillis() + 5_000));
+        assertSameCounts(reference("vwxyz"), cache.counts(corpus, ORDERS), ORDERS);
+    }
+
+    @Test
+    void restoredDateIsNotDetectedUntilTheIndexIsDeleted() throws IOException {
+        NGramCache cache = cache(1L << 30);
+        Path corpus = corpus("corpus.txt", "abcd");
+        cache.counts(corpus, ORDERS);
+        FileTime date = Files.getLastModifiedTime(corpus);
+
+        // Limite documentée : même taille et même date, le contenu n'est pas relu
+        Files.writeString(corpus, "wxyz");
+        Files.setLastModifiedTime(corpus, date);
+        assertSameCounts(reference("abcd"), cache.counts(corpus, ORDERS), ORDERS);
+
+        Files.delete(cache.directory().resolve("index.properties"));
+        assertSameCounts(reference("wxyz"), cache.counts(corpus, ORDERS), ORDERS);
+    }
+
+    @Test
+    void evictionKeepsTheNewestEntryAndPrunesTheIndex() throws IOException {
+        NGramCache cache = cache(1); // Plus petit que n'importe quelle entrée
+        for (int i = 0; i < 3; i++) {
+            String text = "corpus numéro " + i;
+            Path corpus = corpus("corpus" + i + ".txt", text);
+            assertSameCounts(reference(text), cache.counts(corpus, ORDERS), ORDERS);
+            assertEquals(1, entries(cache).size());
+            Properties index = index(cache);
+            assertEquals(1, index.size());
+            assertTrue(index.containsKey(corpus.toAbsolutePath().normalize().toString()));
+        }
+        assertEquals(1, cache.evict());
+        assertEquals(0, cache.size());
+        assertEquals(0, index(cache).size());
+    }
+
+    @Test
+    void deletedEntriesArePrunedAndRecounted() throws IOException {
+        NGramCache cache = cache(1L << 30);
+        Path kept = corpus("kept.txt", "premier corpus");
+        Path lost = corpus("lost.txt", "second corpus");
+        cache.counts(kept, ORDERS);
+        cache.counts(lost, ORDERS);
+        assertEquals(2, entries(cache).size());
+
+        for (Path entry : entries(cache)) {
+            if (entry.getFileName().toString().startsWith(NGramCache.contentHash(lost))) {
+                Files.delete(entry);
+            }
+        }
+        assertEquals(0, cache.evict());
+        Properties index = index(cache);
+        assertEquals(1, index.size());
+        assertTrue(index.containsKey(kept.toAbsolutePath().normalize().toString()));
+
+        assertSameCounts(reference("second corpus"), cache.counts(lost, ORDERS), ORDERS);
+        assertEquals(2, index(cache).size());
+    }
+
+    @Test
+    void corruptedEntryIsRecounted() throws IOException {
+        NGramCache cache = cache(1L << 30);
+        Path corpus = corpus("corpus.txt", "Été comme hiver");
+        cache.counts(corpus, ORDERS);
+        Path entry = entries(cache).get(0);
+        Files.writeString(entry, "pas un fichier de n-grammes");
+        assertSameCounts(reference("Été comme hiver"), cache.counts(corpus, ORDERS), ORDERS);
+        assertSameCounts(reference("Été comme hiver"), NGramBinaryFile.open(entry), ORDERS);
+    }
+
+    @Test
+    void failedWriteLeavesNoTemporaryFile() throws IOException {
+        NGramCache cache = cache(1L << 30);
+        Path corpus = corpus("corpus.txt", "Été comme hiver");
+        cache.counts(corpus, ORDERS);
+        Path entry = entries(cache).get(0);
+        Files.delete(entry);
+        Files.createDirectories(entry.resolve("bloque")); // Le renommage vers l'entrée échoue
+
+        assertThrows(RuntimeException.class, () -> cache.counts(corpus, ORDERS));
+        try (Stream<Path> files = Files.list(cache.directory())) {
+            assertEquals(List.of(), files.filter(f -> f.toString().endsWith(".tmp")).toList());
+        }
+    }
+
+    @Test
+    void indexLinesInAnotherFormatAreIgnored() throws IOException {
+        NGramCache cache = cache(1L << 30);
+        Path corpus = corpus("corpus.txt", "abc");
+        Files.writeString(cache.directory().resolve("index.properties"),
+                corpus.toAbsolutePath().normalize().toString().replace("\\", "\\\\") + "=3:12:inconnu\nautre=pas-d-empreinte\n");
+        assertSameCounts(reference("abc"), cache.counts(corpus, ORDERS), ORDERS);
+        assertEquals(1, index(cache).size());
+    }
+
+    @Test
+    void parallelLookupsKeepEveryCorpusInTheIndex() throws Exception {
+        NGramCache cache = cache(1L << 30);
+        List<Path> corpora = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            corpora.add(corpus("corpus" + i + ".txt", ("texte " + i + " ").repeat(1 + i * 500)));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            for (int round = 0; round < 2; round++) {
+                List<Future<NGramBinaryFile>> futures = new ArrayList<>();
+                for (Path corpus : corpora) {
+                    futures.add(pool.submit(() -> cache.counts(corpus, ORDERS)));
+                }
+                for (int i = 0; i < corpora.size(); i++) {
+                    assertSameCounts(reference(Files.readString(corpora.get(i))), futures.get(i).get(), ORDERS);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(corpora.size(), entries(cache).size());
+        assertEquals(corpora.size(), index(cache).size());
+    }
+
+    @Test
+    void rejectsInvalidArguments() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> cache(-1));
+        NGramCache cache = cache(1L << 30);
+        Path corpus = corpus("corpus.txt", "abc");
+        assertThrows(IllegalArgumentException.class, () -> cache.counts(corpus));
+        assertThrows(IllegalArgumentException.class, () -> cache.counts(corpus, NGramTable.MAX_ORDER + 1));
+        assertThrows(RuntimeException.class, () -> cache.counts(dir.resolve("missing.txt"), ORDERS));
+    }
+}
@@ -0,0 +1,136 @@
+package logiciel1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests de {@link ParallelCorpusAnalyzer} : sur des textes aléatoires découpés en très petits morceaux,
+ * les comptes fusionnés sont ceux du comptage séquentiel d'origine ({@code replaceAll("\\s+", "").trim()}
+ * puis une sous-chaîne par position), pour une chaîne comme pour un fichier projeté en petites fenêtres.
+ */
+class ParallelCorpusAnalyzerTest {
+
+    private static final int[] ORDERS = {1, 2, 3};
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Le comptage séquentiel d'origine de {@link CorpusAnalyzer#countNGram(String, int)}.
+     */
+    private static Map<String, Integer> reference(String contenu, int n) {
+        contenu = contenu.replaceAll("\\s+", "").trim();
+        Map<String, Integer> freq = new HashMap<>();
+        for (int i = 0; i <= contenu.length() - n; i++) {
+            String ngram = contenu.substring(i, i + n);
+            freq.put(ngram, freq.getOrDefault(ngram, 0) + 1);
+        }
+        return freq;
+    }
+
+    /**
+     * Un texte aléatoire avec espaces de tous types (dont {@code \u000b}), caractères de contrôle
+     * en début et en fin, et paires de surrogates.
+     */
+    private static String randomText(Random random) {
+        String[] alphabet = {"a", "b", "e", "é", "€", "😀", "𝄞", " ", "\t", "\n", "\r", "\f", "\u000b", "\u0001", "\u001f"};
+        String[] edges = {"", " ", "\u0001", "\u000b", "\u0000\t", "\u001f \u0002"};
+        StringBuilder sb = new StringBuilder(edges[random.nextInt(edges.length)]);
+        int length = random.nextInt(60);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet[random.nextInt(alphabet.length)]);
+        }
+        return sb.append(edges[random.nextInt(edges.length)]).toString();
+    }
+
+    private static void assertSameAsReference(String text, NGramCounts counts, String context) {
+        for (int n : ORDERS) {
+            Map<String, Integer> expected = reference(text, n);
+            assertEquals(expected, counts.table(n).toMap(), context + ", ordre " + n);
+            long total = 0;
+            for (int count : expected.values()) {
+                total += count;
+            }
+            assertEquals(total, counts.total(n), context + ", total d'ordre " + n);
+        }
+    }
+
+    @Test
+    void stringChunksMergeLikeSequentialCounting() {
+        Random random = new Random(5);
+        for (int chunkSize = 1; chunkSize <= 5; chunkSize++) {
+            try (ParallelCorpusAnalyzer analyzer = new ParallelCorpusAnalyzer(1 + chunkSize % 4, chunkSize)) {
+                for (int i = 0; i < 300; i++) {
+                    String text = randomText(random);
+                    String context = "morceaux de " + chunkSize + " : " + text.codePoints()
+                            .mapToObj(Integer::toHexString).toList();
+                    assertSameAsReference(text, analyzer.countNGrams(text, ORDERS), context);
+                    for (int n : ORDERS) {
+                        assertEquals(reference(text, n), analyzer.countNGram(text, n), context);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void surrogatePairsOnChunkBoundaries() {
+        String text = "\u0001😀😀a😀 𝄞\u000b😀b😀\u0001";
+        for (int chunkSize = 1; chunkSize <= 5; chunkSize++) {
+            try (ParallelCorpusAnalyzer analyzer = new ParallelCorpusAnalyzer(4, chunkSize)) {
+                assertSameAsReference(text, analyzer.countNGrams(text, ORDERS), "morceaux de " + chunkSize);
+            }
+        }
+    }
+
+    @Test
+    void mappedChunksMergeLikeSequentialCounting() throws IOException {
+        Random random = new Random(6);
+        Path file = dir.resolve("corpus.txt");
+        for (int i = 0; i < 150; i++) {
+            String text = randomText(random);
+            Files.writeString(file, text, StandardCharsets.UTF_8);
+            for (int chunkSize = 1; chunkSize <= 5; chunkSize++) {
+                try (ParallelCorpusAnalyzer analyzer = new ParallelCorpusAnalyzer(3, chunkSize)) {
+                    for (long windowSize : new long[] {4, 7, MappedCorpus.WINDOW_SIZE}) {
+                        MappedCorpus corpus = MappedCorpus.map(file, windowSize);
+                        assertSameAsReference(text, analyzer.countNGrams(corpus, ORDERS),
+                                "morceaux de " + chunkSize + ", fenêtres de " + windowSize + ", texte " + i);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void emptyAndBlankTextsHaveNoNGrams() throws IOException {
+        try (ParallelCorpusAnalyzer analyzer = new ParallelCorpusAnalyzer(2, 3)) {
+            for (String text : new String[] {"", " \t\n", "\u0001\u000b\u0001"}) {
+                assertSameAsReference(text, analyzer.countNGrams(text, ORDERS), "texte vide");
+                Path file = dir.resolve("vide.txt");
+                Files.writeString(file, text);
+                assertSameAsReference(text, analyzer.countNGrams(MappedCorpus.map(file, 4), ORDERS), "fichier vide");
+            }
+        }
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelCorpusAnalyzer(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelCorpusAnalyzer(1, 0));
+        try (ParallelCorpusAnalyzer analyzer = new ParallelCorpusAnalyzer(1, 1)) {
+            assertThrows(IllegalArgumentException.class, () -> analyzer.countNGrams("abc"));
+            assertThrows(IllegalArgumentException.class, () -> analyzer.countNGrams("abc", NGramTable.MAX_ORDER + 1));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import logiciel1.FileExport;
+import logiciel1.NGramCounts;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests d'{@link AnalysisPipeline} : scores et exports identiques à un comptage direct,
+ * corpus de même nom dans des dossiers différents, dossier d'export créé au besoin et corpus invalides.
+ */
+class AnalysisPipelineTest {
+
+    private static ExtendedLayoutEvaluator evaluator;
+    private static Map<String, CompiledKeymap> layouts;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void load() {
+        evaluator = ScoringFixtures.defaultEvaluator();
+        layouts = ScoringFixtures.compiledLayouts();
+    }
+
+    private Path corpus(String directory, String text) throws IOException {
+        Path file = dir.resolve(directory).resolve("corpus.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    void sameFileNameInDifferentDirectoriesGivesDistinctExports() throws IOException {
+        String frText = ScoringFixtures.sampleText() + " Ça gêne, À bientôt";
+        String enText = "the quick brown fox jumps over the lazy dog";
+        List<Path> corpora = List.of(corpus("fr", frText), corpus("en", enText));
+        Path output = dir.resolve("sorties").resolve("csv"); // N'existe pas encore
+
+        PipelineResult result = new AnalysisPipeline(layouts, evaluator, output, 2, 1).run(corpora);
+
+        assertEquals("0-corpus.txt.csv", AnalysisPipeline.exportName(0, corpora.get(0)));
+        assertEquals("1-corpus.txt.csv", AnalysisPipeline.exportName(1, corpora.get(1)));
+        FileExport exporter = new FileExport();
+        List<String> texts = List.of(frText, enText);
+        for (int i = 0; i < corpora.size(); i++) {
+            Path expected = dir.resolve("attendu" + i + ".csv");
+            exporter.export(expected.toString(), ScoringFixtures.counts(texts.get(i)));
+            Path actual = output.resolve(AnalysisPipeline.exportName(i, corpora.get(i)));
+            assertTrue(Files.exists(actual), actual.toString());
+            assertEquals(Files.readString(expected), Files.readString(actual));
+        }
+
+        assertEquals(corpora.size() * layouts.size(), result.scores().size());
+        int s = 0;
+        for (int i = 0; i < corpora.size(); i++) {
+            NGramCounts counts = ScoringFixtures.counts(texts.get(i));
+            for (Map.Entry<String, CompiledKeymap> layout : layouts.entrySet()) {
+                PipelineResult.Score score = result.scores().get(s++);
+                assertEquals(corpora.get(i).toString(), score.corpus());
+                assertEquals(layout.getKey(), score.layout());
+                assertEquals(evaluator.evaluate(PackedNGrams.of(counts, layout.getValue())), score.score(), 1e-12);
+            }
+        }
+        assertEquals(Files.size(corpora.get(0)) + Files.size(corpora.get(1)), result.stages().get(0).bytes());
+    }
+
+    @Test
+    void emptyCorpusAndNoExport() throws IOException {
+        Path empty = corpus("vide", "");
+        PipelineResult result = new AnalysisPipeline(layouts, evaluator, null, 1, 1).run(List.of(empty));
+        assertEquals(layouts.size(), result.scores().size());
+        for (PipelineResult.Score score : result.scores()) {
+            assertEquals(0.0, score.score());
+        }
+        assertEquals(3, result.stages().size()); // Lecture, comptage, évaluation
+    }
+
+    @Test
+    void invalidCorporaAreReported() throws IOException {
+        Path invalid = dir.resolve("invalide.txt");
+        Files.write(invalid, new byte[] {'a', 'b', (byte) 0xC3, 'c'});
+        AnalysisPipeline pipeline = new AnalysisPipeline(layouts, evaluator, dir.resolve("csv"), 2, 1);
+        RuntimeException error = assertThrows(RuntimeException.class, () -> pipeline.run(List.of(invalid)));
+        assertTrue(error.getMessage().contains("UTF-8"), error.getMessage());
+        assertThrows(RuntimeException.class, () -> pipeline.run(List.of(dir.resolve("absent.txt"))));
+
+        Path file = corpus("fr", "abc");
+        AnalysisPipeline blocked = new AnalysisPipeline(layouts, evaluator, file.resolve("csv"), 1, 1);
+        assertThrows(RuntimeException.class, () -> blocked.run(List.of(file)));
+    }
+
+    @Test
+    void rejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new AnalysisPipeline(layouts, evaluator, null, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new AnalysisPipeline(layouts, evaluator, null, 1, 0));
+    }
+}
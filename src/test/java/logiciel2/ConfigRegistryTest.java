@@ -0,0 +1,178 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests de {@link ConfigRegistry} sur une copie de la configuration dans un répertoire temporaire :
+ * dispositions lues en flux, rechargement d'un contenu modifié, identique ou invalide, et
+ * surveillance du répertoire.
+ */
+class ConfigRegistryTest {
+
+    private static final Path CONFIG = Path.of("src/main/resources/config");
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void copyConfig() throws IOException {
+        for (String fileName : new String[] {ConfigRegistry.KEYBOARDS, ConfigRegistry.KEYMAP, ConfigRegistry.WEIGHTS}) {
+            Files.copy(CONFIG.resolve(fileName), dir.resolve(fileName));
+        }
+    }
+
+    /**
+     * Remplace la première occurrence d'un texte dans un fichier de configuration.
+     */
+    private void edit(String fileName, String target, String replacement) throws IOException {
+        Path file = dir.resolve(fileName);
+        String content = Files.readString(file);
+        assertTrue(content.contains(target), target);
+        Files.writeString(file, content.replaceFirst(Pattern.quote(target), replacement));
+    }
+
+    @Test
+    void streamedLayoutsMatchTheFactory() {
+        try (ConfigRegistry config = ConfigRegistry.directory(dir)) {
+            KeyboardsJson keyboards = JsonLoader.loadKeyboards("config/keyboards.json");
+            assertEquals(keyboards.layouts.keySet(), config.layoutNames());
+            for (String name : config.layoutNames()) {
+                ExtendedKeyboardLayout expected = ExtendedKeyboardLayoutFactory.buildLayout(keyboards, name);
+                ExtendedKeyboardLayout actual = config.layout(name);
+                assertEquals(expected.labels(), actual.labels(), name);
+                for (String label : expected.labels()) {
+                    assertEquals(expected.findKey(label), actual.findKey(label), name + " : " + label);
+                }
+            }
+            assertThrows(RuntimeException.class, () -> config.layout("inconnu"));
+            assertThrows(RuntimeException.class, () -> config.compiled("inconnu"));
+        }
+    }
+
+    @Test
+    void editedFilesAreReloadedAndListenersCalled() throws IOException {
+        try (ConfigRegistry config = ConfigRegistry.directory(dir)) {
+            AtomicInteger calls = new AtomicInteger();
+            config.addListener(calls::incrementAndGet);
+            ExtendedKeyboardLayout fr = config.layout("FR");
+            CompiledKeymap compiled = config.compiled("FR");
+            String keyboardsHash = config.hash(ConfigRegistry.KEYBOARDS);
+
+            edit(ConfigRegistry.WEIGHTS, "\"sfb\": 1.0", "\"sfb\": 3.0");
+            assertTrue(config.reload());
+            assertEquals(1, calls.get());
+            assertEquals(3.0, config.weightProfiles().profiles.get("DEFAUT").sfb);
+            assertSame(fr, config.layout("FR"), "dispositions inchangées : rien n'est relu");
+            assertSame(compiled, config.compiled("FR"));
+
+            edit(ConfigRegistry.KEYBOARDS, "\"character\": \"a\", \"row\": 1, \"column\": 1,",
+                    "\"character\": \"a\", \"row\": 1, \"column\": 0,");
+            assertTrue(config.reload());
+            assertEquals(2, calls.get());
+            assertFalse(keyboardsHash.equals(config.hash(ConfigRegistry.KEYBOARDS)));
+            assertEquals(0, config.layout("FR").findKey("a").column());
+            assertNotSame(compiled, config.compiled("FR"));
+            assertEquals(0, config.compiled("FR").key(config.compiled("FR").keysFor('a')[0]).column());
+        }
+    }
+
+    @Test
+    void identicalContentReparsesNothing() throws IOException {
+        try (ConfigRegistry config = ConfigRegistry.directory(dir)) {
+            AtomicInteger calls = new AtomicInteger();
+            config.addListener(calls::incrementAndGet);
+            ExtendedKeyboardLayout fr = config.layout("FR");
+            KeymapJson keymap = config.keymap();
+            CompiledKeymap compiled = config.compiled("FR");
+            WeightProfilesJson weights = config.weightProfiles();
+
+            assertFalse(config.reload());
+            Files.write(dir.resolve(ConfigRegistry.KEYBOARDS), Files.readAllBytes(dir.resolve(ConfigRegistry.KEYBOARDS)));
+            assertFalse(config.reload());
+
+            assertEquals(0, calls.get());
+            assertNull(config.lastError());
+            assertSame(fr, config.layout("FR"));
+            assertSame(keymap, config.keymap());
+            assertSame(compiled, config.compiled("FR"));
+            assertSame(weights, config.weightProfiles());
+        }
+    }
+
+    @Test
+    void truncatedFileKeepsThePreviousConfig() throws IOException {
+        try (ConfigRegistry config = ConfigRegistry.directory(dir)) {
+            AtomicInteger calls = new AtomicInteger();
+            config.addListener(calls::incrementAndGet);
+            CompiledKeymap compiled = config.compiled("FR");
+            String hash = config.hash(ConfigRegistry.KEYBOARDS);
+            byte[] content = Files.readAllBytes(dir.resolve(ConfigRegistry.KEYBOARDS));
+
+            Files.write(dir.resolve(ConfigRegistry.KEYBOARDS), Arrays.copyOf(content, content.length / 2));
+            assertFalse(config.reload());
+            assertNotNull(config.lastError());
+            assertEquals(0, calls.get());
+            assertEquals(hash, config.hash(ConfigRegistry.KEYBOARDS));
+            assertSame(compiled, config.compiled("FR"));
+
+            Files.delete(dir.resolve(ConfigRegistry.KEYMAP));
+            assertFalse(config.reload());
+            assertNotNull(config.lastError());
+
+            Files.copy(CONFIG.resolve(ConfigRegistry.KEYMAP), dir.resolve(ConfigRegistry.KEYMAP));
+            Files.write(dir.resolve(ConfigRegistry.KEYBOARDS), content);
+            assertFalse(config.reload(), "contenu d'origine : rien n'a changé");
+            assertNull(config.lastError());
+            assertSame(compiled, config.compiled("FR"));
+        }
+    }
+
+    @Test
+    void watcherReloadsEditsUntilClosed() throws IOException, InterruptedException {
+        ConfigRegistry config = ConfigRegistry.directory(dir);
+        CountDownLatch reloaded = new CountDownLatch(1);
+        config.addListener(reloaded::countDown);
+        config.watch();
+        config.watch(); // Sans effet : déjà active
+        assertEquals(1, watcherThreads());
+
+        edit(ConfigRegistry.WEIGHTS, "\"sfb\": 1.0", "\"sfb\": 3.0");
+        assertTrue(reloaded.await(10, TimeUnit.SECONDS), "modification non détectée");
+        assertEquals(3.0, config.weightProfiles().profiles.get("DEFAUT").sfb);
+
+        config.close();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (watcherThreads() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, watcherThreads(), "le thread de surveillance doit s'arrêter");
+        config.close(); // Sans effet : déjà arrêtée
+
+        assertThrows(IllegalStateException.class, () -> ScoringFixtures.config().watch());
+    }
+
+    private static long watcherThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("config-watcher") && t.isAlive())
+                .count();
+    }
+}
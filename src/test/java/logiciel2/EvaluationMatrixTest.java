@@ -0,0 +1,132 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import logiciel1.NGramCache;
+import logiciel1.NGramCounts;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests de {@link EvaluationMatrix} et de {@link MatrixResult} : une cellule par combinaison,
+ * corpus de même nom dans des dossiers différents, scores et export CSV.
+ */
+class EvaluationMatrixTest {
+
+    private static ConfigRegistry config;
+    private static Map<String, ExtendedLayoutEvaluator> profiles;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void load() {
+        config = ScoringFixtures.config();
+        profiles = new LinkedHashMap<>();
+        config.weightProfiles().profiles.forEach((name, weights) -> profiles.put(name, weights.toEvaluator()));
+    }
+
+    private static EvaluationMatrix matrix(int threads) {
+        return new EvaluationMatrix(config.keyboards(), config.keymap(), profiles, threads);
+    }
+
+    private Path corpus(String directory, String text) throws IOException {
+        Path file = dir.resolve(directory).resolve("corpus.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    void sameFileNameInDifferentDirectoriesGivesDistinctCorpora() throws IOException {
+        Path fr = corpus("fr", "le chat mange la souris dans la cuisine");
+        Path en = corpus("en", "the quick brown fox jumps over the lazy dog");
+        MatrixResult result = matrix(3).evaluate(List.of(fr, en));
+
+        int layouts = config.keyboards().layouts.size();
+        assertEquals(layouts * 2 * profiles.size(), result.cells().size());
+        Set<String> combinations = new HashSet<>();
+        for (MatrixResult.Cell cell : result.cells()) {
+            combinations.add(cell.layout() + "|" + cell.corpus() + "|" + cell.profile());
+            String text = cell.corpus().equals(fr.toString()) ? Files.readString(fr) : Files.readString(en);
+            NGramCounts counts = ScoringFixtures.counts(text);
+            double expected = profiles.get(cell.profile()).evaluate(counts, config.compiled(cell.layout()));
+            assertEquals(expected, cell.score(), 1e-9, cell.toString());
+        }
+        assertEquals(result.cells().size(), combinations.size());
+        assertNotEquals(result.cells().get(0).score(), result.cells().get(profiles.size()).score());
+    }
+
+    @Test
+    void rejectsTheSameCorpusTwice() throws IOException {
+        Path fr = corpus("fr", "abc");
+        assertThrows(IllegalArgumentException.class, () -> matrix(1).evaluate(List.of(fr, fr)));
+        assertEquals(List.of(fr.toString(), dir.resolve("corpus.txt").toString()),
+                EvaluationMatrix.corpusNames(List.of(fr, dir.resolve("corpus.txt"))));
+    }
+
+    @Test
+    void countedCorporaScoreLikeFiles() throws IOException {
+        Path fr = corpus("fr", "Été comme hiver, à l'école");
+        MatrixResult fromFiles = matrix(2).evaluate(List.of(fr));
+        MatrixResult fromCounts = matrix(2).evaluateCounts(
+                Map.of(fr.toString(), ScoringFixtures.counts(Files.readString(fr))));
+        assertEquals(fromFiles.cells().size(), fromCounts.cells().size());
+        for (int i = 0; i < fromFiles.cells().size(); i++) {
+            MatrixResult.Cell a = fromFiles.cells().get(i);
+            MatrixResult.Cell b = fromCounts.cells().get(i);
+            assertEquals(List.of(a.layout(), a.corpus(), a.profile()), List.of(b.layout(), b.corpus(), b.profile()));
+            assertEquals(a.score(), b.score());
+        }
+    }
+
+    @Test
+    void cachedCountingIsTimedAndScoresLikeDirectCounting() throws IOException {
+        List<Path> corpora = List.of(corpus("fr", "le chat mange la souris"), corpus("en", "the quick brown fox"));
+        NGramCache cache = new NGramCache(dir.resolve("cache"), 1L << 30);
+        MatrixResult direct = matrix(2).evaluate(corpora);
+        for (int run = 0; run < 2; run++) { // Entrées calculées, puis relues depuis le cache
+            MatrixResult cached = matrix(2).evaluate(corpora, cache);
+            assertTrue(cached.countingNanos() > 0);
+            assertEquals(direct.cells().size(), cached.cells().size());
+            for (int i = 0; i < direct.cells().size(); i++) {
+                assertEquals(direct.cells().get(i).corpus(), cached.cells().get(i).corpus());
+                assertEquals(direct.cells().get(i).score(), cached.cells().get(i).score(), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void csvQuotesNamesAndUsesOneLineSeparator() throws IOException {
+        List<MatrixResult.Cell> cells = List.of(
+                new MatrixResult.Cell("FR", "corpus, partie \"1\".txt", "DEFAUT", 0.5, 10, 20),
+                new MatrixResult.Cell("EN", "simple.txt", "profil,2", 1.25, 30, 40));
+        Path csv = dir.resolve("matrice.csv");
+        new MatrixResult(cells, 0, 0, 0).writeCsv(csv);
+
+        String content = Files.readString(csv, StandardCharsets.UTF_8);
+        assertFalse(content.contains("\r"));
+        assertEquals("Disposition,Corpus,Profil,Score,Preparation (ns),Evaluation (ns)\n"
+                + "FR,\"corpus, partie \"\"1\"\".txt\",DEFAUT,0.5,10,20\n"
+                + "EN,simple.txt,\"profil,2\",1.25,30,40\n", content);
+    }
+
+    @Test
+    void rejectsNonPositiveThreadCount() {
+        assertThrows(IllegalArgumentException.class, () -> matrix(0));
+    }
+}
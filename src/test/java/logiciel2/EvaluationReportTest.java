@@ -0,0 +1,91 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import logiciel1.NGramCounts;
+import logiciel1.NGramTable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests d'{@link ExtendedLayoutEvaluator#evaluateDetailed} : le score est celui de l'évaluation simple,
+ * et les charges et mouvements du rapport sont ceux recomptés à partir des n-grammes.
+ */
+class EvaluationReportTest {
+
+    private static ConfigRegistry config;
+    private static ExtendedLayoutEvaluator evaluator;
+    private static NGramCounts counts;
+
+    @BeforeAll
+    static void load() {
+        config = ScoringFixtures.config();
+        evaluator = ScoringFixtures.defaultEvaluator();
+        counts = ScoringFixtures.counts(ScoringFixtures.sampleText() + " Ça gêne, À bientôt");
+    }
+
+    @Test
+    void detailedScoreIsTheScore() {
+        for (String layout : config.layoutNames()) {
+            double expected = evaluator.evaluate(counts, config.compiled(layout));
+            assertEquals(expected, evaluator.evaluateDetailed(counts, config.compiled(layout)).score(), layout);
+            assertEquals(expected, evaluator.evaluateDetailed(counts, config.layout(layout), config.keymap()).score(), layout);
+        }
+    }
+
+    @Test
+    void movementsMatchMovementTotals() {
+        for (String layout : config.layoutNames()) {
+            MovementTotals expected = ExtendedLayoutEvaluator.movementTotals(PackedNGrams.of(counts, config.compiled(layout)));
+            MovementTotals actual = evaluator.evaluateDetailed(counts, config.compiled(layout)).movements();
+            assertEquals(expected.totalOccurrences(), actual.totalOccurrences(), layout);
+            for (MovementType type : MovementType.values()) {
+                assertEquals(expected.count(type), actual.count(type), layout + " " + type);
+            }
+        }
+    }
+
+    @Test
+    void loadsCountEveryKeyOfEveryUnigram() {
+        for (String layout : config.layoutNames()) {
+            CompiledKeymap compiled = config.compiled(layout);
+            long[] fingers = new long[Finger.values().length];
+            long[] hands = new long[Hand.values().length];
+            long[] rows = new long[16];
+            counts.forEach(1, (key, count) -> {
+                for (int id : compiled.keysFor(NGramTable.charAt(key, 0))) {
+                    Key k = compiled.key(id);
+                    fingers[k.finger().ordinal()] += count;
+                    hands[k.hand().ordinal()] += count;
+                    rows[k.row()] += count;
+                }
+            });
+
+            EvaluationReport report = evaluator.evaluateDetailed(counts, compiled);
+            long keystrokes = 0;
+            for (Hand hand : Hand.values()) {
+                assertEquals(hands[hand.ordinal()], report.handLoad(hand), layout + " " + hand);
+                keystrokes += hands[hand.ordinal()];
+            }
+            for (Finger finger : Finger.values()) {
+                assertEquals(fingers[finger.ordinal()], report.fingerLoad(finger), layout + " " + finger);
+            }
+            for (int row = 0; row < rows.length; row++) {
+                assertEquals(rows[row], report.rowLoad(row), layout + " rangée " + row);
+            }
+            assertEquals(keystrokes, report.keystrokes());
+            assertTrue(keystrokes > counts.total(1), "les caractères à plusieurs touches comptent chaque touche");
+            assertEquals(0, report.rowLoad(-1));
+        }
+    }
+
+    @Test
+    void emptyCorpusGivesEmptyReport() {
+        EvaluationReport report = evaluator.evaluateDetailed(ScoringFixtures.counts(""), config.compiled("FR"));
+        assertEquals(0.0, report.score());
+        assertEquals(0, report.keystrokes());
+        assertEquals(0, report.movements().totalOccurrences());
+        assertTrue(report.summary().contains("LEFT 0.0%"), report.summary());
+    }
+}
@@ -0,0 +1,62 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import logiciel1.NGramCounts;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de {@link ExtendedLayoutEvaluator#evaluate(PackedNGrams)} : même score que l'évaluation
+ * sur des listes de n-grammes, et aucune allocation une fois le code chauffé.
+ */
+class ExtendedLayoutEvaluatorTest {
+
+    private static ConfigRegistry config;
+    private static NGramCounts counts;
+
+    @BeforeAll
+    static void load() {
+        config = ScoringFixtures.config();
+        counts = ScoringFixtures.sampleCounts();
+    }
+
+    private static ExtendedLayoutEvaluator evaluator() {
+        return ScoringFixtures.defaultEvaluator();
+    }
+
+    @Test
+    void packedScoreMatchesListScore() {
+        ExtendedLayoutEvaluator evaluator = evaluator();
+        for (String layout : config.layoutNames()) {
+            double expected = evaluator.evaluate(counts.unigrams(), counts.bigrams(), counts.trigrams(),
+                    config.layout(layout), config.keymap());
+            PackedNGrams packed = PackedNGrams.of(counts, config.compiled(layout));
+            assertEquals(expected, evaluator.evaluate(packed), 1e-12, layout);
+        }
+    }
+
+    @Test
+    void packedEvaluationDoesNotAllocate() {
+        ExtendedLayoutEvaluator evaluator = evaluator();
+        PackedNGrams packed = PackedNGrams.of(counts, config.compiled("FR"));
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        long threadId = Thread.currentThread().threadId();
+
+        double sum = 0;
+        for (int i = 0; i < 20_000; i++) { // Chauffe : compilation par le JIT
+            sum += evaluator.evaluate(packed);
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000; i++) {
+            sum += evaluator.evaluate(packed);
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+
+        assertEquals(0, after - before, "octets alloués par 1000 évaluations");
+        assertTrue(sum > 0); // Le résultat est utilisé : les appels ne peuvent pas être éliminés
+    }
+}
@@ -0,0 +1,99 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de {@link IncrementalScorer} : après des échanges aléatoires, le score et les variations
+ * annoncées sont ceux d'une réévaluation complète.
+ */
+class IncrementalScorerTest {
+
+    private static final double TOLERANCE = 1e-12;
+
+    private static ExtendedLayoutEvaluator evaluator;
+    private static PackedNGrams packed;
+
+    @BeforeAll
+    static void load() {
+        evaluator = ScoringFixtures.defaultEvaluator();
+        packed = PackedNGrams.of(ScoringFixtures.sampleCounts(), ScoringFixtures.config().compiled("FR"));
+    }
+
+    /**
+     * Les positions des touches de la disposition, suivies de {@code empty} positions vides sur une rangée supplémentaire.
+     */
+    private static MovementMatrix positions(int empty) {
+        CompiledKeymap compiled = packed.keymap();
+        Key[] keys = new Key[compiled.keyCount() + empty];
+        for (int id = 0; id < compiled.keyCount(); id++) {
+            keys[id] = compiled.key(id);
+        }
+        Finger[] fingers = {Finger.PINKY, Finger.RING, Finger.MIDDLE, Finger.INDEX};
+        for (int i = 0; i < empty; i++) {
+            keys[compiled.keyCount() + i] = new Key(9, i, fingers[i % fingers.length], i < empty / 2 ? Hand.LEFT : Hand.RIGHT, '\0');
+        }
+        return new MovementMatrix(keys);
+    }
+
+    @Test
+    void randomSwapsMatchFullReevaluation() {
+        MovementMatrix positions = positions(6);
+        int keyCount = packed.keymap().keyCount();
+        int[] positionOf = new int[keyCount];
+        for (int key = 0; key < keyCount; key++) {
+            positionOf[key] = key;
+        }
+        IncrementalScorer scorer = new IncrementalScorer(evaluator, packed, positions, positionOf);
+        assertEquals(evaluator.evaluate(packed, positions, positionOf), scorer.score(), TOLERANCE);
+
+        Random random = new Random(20_150);
+        int positionCount = keyCount + 6;
+        for (int i = 0; i < 2000; i++) {
+            int p = random.nextInt(positionCount);
+            int q = random.nextInt(10) == 0 ? p : random.nextInt(positionCount); // Parfois la même position
+            double before = evaluator.evaluate(packed, positions, positionOf);
+            double delta = scorer.swapDelta(p, q);
+
+            int[] swapped = positionOf.clone();
+            int kp = scorer.keyAt(p);
+            int kq = scorer.keyAt(q);
+            if (kp >= 0) swapped[kp] = q;
+            if (kq >= 0) swapped[kq] = p;
+            double after = evaluator.evaluate(packed, positions, swapped);
+            assertEquals(after - before, delta, TOLERANCE, "échange " + i + " : " + p + " <-> " + q);
+
+            if (random.nextBoolean()) {
+                scorer.swapDelta(random.nextInt(positionCount), random.nextInt(positionCount)); // Calcul abandonné
+            }
+            if (random.nextInt(4) != 0) {
+                scorer.swap(p, q);
+                positionOf = swapped;
+            }
+            assertEquals(evaluator.evaluate(packed, positions, positionOf), scorer.score(), TOLERANCE, "après l'échange " + i);
+            for (int key = 0; key < keyCount; key++) {
+                assertEquals(positionOf[key], scorer.positionOf(key));
+                assertEquals(key, scorer.keyAt(positionOf[key]));
+            }
+        }
+    }
+
+    @Test
+    void publicConstructorScoresLikeThePackedEvaluation() {
+        IncrementalScorer scorer = new IncrementalScorer(evaluator, packed);
+        assertEquals(evaluator.evaluate(packed), scorer.score(), TOLERANCE);
+        int keyCount = packed.keymap().keyCount();
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            scorer.swap(random.nextInt(keyCount), random.nextInt(keyCount));
+        }
+        int[] positionOf = new int[keyCount];
+        for (int key = 0; key < keyCount; key++) {
+            positionOf[key] = scorer.positionOf(key);
+        }
+        assertEquals(evaluator.evaluate(packed, packed.keymap().movements(), positionOf), scorer.score(), TOLERANCE);
+    }
+}
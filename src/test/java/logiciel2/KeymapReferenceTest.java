@@ -0,0 +1,219 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import logiciel1.NGramCounts;
+import logiciel1.NGramFrequency;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de {@link CompiledKeymap}, de {@link MovementMatrix} et du score contre le code d'origine :
+ * {@link KeymapService#getPhysicalKeysForChar(char, ExtendedKeyboardLayout, KeymapJson)},
+ * {@link MovementDetector} et la boucle d'évaluation sur des listes de n-grammes.
+ */
+class KeymapReferenceTest {
+
+    private static final String MISSING = "inexistant";
+
+    /**
+     * Le keymap fourni, complété de séquences dont des labels n'existent pas dans la disposition,
+     * de caractères au-delà de {@link CompiledKeymap#DENSE_LIMIT} et d'un label de la disposition
+     * redéfini vers une touche absente.
+     */
+    private static KeymapJson extendedKeymap(ExtendedKeyboardLayout layout) {
+        List<String> labels = layout.labels().stream().filter(l -> l.length() == 1).sorted().toList();
+        KeymapJson keymap = new KeymapJson();
+        keymap.charToKeySequence = new HashMap<>(ScoringFixtures.config().keymap().charToKeySequence);
+        keymap.charToKeySequence.put("ж", List.of(MISSING));
+        keymap.charToKeySequence.put("中", List.of(labels.get(0), MISSING));
+        keymap.charToKeySequence.put("☃", List.of(labels.get(1), labels.get(2), labels.get(3)));
+        keymap.charToKeySequence.put("ﬁ", List.of(labels.get(4), labels.get(5)));
+        keymap.charToKeySequence.put(labels.get(6), List.of(MISSING));
+        return keymap;
+    }
+
+    private static List<KeymapJson> keymaps(ExtendedKeyboardLayout layout) {
+        return List.of(ScoringFixtures.config().keymap(), extendedKeymap(layout));
+    }
+
+    @Test
+    void compiledKeysMatchKeymapServiceForEveryChar() {
+        ConfigRegistry config = ScoringFixtures.config();
+        for (String name : config.layoutNames()) {
+            ExtendedKeyboardLayout layout = config.layout(name);
+            for (KeymapJson keymap : keymaps(layout)) {
+                CompiledKeymap compiled = ExtendedKeyboardLayoutFactory.compile(layout, keymap);
+                int mapped = 0;
+                for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+                    List<Key> expected = KeymapService.getPhysicalKeysForChar((char) c, layout, keymap);
+                    int[] ids = compiled.keysFor((char) c);
+                    List<Key> actual = new ArrayList<>();
+                    for (int id : ids) {
+                        actual.add(compiled.key(id));
+                    }
+                    assertEquals(expected, actual, name + ", caractère U+" + Integer.toHexString(c));
+                    if (!Character.isSurrogate((char) c)) {
+                        assertArrayEquals(ids, compiled.keysForCodePoint(c));
+                    }
+                    if (!expected.isEmpty()) mapped++;
+                }
+                assertTrue(mapped > 26, name + " : " + mapped + " caractères seulement");
+            }
+            KeymapJson extended = extendedKeymap(layout);
+            CompiledKeymap compiled = ExtendedKeyboardLayoutFactory.compile(layout, extended);
+            assertEquals(0, compiled.keysFor('ж').length);
+            assertEquals(1, compiled.keysFor('中').length);
+            assertEquals(3, compiled.keysFor('☃').length);
+            assertEquals(2, compiled.keysFor('ﬁ').length);
+        }
+    }
+
+    @Test
+    void movementMatricesMatchMovementDetector() {
+        ConfigRegistry config = ScoringFixtures.config();
+        for (String name : config.layoutNames()) {
+            CompiledKeymap compiled = ExtendedKeyboardLayoutFactory.compile(config.layout(name),
+                    extendedKeymap(config.layout(name)));
+            MovementMatrix movements = compiled.movements();
+            int k = compiled.keyCount();
+            assertEquals(k, movements.keyCount());
+            assertTrue(k <= MovementMatrix.MAX_TRIGRAM_KEYS);
+            for (int a = 0; a < k; a++) {
+                for (int b = 0; b < k; b++) {
+                    Key ka = compiled.key(a);
+                    Key kb = compiled.key(b);
+                    assertEquals(MovementDetector.detectBigramMovement(ka, kb).ordinal(), movements.bigramOrdinal(a, b),
+                            name + " : " + compiled.label(a) + compiled.label(b));
+                    for (int c = 0; c < k; c++) {
+                        assertEquals(MovementDetector.detectTrigramMovement(ka, kb, compiled.key(c)).ordinal(),
+                                movements.trigramOrdinal(a, b, c),
+                                name + " : " + compiled.label(a) + compiled.label(b) + compiled.label(c));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void movementMatricesWithoutTrigramTableMatchMovementDetector() {
+        Random random = new Random(11);
+        Finger[] fingers = Finger.values();
+        Hand[] hands = Hand.values();
+        Key[] keys = new Key[MovementMatrix.MAX_TRIGRAM_KEYS + 44];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Key(random.nextInt(5), random.nextInt(15), fingers[random.nextInt(fingers.length)],
+                    hands[random.nextInt(hands.length)], (char) ('a' + i));
+        }
+        MovementMatrix movements = new MovementMatrix(keys);
+        for (int a = 0; a < keys.length; a++) {
+            for (int b = 0; b < keys.length; b++) {
+                assertEquals(MovementDetector.detectBigramMovement(keys[a], keys[b]).ordinal(), movements.bigramOrdinal(a, b));
+            }
+        }
+        for (int i = 0; i < 200_000; i++) {
+            int a = random.nextInt(keys.length);
+            int b = random.nextInt(keys.length);
+            int c = random.nextInt(keys.length);
+            assertEquals(MovementDetector.detectTrigramMovement(keys[a], keys[b], keys[c]).ordinal(),
+                    movements.trigramOrdinal(a, b, c));
+        }
+    }
+
+    /**
+     * La boucle d'évaluation d'origine : séquences de touches par {@link KeymapService}, mouvements
+     * par {@link MovementDetector}, bigrams de trois touches comptés comme des trigrams.
+     */
+    private static double referenceScore(double[] w, NGramCounts counts, ExtendedKeyboardLayout layout, KeymapJson keymap) {
+        long totalOccurrences = 0;
+        for (NGramFrequency f : counts.unigrams()) totalOccurrences += f.frequency();
+        for (NGramFrequency f : counts.bigrams()) totalOccurrences += f.frequency();
+        for (NGramFrequency f : counts.trigrams()) totalOccurrences += f.frequency();
+
+        double totalScore = 0.0;
+        for (NGramFrequency freq : counts.bigrams()) {
+            String bigram = freq.nGram();
+            if (bigram.length() != 2) continue;
+            List<Key> combined = new ArrayList<>(KeymapService.getPhysicalKeysForChar(bigram.charAt(0), layout, keymap));
+            combined.addAll(KeymapService.getPhysicalKeysForChar(bigram.charAt(1), layout, keymap));
+            if (combined.size() == 2) {
+                MovementType mt = MovementDetector.detectBigramMovement(combined.get(0), combined.get(1));
+                totalScore += bigramMovementScore(w, mt) * freq.frequency();
+            } else if (combined.size() == 3) {
+                MovementType mt = MovementDetector.detectTrigramMovement(combined.get(0), combined.get(1), combined.get(2));
+                totalScore += trigramMovementScore(w, mt) * freq.frequency();
+            }
+        }
+        for (NGramFrequency freq : counts.trigrams()) {
+            String trigram = freq.nGram();
+            if (trigram.length() != 3) continue;
+            List<Key> combined = new ArrayList<>(KeymapService.getPhysicalKeysForChar(trigram.charAt(0), layout, keymap));
+            combined.addAll(KeymapService.getPhysicalKeysForChar(trigram.charAt(1), layout, keymap));
+            combined.addAll(KeymapService.getPhysicalKeysForChar(trigram.charAt(2), layout, keymap));
+            if (combined.size() == 3) {
+                MovementType mt = MovementDetector.detectTrigramMovement(combined.get(0), combined.get(1), combined.get(2));
+                totalScore += trigramMovementScore(w, mt) * freq.frequency();
+            }
+        }
+        return (totalOccurrences == 0) ? totalScore : (totalScore / totalOccurrences);
+    }
+
+    private static double bigramMovementScore(double[] w, MovementType mt) {
+        return switch (mt) {
+            case SFB -> -w[0];
+            case CISEAU -> -w[1];
+            case LSB -> -w[2];
+            case ROULEMENT -> w[3];
+            case ALTERNANCE -> w[4];
+            default -> 0.0;
+        };
+    }
+
+    private static double trigramMovementScore(double[] w, MovementType mt) {
+        return switch (mt) {
+            case REDIRECTION -> -w[5];
+            case MAUVAISE_REDIRECTION -> -w[6];
+            case SKIPGRAM -> -w[7];
+            default -> 0.0;
+        };
+    }
+
+    @Test
+    void scoresMatchTheOriginalEvaluationLoop() {
+        ConfigRegistry config = ScoringFixtures.config();
+        double[] w = {3.5, 1.25, 0.75, 2.0, 0.5, 1.75, 4.0, 0.25};
+        ExtendedLayoutEvaluator evaluator = new ExtendedLayoutEvaluator(w[0], w[1], w[2], w[3], w[4], w[5], w[6], w[7]);
+        NGramCounts counts = ScoringFixtures.counts(ScoringFixtures.sampleText() + " ﬁn du 中☃ жﬁ☃ âîê ");
+        for (String name : config.layoutNames()) {
+            ExtendedKeyboardLayout layout = config.layout(name);
+            for (KeymapJson keymap : keymaps(layout)) {
+                double expected = referenceScore(w, counts, layout, keymap);
+                CompiledKeymap compiled = ExtendedKeyboardLayoutFactory.compile(layout, keymap);
+                double tolerance = 1e-12 * Math.max(1, Math.abs(expected));
+                assertEquals(expected, evaluator.evaluate(counts.unigrams(), counts.bigrams(), counts.trigrams(), layout, keymap),
+                        tolerance, name + " (listes)");
+                assertEquals(expected, evaluator.evaluate(counts, compiled), tolerance, name + " (tables)");
+                assertEquals(expected, evaluator.evaluate(PackedNGrams.of(counts, compiled)), tolerance, name + " (compacté)");
+            }
+        }
+    }
+
+    @Test
+    void defaultProfileMatchesTheOriginalEvaluationLoop() {
+        ConfigRegistry config = ScoringFixtures.config();
+        WeightProfilesJson.WeightsDTO profile = config.weightProfiles().profiles.get("DEFAUT");
+        double[] w = {profile.sfb, profile.ciseau, profile.lsb, profile.roulement, profile.alternance,
+                profile.redirection, profile.mauvaiseRedirection, profile.skipgram};
+        NGramCounts counts = ScoringFixtures.sampleCounts();
+        ExtendedLayoutEvaluator evaluator = ScoringFixtures.defaultEvaluator();
+        for (String name : config.layoutNames()) {
+            double expected = referenceScore(w, counts, config.layout(name), config.keymap());
+            assertEquals(expected, evaluator.evaluate(PackedNGrams.of(counts, config.compiled(name))), 1e-12, name);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringReader;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de {@link KeystrokeStreamEvaluator} : mouvements classés sur la suite des touches frappées,
+ * espaces ignorés, caractères inconnus, découpage du flux, et accord avec l'évaluation par n-grammes
+ * lorsque chaque caractère tient sur une touche.
+ */
+class KeystrokeStreamEvaluatorTest {
+
+    private static ExtendedLayoutEvaluator evaluator;
+    private static CompiledKeymap compiled;
+
+    @BeforeAll
+    static void load() {
+        evaluator = ScoringFixtures.defaultEvaluator();
+        compiled = ScoringFixtures.config().compiled("FR");
+    }
+
+    private static EvaluationReport stream(String text) {
+        KeystrokeStreamEvaluator stream = new KeystrokeStreamEvaluator(evaluator, compiled);
+        stream.accept(text);
+        return stream.report();
+    }
+
+    private static void assertSameReport(EvaluationReport expected, EvaluationReport actual) {
+        assertEquals(expected.score(), actual.score());
+        assertEquals(expected.keystrokes(), actual.keystrokes());
+        for (Finger finger : Finger.values()) {
+            assertEquals(expected.fingerLoad(finger), actual.fingerLoad(finger), finger.name());
+        }
+        for (int row = 0; row < Math.max(expected.rowCount(), actual.rowCount()); row++) {
+            assertEquals(expected.rowLoad(row), actual.rowLoad(row), "rangée " + row);
+        }
+        assertEquals(expected.movements().totalOccurrences(), actual.movements().totalOccurrences());
+        for (MovementType type : MovementType.values()) {
+            assertEquals(expected.movements().count(type), actual.movements().count(type), type.name());
+        }
+    }
+
+    @Test
+    void singleKeyTextScoresLikeNGrams() {
+        StringBuilder alphabet = new StringBuilder();
+        for (char c = 'a'; c <= 'z'; c++) {
+            if (compiled.keysFor(c).length == 1) {
+                alphabet.append(c);
+            }
+        }
+        Random random = new Random(19);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        // Sans espace ni caractère à plusieurs touches, bigrams et trigrams de touches et de caractères coïncident
+        EvaluationReport expected = evaluator.evaluateDetailed(
+                ScoringFixtures.counts(text.toString()), compiled);
+        EvaluationReport actual = stream(text.toString());
+        assertEquals(expected.score(), actual.score(), 1e-12);
+        assertEquals(20_000, actual.keystrokes());
+        assertEquals(expected.keystrokes(), actual.keystrokes());
+        for (MovementType type : MovementType.values()) {
+            assertEquals(expected.movements().count(type), actual.movements().count(type), type.name());
+        }
+    }
+
+    @Test
+    void multiKeyCharactersChainTheirKeys() {
+        char accented = 0; // Premier caractère obtenu par deux touches (touche morte ou Shift)
+        while (compiled.keysFor(accented).length != 2) {
+            accented++;
+        }
+        int[] keys = compiled.keysFor(accented);
+        int a = compiled.keysFor('a')[0];
+        int[] sequence = {a, keys[0], keys[1], a};
+
+        MovementMatrix movements = compiled.movements();
+        long[] expected = new long[MovementType.values().length];
+        double score = 0;
+        double[] weights = evaluator.movementWeights();
+        for (int i = 1; i < sequence.length; i++) {
+            int mt = movements.bigramOrdinal(sequence[i - 1], sequence[i]);
+            expected[mt]++;
+            score += weights[mt];
+            if (i >= 2) {
+                mt = movements.trigramOrdinal(sequence[i - 2], sequence[i - 1], sequence[i]);
+                expected[mt]++;
+                score += weights[mt];
+            }
+        }
+
+        EvaluationReport report = stream("a" + accented + "a");
+        assertEquals(4, report.keystrokes());
+        assertEquals(4 + 3 + 2, report.movements().totalOccurrences());
+        assertEquals(score / 9, report.score(), 1e-15);
+        for (MovementType type : MovementType.values()) {
+            assertEquals(expected[type.ordinal()], report.movements().count(type), type.name());
+        }
+    }
+
+    @Test
+    void whitespaceIsSkippedAndUnknownCharactersBreakTheSequence() {
+        assertSameReport(stream("bonjour"), stream(" bon\tjo\nur "));
+
+        assertEquals(0, compiled.keysFor('中').length);
+        EvaluationReport broken = stream("ab中cd");
+        assertEquals(4, broken.keystrokes());
+        assertEquals(4 + 2, broken.movements().totalOccurrences()); // "ab" et "cd", aucun trigram
+        assertSameReport(broken, stream("ab中中 中cd"));
+    }
+
+    @Test
+    void chunkedInputMatchesSingleCharacters() {
+        String text = ScoringFixtures.sampleText() + " Ça gêne À bientôt";
+        StringBuilder big = new StringBuilder();
+        while (big.length() < 200_000) { // Plusieurs blocs de lecture de 64 Ki caractères
+            big.append(text);
+        }
+
+        EvaluationReport fromReader = KeystrokeStreamEvaluator.evaluate(new StringReader(big.toString()), evaluator, compiled);
+        KeystrokeStreamEvaluator byChar = new KeystrokeStreamEvaluator(evaluator, compiled);
+        KeystrokeStreamEvaluator byArray = new KeystrokeStreamEvaluator(evaluator, compiled);
+        char[] chars = big.toString().toCharArray();
+        Random random = new Random(20);
+        for (int i = 0; i < chars.length; ) {
+            int length = Math.min(chars.length - i, 1 + random.nextInt(5_000));
+            byArray.accept(chars, i, length);
+            i += length;
+        }
+        for (char c : chars) {
+            byChar.accept(c);
+        }
+        assertSameReport(fromReader, byChar.report());
+        assertSameReport(fromReader, byArray.report());
+        assertSameReport(fromReader, stream(big.toString()));
+    }
+
+    @Test
+    void reportIsASnapshot() {
+        KeystrokeStreamEvaluator stream = new KeystrokeStreamEvaluator(evaluator, compiled);
+        stream.accept("abc");
+        EvaluationReport before = stream.report();
+        stream.accept("def");
+        assertEquals(3, before.keystrokes());
+        assertEquals(6, stream.report().keystrokes());
+
+        long fingers = 0;
+        for (Finger finger : Finger.values()) {
+            fingers += before.fingerLoad(finger);
+        }
+        assertEquals(3, fingers);
+    }
+}
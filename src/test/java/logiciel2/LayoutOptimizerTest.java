@@ -0,0 +1,82 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import logiciel1.NGramCounts;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de {@link LayoutOptimizer} : reproductibilité, touches bloquées et score du résultat.
+ */
+class LayoutOptimizerTest {
+
+    private static ConfigRegistry config;
+    private static ExtendedLayoutEvaluator evaluator;
+    private static NGramCounts counts;
+    private static LayoutOptimizer optimizer;
+
+    @BeforeAll
+    static void load() {
+        config = ScoringFixtures.config();
+        evaluator = ScoringFixtures.defaultEvaluator();
+        counts = ScoringFixtures.sampleCounts();
+        optimizer = new LayoutOptimizer(config.keyboards(), "FR", config.keymap(), evaluator, counts);
+    }
+
+    private static OptimizerOptions options(long seed, int threads) {
+        return new OptimizerOptions(seed, 4, threads, 2, 5_000, 1_000, 0, 1e-3, Set.of());
+    }
+
+    private static String positions(OptimizationResult result) {
+        StringBuilder sb = new StringBuilder();
+        for (KeyboardsJson.KeyDTO key : result.keys()) {
+            sb.append(key.character).append('@').append(key.row).append(',').append(key.column).append(' ');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void sameSeedGivesSameLayoutWhateverTheThreadCount() {
+        OptimizationResult single = optimizer.optimize(options(42, 1));
+        OptimizationResult parallel = optimizer.optimize(options(42, 4));
+        assertEquals(positions(single), positions(parallel));
+        assertEquals(single.score(), parallel.score());
+        assertEquals(single.evaluations(), parallel.evaluations());
+    }
+
+    @Test
+    void defaultChainCountDoesNotDependOnTheMachine() {
+        OptimizerOptions defaults = OptimizerOptions.defaults(1);
+        assertEquals(OptimizerOptions.DEFAULT_CHAINS, defaults.chains());
+        assertTrue(defaults.threads() >= 1 && defaults.threads() <= defaults.chains());
+    }
+
+    @Test
+    void resultIsScoredLikeTheExportedLayout() {
+        OptimizationResult result = optimizer.optimize(options(7, 2));
+        assertTrue(result.score() >= result.initialScore());
+        ExtendedKeyboardLayout layout = ExtendedKeyboardLayoutFactory.buildLayout(result.toKeyboardsJson(), result.layoutName());
+        assertEquals(evaluator.evaluate(counts, layout, config.keymap()), result.score(), 1e-12);
+        assertEquals(evaluator.evaluate(counts, config.layout("FR"), config.keymap()), result.initialScore(), 1e-12);
+    }
+
+    @Test
+    void lockedKeysDoNotMove() {
+        List<KeyboardsJson.KeyDTO> original = config.keyboards().layouts.get("FR");
+        Set<String> locked = Set.of(original.get(0).character, original.get(5).character, original.get(10).character);
+        OptimizationResult result = optimizer.optimize(options(3, 2).withLockedLabels(locked));
+        for (int i = 0; i < original.size(); i++) {
+            KeyboardsJson.KeyDTO before = original.get(i);
+            KeyboardsJson.KeyDTO after = result.keys().get(i);
+            assertEquals(before.character, after.character);
+            if (locked.contains(before.character)) {
+                assertEquals(before.row, after.row, before.character);
+                assertEquals(before.column, after.column, before.character);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+import logiciel1.NGramCounts;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de {@link MovementTotals} : avec n'importe quels poids, le produit scalaire des totaux
+ * donne le score d'une évaluation complète.
+ */
+class MovementTotalsTest {
+
+    private static final double TOLERANCE = 1e-12;
+
+    private static ConfigRegistry config;
+    private static NGramCounts counts;
+    private static PackedNGrams packed;
+
+    @BeforeAll
+    static void load() {
+        config = ScoringFixtures.config();
+        counts = ScoringFixtures.sampleCounts();
+        packed = PackedNGrams.of(counts, config.compiled("FR"));
+    }
+
+    private static double[] randomWeights(Random random) {
+        double[] weights = new double[MovementTotals.WEIGHT_COUNT];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = random.nextInt(5) == 0 ? 0.0 : random.nextDouble() * 4 - 1; // Poids nuls et négatifs compris
+        }
+        return weights;
+    }
+
+    private static ExtendedLayoutEvaluator evaluator(double[] w) {
+        return new ExtendedLayoutEvaluator(w[0], w[1], w[2], w[3], w[4], w[5], w[6], w[7]);
+    }
+
+    @Test
+    void randomWeightsScoreLikeFullEvaluation() {
+        MovementTotals totals = ExtendedLayoutEvaluator.movementTotals(packed);
+        Random random = new Random(17);
+        for (int i = 0; i < 200; i++) {
+            double[] weights = randomWeights(random);
+            ExtendedLayoutEvaluator evaluator = evaluator(weights);
+            double expected = evaluator.evaluate(packed);
+            assertEquals(expected, totals.score(weights), TOLERANCE, Arrays.toString(weights));
+            assertEquals(expected, totals.score(evaluator), TOLERANCE, Arrays.toString(weights));
+        }
+    }
+
+    @Test
+    void batchScoresMatchSingleVectors() {
+        MovementTotals totals = ExtendedLayoutEvaluator.movementTotals(packed);
+        Random random = new Random(18);
+        int vectors = 50;
+        double[] batch = new double[vectors * MovementTotals.WEIGHT_COUNT];
+        for (int v = 0; v < vectors; v++) {
+            System.arraycopy(randomWeights(random), 0, batch, v * MovementTotals.WEIGHT_COUNT, MovementTotals.WEIGHT_COUNT);
+        }
+        double[] scores = totals.scores(batch);
+        assertEquals(vectors, scores.length);
+        for (int v = 0; v < vectors; v++) {
+            double[] weights = Arrays.copyOfRange(batch, v * MovementTotals.WEIGHT_COUNT, (v + 1) * MovementTotals.WEIGHT_COUNT);
+            assertEquals(totals.score(weights), scores[v]);
+        }
+        assertEquals(0, totals.scores(new double[0]).length);
+    }
+
+    @Test
+    void totalsFromCountsMatchPackedTotals() {
+        for (String layout : config.layoutNames()) {
+            MovementTotals fromCounts = ExtendedLayoutEvaluator.movementTotals(counts, config.layout(layout), config.keymap());
+            MovementTotals fromPacked = ExtendedLayoutEvaluator.movementTotals(PackedNGrams.of(counts, config.compiled(layout)));
+            assertEquals(counts.total(1) + counts.total(2) + counts.total(3), fromCounts.totalOccurrences(), layout);
+            assertEquals(fromPacked.totalOccurrences(), fromCounts.totalOccurrences(), layout);
+            for (MovementType type : MovementType.values()) {
+                assertEquals(fromPacked.count(type), fromCounts.count(type), layout + " " + type);
+            }
+        }
+    }
+
+    @Test
+    void emptyCorpusScoresZero() {
+        MovementTotals totals = ExtendedLayoutEvaluator.movementTotals(
+                PackedNGrams.of(ScoringFixtures.counts(""), config.compiled("FR")));
+        assertEquals(0, totals.totalOccurrences());
+        assertEquals(0.0, totals.score(new double[] {1, 1, 1, 1, 1, 1, 1, 1}));
+    }
+
+    @Test
+    void countsAreCopied() {
+        long[] counts = new long[MovementType.values().length];
+        counts[MovementType.ROULEMENT.ordinal()] = 4;
+        MovementTotals totals = new MovementTotals(counts, 8);
+        counts[MovementType.ROULEMENT.ordinal()] = 100;
+        assertEquals(4, totals.count(MovementType.ROULEMENT));
+        assertEquals(0.5 * 2.0, totals.score(new double[] {0, 0, 0, 2.0, 0, 0, 0, 0}), TOLERANCE);
+    }
+
+    @Test
+    void rejectsWrongSizes() {
+        MovementTotals totals = ExtendedLayoutEvaluator.movementTotals(packed);
+        assertThrows(IllegalArgumentException.class, () -> new MovementTotals(new long[3], 0));
+        assertThrows(IllegalArgumentException.class, () -> totals.score(new double[MovementTotals.WEIGHT_COUNT - 1]));
+        assertThrows(IllegalArgumentException.class, () -> totals.scores(new double[MovementTotals.WEIGHT_COUNT + 1]));
+    }
+}
@@ -0,0 +1,79 @@
+package logiciel2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import logiciel1.CorpusAnalyzer;
+import logiciel1.NGramCounts;
+
+/**
+ * Données communes aux tests : configuration fournie avec le programme, évaluateur du profil
+ * {@code DEFAUT} et n-grammes du corpus d'exemple.
+ */
+final class ScoringFixtures {
+
+    /**
+     * Le corpus d'exemple fourni avec le programme.
+     */
+    static final Path SAMPLE_CORPUS = Path.of("src/main/resources/input/sample-corpus1.txt");
+
+    private static ConfigRegistry config;
+
+    private ScoringFixtures() {
+    }
+
+    /**
+     * @return la configuration du classpath, chargée une fois pour tous les tests
+     */
+    static synchronized ConfigRegistry config() {
+        if (config == null) {
+            config = ConfigRegistry.classpath();
+        }
+        return config;
+    }
+
+    /**
+     * @return un évaluateur avec les poids du profil {@code DEFAUT} de {@code weights.json}
+     */
+    static ExtendedLayoutEvaluator defaultEvaluator() {
+        return config().weightProfiles().profiles.get("DEFAUT").toEvaluator();
+    }
+
+    /**
+     * @return les dispositions compilées, par nom, dans l'ordre de {@code keyboards.json}
+     */
+    static Map<String, CompiledKeymap> compiledLayouts() {
+        Map<String, CompiledKeymap> layouts = new LinkedHashMap<>();
+        for (String layout : config().layoutNames()) {
+            layouts.put(layout, config().compiled(layout));
+        }
+        return layouts;
+    }
+
+    /**
+     * @return le texte du corpus d'exemple
+     */
+    static String sampleText() {
+        try {
+            return Files.readString(SAMPLE_CORPUS);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du fichier : " + SAMPLE_CORPUS, e);
+        }
+    }
+
+    /**
+     * @return les unigrams, bigrams et trigrams du corpus d'exemple
+     */
+    static NGramCounts sampleCounts() {
+        return counts(sampleText());
+    }
+
+    /**
+     * @return les unigrams, bigrams et trigrams d'un texte
+     */
+    static NGramCounts counts(String text) {
+        return new CorpusAnalyzer().countNGrams(text, 1, 2, 3);
+    }
+}
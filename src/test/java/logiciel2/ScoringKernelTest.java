@@ -0,0 +1,74 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de {@link ScoringKernel} : la version vectorielle ({@link VectorScoringKernel}) donne la somme
+ * de la boucle scalaire, à la borne documentée près, pour toutes les tailles autour de la largeur
+ * des registres, et le score vectorisé est celui de {@link ExtendedLayoutEvaluator#evaluate(PackedNGrams)}.
+ */
+class ScoringKernelTest {
+
+    /**
+     * L'écart maximal documenté par {@link ScoringKernel} : {@code n × ε × Σ|weights[types[i]] × counts[i]|}.
+     */
+    private static double bound(int[] types, long[] counts, double[] weights) {
+        double sum = 0.0;
+        for (int i = 0; i < counts.length; i++) {
+            sum += Math.abs(weights[types[i]] * counts[i]);
+        }
+        return Math.max(1, counts.length) * Math.ulp(1.0) * sum;
+    }
+
+    @Test
+    void moduleIsLoadedForTests() {
+        assertTrue(ScoringKernel.vectorized(), "Gradle doit lancer les tests avec --add-modules jdk.incubator.vector");
+    }
+
+    @Test
+    void vectorSumMatchesScalarSumAroundTheLaneCount() {
+        Random random = new Random(20);
+        int lanes = VectorScoringKernel.lanes();
+        double[] weights = new double[MovementType.values().length];
+        for (int n : new int[] {0, 1, lanes - 1, lanes, lanes + 1, 2 * lanes + 1, 10_007}) {
+            for (int round = 0; round < 50; round++) {
+                for (int t = 0; t < weights.length; t++) {
+                    weights[t] = (random.nextDouble() - 0.5) * 20; // Poids de signes opposés
+                }
+                int[] types = new int[n];
+                long[] counts = new long[n];
+                for (int i = 0; i < n; i++) {
+                    types[i] = random.nextInt(weights.length);
+                    counts[i] = random.nextInt(4) == 0 ? random.nextLong(1L << 40) : random.nextInt(1_000);
+                }
+                double scalar = ScoringKernel.scalarWeightedSum(types, counts, weights);
+                assertEquals(scalar, VectorScoringKernel.weightedSum(types, counts, weights),
+                        bound(types, counts, weights), n + " entrées, " + lanes + " voies");
+                assertEquals(scalar, ScoringKernel.weightedSum(types, counts, weights),
+                        bound(types, counts, weights), n + " entrées");
+            }
+        }
+    }
+
+    @Test
+    void vectorizedScoreMatchesPackedScore() {
+        ExtendedLayoutEvaluator evaluator = ScoringFixtures.defaultEvaluator();
+        double[] weights = evaluator.movementWeights();
+        for (CompiledKeymap compiled : ScoringFixtures.compiledLayouts().values()) {
+            PackedNGrams packed = PackedNGrams.of(ScoringFixtures.sampleCounts(), compiled);
+            double tolerance = bound(packed.movementIds(), packed.counts(), weights) / packed.totalOccurrences();
+            assertEquals(evaluator.evaluate(packed), evaluator.evaluateVectorized(packed), tolerance);
+        }
+    }
+
+    @Test
+    void rejectsArraysOfDifferentSizes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ScoringKernel.weightedSum(new int[2], new long[3], new double[MovementType.values().length]));
+    }
+}
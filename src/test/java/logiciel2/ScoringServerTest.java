@@ -0,0 +1,193 @@
+package logiciel2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import logiciel1.NGramCounts;
+import logiciel1.NGramFrequency;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de {@link ScoringServer} par HTTP, sur un port choisi par le système : scores de {@code /score}
+ * identiques à {@link ExtendedLayoutEvaluator#evaluateDetailed(logiciel1.NGramSource, CompiledKeymap)},
+ * requêtes invalides (400), mauvaises méthodes (405), corps trop gros (413), {@code /layouts} et {@code /stats}.
+ */
+class ScoringServerTest {
+
+    private static final String TEXT = "Été comme hiver, le renard brun saute par-dessus le chien paresseux. "
+            + "The quick brown fox jumps over the lazy dog; l'île où l'on s'arrête.";
+
+    private static ScoringServer server;
+    private static HttpClient client;
+
+    @BeforeAll
+    static void start() {
+        // Lue par le serveur HTTP du JDK à sa première création (voir ScoringServer)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = new ScoringServer(ScoringFixtures.config(), new InetSocketAddress("localhost", 0));
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    static void stop() {
+        server.close();
+        client.close();
+    }
+
+    private static URI uri(ScoringServer server, String path) {
+        return URI.create("http://localhost:" + server.address().getPort() + path);
+    }
+
+    private static HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> post(ScoringServer server, String path, Object body)
+            throws IOException, InterruptedException {
+        String json = body instanceof String s ? s : JsonLoader.MAPPER.writeValueAsString(body);
+        return send(HttpRequest.newBuilder(uri(server, path)).POST(HttpRequest.BodyPublishers.ofString(json)).build());
+    }
+
+    private static HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri(server, path)).GET().build());
+    }
+
+    private static JsonNode json(HttpResponse<String> response) throws IOException {
+        return JsonLoader.MAPPER.readTree(response.body());
+    }
+
+    /**
+     * Vérifie qu'un résultat de {@code /score} est le rapport détaillé de l'évaluateur.
+     */
+    private static void assertSameReport(EvaluationReport expected, JsonNode actual, double tolerance) {
+        String layout = actual.get("layout").asText();
+        assertEquals(expected.score(), actual.get("score").asDouble(), tolerance, layout);
+        assertEquals(expected.keystrokes(), actual.get("keystrokes").asLong(), layout);
+        for (Hand hand : Hand.values()) {
+            assertEquals(expected.handLoad(hand), actual.get("hands").get(hand.name()).asLong(), layout + " " + hand);
+        }
+        for (Finger finger : Finger.values()) {
+            assertEquals(expected.fingerLoad(finger), actual.get("fingers").get(finger.name()).asLong(), layout + " " + finger);
+        }
+        for (int row = 0; row < expected.rowCount(); row++) {
+            assertEquals(expected.rowLoad(row), actual.get("rows").get(Integer.toString(row)).asLong(), layout + " rangée " + row);
+        }
+        for (MovementType type : MovementType.values()) {
+            if (type != MovementType.UNKNOWN) {
+                assertEquals(expected.movements().count(type), actual.get("movements").get(type.name()).asLong(),
+                        layout + " " + type);
+            }
+        }
+    }
+
+    @Test
+    void textIsScoredLikeEvaluateDetailed() throws IOException, InterruptedException {
+        HttpResponse<String> response = post(server, "/score", Map.of("text", TEXT));
+        assertEquals(200, response.statusCode(), response.body());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+
+        JsonNode results = json(response).get("results");
+        List<String> layouts = List.copyOf(ScoringFixtures.config().layoutNames());
+        assertEquals(layouts.size(), results.size());
+        NGramCounts counts = ScoringFixtures.counts(TEXT);
+        ExtendedLayoutEvaluator evaluator = ScoringFixtures.defaultEvaluator();
+        for (int i = 0; i < layouts.size(); i++) {
+            assertEquals(layouts.get(i), results.get(i).get("layout").asText());
+            assertSameReport(evaluator.evaluateDetailed(counts, ScoringFixtures.config().compiled(layouts.get(i))),
+                    results.get(i), 0.0);
+        }
+    }
+
+    @Test
+    void ngramsAreScoredLikeEvaluateDetailed() throws IOException, InterruptedException {
+        NGramCounts counts = ScoringFixtures.counts(TEXT);
+        Map<String, Long> ngrams = new HashMap<>();
+        for (List<NGramFrequency> frequencies : List.of(counts.unigrams(), counts.bigrams(), counts.trigrams())) {
+            for (NGramFrequency f : frequencies) {
+                ngrams.put(f.nGram(), (long) f.frequency());
+            }
+        }
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("layout", "EN");
+        request.put("ngrams", ngrams);
+        request.put("profile", "CONFORT");
+        HttpResponse<String> response = post(server, "/score", request);
+        assertEquals(200, response.statusCode(), response.body());
+
+        JsonNode results = json(response).get("results");
+        assertEquals(1, results.size());
+        assertEquals("EN", results.get(0).get("layout").asText());
+        ExtendedLayoutEvaluator evaluator = ScoringFixtures.config().weightProfiles().profiles.get("CONFORT").toEvaluator();
+        // Tables remplies dans un autre ordre : la somme peut différer au dernier bit
+        assertSameReport(evaluator.evaluateDetailed(counts, ScoringFixtures.config().compiled("EN")), results.get(0), 1e-12);
+    }
+
+    @Test
+    void invalidRequestsAreRejected() throws IOException, InterruptedException {
+        List<Object> invalid = new ArrayList<>();
+        invalid.add(Map.of("text", TEXT, "ngrams", Map.of("ab", 1)));
+        invalid.add(Map.of("layout", "FR"));
+        invalid.add(Map.of("text", TEXT, "layout", "DVORAK"));
+        invalid.add(Map.of("text", TEXT, "profile", "INCONNU"));
+        invalid.add(Map.of("ngrams", Map.of("abcd", 1)));
+        invalid.add("{\"text\": ");
+        for (Object body : invalid) {
+            HttpResponse<String> response = post(server, "/score", body);
+            assertEquals(400, response.statusCode(), String.valueOf(body));
+            assertTrue(json(response).has("erreur"), response.body());
+        }
+    }
+
+    @Test
+    void wrongMethodsAreRejected() throws IOException, InterruptedException {
+        assertEquals(405, get("/score").statusCode());
+        assertEquals(405, post(server, "/layouts", "{}").statusCode());
+        assertEquals(405, post(server, "/stats", "{}").statusCode());
+    }
+
+    @Test
+    void oversizedBodiesAreRejected() throws IOException, InterruptedException {
+        try (ScoringServer small = new ScoringServer(ScoringFixtures.config(), new InetSocketAddress("localhost", 0), 1024)) {
+            assertEquals(200, post(small, "/score", Map.of("text", "a".repeat(900))).statusCode());
+            HttpResponse<String> response = post(small, "/score", Map.of("text", "a".repeat(4000)));
+            assertEquals(413, response.statusCode(), response.body());
+            assertEquals(200, post(small, "/score", Map.of("text", "bonjour")).statusCode());
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new ScoringServer(ScoringFixtures.config(), new InetSocketAddress("localhost", 0), 0));
+    }
+
+    @Test
+    void layoutsAndStatsAreListed() throws IOException, InterruptedException {
+        HttpResponse<String> layouts = get("/layouts");
+        assertEquals(200, layouts.statusCode());
+        List<String> names = new ArrayList<>();
+        json(layouts).forEach(node -> names.add(node.asText()));
+        assertEquals(List.copyOf(ScoringFixtures.config().layoutNames()), names);
+
+        long before = json(get("/stats")).get("requests").asLong();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, post(server, "/score", Map.of("text", TEXT, "layout", "FR")).statusCode());
+        }
+        JsonNode stats = json(get("/stats"));
+        assertEquals(before + 3, stats.get("requests").asLong());
+        assertTrue(stats.get("p50Micros").asLong() <= stats.get("p99Micros").asLong());
+        assertTrue(stats.get("p99Micros").asLong() <= stats.get("maxMicros").asLong());
+        assertEquals(before + 3, server.latencies().count());
+    }
+}